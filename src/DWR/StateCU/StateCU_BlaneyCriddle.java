@@ -77,6 +77,13 @@ Flag for modified/original Blaney-Criddle
 */
 private int __ktsw = StateCU_Util.MISSING_INT;
 
+/**
+Version of the curve data, incremented when curve positions or coefficients are set, used by
+StateCU_CropCoefficientEngine to know when cached coefficient tables need to be recomputed.
+Changes made directly to the arrays returned by the get methods are not detected.
+*/
+private int __curveVersion = 0;
+
 /**
 Construct a StateCU_BlaneyCriddle instance and set to missing and empty data.
 Number of coefficients (as per StateCU this is currently always 25 for perennial
@@ -181,6 +188,14 @@ public double getCkcp(int index) {
 	return __ckcp[index];
 }
 
+/**
+Return the version of the curve data, which is incremented each time curve positions or coefficients are set.
+@return the version of the curve data.
+*/
+public int getCurveVersion ()
+{	return __curveVersion;
+}
+
 /**
 Returns the data column header for the specifically checked data.
 @return Data column header.
@@ -412,6 +427,7 @@ public void restoreOriginal() {
 	__nckca = bc.__nckca;
 	__ckcp = bc.__ckcp;
 	__nckcp = bc.__nckcp;
+	++__curveVersion;
 	
 	_isClone = false;
 	_original = null;
@@ -432,6 +448,7 @@ public void setCurveValue ( int i, double coeff )
 		// Day of year - Perennial...
 		__ckcp[i] = coeff;
 	}
+	++__curveVersion;
 }
 
 /**
@@ -452,6 +469,7 @@ public void setCurveValues ( int i, int pos, double coeff )
 		__nckcp[i] = pos;
 		__ckcp[i] = coeff;
 	}
+	++__curveVersion;
 }
 
 /**
@@ -469,6 +487,7 @@ public void setCurvePosition(int i, int pos) {
 		// Day of year - Perennial...
 		__nckcp[i] = pos;
 	}
+	++__curveVersion;
 }
 
 /**
@@ -478,6 +497,7 @@ crop).  This should normally only be called by the constructor.
 */
 public void setFlag ( String flag )
 {	__flag = flag;
+	++__curveVersion;
 }
 
 /**
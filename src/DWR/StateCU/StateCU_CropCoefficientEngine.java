@@ -0,0 +1,385 @@
+// StateCU_CropCoefficientEngine - cached, bulk evaluation of StateCU crop coefficient curves
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateCU;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+Evaluate crop coefficients from StateCU_BlaneyCriddle and StateCU_PenmanMonteith curves, for example for
+sensitivity runs that evaluate the curves many times.
+The curve breakpoints are copied into primitive arrays and the coefficient at each whole day or percent
+is computed once for each curve, and is recomputed only when the curve version changes
+(see StateCU_BlaneyCriddle.getCurveVersion() and StateCU_PenmanMonteith.getCurveVersion()).
+Coefficients are linearly interpolated between curve positions.  Positions before the first or after the last
+curve position use the first or last coefficient.  If either coefficient for an interval is missing, the
+interpolated value is missing.  Curve positions are expected to be in increasing order.
+<p>
+Blaney-Criddle positions are percent of growing season (0 to 100) for annual crops and day of year (1 to 366)
+for perennial crops.  Penman-Monteith positions are percent (0 to 100) within a growth stage.
+<p>
+The cached tables are not synchronized.  Single-value methods should be called from one thread at a time;
+the bulk methods compute the tables before evaluating in parallel.
+*/
+public class StateCU_CropCoefficientEngine
+{
+
+/**
+Coefficient table for one curve, with one row per growth stage (one row for Blaney-Criddle).
+*/
+private static class CurveTable
+{
+	/**
+	Curve version when the table was computed.
+	*/
+	int version;
+	/**
+	Curve positions (day or percent) for each growth stage.
+	*/
+	double [][] positions;
+	/**
+	Curve coefficients for each growth stage.
+	*/
+	double [][] coefficients;
+	/**
+	First whole position in each table.
+	*/
+	int [] tableStart;
+	/**
+	Coefficient at each whole position from tableStart, for each growth stage.
+	*/
+	double [][] table;
+}
+
+/**
+Tables for each curve object.
+*/
+private Map<StateCU_Data,CurveTable> __tableMap = new IdentityHashMap<StateCU_Data,CurveTable>();
+
+/**
+Number of times that a table was computed, for new curves and curves that have changed.
+*/
+private long __tableComputeCount = 0;
+
+/**
+Construct an engine with no cached tables.
+*/
+public StateCU_CropCoefficientEngine ()
+{
+}
+
+/**
+Clear the cached tables.
+*/
+public void clear ()
+{
+	__tableMap.clear();
+}
+
+/**
+Compute the table for a curve.
+@param version curve version
+@param positions curve positions for each growth stage
+@param coefficients curve coefficients for each growth stage
+*/
+private CurveTable computeTable ( int version, double [][] positions, double [][] coefficients )
+{
+	CurveTable curveTable = new CurveTable();
+	curveTable.version = version;
+	curveTable.positions = positions;
+	curveTable.coefficients = coefficients;
+	curveTable.tableStart = new int[positions.length];
+	curveTable.table = new double[positions.length][];
+	for ( int igs = 0; igs < positions.length; igs++ ) {
+		double [] p = positions[igs];
+		if ( p.length == 0 ) {
+			curveTable.table[igs] = new double[0];
+			continue;
+		}
+		int start = (int)Math.floor(p[0]);
+		int end = (int)Math.ceil(p[p.length - 1]);
+		curveTable.tableStart[igs] = start;
+		double [] table = new double[end - start + 1];
+		for ( int i = 0; i < table.length; i++ ) {
+			table[i] = interpolate ( p, coefficients[igs], start + i );
+		}
+		curveTable.table[igs] = table;
+	}
+	++__tableComputeCount;
+	return curveTable;
+}
+
+/**
+Evaluate a table at a position.
+*/
+private static double evaluate ( CurveTable curveTable, int igs, double position )
+{
+	double [] table = curveTable.table[igs];
+	int i = (int)position - curveTable.tableStart[igs];
+	if ( (i >= 0) && (i < table.length) && (position == (int)position) ) {
+		return table[i];
+	}
+	return interpolate ( curveTable.positions[igs], curveTable.coefficients[igs], position );
+}
+
+/**
+Evaluate tables for many positions.  The tables are not modified so the crops can be evaluated in parallel.
+*/
+private static void evaluateTables ( final List<CurveTable> tableList, final int [] stages, final double [] positions,
+	final double [][] coefficients, boolean parallel )
+{
+	final int size = tableList.size();
+	int threadCount = Math.min(size, Runtime.getRuntime().availableProcessors());
+	if ( !parallel || (threadCount <= 1) ) {
+		evaluateTables ( tableList, stages, positions, coefficients, 0, size );
+		return;
+	}
+	ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+	try {
+		List<Future<Object>> futures = new ArrayList<Future<Object>>(threadCount);
+		int blockSize = (size + threadCount - 1)/threadCount;
+		for ( int blockStart = 0; blockStart < size; blockStart += blockSize ) {
+			final int start = blockStart;
+			final int end = Math.min(size, blockStart + blockSize);
+			futures.add ( executor.submit(new Callable<Object>() {
+				public Object call () {
+					evaluateTables ( tableList, stages, positions, coefficients, start, end );
+					return null;
+				}
+			}));
+		}
+		for ( Future<Object> future : futures ) {
+			future.get();
+		}
+	}
+	catch ( InterruptedException e ) {
+		Thread.currentThread().interrupt();
+		throw new RuntimeException ( "Interrupted evaluating crop coefficients.", e );
+	}
+	catch ( ExecutionException e ) {
+		throw new RuntimeException ( "Error evaluating crop coefficients.", e.getCause() );
+	}
+	finally {
+		executor.shutdownNow();
+	}
+}
+
+/**
+Evaluate tables for many positions, for a range of the table list.
+*/
+private static void evaluateTables ( List<CurveTable> tableList, int [] stages, double [] positions,
+	double [][] coefficients, int start, int end )
+{
+	for ( int i = start; i < end; i++ ) {
+		CurveTable curveTable = tableList.get(i);
+		int igs = stages[i];
+		double [] values = coefficients[i];
+		for ( int j = 0; j < positions.length; j++ ) {
+			values[j] = evaluate ( curveTable, igs, positions[j] );
+		}
+	}
+}
+
+/**
+Return the Blaney-Criddle crop coefficient at a position.
+@param bc Blaney-Criddle curve
+@param position percent of growing season for an annual crop or day of year for a perennial crop
+@return the crop coefficient, or StateCU_Util.MISSING_DOUBLE if missing
+*/
+public double getCoefficient ( StateCU_BlaneyCriddle bc, double position )
+{
+	return evaluate ( getTable(bc), 0, position );
+}
+
+/**
+Return the Penman-Monteith crop coefficient at a position in a growth stage.
+@param pm Penman-Monteith curve
+@param igs growth stage index (zero-index)
+@param percent percent of the growth stage
+@return the crop coefficient, or StateCU_Util.MISSING_DOUBLE if missing
+*/
+public double getCoefficient ( StateCU_PenmanMonteith pm, int igs, double percent )
+{
+	return evaluate ( getTable(pm), igs, percent );
+}
+
+/**
+Evaluate the Blaney-Criddle crop coefficients for many crops and positions.
+@param bcList Blaney-Criddle curves
+@param positions percent of growing season or day of year for each value, depending on the curve type
+@param coefficients array to receive the coefficients, dimensioned [bcList.size()][positions.length]
+@param parallel if true, evaluate the crops using a thread pool sized to the number of processors
+*/
+public void getCoefficients ( List<StateCU_BlaneyCriddle> bcList, double [] positions, double [][] coefficients,
+	boolean parallel )
+{
+	List<CurveTable> tableList = new ArrayList<CurveTable>(bcList.size());
+	int [] stages = new int[bcList.size()];
+	for ( StateCU_BlaneyCriddle bc : bcList ) {
+		tableList.add ( getTable(bc) );
+	}
+	evaluateTables ( tableList, stages, positions, coefficients, parallel );
+}
+
+/**
+Evaluate the Penman-Monteith crop coefficients for many crops and positions, for one growth stage of each crop.
+@param pmList Penman-Monteith curves
+@param stages growth stage index (zero-index) for each curve
+@param percents percent of the growth stage for each value
+@param coefficients array to receive the coefficients, dimensioned [pmList.size()][percents.length]
+@param parallel if true, evaluate the crops using a thread pool sized to the number of processors
+*/
+public void getCoefficients ( List<StateCU_PenmanMonteith> pmList, int [] stages, double [] percents,
+	double [][] coefficients, boolean parallel )
+{
+	List<CurveTable> tableList = new ArrayList<CurveTable>(pmList.size());
+	for ( StateCU_PenmanMonteith pm : pmList ) {
+		tableList.add ( getTable(pm) );
+	}
+	evaluateTables ( tableList, stages, percents, coefficients, parallel );
+}
+
+/**
+Return the crop coefficient at each whole position of a Blaney-Criddle curve, from the first to the last
+curve position (for example percent 0 to 100 for an annual crop or day 1 to 366 for a perennial crop).
+The returned array is shared with the engine and must not be modified.
+@param bc Blaney-Criddle curve
+@return the crop coefficient at each whole position
+*/
+public double [] getCoefficientTable ( StateCU_BlaneyCriddle bc )
+{
+	return getTable(bc).table[0];
+}
+
+/**
+Return the crop coefficient at each whole percent of a Penman-Monteith growth stage, from the first to the
+last curve position (usually 0 to 100).
+The returned array is shared with the engine and must not be modified.
+@param pm Penman-Monteith curve
+@param igs growth stage index (zero-index)
+@return the crop coefficient at each whole percent
+*/
+public double [] getCoefficientTable ( StateCU_PenmanMonteith pm, int igs )
+{
+	return getTable(pm).table[igs];
+}
+
+/**
+Return the table for a Blaney-Criddle curve, computing if the curve is new or has changed.
+*/
+private CurveTable getTable ( StateCU_BlaneyCriddle bc )
+{
+	CurveTable curveTable = __tableMap.get ( bc );
+	if ( (curveTable == null) || (curveTable.version != bc.getCurveVersion()) ) {
+		int [] nckc;
+		double [] ckc;
+		if ( bc.isAnnualCrop() ) {
+			nckc = bc.getNckca();
+			ckc = bc.getCkca();
+		}
+		else {
+			nckc = bc.getNckcp();
+			ckc = bc.getCkcp();
+		}
+		double [][] positions = new double[1][nckc.length];
+		double [][] coefficients = new double[1][];
+		for ( int i = 0; i < nckc.length; i++ ) {
+			positions[0][i] = nckc[i];
+		}
+		coefficients[0] = ckc.clone();
+		curveTable = computeTable ( bc.getCurveVersion(), positions, coefficients );
+		__tableMap.put ( bc, curveTable );
+	}
+	return curveTable;
+}
+
+/**
+Return the table for a Penman-Monteith curve, computing if the curve is new or has changed.
+*/
+private CurveTable getTable ( StateCU_PenmanMonteith pm )
+{
+	CurveTable curveTable = __tableMap.get ( pm );
+	if ( (curveTable == null) || (curveTable.version != pm.getCurveVersion()) ) {
+		double [][] kcday = pm.getKcday();
+		double [][] kcb = pm.getKcb();
+		double [][] positions = new double[kcday.length][];
+		double [][] coefficients = new double[kcb.length][];
+		for ( int igs = 0; igs < kcday.length; igs++ ) {
+			positions[igs] = kcday[igs].clone();
+			coefficients[igs] = kcb[igs].clone();
+		}
+		curveTable = computeTable ( pm.getCurveVersion(), positions, coefficients );
+		__tableMap.put ( pm, curveTable );
+	}
+	return curveTable;
+}
+
+/**
+Return the number of times that a table was computed, for new curves and curves that have changed.
+@return the number of times that a table was computed
+*/
+public long getTableComputeCount ()
+{
+	return __tableComputeCount;
+}
+
+/**
+Interpolate a curve at a position.
+@param positions curve positions, in increasing order
+@param coefficients curve coefficients
+@param position position to evaluate
+@return the interpolated coefficient, or StateCU_Util.MISSING_DOUBLE if missing
+*/
+static double interpolate ( double [] positions, double [] coefficients, double position )
+{
+	int n = positions.length;
+	if ( n == 0 ) {
+		return StateCU_Util.MISSING_DOUBLE;
+	}
+	if ( position <= positions[0] ) {
+		return coefficients[0];
+	}
+	if ( position >= positions[n - 1] ) {
+		return coefficients[n - 1];
+	}
+	int i = 0;
+	while ( position >= positions[i + 1] ) {
+		++i;
+	}
+	double c1 = coefficients[i];
+	double c2 = coefficients[i + 1];
+	if ( StateCU_Util.isMissing(c1) || StateCU_Util.isMissing(c2) ) {
+		return StateCU_Util.MISSING_DOUBLE;
+	}
+	return c1 + (c2 - c1)*(position - positions[i])/(positions[i + 1] - positions[i]);
+}
+
+}
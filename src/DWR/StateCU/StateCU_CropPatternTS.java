@@ -29,7 +29,10 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.RandomAccessFile;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 import RTi.TS.DateValueTS;
 import RTi.TS.TS;
@@ -48,6 +51,8 @@ The StateCU_CropPatternTS class is used to hold crop time series data (acreage/a
 Each instance has an identifier, which will match a StateCU_Location identifier,
 and a list of time series for various crops that are associated with the CU Location for a period of time.
 If an average annual analysis is done, the period may consist of one zero year.
+Methods that get data do not modify the object and are safe to call from multiple threads, for example to process
+locations in parallel, as long as no thread is modifying the same object.  Methods that set data are not synchronized.
 */
 public class StateCU_CropPatternTS extends StateCU_Data implements StateCU_ComponentValidator
 {
@@ -59,14 +64,19 @@ private String __filename = "";
 
 /**
 The list of crop time series.  The data type for each time series is the crop type.
+Unlike StateCU_IrrigationPracticeTS, which has a fixed set of fields that are stored as arrays of values with
+time series views created only when requested, the crops vary by location and the time series are the data:
+getCropPatternTS() returns the time series that callers (e.g., StateDMI fill commands) modify directly.
+Use getCropAreaMatrix() or getCropAreas() to process values without looking up time series.
 */
 private List<YearTS> __tslist = new ArrayList<>();
 
 /**
 The list of StateCU_Parcel observations, as an archive of observations to use with data filling.
 These are read from HydroBase by StateDMI ReadCropPatternTSFromHydroBase command.
+The parcels are in the order added and are indexed by year.
 */
-private List<StateCU_Parcel> __parcelList = new ArrayList<>();
+private StateCU_ParcelStore __parcelStore = new StateCU_ParcelStore ( false );
 
 /**
 Total acres (total of all crops) for each year in the period.
@@ -86,10 +96,14 @@ Units of the data in the file, typically acres.
 private String __units = "";
 
 /**
-Internal data that is used to set/get data so new DateTime objects don't need to be created each time.
-Only the year is manipulated.
+Date used to get and set time series values for a year, one for each thread so that
+the data can be read by multiple threads.  Only the year is manipulated.
 */
-private DateTime __temp_DateTime = new DateTime();
+private static final ThreadLocal<DateTime> __yearDateTime = new ThreadLocal<DateTime>() {
+	protected DateTime initialValue () {
+		return new DateTime();
+	}
+};
 
 /**
 List of crop types for the time series.  This is consistent with the data sub-types for the time series.
@@ -97,6 +111,14 @@ The list is maintained to simplify use at output.
 */
 private List<String> __cropNameList = null;
 
+/**
+Index of crop time series positions in __tslist, used by indexOf() to avoid searching the time series list.
+The key is the upper case crop name from the time series data type.
+The index is created when needed and is reset by every method that adds, removes, renames, or sorts time series.
+The index is replaced rather than modified so that it can be used by multiple threads that read the data.
+*/
+private volatile Map<String,Integer> __cropIndex = null;
+
 /**
 Construct a new StateCU_CropPatternTS object for the specified CU Location identifier.
 @param id StateCU_Location identifier.
@@ -146,7 +168,7 @@ This is used to store raw data (e.g., from HydroBase) so that later filling and
 @param parcel StateCU_Parcel to add.
 */
 public void addParcel ( StateCU_Parcel parcel ) {
-	__parcelList.add ( parcel );
+	__parcelStore.add ( parcel );
 	String routine = getClass().getSimpleName() + ".addParcel";
 	Message.printStatus(2, routine, "Adding parcel " + parcel.toString() );
 }
@@ -244,6 +266,7 @@ public YearTS addTS ( String cropName, boolean overwrite, boolean sortByCrop ) {
 		this.__tslist.set ( pos, yts );
 		this.__cropNameList.set ( pos, cropName );
 	}
+	resetCropIndex();
 	return yts;
 }
 
@@ -298,6 +321,45 @@ public static List<String> compare ( StateCU_CropPatternTS cds1, StateCU_CropPat
 	}
 }
 
+/**
+Create the crop index used by indexOf().  The first time series for a crop is indexed,
+consistent with searching the time series list.
+@return the new index, which is also saved for later lookups
+*/
+private Map<String,Integer> createCropIndex () {
+	int size = __tslist.size();
+	Map<String,Integer> cropIndex = new HashMap<>(size*2);
+	String prefix = "CropArea-";
+	for ( int i = 0; i < size; i++ ) {
+		YearTS yts = __tslist.get(i);
+		String dataType = yts.getDataType();
+		if ( (dataType != null) && dataType.regionMatches(true, 0, prefix, 0, prefix.length()) ) {
+			String key = dataType.substring(prefix.length()).toUpperCase(Locale.ROOT);
+			if ( !cropIndex.containsKey(key) ) {
+				cropIndex.put ( key, Integer.valueOf(i) );
+			}
+		}
+	}
+	__cropIndex = cropIndex;
+	return cropIndex;
+}
+
+/**
+Return the crop areas for all crops and years, as a matrix with a row for each crop in the order of getCropNames()
+and a column for each year in the period.  The matrix is a copy of the data, which can be used to process
+all the data without looking up the crops and years for each value.
+Missing values are returned as -999.0.
+@return the crop areas, indexed by [crop][year - getDate1().getYear()]
+*/
+public double [][] getCropAreaMatrix () {
+	int size = __tslist.size();
+	double [][] areas = new double[size][];
+	for ( int i = 0; i < size; i++ ) {
+		areas[i] = getCropAreas ( __tslist.get(i), null );
+	}
+	return areas;
+}
+
 /**
 Get the crop acreage for the given year.
 @return the crop acreage for the given year.
@@ -315,7 +377,7 @@ public double getCropArea (String crop_name, int year, boolean return_fraction)
 		return -999.0;
 	}
 	YearTS yts = __tslist.get(pos);
-	__temp_DateTime.setYear ( year );
+	DateTime yearDate = getYearDateTime ( year );
 	if ( return_fraction ) {
 		// Need to consider a total that is zero or missing.
 		double total_area = __total_area[year - __date1.getYear()];
@@ -328,7 +390,7 @@ public double getCropArea (String crop_name, int year, boolean return_fraction)
 		}
 		else {
 			// Total is an actual value so evaluate the specific value.
-			double value = yts.getDataValue ( __temp_DateTime );
+			double value = yts.getDataValue ( yearDate );
 			if ( value < 0.0 ) {
 				// Missing.
 				return -999.0;
@@ -340,8 +402,63 @@ public double getCropArea (String crop_name, int year, boolean return_fraction)
 	}
 	else {
 		// Will return missing value if that is what it is.
-		return yts.getDataValue ( __temp_DateTime );
+		return yts.getDataValue ( yearDate );
+	}
+}
+
+/**
+Return the areas for a crop for each year in the period.
+@param cropName Name of the crop, only the crop name without the leading "CropArea-".
+@param areas Array to receive the areas, or null to allocate a new array.
+The array must have a length of at least the number of years in the period.
+@return the areas for each year in the period, indexed by year - getDate1().getYear(),
+or null if the crop is not found.  Missing values are returned as -999.0.
+*/
+public double [] getCropAreas ( String cropName, double [] areas ) {
+	int pos = indexOf ( cropName );
+	if ( pos < 0 ) {
+		return null;
+	}
+	return getCropAreas ( __tslist.get(pos), areas );
+}
+
+/**
+Return the areas for all crops for a year.
+@param year Year to retrieve data.
+@param areas Array to receive the areas, or null to allocate a new array.
+The array must have a length of at least the number of crops.
+@return the areas for each crop, in the order of getCropNames(), or null if the year is outside the period.
+Missing values are returned as -999.0.
+*/
+public double [] getCropAreas ( int year, double [] areas ) {
+	if ( (year < __date1.getYear()) || (year > __date2.getYear()) ) {
+		return null;
+	}
+	int size = __tslist.size();
+	if ( areas == null ) {
+		areas = new double[size];
+	}
+	DateTime yearDate = getYearDateTime ( year );
+	for ( int i = 0; i < size; i++ ) {
+		areas[i] = __tslist.get(i).getDataValue ( yearDate );
 	}
+	return areas;
+}
+
+/**
+Return the areas for a crop time series for each year in the period.
+*/
+private double [] getCropAreas ( YearTS yts, double [] areas ) {
+	int year1 = __date1.getYear();
+	int year2 = __date2.getYear();
+	if ( areas == null ) {
+		areas = new double[year2 - year1 + 1];
+	}
+	for ( int year = year1; year <= year2; year++ ) {
+		DateTime yearDate = getYearDateTime ( year );
+		areas[year - year1] = yts.getDataValue ( yearDate );
+	}
+	return areas;
 }
 
 /**
@@ -441,11 +558,11 @@ public DateTime getDate2() {
 }
 
 /**
-Return the full parcel list.
-@return the list of StateCU_Parcel
+Return the full parcel list.  The list cannot be modified - use addParcel() to add parcels.
+@return an unmodifiable view of the list of StateCU_Parcel
 */
 public List<StateCU_Parcel> getParcelList () {
-	return this.__parcelList;
+	return this.__parcelStore.getParcelList();
 }
 
 /**
@@ -456,14 +573,12 @@ Return the parcels for a requested year and crop type.  These values can be used
 */
 public List<StateCU_Parcel> getParcelListForYearAndCropName ( int year, String crop ) {
 	List<StateCU_Parcel> parcels = new ArrayList<>();
-	int size = __parcelList.size();
+	// Only search the parcels for the requested year, if specified.
+	List<StateCU_Parcel> parcelList = (year > 0) ? __parcelStore.getParcelList(year) : __parcelStore.getParcelList();
+	int size = parcelList.size();
 	StateCU_Parcel parcel;
 	for ( int i = 0; i < size; i++ ) {
-		parcel = __parcelList.get(i);
-		if ( (year > 0) && (parcel.getYear() != year) ) {
-			// Requested year does not match.
-			continue;
-		}
+		parcel = parcelList.get(i);
 		if ( (crop != null) && !crop.equalsIgnoreCase(parcel.getCrop()) ) {
 			continue;
 		}
@@ -492,21 +607,39 @@ public String getUnits() {
 	return __units;
 }
 
+/**
+Return the date used to get and set time series values for a year.
+The date is specific to the current thread and must not be saved or used after calling other methods.
+@param year Year for the date.
+@return the date with the year set
+*/
+private static DateTime getYearDateTime ( int year ) {
+	DateTime date = __yearDateTime.get();
+	date.setYear ( year );
+	return date;
+}
+
 /**
 Determine the index of a crop time series within the list based on the crop name.
+The crop index is reset by the methods that change the time series list and the crop names
+(e.g., addTS(), removeCropName(), and translateCropName()).  Changing the data type of a time series directly
+is not detected.
 @param crop_name Crop to search for (without leading "CropArea-").
 @return index within the list (zero referenced) or -1 if not found.
 */
 public int indexOf ( String crop_name ) {
-	int size = __tslist.size();
-	YearTS yts = null;
-	for (int i = 0; i < size; i++) {
-		yts = __tslist.get(i);
-		if(yts.getDataType().equalsIgnoreCase("CropArea-"+crop_name)){
-			return i;
-		}
+	if ( crop_name == null ) {
+		return -1;
 	}
-	return -1;
+	Map<String,Integer> index = __cropIndex;
+	if ( index == null ) {
+		index = createCropIndex();
+	}
+	Integer pos = index.get ( crop_name.toUpperCase(Locale.ROOT) );
+	if ( pos == null ) {
+		return -1;
+	}
+	return pos.intValue();
 }
 
 /**
@@ -1211,32 +1344,39 @@ If no time series are available, the total will remain the same as previous, as
 public void refresh () {
 	int year1 = __date1.getYear();
 	int year2 = __date2.getYear();
+	for ( int year = year1; year <= year2; year++ ) {
+		refresh ( year );
+	}
+}
+
+/**
+Recalculate the total value for one year of data.  See refresh().
+*/
+private void refresh ( int year ) {
 	double total_area = 0.0;
 	double area = 0.0;
 	YearTS yts = null;
 	int size = __tslist.size();
-	for ( int year = year1; year <= year2; year++ ) {
-		__temp_DateTime.setYear ( year );
-		total_area = -999.0;
-		for ( int i = 0; i < size; i++ ) {
-			yts = __tslist.get(i);
-			area = yts.getDataValue ( __temp_DateTime );
-			if ( !yts.isDataMissing(area) ) {
-				if ( total_area < 0.0 ) {
-					// Total is missing so assign.
-					total_area = area;
-				}
-				else {
-					// Total is not missing so increment.
-					total_area += area;
-				}
+	DateTime yearDate = getYearDateTime ( year );
+	total_area = -999.0;
+	for ( int i = 0; i < size; i++ ) {
+		yts = __tslist.get(i);
+		area = yts.getDataValue ( yearDate );
+		if ( !yts.isDataMissing(area) ) {
+			if ( total_area < 0.0 ) {
+				// Total is missing so assign.
+				total_area = area;
+			}
+			else {
+				// Total is not missing so increment.
+				total_area += area;
 			}
 		}
-		if ( size != 0 ) {
-			__total_area[year - year1] = total_area;
-		}
-		// Otherwise leave the total as missing or zero as previous.
 	}
+	if ( size != 0 ) {
+		__total_area[year - __date1.getYear()] = total_area;
+	}
+	// Otherwise leave the total as missing or zero as previous.
 }
 
 /**
@@ -1250,6 +1390,7 @@ public void removeAllTS () {
 	if ( __tslist != null ) {
 		__tslist.clear();
 	}
+	resetCropIndex();
 }
 
 /**
@@ -1284,6 +1425,15 @@ public void removeCropName ( String crop_name ) {
 			--size;
 		}
 	}
+	resetCropIndex();
+}
+
+/**
+Reset the crop index so that it is created again the next time it is used.
+This must be called after time series are added, removed, renamed, or sorted.
+*/
+private void resetCropIndex () {
+	__cropIndex = null;
 }
 
 /**
@@ -1323,17 +1473,17 @@ throws Exception {
 		throw new Exception ( "Unable to find time series for \"" + cropName + "\"" );
 	}
 	// Set the data value.
-	__temp_DateTime.setYear ( year );
+	DateTime yearDate = getYearDateTime ( year );
 	double old_total = getTotalArea ( year );
-	double old_value = yts.getDataValue ( __temp_DateTime );
+	double old_value = yts.getDataValue ( yearDate );
 	if ( (flag != null) && !flag.isEmpty() ) {
 		// Set with flag.
-		yts.setDataValue ( __temp_DateTime, area, flag, -1 );
+		yts.setDataValue ( yearDate, area, flag, -1 );
 		yts.getDataFlagMetadataList();
 	}
 	else {
 		// Set with no flag.
-		yts.setDataValue ( __temp_DateTime, area );
+		yts.setDataValue ( yearDate, area );
 	}
 	// Reset the total by adjusting the old value (this performs better than looping through the crop time series).
 	if ( yts.isDataMissing(old_value) || yts.isDataMissing(area) ) {
@@ -1346,6 +1496,49 @@ throws Exception {
 	}
 }
 
+/**
+Set the areas for a crop for each year in the period.  This method will NOT add a new crop.
+The totals for all crops in each year will be reset to reflect the new values.
+@param cropName Crop name.
+@param areas Areas for the crop, indexed by year - getDate1().getYear().
+Values beyond the end of the period are ignored.
+@exception Exception if the time series for the crop cannot be found.
+*/
+public void setCropAreas ( String cropName, double [] areas )
+throws Exception {
+	YearTS yts = getCropPatternTS ( cropName );
+	if ( yts == null ) {
+		throw new Exception ( "Unable to find time series for \"" + cropName + "\"" );
+	}
+	int year1 = __date1.getYear();
+	int year2 = Math.min(__date2.getYear(), year1 + areas.length - 1);
+	for ( int year = year1; year <= year2; year++ ) {
+		DateTime yearDate = getYearDateTime ( year );
+		yts.setDataValue ( yearDate, areas[year - year1] );
+		refresh ( year );
+	}
+}
+
+/**
+Set the areas for all crops for a year.  This method will NOT add a new crop.
+Trying to set data outside the period will cause the values to be ignored (the period will not be extended).
+The total for all crops in the year will be reset to reflect the new values.
+@param year Year to set the areas.
+@param areas Areas for each crop, in the order of getCropNames().
+Values beyond the number of crops are ignored.
+*/
+public void setCropAreas ( int year, double [] areas ) {
+	if ( (year < __date1.getYear()) || (year > __date2.getYear()) ) {
+		return;
+	}
+	int size = Math.min(__tslist.size(), areas.length);
+	DateTime yearDate = getYearDateTime ( year );
+	for ( int i = 0; i < size; i++ ) {
+		__tslist.get(i).setDataValue ( yearDate, areas[i] );
+	}
+	refresh ( year );
+}
+
 /**
 Set the areas for each crop to zero.  This is useful, for example, when crop
 patterns are being processed from individual records and any record in a year
@@ -1381,7 +1574,7 @@ public void setCropAreasToZero ( int year, boolean setAllToZero ) {
 	}
 	// Loop through the requested period.
 	for ( int iyear = year1; iyear <= year2; iyear++ ) {
-		__temp_DateTime.setYear ( iyear );
+		DateTime yearDate = getYearDateTime ( iyear );
 		if ( size == 0 ) {
 			// No time series so set the total to zero.
 			__total_area[iyear - __date1.getYear()] = 0.0;
@@ -1397,7 +1590,7 @@ public void setCropAreasToZero ( int year, boolean setAllToZero ) {
 			for ( int i = 0; i < size; i++ ) {
 				yts = __tslist.get(i);
 				if ( setAllToZero ) {
-					yts.setDataValue ( __temp_DateTime, 0.0 );
+					yts.setDataValue ( yearDate, 0.0 );
 					if ( debug ) {
 					Message.printStatus ( 2, "StateCU_CropPatternTS.setCropAreasToZero",
 						"Setting " + _id + " " + iyear + " crop " + yts.getDataType() +
@@ -1405,8 +1598,8 @@ public void setCropAreasToZero ( int year, boolean setAllToZero ) {
 						String.format("%.3f", __total_area[iyear - __date1.getYear()]) );
 					}
 				}
-				else if ( yts.isDataMissing(yts.getDataValue(__temp_DateTime)) ) {
-					yts.setDataValue ( __temp_DateTime, 0.0 );
+				else if ( yts.isDataMissing(yts.getDataValue(yearDate)) ) {
+					yts.setDataValue ( yearDate, 0.0 );
 					if ( debug ) {
 					Message.printStatus ( 2, "StateCU_CropPatternTS.setCropAreasToZero",
 						"Setting " + _id + " " + iyear + " crop " + yts.getDataType() +
@@ -1416,7 +1609,7 @@ public void setCropAreasToZero ( int year, boolean setAllToZero ) {
 				}
 				else {
 					// Time series value was not missing, increment the total with the non-missing value.
-					double value = yts.getDataValue(__temp_DateTime);
+					double value = yts.getDataValue(yearDate);
 					__total_area[iyear - __date1.getYear()] += value;
 					if ( debug ) {
 						Message.printStatus ( 2, "StateCU_CropPatternTS.setCropAreasToZero",
@@ -1462,7 +1655,7 @@ public void setPatternUsingAreas ( int year, int ncrops, String [] crop_names, d
 	if ( (year < __date1.getYear()) || (year > __date2.getYear()) ) {
 		return;
 	}
-	__temp_DateTime.setYear ( year );
+	DateTime yearDate = getYearDateTime ( year );
 	int size = 0;
 	if ( crop_names != null ) {
 		size = crop_names.length;
@@ -1485,7 +1678,7 @@ public void setPatternUsingAreas ( int year, int ncrops, String [] crop_names, d
 		else if ( pos >= 0 ) {
 			yts = __tslist.get(pos);
 		}
-		yts.setDataValue ( __temp_DateTime, crop_areas[i] );
+		yts.setDataValue ( yearDate, crop_areas[i] );
 		// FIXME SAM 2007-10-03 Need to consolidate into refresh(year) and reuse code.
 		if ( total_area < 0.0 ) {
 			// Set the value (OK even if crop area is missing).
@@ -1512,7 +1705,7 @@ If the year is outside the period, then no action occurs.
 */
 public void setPatternUsingFractions ( int year, double total_area, int ncrops, String [] crop_names,
 	double [] crop_fractions ) {
-	__temp_DateTime.setYear ( year );
+	DateTime yearDate = getYearDateTime ( year );
 	if ( (year < __date1.getYear()) || (year > __date2.getYear()) ) {
 		return;
 	}
@@ -1535,7 +1728,7 @@ public void setPatternUsingFractions ( int year, double total_area, int ncrops,
 		else if ( pos >= 0 ) {
 			yts = __tslist.get(pos);
 		}
-		yts.setDataValue (__temp_DateTime,total_area*crop_fractions[i]);
+		yts.setDataValue (yearDate,total_area*crop_fractions[i]);
 	}
 }
 
@@ -1617,6 +1810,7 @@ private void sortTimeSeriesByCropName () {
 		tsList2.remove(i_earliest);
 	}
 	// The temporary lists will garbage collect.
+	resetCropIndex();
 }
 
 /**
@@ -1895,6 +2089,7 @@ throws Exception {
 		__tslist.remove ( old_crop_pos );
 		__cropNameList.remove ( old_crop_pos );
 	}
+	resetCropIndex();
 
 	if ( sortCropName ) {
 		sortTimeSeriesByCropName();
@@ -1929,7 +2124,7 @@ public StateCU_ComponentValidation validateComponent ( StateCU_DataSet dataset )
 		YearTS yts = null;
 		int size = __tslist.size();
 		for ( int year = year1; year <= year2; year++ ) {
-			__temp_DateTime.setYear ( year );
+			DateTime yearDate = getYearDateTime ( year );
 			areaTotal = getTotalArea ( year );
 			if ( !(areaTotal >= 0.0) ) {
 				validation.add(new StateCU_ComponentValidationProblem(this,
@@ -1938,7 +2133,7 @@ public StateCU_ComponentValidation validateComponent ( StateCU_DataSet dataset )
 			}
 			for ( int i = 0; i < size; i++ ) {
 				yts = __tslist.get(i);
-				area = yts.getDataValue ( __temp_DateTime );
+				area = yts.getDataValue ( yearDate );
 				crop = getCropNames().get(i);
 				if ( !(area >= 0.0) ) {
 					validation.add(new StateCU_ComponentValidationProblem(this,
@@ -30,9 +30,17 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import DWR.StateMod.StateMod_DataSetLoadMetrics;
 import DWR.StateMod.StateMod_DelayTable;
 import DWR.StateMod.StateMod_DiversionRight;
 import DWR.StateMod.StateMod_TS;
@@ -425,6 +433,54 @@ private int __ddcsw = StateCU_Util.MISSING_INT;
 private int __idaily = StateCU_Util.MISSING_INT;
 private double __admin_num = StateCU_Util.MISSING_DOUBLE;
 
+/**
+Metrics for the most recent readStateCUFile() call, or null if the data set has not been read.
+*/
+private StateMod_DataSetLoadMetrics __loadMetrics = null;
+
+/**
+Component to read in readStateCUFile(), and the result of the read.
+*/
+private static class ComponentRead
+{
+	/**
+	Component from the response file.
+	*/
+	DataSetComponent comp = null;
+	/**
+	Absolute path to the component file.
+	*/
+	String compfile = null;
+	/**
+	Response file line for the component, used in warnings.
+	*/
+	String iline = null;
+	/**
+	Component group to add the component to, or -1 to look up the group.
+	*/
+	int groupType = -1;
+	/**
+	Whether the component file is read.
+	*/
+	boolean readData = false;
+	/**
+	Data that were read.
+	*/
+	Object data = null;
+	/**
+	Exception reading the data, or null if no exception.
+	*/
+	Exception exception = null;
+	/**
+	Time to read the file, seconds.
+	*/
+	double seconds = 0.0;
+	/**
+	Bytes allocated by the thread that read the file, or -1 if not available.
+	*/
+	long allocatedBytes = -1;
+}
+
 /**
 Construct a blank data set.  It is expected that other information will be set
 during further processing.  Component groups are not initialized until a data set type is set.
@@ -678,6 +734,15 @@ public int getIsupply ()
 {	return __isupply;
 }
 
+/**
+Return the metrics for the most recent readStateCUFile() call, including bytes read, records, and read time
+for each component, and the total load time.
+@return the load metrics, or null if the data set has not been read
+*/
+public StateMod_DataSetLoadMetrics getLoadMetrics ()
+{	return __loadMetrics;
+}
+
 /**
 Return the starting year for the data set.
 @return the starting year for the data set.
@@ -1161,16 +1226,31 @@ throws IOException
 }
 
 /**
-Read the StateCU response file and return a StateCU_DataSet object.
+Read the StateCU response file and return a StateCU_DataSet object.  The component files are read sequentially.
 @param filename StateCU response file.
 @param read_all If true, all the data files mentioned in the response file will
 be read into memory, providing a complete data set for viewing and manipulation.
 */
 public static StateCU_DataSet readStateCUFile(String filename,boolean read_all )
 throws Exception
+{	return readStateCUFile ( filename, read_all, false );
+}
+
+/**
+Read the StateCU response file and return a StateCU_DataSet object.
+The time to read each component is available from getLoadMetrics() after the read.
+@param filename StateCU response file.
+@param read_all If true, all the data files mentioned in the response file will
+be read into memory, providing a complete data set for viewing and manipulation.
+@param parallel If true, component files are read in parallel using a thread pool sized to the number of
+processors.  The files are independent so the data set is the same as when read sequentially.
+*/
+public static StateCU_DataSet readStateCUFile(String filename,boolean read_all, boolean parallel )
+throws Exception
 {	String routine = "StateCU_DataSet.readStateCUFile";
 	String iline = null;
 	BufferedReader in = null;
+	long startTime = System.nanoTime();
 	Message.printStatus ( 1, routine, "Reading StateCU response file: " + filename );
 
 	// Set the data set directory to be used when opening the component files...
@@ -1184,6 +1264,7 @@ throws Exception
 	StateCU_DataSet dataset = new StateCU_DataSet ();
 	dataset.setDataSetDirectory ( f.getParent() );
 	dataset.setDataSetFileName ( f.getName() );
+	dataset.__loadMetrics = new StateMod_DataSetLoadMetrics();
 
 	// Add a data set component for the response and control files...
 
@@ -1296,6 +1377,7 @@ throws Exception
 
 	// Now loop through the remaining components...
 
+	List<ComponentRead> componentReadList = new ArrayList<ComponentRead>();
 	for ( int i = 0; i < size; i++ ) {
 		iline = (String)rcu_strings.get(i);
 		// Allocate new DataSetComponent instance...
@@ -1439,171 +1521,51 @@ throws Exception
 			if ( !f.isAbsolute() ) {
 				compfile =	dataset.getDataSetDirectory() + File.separator + compfile;
 			}
-			// List these in the order that they are normally
-			// processed/listed in StateDMI and other software...
-			//
-			// Climate Stations...
-			//
-			if ( comptype == COMP_CLIMATE_STATIONS ) {
-				try {
-					comp.setData ( StateCU_ClimateStation.readStateCUFile ( compfile ) );
-					dataset.getComponentForComponentType ( COMP_CLIMATE_STATIONS_GROUP ).addComponent( comp );
-				}
-				catch ( Exception e2 ) {
-					read_warning += "\n" + iline;
-					Message.printWarning ( 2, routine, e2 );
-				}
-			}
-			else if ( (comptype == COMP_TEMPERATURE_TS_MONTHLY_AVERAGE) ||
-					(comptype == COMP_PRECIPITATION_TS_MONTHLY) ) {
-				try {
-					comp.setData ( StateMod_TS.readTimeSeriesList ( compfile, null, null, null, true ) );
-					dataset.getComponentForComponentType ( COMP_CLIMATE_STATIONS_GROUP ).addComponent( comp );
-				}
-				catch ( Exception e2 ) {
-					read_warning += "\n" + iline;
-					Message.printWarning ( 2, routine, e2 );
-				}
-			}
-			else if ( comptype == COMP_FROST_DATES_TS_YEARLY ) {
-				try {	
-// TODO (JTS - 2005-01-17) throwing compile errors
-//					comp.setData (
-//					StateCU_FrostDatesTS.readTimeSeriesList
-//						( compfile, null, null,
-//						null, null, true ) );
-					dataset.getComponentForComponentType ( COMP_CLIMATE_STATIONS_GROUP ).addComponent( comp );
-				}
-				catch ( Exception e2 ) {
-					read_warning += "\n" + iline;
-					Message.printWarning ( 2, routine, e2 );
-				}
-			}
-			//
-			// Crop Characteristics...
-			//
-			else if ( comptype == COMP_CROP_CHARACTERISTICS ) {
-				try {
-					comp.setData ( StateCU_CropCharacteristics.readStateCUFile ( compfile ) );
-					dataset.getComponentForComponentType ( COMP_CROP_CHARACTERISTICS_GROUP ).addComponent( comp );
-				}
-				catch ( Exception e2 ) {
-					read_warning += "\n" + iline;
-					Message.printWarning ( 2, routine, e2 );
-				}
-			}
-			else if ( comptype == COMP_BLANEY_CRIDDLE ) {
-				try {
-					comp.setData ( StateCU_BlaneyCriddle.readStateCUFile ( compfile ) );
-					dataset.getComponentForComponentType ( COMP_CROP_CHARACTERISTICS_GROUP ).addComponent( comp );
-				}
-				catch ( Exception e2 ) {
-					read_warning += "\n" + iline;
-					Message.printWarning ( 2, routine, e2 );
-				}
-			}
-			else if ( comptype == COMP_PENMAN_MONTEITH ) {
-				try {
-					comp.setData ( StateCU_PenmanMonteith.readStateCUFile ( compfile ) );
-					dataset.getComponentForComponentType ( COMP_CROP_CHARACTERISTICS_GROUP ).addComponent( comp );
-				}
-				catch ( Exception e2 ) {
-					read_warning += "\n" + iline;
-					Message.printWarning ( 2, routine, e2 );
-				}
-			}
-			//
-			// Delay tables...
-			//
-			else if ( comptype == COMP_DELAY_TABLES_MONTHLY ) {
-				try {
-					// StateCU assumes percent (0-100) for values, which is indicated by the -1 flag...
-					comp.setData (
-					StateMod_DelayTable.readStateModFile ( compfile, true, -1 ) );
-					dataset.getComponentForComponentType ( COMP_DELAY_TABLES_GROUP ).addComponent( comp );
-				}
-				catch ( Exception e2 ) {
-					read_warning += "\n" + iline;
-					Message.printWarning ( 2, routine, e2 );
-				}
-			}
-			//
-			// CU Locations...
-			//
-			else if ( comptype == COMP_CU_LOCATIONS ) {
-				try {
-					comp.setData ( StateCU_Location.readStateCUFile( compfile ) );
-					dataset.getComponentForComponentType ( COMP_CU_LOCATIONS_GROUP ).addComponent( comp );
-				}
-				catch ( Exception e2 ) {
-					read_warning += "\n" + iline;
-					Message.printWarning ( 2, routine, e2 );
-				}
-			}
-			else if ( comptype == COMP_CROP_PATTERN_TS_YEARLY ) {
-				try {
-					comp.setData ( StateCU_CropPatternTS.readStateCUFile ( compfile, null, null ) );
-					dataset.getComponentForComponentType ( COMP_CU_LOCATIONS_GROUP ).addComponent( comp );
-				}
-				catch ( Exception e2 ) {
-					read_warning += "\n" + iline;
-					Message.printWarning ( 2, routine, e2 );
-				}
-			}
-			else if ( comptype == COMP_IRRIGATION_PRACTICE_TS_YEARLY ) {
-				try {
-					comp.setData ( StateCU_IrrigationPracticeTS.readStateCUFile ( compfile, null, null ) );
-					dataset.getComponentForComponentType ( COMP_CU_LOCATIONS_GROUP ).addComponent( comp );
-				}
-				catch ( Exception e2 ) {
-					read_warning += "\n" + iline;
-					Message.printWarning ( 2, routine, e2 );
-				}
-			}
-			else if ( comptype == COMP_DIVERSION_TS_MONTHLY ) {
-				try {
-					comp.setData ( StateMod_TS.readTimeSeriesList ( compfile, null, null, null, true ) );
-					dataset.getComponentForComponentType ( COMP_CU_LOCATIONS_GROUP ).addComponent( comp );
-				}
-				catch ( Exception e2 ) {
-					read_warning += "\n" + iline;
-					Message.printWarning ( 2, routine, e2 );
-				}
-			}
-			else if ( comptype == COMP_WELL_PUMPING_TS_MONTHLY ) {
-				try {
-					comp.setData ( StateMod_TS.readTimeSeriesList ( compfile, null, null, null, true ) );
-					dataset.getComponentForComponentType ( COMP_CU_LOCATIONS_GROUP ).addComponent( comp );
-				}
-				catch ( Exception e2 ) {
-					read_warning += "\n" + iline;
-					Message.printWarning ( 2, routine, e2 );
-				}
-			}
-			else if ( comptype == COMP_DIVERSION_RIGHTS ) {
-				try {
-					comp.setData ( StateMod_DiversionRight.readStateModFile( compfile ) );
-					dataset.getComponentForComponentType ( COMP_CU_LOCATIONS_GROUP ).addComponent( comp );
+			// Save the component to read below, in the order of the response file.
+			ComponentRead componentRead = new ComponentRead();
+			componentRead.comp = comp;
+			componentRead.compfile = compfile;
+			componentRead.iline = iline;
+			componentRead.groupType = readStateCUFile_LookupComponentGroup ( comptype );
+			// TODO (JTS - 2005-01-17) frost dates are added to the group but not read (StateCU_FrostDatesTS
+			// was throwing compile errors)
+			componentRead.readData = (componentRead.groupType >= 0) && (comptype != COMP_FROST_DATES_TS_YEARLY);
+			componentReadList.add ( componentRead );
+		}
+		catch ( Exception e ) {
+			Message.printWarning ( 1, routine, "Unexpected error for:\n\"" + iline + "\"" );
+			Message.printWarning ( 2, routine, e );
+		}
+	}
+	// Read the component files, in parallel if requested.  The files are independent of each other.
+	readStateCUFile_ReadComponents ( componentReadList, parallel );
+
+	// Set the data and add the components to the groups in the order of the response file,
+	// so that the data set is the same as when read sequentially.
+
+	for ( ComponentRead componentRead : componentReadList ) {
+		comp = componentRead.comp;
+		iline = componentRead.iline;
+		try {
+			if ( componentRead.readData ) {
+				if ( componentRead.exception == null ) {
+					comp.setData ( componentRead.data );
 				}
-				catch ( Exception e2 ) {
+				dataset.__loadMetrics.addComponentRead ( comp, componentRead.compfile, componentRead.seconds,
+					componentRead.allocatedBytes, (componentRead.exception != null) );
+				if ( componentRead.exception != null ) {
 					read_warning += "\n" + iline;
-					Message.printWarning ( 2, routine, e2 );
+					Message.printWarning ( 2, routine, componentRead.exception );
+					continue;
 				}
 			}
-			else if (comptype==COMP_DELAY_TABLE_ASSIGNMENT_MONTHLY){
-				try {
-					comp.setData ( StateCU_DelayTableAssignment.readStateCUFile ( compfile ) );
-					dataset.getComponentForComponentType ( COMP_CU_LOCATIONS_GROUP ).addComponent( comp );
-				}
-				catch ( Exception e2 ) {
-					read_warning += "\n" + iline;
-					Message.printWarning ( 2, routine, e2 );
-				}
+			if ( componentRead.groupType >= 0 ) {
+				dataset.getComponentForComponentType ( componentRead.groupType ).addComponent( comp );
 			}
 			// Files not specifically handled (e.g., GIS)...
 			else {
 				// Add to the component group but don't read in the data...
-				int gtype = dataset.lookupComponentGroupTypeForComponent ( comptype );
+				int gtype = dataset.lookupComponentGroupTypeForComponent ( comp.getComponentType() );
 				if ( gtype < 0 ) {
 					Message.printWarning ( 2, routine,
 					"Group for component is unknown.  Not adding: " + comp.getComponentName() );
@@ -1616,6 +1578,11 @@ throws Exception
 			Message.printWarning ( 2, routine, e );
 		}
 	}
+	dataset.__loadMetrics.setTotalSeconds ( (System.nanoTime() - startTime)/1.0e9 );
+	// The metrics are only output when requested with debug (see also getLoadMetrics())
+	if ( Message.isDebugOn ) {
+		Message.printDebug ( 1, routine, "Load metrics:\n" + dataset.__loadMetrics.toJSON() );
+	}
 	if ( unneeded_warning.length() > 0 ) {
 		Message.printWarning ( 2, routine, lookupDataSetName(dataset.getDataSetType()) +
 		" data set.  Unnecessary data files will not be visible:" + unneeded_warning );
@@ -1629,6 +1596,162 @@ throws Exception
 	return dataset;
 }
 
+/**
+This method is a helper routine to readStateCUFile().  It returns the component group for components
+that are read, or -1 if the group needs to be looked up (e.g., for spatial data).
+@param comptype Component type.
+@return the component group type.
+*/
+private static int readStateCUFile_LookupComponentGroup ( int comptype )
+{	// List these in the order that they are normally
+	// processed/listed in StateDMI and other software...
+	switch ( comptype ) {
+		case COMP_CLIMATE_STATIONS:
+		case COMP_TEMPERATURE_TS_MONTHLY_AVERAGE:
+		case COMP_PRECIPITATION_TS_MONTHLY:
+		case COMP_FROST_DATES_TS_YEARLY:
+			return COMP_CLIMATE_STATIONS_GROUP;
+		case COMP_CROP_CHARACTERISTICS:
+		case COMP_BLANEY_CRIDDLE:
+		case COMP_PENMAN_MONTEITH:
+			return COMP_CROP_CHARACTERISTICS_GROUP;
+		case COMP_DELAY_TABLES_MONTHLY:
+			return COMP_DELAY_TABLES_GROUP;
+		case COMP_CU_LOCATIONS:
+		case COMP_CROP_PATTERN_TS_YEARLY:
+		case COMP_IRRIGATION_PRACTICE_TS_YEARLY:
+		case COMP_DIVERSION_TS_MONTHLY:
+		case COMP_WELL_PUMPING_TS_MONTHLY:
+		case COMP_DIVERSION_RIGHTS:
+		case COMP_DELAY_TABLE_ASSIGNMENT_MONTHLY:
+			return COMP_CU_LOCATIONS_GROUP;
+		default:
+			return -1;
+	}
+}
+
+/**
+This method is a helper routine to readStateCUFile().  It reads the data for one component and saves the
+data or exception, the read time, and the bytes allocated in the ComponentRead.
+This method only uses the ComponentRead and can be called on any thread.
+@param componentRead Component to read.
+*/
+private static void readStateCUFile_ReadComponent ( ComponentRead componentRead )
+{	int comptype = componentRead.comp.getComponentType();
+	String compfile = componentRead.compfile;
+	long startTime = System.nanoTime();
+	long startAllocatedBytes = StateMod_DataSetLoadMetrics.getCurrentThreadAllocatedBytes();
+	try {
+		if ( comptype == COMP_CLIMATE_STATIONS ) {
+			componentRead.data = StateCU_ClimateStation.readStateCUFile ( compfile );
+		}
+		else if ( (comptype == COMP_TEMPERATURE_TS_MONTHLY_AVERAGE) ||
+			(comptype == COMP_PRECIPITATION_TS_MONTHLY) ||
+			(comptype == COMP_DIVERSION_TS_MONTHLY) ||
+			(comptype == COMP_WELL_PUMPING_TS_MONTHLY) ) {
+			componentRead.data = StateMod_TS.readTimeSeriesList ( compfile, null, null, null, true );
+		}
+		else if ( comptype == COMP_CROP_CHARACTERISTICS ) {
+			componentRead.data = StateCU_CropCharacteristics.readStateCUFile ( compfile );
+		}
+		else if ( comptype == COMP_BLANEY_CRIDDLE ) {
+			componentRead.data = StateCU_BlaneyCriddle.readStateCUFile ( compfile );
+		}
+		else if ( comptype == COMP_PENMAN_MONTEITH ) {
+			componentRead.data = StateCU_PenmanMonteith.readStateCUFile ( compfile );
+		}
+		else if ( comptype == COMP_DELAY_TABLES_MONTHLY ) {
+			// StateCU assumes percent (0-100) for values, which is indicated by the -1 flag...
+			componentRead.data = StateMod_DelayTable.readStateModFile ( compfile, true, -1 );
+		}
+		else if ( comptype == COMP_CU_LOCATIONS ) {
+			componentRead.data = StateCU_Location.readStateCUFile( compfile );
+		}
+		else if ( comptype == COMP_CROP_PATTERN_TS_YEARLY ) {
+			componentRead.data = StateCU_CropPatternTS.readStateCUFile ( compfile, null, null );
+		}
+		else if ( comptype == COMP_IRRIGATION_PRACTICE_TS_YEARLY ) {
+			componentRead.data = StateCU_IrrigationPracticeTS.readStateCUFile ( compfile, null, null );
+		}
+		else if ( comptype == COMP_DIVERSION_RIGHTS ) {
+			componentRead.data = StateMod_DiversionRight.readStateModFile( compfile );
+		}
+		else if ( comptype == COMP_DELAY_TABLE_ASSIGNMENT_MONTHLY ) {
+			componentRead.data = StateCU_DelayTableAssignment.readStateCUFile ( compfile );
+		}
+	}
+	catch ( Exception e ) {
+		componentRead.exception = e;
+	}
+	componentRead.seconds = (System.nanoTime() - startTime)/1.0e9;
+	if ( startAllocatedBytes >= 0 ) {
+		long allocatedBytes = StateMod_DataSetLoadMetrics.getCurrentThreadAllocatedBytes();
+		if ( allocatedBytes >= 0 ) {
+			componentRead.allocatedBytes = allocatedBytes - startAllocatedBytes;
+		}
+	}
+}
+
+/**
+This method is a helper routine to readStateCUFile().  It reads the data for the components that are read.
+If reading in parallel, the largest files are started first because the climate time series files usually
+take most of the time.
+@param componentReadList Components from the response file.
+@param parallel If true, read using a thread pool sized to the number of processors.
+*/
+private static void readStateCUFile_ReadComponents ( List<ComponentRead> componentReadList, boolean parallel )
+{	final List<ComponentRead> readList = new ArrayList<ComponentRead>();
+	for ( ComponentRead componentRead : componentReadList ) {
+		if ( componentRead.readData ) {
+			readList.add ( componentRead );
+		}
+	}
+	int threadCount = Math.min(readList.size(), Runtime.getRuntime().availableProcessors());
+	if ( !parallel || (threadCount <= 1) ) {
+		for ( ComponentRead componentRead : readList ) {
+			readStateCUFile_ReadComponent ( componentRead );
+		}
+		return;
+	}
+	final long [] fileSizes = new long[readList.size()];
+	List<Integer> order = new ArrayList<Integer>(readList.size());
+	for ( int i = 0; i < readList.size(); i++ ) {
+		fileSizes[i] = new File(readList.get(i).compfile).length();
+		order.add ( Integer.valueOf(i) );
+	}
+	Collections.sort ( order, new Comparator<Integer>() {
+		public int compare ( Integer i1, Integer i2 ) {
+			return Long.compare ( fileSizes[i2.intValue()], fileSizes[i1.intValue()] );
+		}
+	});
+	ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+	try {
+		List<Future<Object>> futures = new ArrayList<Future<Object>>(readList.size());
+		for ( Integer i : order ) {
+			final ComponentRead componentRead = readList.get(i.intValue());
+			futures.add ( executor.submit(new Callable<Object>() {
+				public Object call () {
+					readStateCUFile_ReadComponent ( componentRead );
+					return null;
+				}
+			}));
+		}
+		for ( Future<Object> future : futures ) {
+			future.get();
+		}
+	}
+	catch ( InterruptedException e ) {
+		Thread.currentThread().interrupt();
+		throw new RuntimeException ( "Interrupted reading StateCU data set components.", e );
+	}
+	catch ( ExecutionException e ) {
+		throw new RuntimeException ( "Error reading StateCU data set components.", e.getCause() );
+	}
+	finally {
+		executor.shutdownNow();
+	}
+}
+
 /**
 Read a complete StateCU data set from an XML data set file.
 @param filename XML data set file to read.
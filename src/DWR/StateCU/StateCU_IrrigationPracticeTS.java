@@ -29,7 +29,14 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.RandomAccessFile;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import RTi.TS.DateValueTS;
 import RTi.TS.TS;
@@ -49,6 +56,10 @@ time series associated with structures.  Each instance has an identifier, which
 match a CULocation identifier, and a list of time series for various parameters
 that are associated with the CU Location for a period of time.  If an average
 annual analysis is done, the period may consist of one zero year.
+The data are stored in compact arrays indexed by year and YearTS objects are only created
+when the time series are requested, for example to use with time series commands.
+Methods that get data are safe to call from multiple threads without locking, for example to process
+locations in parallel, as long as no thread is modifying the same object.  Methods that set data are not synchronized.
 */
 public class StateCU_IrrigationPracticeTS extends StateCU_Data implements StateCU_ComponentValidator
 {
@@ -75,74 +86,94 @@ public final static String TSTYPE_PumpingMax = "PumpingMax";
 public final static String TSTYPE_GWUseMode = "GWUseMode";
 
 /**
- * Maximum efficiency for delivering surface water supply to the farm headgate (fraction).
- */
-private YearTS __ceff_ts = null;
-
-/**
- *  Maximum application efficiency for flood irrigation (fraction).
- */
-private YearTS __feff_ts = null;
-
-/**
- * Maximum application efficiency for sprinkler irrigation (fraction).
- */
-private YearTS __seff_ts = null;
-
-//private YearTS __gacre_ts = null;	// Old Version 10 time series
-//private YearTS __sacre_ts = null;	// Old Version 10 time series
-
-/**
- * Maximum pumping rate time series, also referred to as Gwvol.
- * This is an integer value stored as double data so make sure to convert to add .1
- * and cast to int when using data.
- */
-private YearTS __mprate_ts = null;
-
-/**
- * Groundwater mode, also referred to as Gwm.
- * This is an integer value stored as double data so make sure to convert to add .1
- * and cast to int when using data.
- */
-private YearTS __gmode_ts = null;
-
-/**
-Total acres time series.
-*/
-private YearTS __tacre_ts = null;
-
-/**
-Acreage by supply type only (surface water only or ground water supplemented).
-Surface supply only acreage.
-*/
-private YearTS __acsw_ts = null;
-
-/**
-Groundwater supplemented supply acreage.
+Missing data value, consistent with the default for time series.
 */
-private YearTS __acgw_ts = null;
+private static final double MISSING = -999.0;
 
 /**
-Acreage by supply type (surface water only or ground water supplemented)
-and irrigation method (sprinkler=high efficiency or flood=low efficiency).
-Surface water flood.
+Positions of the data fields in __data and __ts, in the order of getTimeSeriesDataTypes().
+Ceff is the maximum efficiency for delivering surface water supply to the farm headgate (fraction),
+Feff and Seff are the maximum application efficiencies for flood and sprinkler irrigation (fraction),
+Tacre is the total acres, Acsw and Acgw are the acres by supply type (surface water only and ground water
+supplemented), Acswfl, Acswspr, Acgwfl, and Acgwspr are the acres by supply type and irrigation method
+(sprinkler=high efficiency or flood=low efficiency), Mprate is the maximum pumping rate (also referred to as Gwvol),
+and Gmode is the groundwater mode (also referred to as Gwm).  Mprate and Gmode are integer values stored as
+double data so add .1 and cast to int when using data.
 */
-private YearTS __acswfl_ts = null;
+private static final int FIELD_CEFF = 0;
+private static final int FIELD_FEFF = 1;
+private static final int FIELD_SEFF = 2;
+private static final int FIELD_TACRE = 3;
+private static final int FIELD_ACSW = 4;
+private static final int FIELD_ACGW = 5;
+private static final int FIELD_ACSWFL = 6;
+private static final int FIELD_ACSWSPR = 7;
+private static final int FIELD_ACGWFL = 8;
+private static final int FIELD_ACGWSPR = 9;
+private static final int FIELD_MPRATE = 10;
+private static final int FIELD_GMODE = 11;
+private static final int FIELD_COUNT = 12;
 
-/**
-Surface water only sprinkler.
-*/
-private YearTS __acswspr_ts = null;
-
-/**
-Ground water supplemented flood.
-*/
-private YearTS __acgwfl_ts = null;
+//private YearTS __gacre_ts = null;	// Old Version 10 time series
+//private YearTS __sacre_ts = null;	// Old Version 10 time series
 
 /**
-Ground water supplemented sprinkler.
-*/
-private YearTS __acgwspr_ts = null;
+Time series data type, units, description (after the identifier), and initial value for each field.
+*/
+private static final String [] __fieldDataTypes = {
+	TSTYPE_Eff_SurfaceMax,
+	TSTYPE_Eff_FloodMax,
+	TSTYPE_Eff_SprinklerMax,
+	TSTYPE_CropArea_Total,
+	TSTYPE_CropArea_SurfaceWaterOnly,
+	TSTYPE_CropArea_GroundWater,
+	TSTYPE_CropArea_SurfaceWaterOnlyFlood,
+	TSTYPE_CropArea_SurfaceWaterOnlySprinkler,
+	TSTYPE_CropArea_GroundWaterFlood,
+	TSTYPE_CropArea_GroundWaterSprinkler,
+	TSTYPE_PumpingMax,
+	TSTYPE_GWUseMode };
+private static final String [] __fieldUnits = {
+	"FRACTION", "FRACTION", "FRACTION", "ACRE", "ACRE", "ACRE", "ACRE", "ACRE", "ACRE", "ACRE", "ACFT", "" };
+private static final String [] __fieldDescriptions = {
+	" maximum efficiency for delivering surface water supply.",
+	" maximum application efficiency for flood irrigation.",
+	" maximum application efficiency for sprinkler irrigation.",
+	" Total acres",
+	" acres surface water.",
+	" acres ground water.",
+	" acres surface water flood.",
+	" acres surface water sprinkler.",
+	" acres ground water flood.",
+	" acres ground water sprinkler.",
+	" Maximum monthly pumping.",
+	" Groundwater use mode." };
+private static final double [] __fieldInitialValues = {
+	.8, .7, .8, MISSING, MISSING, MISSING, MISSING, MISSING, MISSING, MISSING, MISSING, 2.0 };
+
+/**
+Data values for each field, indexed by field and then by year offset from the start of the period.
+The values are kept in this compact form rather than in a YearTS for each field because there are typically
+thousands of locations.  A null array indicates that the field is not used for the file version
+or that the time series view has been created for the field (see __ts).
+The arrays are held in an AtomicReferenceArray so that a thread that reads a field without locking sees either
+the array or, after the handoff to a view, null followed by the view.
+*/
+private final AtomicReferenceArray<double[]> __data = new AtomicReferenceArray<double[]>(FIELD_COUNT);
+
+/**
+Time series views for fields, created when the time series are requested (e.g., getCeffTS()).
+Once the view for a field has been created it holds the data for the field,
+so that changes made to the time series are seen by the get and set methods.
+The array is null until a view is created.  The array is replaced (not modified) when a view is added and is
+assigned before the data array for the field is set to null, so that reads do not need to lock.
+*/
+private volatile YearTS [] __ts = null;
+
+/**
+First year of the period, used to index __data.
+*/
+private int __year1 = 0;
 
 /**
 Dates for the period of record (for all time series) - these will agree with
@@ -155,10 +186,14 @@ private DateTime __date2 = null;
 private String  __year_type = "CYR";
 
 /**
-Internal data that is used to set/get data so new DateTime objects don't have to
-be created each time.  Only the year is manipulated.
+Date used to get and set time series values for a year, one for each thread so that
+the data can be read by multiple threads.  Only the year is manipulated.
 */
-private DateTime __temp_DateTime = new DateTime();
+private static final ThreadLocal<DateTime> __yearDateTime = new ThreadLocal<DateTime>() {
+	protected DateTime initialValue () {
+		return new DateTime();
+	}
+};
 
 /**
 The file that is read, used to set the time series input name.
@@ -167,9 +202,9 @@ private String __filename = "";
 
 /**
 The list of StateCU_Parcel, as an archive of observations to use with data filling.
-The list is guaranteed to be non-null.
+The list is guaranteed to be non-null and is indexed by year.
 */
-private List<StateCU_Parcel> __parcel_List = new ArrayList<>();
+private StateCU_ParcelStore __parcelStore = new StateCU_ParcelStore ( false );
 
 /**
 Construct a new StateCU_IrrigationPracticeTS object for the specified CU
@@ -207,7 +242,6 @@ sprinkler, surface, groundwater combinations are created.
 public StateCU_IrrigationPracticeTS ( String id, DateTime date1, DateTime date2, String year_type,
 	String filename, int version )
 {	super();
-	String routine = "IrrigationPracticeTS";
 	_id = id;
 	__filename = filename;
 	if ( (date1 == null) || (date2 == null) ) {
@@ -221,300 +255,21 @@ public StateCU_IrrigationPracticeTS ( String id, DateTime date1, DateTime date2,
 		__date2 = new DateTime ( date2 );
 	}
 	__year_type = year_type;
-	__ceff_ts = new YearTS ();
-	TSIdent tsident = null;
-	try {
-		tsident = new TSIdent(_id, "StateCU", TSTYPE_Eff_SurfaceMax,"Year","");
-		__ceff_ts.setIdentifier ( tsident );
-	}
-	catch ( Exception e ) {
-		// Should not happen.
-		Message.printWarning ( 3, routine, "Unable to create Eff-SurfaceMax time series." );
-	}
-	__ceff_ts.setDataUnits ( "FRACTION" );
-	__ceff_ts.setDescription ( _id+" maximum efficiency for delivering surface water supply.");
-	__ceff_ts.getIdentifier().setInputType ( "StateCU" );
-	if ( __filename != null ) {
-		__ceff_ts.getIdentifier().setInputName ( __filename );
-	}
-	__ceff_ts.setDate1(new DateTime(__date1));
-	__ceff_ts.setDate2(new DateTime(__date2));
-	// Initialize to reasonable default...
-	__ceff_ts.allocateDataSpace( .8 );
-	__feff_ts = new YearTS ();
-	try {
-		tsident = new TSIdent ( _id, "StateCU", TSTYPE_Eff_FloodMax,"Year", "" );
-		__feff_ts.setIdentifier ( tsident );
-	}
-	catch ( Exception e ) {
-		// Should not happen.
-		Message.printWarning ( 3, routine, "Unable to create Eff-FloodMax time series." );
-	}
-	__feff_ts.setDataUnits ( "FRACTION" );
-	__feff_ts.setDescription ( _id + " maximum application efficiency for flood irrigation.");
-	__feff_ts.getIdentifier().setInputType ( "StateCU" );
-	if ( __filename != null ) {
-		__feff_ts.getIdentifier().setInputName ( __filename );
-	}
-	__feff_ts.setDate1(new DateTime(__date1));
-	__feff_ts.setDate2(new DateTime(__date2));
-	// Initialize to reasonable default...
-	__feff_ts.allocateDataSpace( .7 );
-	__seff_ts = new YearTS ();
-	try {
-		tsident = new TSIdent ( _id, "StateCU", TSTYPE_Eff_SprinklerMax, "Year", "");
-		__seff_ts.setIdentifier ( tsident );
-	}
-	catch ( Exception e ) {
-		// Should not happen.
-		Message.printWarning ( 3, routine, "Unable to create Eff-SprinklerMax time series." );
-	}
-	__seff_ts.setDataUnits ( "FRACTION" );
-	__seff_ts.setDescription ( _id+ " maximum application efficiency for sprinkler irrigation.");
-	__seff_ts.getIdentifier().setInputType ( "StateCU" );
-	if ( __filename != null ) {
-		__seff_ts.getIdentifier().setInputName ( __filename );
-	}
-	__seff_ts.setDate1(new DateTime(__date1));
-	__seff_ts.setDate2(new DateTime(__date2));
-	// Initialize to reasonable default...
-	__seff_ts.allocateDataSpace( .8 );
-	
-	// Initialize new time series for V12 and newer
-	
-	// Acres surface water only
-	if ( version >= 12 ) {
-		__acsw_ts = new YearTS ();
-		try {
-			tsident = new TSIdent ( _id, "StateCU", TSTYPE_CropArea_SurfaceWaterOnly, "Year", "");
-			__acsw_ts.setIdentifier ( tsident );
-		}
-		catch ( Exception e ) {
-			// Should not happen.
-			Message.printWarning ( 3, routine, "Unable to create acre surface water time series." );
-		}
-		__acsw_ts.setDataUnits ( "ACRE" );
-		__acsw_ts.setDescription (_id+" acres surface water.");
-		__acsw_ts.getIdentifier().setInputType ( "StateCU" );
-		if ( __filename != null ) {
-			__acsw_ts.getIdentifier().setInputName ( __filename );
-		}
-		__acsw_ts.setDate1(new DateTime(__date1));
-		__acsw_ts.setDate2(new DateTime(__date2));
-		// Initialize to missing - may fill later
-		__acsw_ts.allocateDataSpace();
-		
-		// Acres groundwater supply
-
-		__acgw_ts = new YearTS ();
-		try {
-			tsident = new TSIdent ( _id, "StateCU", TSTYPE_CropArea_GroundWater, "Year", "");
-			__acgw_ts.setIdentifier ( tsident );
-		}
-		catch ( Exception e ) {
-			// Should not happen.
-			Message.printWarning ( 3, routine, "Unable to create acre ground water time series." );
-		}
-		__acgw_ts.setDataUnits ( "ACRE" );
-		__acgw_ts.setDescription (_id+" acres ground water.");
-		__acgw_ts.getIdentifier().setInputType ( "StateCU" );
-		if ( __filename != null ) {
-			__acgw_ts.getIdentifier().setInputName ( __filename );
-		}
-		__acgw_ts.setDate1(new DateTime(__date1));
-		__acgw_ts.setDate2(new DateTime(__date2));
-		// Initialize to missing - may fill later
-		__acgw_ts.allocateDataSpace();
-		
-		//Acres surface water flood
-
-		__acswfl_ts = new YearTS ();
-		try {
-			tsident = new TSIdent ( _id, "StateCU", TSTYPE_CropArea_SurfaceWaterOnlyFlood, "Year", "");
-			__acswfl_ts.setIdentifier ( tsident );
-		}
-		catch ( Exception e ) {
-			// Should not happen.
-			Message.printWarning ( 3, routine, "Unable to create acre surface water flood time series." );
-		}
-		__acswfl_ts.setDataUnits ( "ACRE" );
-		__acswfl_ts.setDescription (_id+ " acres surface water flood.");
-		__acswfl_ts.getIdentifier().setInputType ( "StateCU" );
-		if ( __filename != null ) {
-			__acswfl_ts.getIdentifier().setInputName ( __filename );
-		}
-		__acswfl_ts.setDate1(new DateTime(__date1));
-		__acswfl_ts.setDate2(new DateTime(__date2));
-		// Initialize to missing - may fill later
-		__acswfl_ts.allocateDataSpace();
-		
-		// Acres surface water sprinkler
-		__acswspr_ts = new YearTS ();
-		try {
-			tsident = new TSIdent ( _id, "StateCU", TSTYPE_CropArea_SurfaceWaterOnlySprinkler, "Year", "");
-			__acswspr_ts.setIdentifier ( tsident );
-		}
-		catch ( Exception e ) {
-			// Should not happen.
-			Message.printWarning ( 3, routine, "Unable to create acre surface water sprinkler time series." );
-		}
-		__acswspr_ts.setDataUnits ( "ACRE" );
-		__acswspr_ts.setDescription (_id+" acres surface water sprinkler.");
-		__acswspr_ts.getIdentifier().setInputType ( "StateCU" );
-		if ( __filename != null ) {
-			__acswspr_ts.getIdentifier().setInputName ( __filename );
-		}
-		__acswspr_ts.setDate1(new DateTime(__date1));
-		__acswspr_ts.setDate2(new DateTime(__date2));
-		// Initialize to missing - may fill later
-		__acswspr_ts.allocateDataSpace();
-		
-		// Acres ground water flood
-		__acgwfl_ts = new YearTS ();
-		try {
-			tsident = new TSIdent ( _id, "StateCU", TSTYPE_CropArea_GroundWaterFlood, "Year", "");
-			__acgwfl_ts.setIdentifier ( tsident );
-		}
-		catch ( Exception e ) {
-			// Should not happen.
-			Message.printWarning ( 3, routine, "Unable to create acre ground water flood time series." );
-		}
-		__acgwfl_ts.setDataUnits ( "ACRE" );
-		__acgwfl_ts.setDescription (_id+ " acres ground water flood.");
-		__acgwfl_ts.getIdentifier().setInputType ( "StateCU" );
-		if ( __filename != null ) {
-			__acgwfl_ts.getIdentifier().setInputName ( __filename );
-		}
-		__acgwfl_ts.setDate1(new DateTime(__date1));
-		__acgwfl_ts.setDate2(new DateTime(__date2));
-		// Initialize to missing - may fill later
-		__acgwfl_ts.allocateDataSpace();
-		
-		// Acres ground water sprinkler
-		__acgwspr_ts = new YearTS ();
-		try {
-			tsident = new TSIdent ( _id, "StateCU", TSTYPE_CropArea_GroundWaterSprinkler, "Year", "");
-			__acgwspr_ts.setIdentifier ( tsident );
-		}
-		catch ( Exception e ) {
-			// Should not happen.
-			Message.printWarning ( 3, routine, "Unable to create acre ground water sprinkler time series." );
-		}
-		__acgwspr_ts.setDataUnits ( "ACRE" );
-		__acgwspr_ts.setDescription (_id+ " acres ground water sprinkler.");
-		__acgwspr_ts.getIdentifier().setInputType ( "StateCU" );
-		if ( __filename != null ) {
-			__acgwspr_ts.getIdentifier().setInputName ( __filename );
+	__year1 = __date1.getYear();
+	int nyears = __date2.getYear() - __year1 + 1;
+	if ( nyears < 0 ) {
+		nyears = 0;
+	}
+	for ( int field = 0; field < FIELD_COUNT; field++ ) {
+		if ( (version < 12) && (field >= FIELD_ACSW) && (field <= FIELD_ACGWSPR) ) {
+			// Acreage by supply type and irrigation method is only used with version 12+.
+			continue;
 		}
-		__acgwspr_ts.setDate1(new DateTime(__date1));
-		__acgwspr_ts.setDate2(new DateTime(__date2));
-		// Initialize to missing - may fill later
-		__acgwspr_ts.allocateDataSpace();
+		// Initialize to reasonable default or missing - may fill later.
+		double [] values = new double[nyears];
+		Arrays.fill ( values, __fieldInitialValues[field] );
+		__data.set ( field, values );
 	}
-		
-	// Version 10 time series - keep them around also until no longer needed.
-	/* FIXME SAM 2007-10-18 Comment out because they are confusing other code
-	__gacre_ts = new YearTS ();
-	try {	tsident = new TSIdent ( _id, "StateCU",
-		TSTYPE_CropArea_GroundWaterVersion10, "Year", "");
-		__gacre_ts.setIdentifier ( tsident );
-	}
-	catch ( Exception e ) {
-		// Should not happen.
-		Message.printWarning ( 2, routine,
-		"Unable to create CropArea-Groundwater time series." );
-	}
-	__gacre_ts.setDataUnits ( "ACRE" );
-	__gacre_ts.setDescription (_id+
-		" acres with groundwater supply.");
-	__gacre_ts.getIdentifier().setInputType ( "StateCU" );
-	if ( __filename != null ) {
-		__gacre_ts.getIdentifier().setInputName ( __filename );
-	}
-	__gacre_ts.setDate1(new DateTime(__date1));
-	__gacre_ts.setDate2(new DateTime(__date2));
-	// Initialize to missing - may fill later
-	__gacre_ts.allocateDataSpace();
-	__sacre_ts = new YearTS ();
-	try {	tsident = new TSIdent ( _id, "StateCU",
-			TSTYPE_CropArea_SprinklerVersion10, "Year",
-			"");
-		__sacre_ts.setIdentifier ( tsident );
-	}
-	catch ( Exception e ) {
-		// Should not happen.
-		Message.printWarning ( 2, routine,
-		"Unable to create CropArea-Sprinkler time series." );
-	}
-	__sacre_ts.setDataUnits ( "ACRE" );
-	__sacre_ts.setDescription (_id+" acres with sprinkler supply.");
-	__sacre_ts.getIdentifier().setInputType ( "StateCU" );
-	if ( __filename != null ) {
-		__sacre_ts.getIdentifier().setInputName ( __filename );
-	}
-	__sacre_ts.setDate1(new DateTime(__date1));
-	__sacre_ts.setDate2(new DateTime(__date2));
-	// Initialize to missing - may fill later
-	__sacre_ts.allocateDataSpace();
-	*/
-		
-	__mprate_ts = new YearTS ();
-	try {
-		tsident = new TSIdent ( _id, "StateCU", TSTYPE_PumpingMax, "Year", "");
-		__mprate_ts.setIdentifier ( tsident );
-	}
-	catch ( Exception e ) {
-		// Should not happen.
-		Message.printWarning ( 3, routine, "Unable to create PumpingMax time series." );
-	}
-	__mprate_ts.setDataUnits ( "ACFT" );
-	__mprate_ts.setDescription ( _id+ " Maximum monthly pumping.");
-	__mprate_ts.getIdentifier().setInputType ( "StateCU" );
-	if ( __filename != null ) {
-		__mprate_ts.getIdentifier().setInputName ( __filename );
-	}
-	__mprate_ts.setDate1(new DateTime(__date1));
-	__mprate_ts.setDate2(new DateTime(__date2));
-	// Initialize to missing - may fill later
-	__mprate_ts.allocateDataSpace();
-	__gmode_ts = new YearTS ();
-	try {
-		tsident = new TSIdent ( _id, "StateCU", TSTYPE_GWUseMode, "Year", "");
-		__gmode_ts.setIdentifier ( tsident );
-	}
-	catch ( Exception e ) {
-		// Should not happen.
-		Message.printWarning ( 3, routine, "Unable to create GWUseMode time series." );
-	}
-	__gmode_ts.setDataUnits ( "" );
-	__gmode_ts.setDescription ( _id+ " Groundwater use mode.");
-	__gmode_ts.getIdentifier().setInputType ( "StateCU" );
-	if ( __filename != null ) {
-		__gmode_ts.getIdentifier().setInputName ( __filename );
-	}
-	__gmode_ts.setDate1(new DateTime(__date1));
-	__gmode_ts.setDate2(new DateTime(__date2));
-	// Initialize to reasonable default...
-	__gmode_ts.allocateDataSpace ( 2.0 );
-	__tacre_ts = new YearTS ();
-	try {
-		tsident = new TSIdent ( _id, "StateCU", TSTYPE_CropArea_Total, "Year", "");
-		__tacre_ts.setIdentifier ( tsident );
-	}
-	catch ( Exception e ) {
-		// Should not happen.
-		Message.printWarning ( 3, routine, "Unable to create CropArea-AllIrrigation time series.");
-	}
-	__tacre_ts.setDataUnits ( "ACRE" );
-	__tacre_ts.setDescription ( _id+ " Total acres");
-	__tacre_ts.getIdentifier().setInputType ( "StateCU" );
-	if ( __filename != null ) {
-		__tacre_ts.getIdentifier().setInputName ( __filename );
-	}
-	__tacre_ts.setDate1(new DateTime(__date1));
-	__tacre_ts.setDate2(new DateTime(__date2));
-	// Initialize to missing - may fill later
-	__tacre_ts.allocateDataSpace();
 }
 
 /**
@@ -522,7 +277,7 @@ Add a parcel containing observations.
 @param parcel StateCU_Parcel to add.
 */
 public void addParcel ( StateCU_Parcel parcel )
-{	__parcel_List.add ( parcel );
+{	__parcelStore.add ( parcel );
 }
 
 /**
@@ -532,18 +287,107 @@ Add to Gacre.  If the initial value is missing, it will be set to the specified
 */
 /* FIXME SAM 2007-10-18 Remove later when tested out
 public void addToGacre ( int year, double gacre )
-{	__temp_DateTime.setYear ( year );
+{	DateTime yearDate = getYearDateTime ( year );
 	if (	__gacre_ts.isDataMissing(
-		__gacre_ts.getDataValue(__temp_DateTime)) ) {
+		__gacre_ts.getDataValue(yearDate)) ) {
 		// Set the value...
-		__gacre_ts.setDataValue ( __temp_DateTime, gacre );
+		__gacre_ts.setDataValue ( yearDate, gacre );
 	}
 	else {	// Add to the value...
-		__gacre_ts.setDataValue ( __temp_DateTime,
-		(__gacre_ts.getDataValue ( __temp_DateTime ) + gacre) );
+		__gacre_ts.setDataValue ( yearDate,
+		(__gacre_ts.getDataValue ( yearDate ) + gacre) );
+	}
+}
+*/
+
+/**
+Adjust the acreage to the total acres for a list of locations and a period.
+This is equivalent to calling adjustGroundwaterAcresToTotalAcres(int,boolean) or
+adjustSurfaceWaterAcresToGroundwaterAndTotalAcres(int,boolean) for each location and each year in the period.
+Each location is only modified by its own adjustments and locations are always processed
+in year order, so the results are the same whether or not the locations are processed in parallel.
+@param ipyList list of irrigation practice time series to adjust.
+@param isGwOnly indicates whether each location in ipyList is groundwater only (same order as ipyList),
+or null if no locations are groundwater only.
+@param year1 first year to adjust.
+@param year2 last year to adjust.
+@param adjustGroundwater if true, adjust the groundwater acres to the total acres, which also adjusts
+the surface water acres.  If false, only adjust the surface water acres to the groundwater and total acres.
+@param parallel if true, divide the locations into one group per available processor and adjust the groups
+in parallel.
+*/
+public static void adjustAcresToTotalAcres ( final List<StateCU_IrrigationPracticeTS> ipyList,
+	final boolean [] isGwOnly, final int year1, final int year2, final boolean adjustGroundwater, boolean parallel )
+{	int size = ipyList.size();
+	if ( (isGwOnly != null) && (isGwOnly.length != size) ) {
+		throw new IllegalArgumentException ( "The number of groundwater only flags (" + isGwOnly.length +
+			") does not match the number of locations (" + size + ")." );
+	}
+	int threadCount = Math.min ( size, Runtime.getRuntime().availableProcessors() );
+	if ( !parallel || (threadCount < 2) ) {
+		adjustAcresToTotalAcres ( ipyList, isGwOnly, 0, size, year1, year2, adjustGroundwater );
+		return;
+	}
+	int groupSize = (size + threadCount - 1)/threadCount;
+	ExecutorService executor = Executors.newFixedThreadPool ( threadCount );
+	try {
+		List<Future<Object>> futures = new ArrayList<>(threadCount);
+		for ( int start = 0; start < size; start += groupSize ) {
+			final int groupStart = start;
+			final int groupEnd = Math.min ( start + groupSize, size );
+			futures.add ( executor.submit ( new Callable<Object>() {
+				public Object call ()
+				{
+					adjustAcresToTotalAcres ( ipyList, isGwOnly, groupStart, groupEnd, year1, year2, adjustGroundwater );
+					return null;
+				}
+			}));
+		}
+		for ( Future<Object> future : futures ) {
+			future.get();
+		}
+	}
+	catch ( InterruptedException e ) {
+		Thread.currentThread().interrupt();
+		throw new RuntimeException ( "Adjusting irrigation practice acreage was interrupted.", e );
+	}
+	catch ( ExecutionException e ) {
+		throw new RuntimeException ( "Error adjusting irrigation practice acreage (" + e.getCause() + ").", e.getCause() );
+	}
+	finally {
+		executor.shutdownNow();
 	}
 }
+
+/**
+Adjust the acreage to the total acres for a range of locations in a list, processing each location in year order.
+@param ipyList list of irrigation practice time series to adjust.
+@param isGwOnly groundwater only flag for each location, or null if no locations are groundwater only.
+@param start index of the first location to adjust.
+@param end index after the last location to adjust.
+@param year1 first year to adjust.
+@param year2 last year to adjust.
+@param adjustGroundwater if true, adjust the groundwater acres to the total acres,
+if false, only adjust the surface water acres.
 */
+private static void adjustAcresToTotalAcres ( List<StateCU_IrrigationPracticeTS> ipyList, boolean [] isGwOnly,
+	int start, int end, int year1, int year2, boolean adjustGroundwater )
+{	for ( int i = start; i < end; i++ ) {
+		StateCU_IrrigationPracticeTS ipy = ipyList.get(i);
+		if ( ipy == null ) {
+			continue;
+		}
+		boolean is_gw_only = (isGwOnly != null) && isGwOnly[i];
+		for ( int year = year1; year <= year2; year++ ) {
+			if ( adjustGroundwater ) {
+				ipy.adjustGroundwaterAcresToTotalAcres ( year, is_gw_only );
+			}
+			else {
+				ipy.adjustSurfaceWaterAcresToGroundwaterAndTotalAcres ( year, is_gw_only );
+			}
+		}
+	}
+}
 
 /**
 Adjust the ground water acreage to the total acres if necessary.  The total acres must be set previously.
@@ -552,24 +396,37 @@ first, causing a cascade to set the other values.
 It is required that both groundwater acreage parts (sprinkler and flood) are set.
 Otherwise no adjustments are made.
 Surface water acres are adjusted after the groundwater acres are adjusted.
-@param Date Date (year) being processed.
+@param date Date (year) being processed.
 @param is_gw_only If true then the location only has groundwater acreage and the surface water
 supply cannot take up the slack the slack to meet the overall total.
 */
 public void adjustGroundwaterAcresToTotalAcres ( DateTime date, boolean is_gw_only )
+{	adjustGroundwaterAcresToTotalAcres ( date.getYear(), is_gw_only );
+}
+
+/**
+Adjust the ground water acreage to the total acres if necessary.  The total acres must be set previously.
+This is typically done when processing the IPY file and setting the groundwater acreage
+first, causing a cascade to set the other values.
+It is required that both groundwater acreage parts (sprinkler and flood) are set.
+Otherwise no adjustments are made.
+Surface water acres are adjusted after the groundwater acres are adjusted.
+@param year Year being processed.
+@param is_gw_only If true then the location only has groundwater acreage and the surface water
+supply cannot take up the slack the slack to meet the overall total.
+*/
+public void adjustGroundwaterAcresToTotalAcres ( int year, boolean is_gw_only )
 {	// Format to integer as per output...
-	double cds_total = __tacre_ts.getDataValue ( date );
+	double cds_total = getValue ( FIELD_TACRE, year );
 	if ( cds_total < 0.0 ) {
 		// Can't adjust to total because missing.
 	}
 
 	String routine = "StateCU_IrrigationPracticeTS.adjustGroundwaterAcresToTotalAcres";
 
-	double Acgw_prev = __acgw_ts.getDataValue( date );
-	double Acgwfl_prev = __acgwfl_ts.getDataValue( date );
-	double Acgwspr_prev = __acgwspr_ts.getDataValue( date );
-	
-	int year = date.getYear();	// Used multiple times below
+	double Acgw_prev = getValue ( FIELD_ACGW, year );
+	double Acgwfl_prev = getValue ( FIELD_ACGWFL, year );
+	double Acgwspr_prev = getValue ( FIELD_ACGWSPR, year );
 	
 	// Make sure that the groundwater acres are up to date with the parts.
 	// This should be OK because for groundwater processing the parts are used to
@@ -582,7 +439,7 @@ public void adjustGroundwaterAcresToTotalAcres ( DateTime date, boolean is_gw_on
 		refreshAcgw ( year );
 	}
 	// Get new value...
-	Acgw_prev = __acgw_ts.getDataValue( date );
+	Acgw_prev = getValue ( FIELD_ACGW, year );
 	
 	if ( is_gw_only ) {
 		// Only have groundwater supply so adjust the groundwater up or down
@@ -603,7 +460,7 @@ public void adjustGroundwaterAcresToTotalAcres ( DateTime date, boolean is_gw_on
 		// This is needed because, for example, interpolation may be done on the total
 		// and the parts need to be adjusted.
 	
-		__acgw_ts.setDataValue(date,cds_total);
+		setValue ( FIELD_ACGW, year, cds_total );
 		Acgw_prev = cds_total;
 		Message.printStatus ( 2, routine, "Location \"" + _id + "\" " + year +
 				" is ground water only.  Setting GWacres to Total acres (" + StringUtil.formatString(cds_total,"%.1f") + ")." );
@@ -612,7 +469,7 @@ public void adjustGroundwaterAcresToTotalAcres ( DateTime date, boolean is_gw_on
 		// Not groundwater only.
 		// Only want to adjust down since surface water can take the extra
 		if ( Acgw_prev > cds_total ) {
-			__acgw_ts.setDataValue(date,cds_total);
+			setValue ( FIELD_ACGW, year, cds_total );
 			Acgw_prev = cds_total;
 			Message.printStatus ( 2, routine, "Location \"" + _id + "\" " + year +
 					" Adjusting GWacres down to Total acres (" + StringUtil.formatString(cds_total,"%.1f") + ")." );
@@ -620,12 +477,12 @@ public void adjustGroundwaterAcresToTotalAcres ( DateTime date, boolean is_gw_on
 		// Else GW is less than total and let SW take up slack below.
 	}
 	// Adjust the groundwater by irrigation method in any case...
-	adjustGroundWaterIrrigationMethodAcres ( date, Acgw_prev, Acgwfl_prev, Acgwspr_prev );
+	adjustGroundWaterIrrigationMethodAcres ( year, Acgw_prev, Acgwfl_prev, Acgwspr_prev );
 
 	// Also adjust the surface water acres to groundwater in response to what was
 	// done above (in case surface water total changed).
 	
-	adjustSurfaceWaterAcresToGroundwaterAndTotalAcres ( date, is_gw_only );
+	adjustSurfaceWaterAcresToGroundwaterAndTotalAcres ( year, is_gw_only );
 }
 
 /**
@@ -633,7 +490,7 @@ Adjust the groundwater acres parts to the total groundwater acres.  When called,
 the groundwater total must have been set, and the parts may also have been set.
 This methods brings the parts back into alignment.  Given that this method is called
 after one part is set, there should not be an issue with a data conflict.
-@param date Date (year) to process.
+@param year Year to process.
 @param Acgw_prev New groundwater total acres to adjust to.
 @param new_gw_total New groundwater total.  This is
 passed to improve performance, assuming it was also set/used in calling code.
@@ -642,10 +499,9 @@ passed to improve performance, assuming it was also set/used in calling code.
 @param Acgwspr_prev Acres of groundwater (sprinkler) to give previous ratio.
 This is passed to improve performance, assuming it was also set/used in calling code.
 */
-private void adjustGroundWaterIrrigationMethodAcres ( DateTime date, double Acgw_prev,
+private void adjustGroundWaterIrrigationMethodAcres ( int year, double Acgw_prev,
 		double Acgwfl_prev, double Acgwspr_prev  )
 {	String routine = "StateCU_IrrigationPracticeTS.adjustGroundWaterIrrigationMethodAcres";
-	int year = date.getYear();
 	if ( Acgw_prev < 0.0 ) {
 		// Missing GWtotal so can't do anything
 		Message.printStatus ( 2,routine,
@@ -656,8 +512,8 @@ private void adjustGroundWaterIrrigationMethodAcres ( DateTime date, double Acgw
 		// Set the irrigation method terms to zero...
 		Message.printStatus ( 2,routine,
 			"Location \"" + _id + "\" " + year + ":  Acgw is 0.  Setting irrigation method terms to zero.");
-		__acgwfl_ts.setDataValue(date, 0.0);
-		__acgwspr_ts.setDataValue(date, 0.0);
+		setValue ( FIELD_ACGWFL, year, 0.0 );
+		setValue ( FIELD_ACGWSPR, year, 0.0 );
 	}
 	else if ( (Acgwfl_prev < 0.0) && (Acgwspr_prev < 0.0) ) {
 		// Both missing so can't adjust.
@@ -670,14 +526,14 @@ private void adjustGroundWaterIrrigationMethodAcres ( DateTime date, double Acgw
 		// prorate both terms to agree with the total...
 		double Acgw_parts_total = Acgwfl_prev + Acgwspr_prev;
 		double Acgwfl_new = Acgw_prev*Acgwfl_prev/Acgw_parts_total;
-		__acgwfl_ts.setDataValue(date,Acgwfl_new);
+		setValue ( FIELD_ACGWFL, year, Acgwfl_new );
 		Message.printStatus(2, routine, "For location " + _id + " " + year +
 			" setting GWflood prorated to previous GWtotal (" +
 			StringUtil.formatString(Acgwfl_new,"%.3f") + ") previous=" +
 			StringUtil.formatString(Acgwfl_prev,"%.3f"));
 
 		double Acgwspr_new = Acgw_prev*Acgwspr_prev/Acgw_parts_total;
-		__acgwspr_ts.setDataValue(date,Acgwspr_new);
+		setValue ( FIELD_ACGWSPR, year, Acgwspr_new );
 		Message.printStatus(2, routine, "For location " + _id + " " + year +
 			" setting GWsprinkler prorated to previous GWtotal (" +
 			StringUtil.formatString(Acgwspr_new,"%.3f") + ") previous=" +
@@ -728,22 +584,31 @@ the total and groundwater acres are set and non-missing.
 @param date Date (year) for adjustment.
 @param is_gw_only If true, the location is groundwater only.
 */
-public void adjustSurfaceWaterAcresToGroundwaterAndTotalAcres (	DateTime date, boolean is_gw_only )
+public void adjustSurfaceWaterAcresToGroundwaterAndTotalAcres ( DateTime date, boolean is_gw_only )
+{	adjustSurfaceWaterAcresToGroundwaterAndTotalAcres ( date.getYear(), is_gw_only );
+}
+
+/**
+Adjust the surface water acres to the groundwater and total acres.  This assumes that
+the total and groundwater acres are set and non-missing.
+@param year Year for adjustment.
+@param is_gw_only If true, the location is groundwater only.
+*/
+public void adjustSurfaceWaterAcresToGroundwaterAndTotalAcres ( int year, boolean is_gw_only )
 {	String routine = "StateCU_IrrigationPracticeTS.adjustSurfaceWaterAcresToGroundwaterAndTotalAcres";
 	if ( is_gw_only ) {
 		// There should not any surface water only data.
-		__acswfl_ts.setDataValue( date, 0.0 );
-		__acswspr_ts.setDataValue( date, 0.0 );
-		refreshAcsw( date.getYear());
+		setValue ( FIELD_ACSWFL, year, 0.0 );
+		setValue ( FIELD_ACSWSPR, year, 0.0 );
+		refreshAcsw( year );
 		return;
 	}
 	
 	// If here then possibly have non-zero surface water terms.
 	// First make sure that surface water total acres are computed.
 	
-	int year = date.getYear();
-	double total = __tacre_ts.getDataValue( date );
-	double gw = __acgw_ts.getDataValue( date );
+	double total = getValue ( FIELD_TACRE, year );
+	double gw = getValue ( FIELD_ACGW, year );
 
 	if ( (total < 0.0) || (gw < 0.0) ) { 
 		Message.printStatus ( 2, routine,
@@ -763,18 +628,18 @@ public void adjustSurfaceWaterAcresToGroundwaterAndTotalAcres (	DateTime date, b
 	}
 	if ( sw_target == 0.0 ) {
 		// Just set it, regardless of whether missing...
-		__acswfl_ts.setDataValue ( date, 0.0 );
-		__acswspr_ts.setDataValue ( date, 0.0 );
+		setValue ( FIELD_ACSWFL, year, 0.0 );
+		setValue ( FIELD_ACSWSPR, year, 0.0 );
 		refreshAcsw ( year );
 		return;
 	}
 	
 	// If here, have surface water total and possible zero, one, or two irrigation part terms.
 	// Always set the surface water totals so it can be printed and used for other data filling, etc.
-	__acsw_ts.setDataValue(date, sw_target);
+	setValue ( FIELD_ACSW, year, sw_target );
 	
-	double Acswfl_prev = __acswfl_ts.getDataValue ( date );
-	double Acswspr_prev = __acswspr_ts.getDataValue ( date );
+	double Acswfl_prev = getValue ( FIELD_ACSWFL, year );
+	double Acswspr_prev = getValue ( FIELD_ACSWSPR, year );
 	if ( (Acswfl_prev < 0.0) && (Acswspr_prev < 0.0) ) {
 		// TODO SAM 2007-10-17 comment out when done debugging
 			Message.printWarning(3,routine,
@@ -784,7 +649,7 @@ public void adjustSurfaceWaterAcresToGroundwaterAndTotalAcres (	DateTime date, b
 				") because flood and sprinkler acres are both missing - use another command to fill one term.");
 	}
 	else {
-		adjustSurfaceWaterIrrigationMethodAcres ( date, sw_target, Acswfl_prev, Acswspr_prev );
+		adjustSurfaceWaterIrrigationMethodAcres ( year, sw_target, Acswfl_prev, Acswspr_prev );
 	}
 }
 
@@ -792,15 +657,14 @@ public void adjustSurfaceWaterAcresToGroundwaterAndTotalAcres (	DateTime date, b
 Prorate and set the surface water acres parts.  When called, the surface water total and
 parts may not be in agreement, but the surface water total should have been set to
 its target value.  Therefore, only the parts will be adjusted.
-@param date Date (year) to process.
+@param year Year to process.
 @param Acsw_prev New surface water total acres to adjust to (already set in object).
 @param Acswfl_prev Acres of groundwater (flood) to give previous ratio.
 @param Acswspr_prev Acres of groundwater (sprinkler) to give previous ratio.
 */
-private void adjustSurfaceWaterIrrigationMethodAcres ( DateTime date, double Acsw_prev,
+private void adjustSurfaceWaterIrrigationMethodAcres ( int year, double Acsw_prev,
 		double Acswfl_prev, double Acswspr_prev  )
 {	String routine = "StateCU_CropPatternTS.ajdustSurfaceWaterIrrigationMethodAcres"; 
-	int year = date.getYear();
 	if ( Acsw_prev < 0.0 ) {
 		// Missing SWtotal so can't do anything
 		Message.printStatus ( 2,routine,
@@ -817,8 +681,8 @@ private void adjustSurfaceWaterIrrigationMethodAcres ( DateTime date, double Acs
 		// Set both terms to zero...
 		Message.printStatus ( 2,routine,
 				"Location \"" + _id + "\" " + year + ":  Acsw is 0.  Setting irrigation method terms to zero.");
-		__acswfl_ts.setDataValue(date, 0.0);
-		__acswspr_ts.setDataValue(date, 0.0);
+		setValue ( FIELD_ACSWFL, year, 0.0 );
+		setValue ( FIELD_ACSWSPR, year, 0.0 );
 	}
 	else if ( (Acswfl_prev >= 0.0) && (Acswspr_prev >= 0.0) ) {
 		// Both are specified so prorate to add to the SWtotal...
@@ -900,121 +764,97 @@ public static List<String> compare ( StateCU_IrrigationPracticeTS ipy1, StateCU_
 		String efficiencyFormat = "%." + efficiencyPrecision + "f";
 		for ( DateTime dt = new DateTime(ipy1.getDate1()); dt.lessThanOrEqualTo(ipy1.getDate2()); dt.addYear(1) ) {
 			// Surface efficiency
-			YearTS ts1 = ipy1.getCeffTS();
-			YearTS ts2 = ipy2.getCeffTS();
-			val1 = ts1.getDataValue(dt);
+			val1 = ipy1.getValue(FIELD_CEFF, dt.getYear());
 			sval1 = String.format(efficiencyFormat, val1);
-			val2 = ts2.getDataValue(dt);
+			val2 = ipy2.getValue(FIELD_CEFF, dt.getYear());
 			sval2 = String.format(efficiencyFormat, val2);
 			if ( !sval1.equals(sval2) ) {
 				diffText.add("  " + dt.getYear() + " surface efficiency value different:  " + sval1 + " / " + sval2 );
 			}
 			// Flood efficiency
-			ts1 = ipy1.getFeffTS();
-			ts2 = ipy2.getFeffTS();
-			val1 = ts1.getDataValue(dt);
+			val1 = ipy1.getValue(FIELD_FEFF, dt.getYear());
 			sval1 = String.format(efficiencyFormat, val1);
-			val2 = ts2.getDataValue(dt);
+			val2 = ipy2.getValue(FIELD_FEFF, dt.getYear());
 			sval2 = String.format(efficiencyFormat, val2);
 			if ( !sval1.equals(sval2) ) {
 				diffText.add("  " + dt.getYear() + " flood efficiency value different:  " + sval1 + " / " + sval2 );
 			}
 			// Sprinkler efficiency
-			ts1 = ipy1.getSeffTS();
-			ts2 = ipy2.getSeffTS();
-			val1 = ts1.getDataValue(dt);
+			val1 = ipy1.getValue(FIELD_SEFF, dt.getYear());
 			sval1 = String.format(efficiencyFormat, val1);
-			val2 = ts2.getDataValue(dt);
+			val2 = ipy2.getValue(FIELD_SEFF, dt.getYear());
 			sval2 = String.format(efficiencyFormat, val2);
 			if ( !sval1.equals(sval2) ) {
 				diffText.add("  " + dt.getYear() + " sprinkler efficiency value different:  " + sval1 + " / " + sval2 );
 			}
 			// AcSWFl
-			ts1 = ipy1.getAcswflTS();
-			ts2 = ipy2.getAcswflTS();
-			val1 = ts1.getDataValue(dt);
+			val1 = ipy1.getValue(FIELD_ACSWFL, dt.getYear());
 			sval1 = String.format(format, val1);
-			val2 = ts2.getDataValue(dt);
+			val2 = ipy2.getValue(FIELD_ACSWFL, dt.getYear());
 			sval2 = String.format(format, val2);
 			if ( !sval1.equals(sval2) ) {
 				diffText.add("  " + dt.getYear() + " AcSWFl value different:  " + sval1 + " / " + sval2 );
 			}
 			// AcSWSpr
-			ts1 = ipy1.getAcswsprTS();
-			ts2 = ipy2.getAcswsprTS();
-			val1 = ts1.getDataValue(dt);
+			val1 = ipy1.getValue(FIELD_ACSWSPR, dt.getYear());
 			sval1 = String.format(format, val1);
-			val2 = ts2.getDataValue(dt);
+			val2 = ipy2.getValue(FIELD_ACSWSPR, dt.getYear());
 			sval2 = String.format(format, val2);
 			if ( !sval1.equals(sval2) ) {
 				diffText.add("  " + dt.getYear() + " AcSWSpr value different:  " + sval1 + " / " + sval2 );
 			}
 			// AcGWFl
-			ts1 = ipy1.getAcgwflTS();
-			ts2 = ipy2.getAcgwflTS();
-			val1 = ts1.getDataValue(dt);
+			val1 = ipy1.getValue(FIELD_ACGWFL, dt.getYear());
 			sval1 = String.format(format, val1);
-			val2 = ts2.getDataValue(dt);
+			val2 = ipy2.getValue(FIELD_ACGWFL, dt.getYear());
 			sval2 = String.format(format, val2);
 			if ( !sval1.equals(sval2) ) {
 				diffText.add("  " + dt.getYear() + " AcGWFl value different:  " + sval1 + " / " + sval2 );
 			}
 			// AcGWSpr
-			ts1 = ipy1.getAcgwsprTS();
-			ts2 = ipy2.getAcgwsprTS();
-			val1 = ts1.getDataValue(dt);
+			val1 = ipy1.getValue(FIELD_ACGWSPR, dt.getYear());
 			sval1 = String.format(format, val1);
-			val2 = ts2.getDataValue(dt);
+			val2 = ipy2.getValue(FIELD_ACGWSPR, dt.getYear());
 			sval2 = String.format(format, val2);
 			if ( !sval1.equals(sval2) ) {
 				diffText.add("  " + dt.getYear() + " AcGWSpr value different:  " + sval1 + " / " + sval2 );
 			}
 			// PumpingMax
-			ts1 = ipy1.getMprateTS();
-			ts2 = ipy2.getMprateTS();
-			val1 = ts1.getDataValue(dt);
+			val1 = ipy1.getValue(FIELD_MPRATE, dt.getYear());
 			sval1 = String.format(format, val1);
-			val2 = ts2.getDataValue(dt);
+			val2 = ipy2.getValue(FIELD_MPRATE, dt.getYear());
 			sval2 = String.format(format, val2);
 			if ( !sval1.equals(sval2) ) {
 				diffText.add("  " + dt.getYear() + " PumpingMax value different:  " + sval1 + " / " + sval2 );
 			}
 			// GMode
-			ts1 = ipy1.getGmodeTS();
-			ts2 = ipy2.getGmodeTS();
-			val1 = ts1.getDataValue(dt);
+			val1 = ipy1.getValue(FIELD_GMODE, dt.getYear());
 			sval1 = String.format(format, val1);
-			val2 = ts2.getDataValue(dt);
+			val2 = ipy2.getValue(FIELD_GMODE, dt.getYear());
 			sval2 = String.format(format, val2);
 			if ( !sval1.equals(sval2) ) {
 				diffText.add("  " + dt.getYear() + " GMode value different:  " + sval1 + " / " + sval2 );
 			}
 			// AcTot
-			ts1 = ipy1.getTacreTS();
-			ts2 = ipy2.getTacreTS();
-			val1 = ts1.getDataValue(dt);
+			val1 = ipy1.getValue(FIELD_TACRE, dt.getYear());
 			sval1 = String.format(format, val1);
-			val2 = ts2.getDataValue(dt);
+			val2 = ipy2.getValue(FIELD_TACRE, dt.getYear());
 			sval2 = String.format(format, val2);
 			if ( !sval1.equals(sval2) ) {
 				diffText.add("  " + dt.getYear() + " AcTot value different:  " + sval1 + " / " + sval2 );
 			}
 			// AcSW
-			ts1 = ipy1.getAcswTS();
-			ts2 = ipy2.getAcswTS();
-			val1 = ts1.getDataValue(dt);
+			val1 = ipy1.getValue(FIELD_ACSW, dt.getYear());
 			sval1 = String.format(format, val1);
-			val2 = ts2.getDataValue(dt);
+			val2 = ipy2.getValue(FIELD_ACSW, dt.getYear());
 			sval2 = String.format(format, val2);
 			if ( !sval1.equals(sval2) ) {
 				diffText.add("  " + dt.getYear() + " AcSW value different:  " + sval1 + " / " + sval2 );
 			}
 			// AcGW
-			ts1 = ipy1.getAcgwTS();
-			ts2 = ipy2.getAcgwTS();
-			val1 = ts1.getDataValue(dt);
+			val1 = ipy1.getValue(FIELD_ACGW, dt.getYear());
 			sval1 = String.format(format, val1);
-			val2 = ts2.getDataValue(dt);
+			val2 = ipy2.getValue(FIELD_ACGW, dt.getYear());
 			sval2 = String.format(format, val2);
 			if ( !sval1.equals(sval2) ) {
 				diffText.add("  " + dt.getYear() + " AcGW value different:  " + sval1 + " / " + sval2 );
@@ -1031,14 +871,47 @@ public static List<String> compare ( StateCU_IrrigationPracticeTS ipy1, StateCU_
 	}
 }
 
+/**
+Create the time series view for a field, containing the data for the field.
+@param field field position (e.g., FIELD_CEFF).
+@return the time series for the field
+*/
+private YearTS createFieldTS ( int field )
+{	String routine = "StateCU_IrrigationPracticeTS.createFieldTS";
+	YearTS ts = new YearTS ();
+	try {
+		TSIdent tsident = new TSIdent ( _id, "StateCU", __fieldDataTypes[field], "Year", "" );
+		ts.setIdentifier ( tsident );
+	}
+	catch ( Exception e ) {
+		// Should not happen.
+		Message.printWarning ( 3, routine, "Unable to create " + __fieldDataTypes[field] + " time series." );
+	}
+	ts.setDataUnits ( __fieldUnits[field] );
+	ts.setDescription ( _id + __fieldDescriptions[field] );
+	ts.getIdentifier().setInputType ( "StateCU" );
+	if ( __filename != null ) {
+		ts.getIdentifier().setInputName ( __filename );
+	}
+	ts.setDate1(new DateTime(__date1));
+	ts.setDate2(new DateTime(__date2));
+	ts.allocateDataSpace();
+	double [] values = __data.get(field);
+	DateTime date = new DateTime ( DateTime.PRECISION_YEAR );
+	for ( int i = 0; i < values.length; i++ ) {
+		date.setYear ( __year1 + i );
+		ts.setDataValue ( date, values[i] );
+	}
+	return ts;
+}
+
 /**
 Returns acres ground water supplemented acres for the requested year.
 @param year Year to retrieve data.
 @param Acres ground water supplemented acres.
 */
 public double getAcgw ( int year )
-{	__temp_DateTime.setYear ( year );
-	return __acgw_ts.getDataValue ( __temp_DateTime );
+{	return getValue ( FIELD_ACGW, year );
 }
 
 /**
@@ -1047,7 +920,7 @@ Returns the acre ground water supply time series.
  */
 public YearTS getAcgwTS ()
 {
-	return __acgw_ts;
+	return getFieldTS ( FIELD_ACGW );
 }
 
 /**
@@ -1056,8 +929,7 @@ Returns acres ground water flood
 @return Acres ground water flood
 */
 public double getAcgwfl ( int year ) 
-{	__temp_DateTime.setYear ( year );
-	return __acgwfl_ts.getDataValue ( __temp_DateTime );
+{	return getValue ( FIELD_ACGWFL, year );
 }
 
 /**
@@ -1066,7 +938,7 @@ Returns the acre ground water flood time series.
  */
 public YearTS getAcgwflTS ()
 {
-	return __acgwfl_ts;
+	return getFieldTS ( FIELD_ACGWFL );
 }
 
 /**
@@ -1075,8 +947,7 @@ Returns acres ground water sprinkler
 @return Acres ground water sprinkler
 */
 public double getAcgwspr ( int year ) 
-{	__temp_DateTime.setYear ( year );
-	return __acgwspr_ts.getDataValue ( __temp_DateTime );
+{	return getValue ( FIELD_ACGWSPR, year );
 }
 
 /**
@@ -1085,7 +956,7 @@ Returns the acre surface water sprinkler time series.
  */
 public YearTS getAcgwsprTS ()
 {
-	return __acgwspr_ts;
+	return getFieldTS ( FIELD_ACGWSPR );
 }
 
 /**
@@ -1094,8 +965,7 @@ Returns acres ground water supplemented acres for the requested year.
 @param Acres ground water supplemented acres.
 */
 public double getAcsw ( int year )
-{	__temp_DateTime.setYear ( year );
-	return __acsw_ts.getDataValue ( __temp_DateTime );
+{	return getValue ( FIELD_ACSW, year );
 }
 
 /**
@@ -1104,7 +974,7 @@ Returns the acre surface water supply only time series.
  */
 public YearTS getAcswTS ()
 {
-	return __acsw_ts;
+	return getFieldTS ( FIELD_ACSW );
 }
 
 /**
@@ -1113,8 +983,7 @@ Returns acres surface water flood
 @return Acres surface water flood
 */
 public double getAcswfl ( int year ) 
-{	__temp_DateTime.setYear ( year );
-	return __acswfl_ts.getDataValue ( __temp_DateTime );
+{	return getValue ( FIELD_ACSWFL, year );
 }
 
 /**
@@ -1123,7 +992,7 @@ Returns the acre surface water flood time series.
  */
 public YearTS getAcswflTS ()
 {
-	return __acswfl_ts;
+	return getFieldTS ( FIELD_ACSWFL );
 }
 
 /**
@@ -1132,8 +1001,7 @@ Returns acres surface water sprinkler
 @return Acres surface water sprinkler
 */
 public double getAcswspr ( int year ) 
-{	__temp_DateTime.setYear ( year );
-	return __acswspr_ts.getDataValue ( __temp_DateTime );
+{	return getValue ( FIELD_ACSWSPR, year );
 }
 
 /**
@@ -1142,7 +1010,7 @@ Returns the acre surface water sprinkler time series.
 */
 public YearTS getAcswsprTS ()
 {
-	return __acswspr_ts;
+	return getFieldTS ( FIELD_ACSWSPR );
 }
 
 /**
@@ -1151,8 +1019,7 @@ Return Ceff for the given year.
 @param year Year to retrieve data.
 */
 public double getCeff (	int year ) 
-{	__temp_DateTime.setYear ( year );
-	return __ceff_ts.getDataValue ( __temp_DateTime );
+{	return getValue ( FIELD_CEFF, year );
 }
 
 /**
@@ -1160,7 +1027,7 @@ Return the time series for Ceff.
 @return the time series for Ceff.
 */
 public YearTS getCeffTS ()
-{	return __ceff_ts;	
+{	return getFieldTS ( FIELD_CEFF );	
 }
 
 /**
@@ -1185,8 +1052,7 @@ Return Feff for the given year.
 @param year Year to retrieve data.
 */
 public double getFeff (	int year ) 
-{	__temp_DateTime.setYear ( year );
-	return __feff_ts.getDataValue ( __temp_DateTime );
+{	return getValue ( FIELD_FEFF, year );
 }
 
 /**
@@ -1194,7 +1060,48 @@ Return the time series for Feff.
 @return the time series for Feff.
 */
 public YearTS getFeffTS ()
-{	return __feff_ts;
+{	return getFieldTS ( FIELD_FEFF );
+}
+
+/**
+Return the time series for a field, creating the time series view if necessary.
+After the view is created the time series holds the data for the field.
+Views are created while synchronized so that only one view is created for a field, and are published
+before the data array is released so that getValue() and setValue() do not need to lock.
+@param field field position (e.g., FIELD_CEFF).
+@return the time series for the field, or null if the field is not used for the file version.
+*/
+private YearTS getFieldTS ( int field )
+{	YearTS ts = getFieldView ( field );
+	if ( ts != null ) {
+		return ts;
+	}
+	synchronized ( this ) {
+		ts = getFieldView ( field );
+		if ( (ts != null) || (__data.get(field) == null) ) {
+			// View was created by another thread, or the field is not used.
+			return ts;
+		}
+		ts = createFieldTS ( field );
+		YearTS [] views = (__ts == null) ? new YearTS[FIELD_COUNT] : Arrays.copyOf(__ts, FIELD_COUNT);
+		views[field] = ts;
+		__ts = views;
+		// The time series now holds the data.
+		__data.set ( field, null );
+		return ts;
+	}
+}
+
+/**
+Return the time series view for a field, or null if the view has not been created.
+@param field field position (e.g., FIELD_CEFF).
+*/
+private YearTS getFieldView ( int field )
+{	YearTS [] views = __ts;
+	if ( views == null ) {
+		return null;
+	}
+	return views[field];
 }
 
 /**
@@ -1204,8 +1111,8 @@ Return Gacre for the given year.
 */
 /* FIXME SAM 2007-10-18 Remove later when tested out
 public double getGacre ( int year ) 
-{	__temp_DateTime.setYear ( year );
-	return __gacre_ts.getDataValue ( __temp_DateTime );
+{	DateTime yearDate = getYearDateTime ( year );
+	return __gacre_ts.getDataValue ( yearDate );
 }
 */
 
@@ -1225,9 +1132,8 @@ Return Gmode for the given year.
 @param year Year to retrieve data.
 */
 public int getGmode ( int year ) 
-{	__temp_DateTime.setYear ( year );
-	double gmode = __gmode_ts.getDataValue ( __temp_DateTime );
-	if ( __gmode_ts.isDataMissing(gmode) ) {
+{	double gmode = getValue ( FIELD_GMODE, year );
+	if ( isMissing(gmode) ) {
 		return -999;
 	}
 	else {
@@ -1240,7 +1146,7 @@ Return the time series for Gmode.
 @return the time series for Gmode.
 */
 public YearTS getGmodeTS ()
-{	return __gmode_ts;
+{	return getFieldTS ( FIELD_GMODE );
 }
 
 /**
@@ -1249,8 +1155,7 @@ Return Mprate for the given year.
 @param year Year to retrieve data.
 */
 public double getMprate ( int year ) 
-{	__temp_DateTime.setYear ( year );
-	return __mprate_ts.getDataValue ( __temp_DateTime );
+{	return getValue ( FIELD_MPRATE, year );
 }
 
 /**
@@ -1258,7 +1163,7 @@ Return the time series for Mprate.
 @return the time series for Mprate.
 */
 public YearTS getMprateTS ()
-{	return __mprate_ts;
+{	return getFieldTS ( FIELD_MPRATE );
 }
 
 /**
@@ -1267,16 +1172,10 @@ Return the parcels for a requested year.  These values can be used in data filli
 @return the list of StateCU_Parcel for a year
 */
 public List<StateCU_Parcel> getParcelListForYear ( int year )
-{	List<StateCU_Parcel> parcels = new ArrayList<>();
-	for ( StateCU_Parcel parcel : __parcel_List ) {
-		if ( (year > 0) && (parcel.getYear() != year) ) {
-			// Requested year does not match.
-			continue;
-		}
-		// Criteria are met
-		parcels.add ( parcel );
+{	if ( year > 0 ) {
+		return __parcelStore.getParcelList(year);
 	}
-	return parcels;
+	return new ArrayList<>(__parcelStore.getParcelList());
 }
 
 /**
@@ -1286,8 +1185,8 @@ Return Sacre for the given year.
 */
 /* FIXME SAM 2007-10-18 Remove later when tested out
 public double getSacre ( int year ) 
-{	__temp_DateTime.setYear ( year );
-	return __sacre_ts.getDataValue ( __temp_DateTime );
+{	DateTime yearDate = getYearDateTime ( year );
+	return __sacre_ts.getDataValue ( yearDate );
 }
 */
 
@@ -1307,8 +1206,7 @@ Return Seff for the given year.
 @param year Year to retrieve data.
 */
 public double getSeff (	int year ) 
-{	__temp_DateTime.setYear ( year );
-	return __seff_ts.getDataValue ( __temp_DateTime );
+{	return getValue ( FIELD_SEFF, year );
 }
 
 /**
@@ -1316,7 +1214,7 @@ Return the time series for Seff.
 @return the time series for Seff.
 */
 public YearTS getSeffTS ()
-{	return __seff_ts;
+{	return getFieldTS ( FIELD_SEFF );
 }
 
 /**
@@ -1324,7 +1222,7 @@ Return the time series for Tacre.
 @return the time series for Tacre.
 */
 public YearTS getTacreTS ()
-{	return __tacre_ts;
+{	return getFieldTS ( FIELD_TACRE );
 }
 
 /**
@@ -1333,8 +1231,7 @@ Return Tacre for the given year.
 @param year Year to retrieve data.
 */
 public double getTacre ( int year ) 
-{	__temp_DateTime.setYear ( year );
-	return __tacre_ts.getDataValue ( __temp_DateTime );
+{	return getValue ( FIELD_TACRE, year );
 }
 
 /**
@@ -1344,52 +1241,16 @@ Return a time series, based on the data type.
 should match one of the values returned by getTimeSeriesDataTypes().
 */
 public YearTS getTimeSeries ( String datatype )
-{	if ( datatype.equalsIgnoreCase ( TSTYPE_Eff_SurfaceMax ) ) {
-		return __ceff_ts;
-	}
-	else if ( datatype.equalsIgnoreCase ( TSTYPE_Eff_FloodMax ) ) {
-		return __feff_ts;
-	}
-	else if ( datatype.equalsIgnoreCase ( TSTYPE_Eff_SprinklerMax ) ) {
-		return __seff_ts;
-	}
-	/* FIXME SAM 2007-10-18 Remove later when tested out
-	else if ( datatype.equalsIgnoreCase ( TSTYPE_CropArea_GroundWaterVersion10 ) ) {
-		return __gacre_ts;
-	}
-	else if ( datatype.equalsIgnoreCase ( TSTYPE_CropArea_SprinklerVersion10 ) ) {
-		return __sacre_ts;
-	}
+{	/* FIXME SAM 2007-10-18 Remove later when tested out
+	TSTYPE_CropArea_GroundWaterVersion10 returned __gacre_ts
+	TSTYPE_CropArea_SprinklerVersion10 returned __sacre_ts
 	*/
-	else if ( datatype.equalsIgnoreCase ( TSTYPE_CropArea_SurfaceWaterOnly ) ) {
-		return __acsw_ts;
-	}
-	else if ( datatype.equalsIgnoreCase ( TSTYPE_CropArea_SurfaceWaterOnlyFlood ) ) {
-		return __acswfl_ts;
-	}
-	else if ( datatype.equalsIgnoreCase ( TSTYPE_CropArea_SurfaceWaterOnlySprinkler ) ) {
-		return __acswspr_ts;
-	}
-	else if ( datatype.equalsIgnoreCase ( TSTYPE_CropArea_GroundWater ) ) {
-		return __acgw_ts;
-	}
-	else if ( datatype.equalsIgnoreCase ( TSTYPE_CropArea_GroundWaterFlood ) ) {
-		return __acgwfl_ts;
-	}
-	else if ( datatype.equalsIgnoreCase ( TSTYPE_CropArea_GroundWaterSprinkler ) ) {
-		return __acgwspr_ts;
-	}
-	else if ( datatype.equalsIgnoreCase ( TSTYPE_PumpingMax ) ) {
-		return __mprate_ts;
-	}
-	else if ( datatype.equalsIgnoreCase ( TSTYPE_GWUseMode ) ) {
-		return __gmode_ts;
-	}
-	else if ( datatype.equalsIgnoreCase ( TSTYPE_CropArea_Total ) ) {
-		return __tacre_ts;
-	}
-	else {	return null;
+	for ( int field = 0; field < FIELD_COUNT; field++ ) {
+		if ( datatype.equalsIgnoreCase ( __fieldDataTypes[field] ) ) {
+			return getFieldTS ( field );
+		}
 	}
+	return null;
 }
 
 /**
@@ -1449,6 +1310,41 @@ public static List<String> getTimeSeriesDataTypes (	boolean include_gwmode, bool
 	return datatypes;
 }
 
+/**
+Return the value of a field for a year.
+@param field field position (e.g., FIELD_CEFF).
+@param year Year to retrieve data.
+@return the value for the year, or MISSING if the year is outside the period or the field is not used.
+*/
+private double getValue ( int field, int year )
+{	double [] values = __data.get(field);
+	if ( values == null ) {
+		// Time series view holds the data or the field is not used.
+		YearTS ts = getFieldView ( field );
+		if ( ts == null ) {
+			return MISSING;
+		}
+		return ts.getDataValue ( getYearDateTime ( year ) );
+	}
+	int i = year - __year1;
+	if ( (i < 0) || (i >= values.length) ) {
+		return MISSING;
+	}
+	return values[i];
+}
+
+/**
+Return the date used to get and set time series values for a year.
+The date is specific to the current thread and must not be saved or used after calling other methods.
+@param year Year for the date.
+@return the date with the year set
+*/
+private static DateTime getYearDateTime ( int year ) {
+	DateTime date = __yearDateTime.get();
+	date.setYear ( year );
+	return date;
+}
+
 /**
 Return the year type ("CYR", "WYR", "IYR") for the time series.
 @return the year type for the time series.
@@ -1462,7 +1358,7 @@ Indicate whether the location has groundwater supply.  This will be true if
 any of the StateCU_Supply associated with the parcel return isGroundWater as true.
 */
 public boolean hasGroundWaterSupply ()
-{	for ( StateCU_Parcel parcel : __parcel_List ) {
+{	for ( StateCU_Parcel parcel : __parcelStore.getParcelList() ) {
 		if ( parcel.hasGroundWaterSupply() ) {
 			return true;
 		}
@@ -1484,6 +1380,15 @@ public static boolean isIrrigationPracticeTSFile ( String filename )
 	return false;
 }
 
+/**
+Indicate whether a value is missing, consistent with the default time series missing data handling.
+@param value Value to check.
+@return true if the value is missing
+*/
+private static boolean isMissing ( double value )
+{	return Double.isNaN(value) || ((value >= (MISSING - .001)) && (value <= (MISSING + .001)));
+}
+
 /**
 Checks for the period in the header by reading the first non-comment line.
 If the first 2 characters are spaces, it is assumed that a period header is present.
@@ -2186,11 +2091,11 @@ public void refreshAcgw ( int year )
 {
 	double acgwfl = getAcgwfl ( year );
 	double acgwspr = getAcgwspr ( year );
-	boolean acgwfl_ismissing = __acgwfl_ts.isDataMissing(acgwfl);
-	boolean acgwspr_ismissing = __acgwspr_ts.isDataMissing(acgwspr);
+	boolean acgwfl_ismissing = isMissing(acgwfl);
+	boolean acgwspr_ismissing = isMissing(acgwspr);
 	if ( acgwfl_ismissing || acgwspr_ismissing ) {
 		// Set the total to missing...
-		setAcgw ( year, __acgw_ts.getMissing() );
+		setAcgw ( year, MISSING );
 	}
 	/* TODO SAM 2007-09-11 Evaluate use
 	else if ( acgwfl_ismissing ) {
@@ -2221,11 +2126,11 @@ public void refreshAcsw ( int year )
 {
 	double acswfl = getAcswfl ( year );
 	double acswspr = getAcswspr ( year );
-	boolean acswfl_ismissing = __acswfl_ts.isDataMissing(acswfl);
-	boolean acswspr_ismissing = __acswspr_ts.isDataMissing(acswspr);
+	boolean acswfl_ismissing = isMissing(acswfl);
+	boolean acswspr_ismissing = isMissing(acswspr);
 	if ( acswfl_ismissing || acswspr_ismissing ) {
 		// Set the total to missing...
-		setAcsw ( year, __acsw_ts.getMissing() );
+		setAcsw ( year, MISSING );
 	}
 	/* TODO SAM 2007-09-11 Evaluate use
 	else if ( acswfl_ismissing ) {
@@ -2278,9 +2183,9 @@ public void refreshTacre ( int year, boolean refreshGW, boolean refreshSW ) {
 	}
 	double acgw = getAcgw ( year );
 	double acsw = getAcsw ( year );
-	if ( __acgw_ts.isDataMissing(acgw) || __acsw_ts.isDataMissing(acsw) ) {
+	if ( isMissing(acgw) || isMissing(acsw) ) {
 		// Set the total to missing...
-		setTacre ( year, __tacre_ts.getMissing() );
+		setTacre ( year, MISSING );
 	}
 	else {
 		// Set to the sum...
@@ -2294,8 +2199,7 @@ Set acres ground water supplemented.
 @param acgw value to set.
 */
 public void setAcgw ( int year, double acgw )
-{	__temp_DateTime.setYear ( year );
-	__acgw_ts.setDataValue ( __temp_DateTime, acgw );
+{	setValue ( FIELD_ACGW, year, acgw );
 }
 
 /**
@@ -2304,8 +2208,7 @@ Set acres ground water flood.
 @param acgwfl value to set.
 */
 public void setAcgwfl ( int year, double acgwfl )
-{	__temp_DateTime.setYear ( year );
-	__acgwfl_ts.setDataValue ( __temp_DateTime, acgwfl );
+{	setValue ( FIELD_ACGWFL, year, acgwfl );
 }
 
 /**
@@ -2316,9 +2219,8 @@ Try to maintain the exact value set, but use GWtotal if GWflood > GWtotal.
 @param acgwfl value to set.
 */
 public void setAcgwflAndAdjust ( int year, double acgwfl )
-{	__temp_DateTime.setYear ( year );
-	// If the groundwater total is not available, don't do it.
-	double acgw = __acgw_ts.getDataValue ( __temp_DateTime );
+{	// If the groundwater total is not available, don't do it.
+	double acgw = getValue ( FIELD_ACGW, year );
 	if ( acgw < 0.0 ) {
 		return;
 	}
@@ -2326,9 +2228,9 @@ public void setAcgwflAndAdjust ( int year, double acgwfl )
 		// Just use the total...
 		acgwfl = acgw;
 	}
-	__acgwfl_ts.setDataValue ( __temp_DateTime, acgwfl );
+	setValue ( FIELD_ACGWFL, year, acgwfl );
 	// Now set GWsprinkler...
-	__acgwspr_ts.setDataValue ( __temp_DateTime, (acgw - acgwfl) );
+	setValue ( FIELD_ACGWSPR, year, (acgw - acgwfl) );
 }
 
 /**
@@ -2337,8 +2239,7 @@ Set acres ground water sprinkler.
 @param acgwspr value to set.
 */
 public void setAcgwspr ( int year, double acgwspr )
-{	__temp_DateTime.setYear ( year );
-	__acgwspr_ts.setDataValue ( __temp_DateTime, acgwspr );
+{	setValue ( FIELD_ACGWSPR, year, acgwspr );
 }
 
 /**
@@ -2349,9 +2250,8 @@ Don't do anything if GWtotal is not set.
 @param acgwspr value to set.
 */
 public void setAcgwsprAndAdjust ( int year, double acgwspr )
-{	__temp_DateTime.setYear ( year );
-	// If the groundwater total is not available, don't do it.
-	double acgw = __acgw_ts.getDataValue ( __temp_DateTime );
+{	// If the groundwater total is not available, don't do it.
+	double acgw = getValue ( FIELD_ACGW, year );
 	if ( acgw < 0.0 ) {
 		return;
 	}
@@ -2359,9 +2259,9 @@ public void setAcgwsprAndAdjust ( int year, double acgwspr )
 		// Just use the total...
 		acgwspr = acgw;
 	}
-	__acgwspr_ts.setDataValue ( __temp_DateTime, acgwspr );
+	setValue ( FIELD_ACGWSPR, year, acgwspr );
 	// Now set GWflood...
-	__acgwfl_ts.setDataValue ( __temp_DateTime, (acgw - acgwspr) );
+	setValue ( FIELD_ACGWFL, year, (acgw - acgwspr) );
 }
 
 /**
@@ -2371,8 +2271,7 @@ Set acres surface water only.
 */
 public void setAcsw ( int year, double acsw )
 {	
-	__temp_DateTime.setYear ( year );
-	__acsw_ts.setDataValue ( __temp_DateTime, acsw );
+	setValue ( FIELD_ACSW, year, acsw );
 }
 
 /**
@@ -2382,8 +2281,7 @@ Set acres surface water flood.
 */
 public void setAcswfl ( int year, double acswfl )
 {	
-	__temp_DateTime.setYear ( year );
-	__acswfl_ts.setDataValue ( __temp_DateTime, acswfl );
+	setValue ( FIELD_ACSWFL, year, acswfl );
 }
 
 /**
@@ -2394,9 +2292,8 @@ Don't do anything if SWtotal is not set.
 @param acswfl value to set.
 */
 public void setAcswflAndAdjust ( int year, double acswfl )
-{	__temp_DateTime.setYear ( year );
-	// If the surface water total is not available, don't do it.
-	double acsw = __acsw_ts.getDataValue ( __temp_DateTime );
+{	// If the surface water total is not available, don't do it.
+	double acsw = getValue ( FIELD_ACSW, year );
 	if ( acsw < 0.0 ) {
 		return;
 	}
@@ -2404,9 +2301,9 @@ public void setAcswflAndAdjust ( int year, double acswfl )
 		// Just use the total...
 		acswfl = acsw;
 	}
-	__acswfl_ts.setDataValue ( __temp_DateTime, acswfl );
+	setValue ( FIELD_ACSWFL, year, acswfl );
 	// Now set SWsprinkler...
-	__acswspr_ts.setDataValue ( __temp_DateTime, (acsw - acswfl) );
+	setValue ( FIELD_ACSWSPR, year, (acsw - acswfl) );
 }
 
 /**
@@ -2415,8 +2312,7 @@ Set acres surface water sprinkler.
 @param acswspr value to set.
 */
 public void setAcswspr ( int year, double acswspr )
-{	__temp_DateTime.setYear ( year );
-	__acswspr_ts.setDataValue ( __temp_DateTime, acswspr );
+{	setValue ( FIELD_ACSWSPR, year, acswspr );
 }
 
 
@@ -2429,9 +2325,8 @@ Don't do anything if SWtotal is not set.
 */
 public void setAcswsprAndAdjust ( int year, double acswspr )
 {	String routine = "StateCU_IrrigationPracticeTS.setAcswspAndAdjust";
-	__temp_DateTime.setYear ( year );
 	// If the surface water total is not available, don't do it.
-	double acsw = __acsw_ts.getDataValue ( __temp_DateTime );
+	double acsw = getValue ( FIELD_ACSW, year );
 	if ( acsw < 0.0 ) {
 		Message.printStatus ( 2, routine, "Location \"" + _id + "\" " + year +
 				" SWtotal acres is not set.  Unable to set/adjust to SWsprinkler acres.");
@@ -2443,10 +2338,10 @@ public void setAcswsprAndAdjust ( int year, double acswspr )
 		Message.printStatus ( 2, routine, "Location \"" + _id + "\" " + year +
 				" SWsprinkler acres adjusted to SWtotal acres (" + Math.round ( acswspr ) + ")");
 	}
-	__acswspr_ts.setDataValue ( __temp_DateTime, acswspr );
+	setValue ( FIELD_ACSWSPR, year, acswspr );
 	// Now set SWflood...
 	double acswfl = acsw - acswspr;
-	__acswfl_ts.setDataValue ( __temp_DateTime, acswfl );
+	setValue ( FIELD_ACSWFL, year, acswfl );
 	Message.printStatus ( 2, routine, "Location \"" + _id + "\" " + year +
 			" SWflood adjusted to SWtotal - SWsprinkler (" + Math.round ( acswspr ) + ")" );
 }
@@ -2457,8 +2352,7 @@ Set Ceff.
 @param ceff Ceff value to set.
 */
 public void setCeff ( int year, double ceff )
-{	__temp_DateTime.setYear ( year );
-	__ceff_ts.setDataValue ( __temp_DateTime, ceff );
+{	setValue ( FIELD_CEFF, year, ceff );
 }
 
 /**
@@ -2467,8 +2361,7 @@ Set Feff.
 @param feff Feff value to set.
 */
 public void setFeff ( int year, double feff )
-{	__temp_DateTime.setYear ( year );
-	__feff_ts.setDataValue ( __temp_DateTime, feff );
+{	setValue ( FIELD_FEFF, year, feff );
 }
 
 /**
@@ -2478,8 +2371,8 @@ Set Gacre.
 */
 /* FIXME SAM 2007-10-18 Remove later when tested out
 public void setGacre ( int year, double gacre )
-{	__temp_DateTime.setYear ( year );
-	__gacre_ts.setDataValue ( __temp_DateTime, gacre );
+{	DateTime yearDate = getYearDateTime ( year );
+	__gacre_ts.setDataValue ( yearDate, gacre );
 }
 */
 
@@ -2489,8 +2382,7 @@ Set Gmode.
 @param gmode Gmode value to set.
 */
 public void setGmode ( int year, int gmode )
-{	__temp_DateTime.setYear ( year );
-	__gmode_ts.setDataValue ( __temp_DateTime, (double)gmode  );
+{	setValue ( FIELD_GMODE, year, (double)gmode );
 }
 
 /**
@@ -2499,8 +2391,7 @@ Set Mprate.
 @param mprate Mprate value to set.
 */
 public void setMprate ( int year, double mprate )
-{	__temp_DateTime.setYear ( year );
-	__mprate_ts.setDataValue ( __temp_DateTime, mprate );
+{	setValue ( FIELD_MPRATE, year, mprate );
 }
 
 /**
@@ -2510,8 +2401,8 @@ Set Sacre.
 */
 /* FIXME SAM 2007-10-18 Remove later when tested out
 public void setSacre ( int year, double sacre )
-{	__temp_DateTime.setYear ( year );
-	__sacre_ts.setDataValue ( __temp_DateTime, sacre );
+{	DateTime yearDate = getYearDateTime ( year );
+	__sacre_ts.setDataValue ( yearDate, sacre );
 }
 */
 
@@ -2521,8 +2412,7 @@ Set Seff.
 @param seff Seff value to set.
 */
 public void setSeff ( int year, double seff )
-{	__temp_DateTime.setYear ( year );
-	__seff_ts.setDataValue ( __temp_DateTime, seff );
+{	setValue ( FIELD_SEFF, year, seff );
 }
 
 /**
@@ -2531,8 +2421,29 @@ Set Tacre.
 @param tacre Tacre value to set.
 */
 public void setTacre ( int year, double tacre )
-{	__temp_DateTime.setYear ( year );
-	__tacre_ts.setDataValue ( __temp_DateTime, tacre );
+{	setValue ( FIELD_TACRE, year, tacre );
+}
+
+/**
+Set the value of a field for a year.  Years outside the period and fields that are not used are ignored.
+@param field field position (e.g., FIELD_CEFF).
+@param year Year for data.
+@param value Value to set.
+*/
+private void setValue ( int field, int year, double value )
+{	double [] values = __data.get(field);
+	if ( values == null ) {
+		// Time series view holds the data or the field is not used.
+		YearTS ts = getFieldView ( field );
+		if ( ts != null ) {
+			ts.setDataValue ( getYearDateTime ( year ), value );
+		}
+		return;
+	}
+	int i = year - __year1;
+	if ( (i >= 0) && (i < values.length) ) {
+		values[i] = value;
+	}
 }
 
 /**
@@ -2815,97 +2726,97 @@ public static List<TS> toTSList ( List<StateCU_IrrigationPracticeTS> dataList, b
 	}
 	for ( int i = 0; i < size; i++ ) {
 		ipy = (StateCU_IrrigationPracticeTS)dataList.get(i);
-		tslist.add ( ipy.__ceff_ts );
-		tslist.add ( ipy.__feff_ts );
-		tslist.add ( ipy.__seff_ts );
+		tslist.add ( ipy.getFieldTS(FIELD_CEFF) );
+		tslist.add ( ipy.getFieldTS(FIELD_FEFF) );
+		tslist.add ( ipy.getFieldTS(FIELD_SEFF) );
 		
-		if ( ipy.__tacre_ts != null ) {
-			tslist.add ( ipy.__tacre_ts );
+		if ( ipy.getFieldTS(FIELD_TACRE) != null ) {
+			tslist.add ( ipy.getFieldTS(FIELD_TACRE) );
 		}
-		if ( ipy.__acsw_ts != null ) {
-			tslist.add ( ipy.__acsw_ts );
+		if ( ipy.getFieldTS(FIELD_ACSW) != null ) {
+			tslist.add ( ipy.getFieldTS(FIELD_ACSW) );
 		}
-		if ( ipy.__acgw_ts != null ){
-			tslist.add ( ipy.__acgw_ts );
+		if ( ipy.getFieldTS(FIELD_ACGW) != null ){
+			tslist.add ( ipy.getFieldTS(FIELD_ACGW) );
 		}
-		if ( ipy.__acswfl_ts != null ) {
-			tslist.add ( ipy.__acswfl_ts );
+		if ( ipy.getFieldTS(FIELD_ACSWFL) != null ) {
+			tslist.add ( ipy.getFieldTS(FIELD_ACSWFL) );
 		}
-		if ( ipy.__acswspr_ts != null ) {
-			tslist.add ( ipy.__acswspr_ts );
+		if ( ipy.getFieldTS(FIELD_ACSWSPR) != null ) {
+			tslist.add ( ipy.getFieldTS(FIELD_ACSWSPR) );
 		}
-		if ( ipy.__acgwfl_ts != null ) {
-			tslist.add ( ipy.__acgwfl_ts );
+		if ( ipy.getFieldTS(FIELD_ACGWFL) != null ) {
+			tslist.add ( ipy.getFieldTS(FIELD_ACGWFL) );
 		}
-		if ( ipy.__acgwspr_ts != null ) {
-			tslist.add ( ipy.__acgwspr_ts );
+		if ( ipy.getFieldTS(FIELD_ACGWSPR) != null ) {
+			tslist.add ( ipy.getFieldTS(FIELD_ACGWSPR) );
 		}
 		
-		tslist.add ( ipy.__mprate_ts );
-		tslist.add ( ipy.__gmode_ts );
+		tslist.add ( ipy.getFieldTS(FIELD_MPRATE) );
+		tslist.add ( ipy.getFieldTS(FIELD_GMODE) );
 
 		if ( include_dataset_totals ) {
 			// Totals for version 10+ format...
-			if ( (yts_acsw != null) && (ipy.__acsw_ts != null) ) {
+			if ( (yts_acsw != null) && (ipy.getFieldTS(FIELD_ACSW) != null) ) {
 				try {
-					TSUtil.add ( yts_acsw, ipy.__acsw_ts );
+					TSUtil.add ( yts_acsw, ipy.getFieldTS(FIELD_ACSW) );
 				}
 				catch ( Exception e ) {
 					Message.printWarning ( 3, routine, "Error adding time series." );
 				}
 			}
-			if ( (yts_acgw != null) && (ipy.__acgw_ts != null) ) {
+			if ( (yts_acgw != null) && (ipy.getFieldTS(FIELD_ACGW) != null) ) {
 				try {
-					TSUtil.add ( yts_acgw, ipy.__acgw_ts );
+					TSUtil.add ( yts_acgw, ipy.getFieldTS(FIELD_ACGW) );
 				}
 				catch ( Exception e ) {
 					Message.printWarning ( 3, routine, "Error adding time series." );
 				}
 			}
 			// Totals for version 12+ format
-			if ( (yts_acswfl != null) && (ipy.__acswfl_ts != null) ) {
+			if ( (yts_acswfl != null) && (ipy.getFieldTS(FIELD_ACSWFL) != null) ) {
 				try {
-					TSUtil.add ( yts_acswfl, ipy.__acswfl_ts );
+					TSUtil.add ( yts_acswfl, ipy.getFieldTS(FIELD_ACSWFL) );
 				}
 				catch ( Exception e ) {
 					Message.printWarning ( 3, routine, "Error adding time series." );
 				}
 			}
-			if ( (yts_acswspr != null) && (ipy.__acswspr_ts != null) ) {
+			if ( (yts_acswspr != null) && (ipy.getFieldTS(FIELD_ACSWSPR) != null) ) {
 				try {
-					TSUtil.add ( yts_acswspr, ipy.__acswspr_ts );
+					TSUtil.add ( yts_acswspr, ipy.getFieldTS(FIELD_ACSWSPR) );
 				}
 				catch ( Exception e ) {
 					Message.printWarning ( 3, routine, "Error adding time series." );
 				}
 			}
-			if ( (yts_acgwfl != null) && (ipy.__acgwfl_ts != null) ) {
+			if ( (yts_acgwfl != null) && (ipy.getFieldTS(FIELD_ACGWFL) != null) ) {
 				try {
-					TSUtil.add ( yts_acgwfl, ipy.__acgwfl_ts );
+					TSUtil.add ( yts_acgwfl, ipy.getFieldTS(FIELD_ACGWFL) );
 				}
 				catch ( Exception e ) {
 					Message.printWarning ( 3, routine, "Error adding time series." );
 				}
 			}
-			if ( (yts_acgwspr != null) && (ipy.__acgwspr_ts != null) ) {
+			if ( (yts_acgwspr != null) && (ipy.getFieldTS(FIELD_ACGWSPR) != null) ) {
 				try {
-					TSUtil.add ( yts_acgwspr, ipy.__acgwspr_ts );
+					TSUtil.add ( yts_acgwspr, ipy.getFieldTS(FIELD_ACGWSPR) );
 				}
 				catch ( Exception e ) {
 					Message.printWarning ( 3, routine, "Error adding time series." );
 				}
 			}
 		
-			if ( (yts_tot != null) && (ipy.__tacre_ts != null)) {
+			if ( (yts_tot != null) && (ipy.getFieldTS(FIELD_TACRE) != null)) {
 				try {
-					TSUtil.add ( yts_tot, ipy.__tacre_ts );
+					TSUtil.add ( yts_tot, ipy.getFieldTS(FIELD_TACRE) );
 				}
 				catch ( Exception e ) {
 					Message.printWarning ( 3, routine, "Error adding total acres time series." );
 				}
 			}
 			try {
-				TSUtil.add ( yts_pump, ipy.__mprate_ts );
+				TSUtil.add ( yts_pump, ipy.getFieldTS(FIELD_MPRATE) );
 			}
 			catch ( Exception e ) {
 				Message.printWarning ( 3, routine, "Error adding max pumping time series." );
@@ -2981,26 +2892,20 @@ public StateCU_ComponentValidation validateComponent ( StateCU_DataSet dataset )
 	if ( !problemFound ) {
 		// Did not find a major problem above so can continue checking time series
 		double ceff, feff, seff, acswfl, acswspr, acgwfl, acgwspr, mprate, gmode, tacre, acSum, cds;
-		YearTS ceff_yts = getCeffTS(), feff_yts = getFeffTS(), seff_yts = getSeffTS(),
-			acswfl_yts = getAcswflTS(), acswspr_yts = getAcswsprTS(),
-			acgwfl_yts = getAcgwflTS(), acgwspr_yts = getAcgwsprTS(),
-			mprate_yts = getMprateTS(), gmode_yts = getGmodeTS(), tacre_yts = getTacreTS();
 		String acSumFormatted, cdsFormatted, tacreFormatted = null;
 		
-		DateTime temp_DateTime = new DateTime();
 		for ( int year = year1; year <= year2; year++ ) {
-			temp_DateTime.setYear ( year );
-			ceff = ceff_yts.getDataValue(temp_DateTime);
-			feff = feff_yts.getDataValue(temp_DateTime);
-			seff = seff_yts.getDataValue(temp_DateTime);
-			acswfl = acswfl_yts.getDataValue(temp_DateTime);
-			acswspr = acswspr_yts.getDataValue(temp_DateTime);
-			acgwfl = acgwfl_yts.getDataValue(temp_DateTime);
-			acgwspr = acgwspr_yts.getDataValue(temp_DateTime);
-			mprate = mprate_yts.getDataValue(temp_DateTime);
-			gmode = gmode_yts.getDataValue(temp_DateTime);
+			ceff = getValue(FIELD_CEFF, year);
+			feff = getValue(FIELD_FEFF, year);
+			seff = getValue(FIELD_SEFF, year);
+			acswfl = getValue(FIELD_ACSWFL, year);
+			acswspr = getValue(FIELD_ACSWSPR, year);
+			acgwfl = getValue(FIELD_ACGWFL, year);
+			acgwspr = getValue(FIELD_ACGWSPR, year);
+			mprate = getValue(FIELD_MPRATE, year);
+			gmode = getValue(FIELD_GMODE, year);
 			int gmodeInt = (int)(gmode + .01);
-			tacre = tacre_yts.getDataValue(temp_DateTime);
+			tacre = getValue(FIELD_TACRE, year);
 			if ( !((ceff >= 0.0) && (ceff <= 1.0)) ) {
 				validation.add(new StateCU_ComponentValidationProblem(this,
 					"Location \"" + id + "\" year " + year + " maximum surface efficiency (" +
@@ -3088,7 +2993,7 @@ public StateCU_ComponentValidation validateComponent ( StateCU_DataSet dataset )
 			// IPY file acreage is written to
 			if ( cdsForId != null ) {
 				// TODO SAM 2017-03-14 the following does not seem correct
-				//cds = cds_yts.getDataValue(temp_DateTime);
+				//cds = getValue(FIELD_CDS, year);
 				cds = cdsForId.getTotalArea(year);
 				cdsFormatted = StringUtil.formatString(cds,"%.1f");
 				if ( !cdsFormatted.equals(tacreFormatted) ) {
@@ -3375,18 +3280,13 @@ DateTime start, DateTime end, PropList props ) throws IOException
 		return;
 	}
 	DateTime date = new DateTime(date1);
-	DateTime temp_DateTime = new DateTime ();	// Use for data access.
 	int year = 0;
 	double val, acgw_val, acgwfl_val, acgwspr_val, acsw_val, acswfl_val, acswspr_val;
 	double area_big = 1000000.0;	// Needs to use lower precision output
-	YearTS ceff_yts, feff_yts, seff_yts, //gacre_yts, sacre_yts,
-	    mprate_yts,
-		gmode_yts, tacre_yts, acgw_yts, acgwfl_yts, acgwspr_yts, acsw_yts, acswfl_yts, acswspr_yts;
 	// This is not real efficient but is relatively fast...
 	// Outer loop is for the time series period...
 	for ( ; date.lessThanOrEqualTo(date2); date.addYear(1) ) {
 		year = date.getYear();
-		temp_DateTime.setYear ( year );
 		// Inner loop is for each CULocation
 		for ( i=0; i<num; i++ ) {
 			tsp = data_List.get(i);
@@ -3396,23 +3296,18 @@ DateTime start, DateTime end, PropList props ) throws IOException
 			v.clear();
 			v.add(StringUtil.formatString(date.getYear(),"%4d"));
 			v.add(tsp._id);
-			ceff_yts = tsp.getCeffTS();
-			val = ceff_yts.getDataValue ( temp_DateTime );
+			val = tsp.getValue ( FIELD_CEFF, year );
 			v.add(StringUtil.formatString(val, format_MaxEfficiency));
-			feff_yts = tsp.getFeffTS();
-			val = feff_yts.getDataValue ( temp_DateTime );
+			val = tsp.getValue ( FIELD_FEFF, year );
 			v.add(StringUtil.formatString(val, format_MaxEfficiency));
-			seff_yts = tsp.getSeffTS();
-			val = seff_yts.getDataValue ( temp_DateTime );
+			val = tsp.getValue ( FIELD_SEFF, year );
 			v.add(StringUtil.formatString(val, format_MaxEfficiency));
 			
 			if( version10 ) {
 				// FIXME SAM 2007-10-18 Remove later when tested out gacre_yts = tsp.getGacreTS();
 				if ( RecomputeVersion10Acreage_boolean ) {
-					acgwfl_yts = tsp.getAcgwflTS();
-					acgwfl_val = acgwfl_yts.getDataValue ( temp_DateTime );
-					acgwspr_yts = tsp.getAcgwsprTS();
-					acgwspr_val = acgwspr_yts.getDataValue ( temp_DateTime );
+					acgwfl_val = tsp.getValue ( FIELD_ACGWFL, year );
+					acgwspr_val = tsp.getValue ( FIELD_ACGWSPR, year );
 					if ( (acgwfl_val < 0.0) || (acgwspr_val < 0.0) ) {
 						val = -999.0;
 					}
@@ -3422,10 +3317,8 @@ DateTime start, DateTime end, PropList props ) throws IOException
 				}
 				v.add(StringUtil.formatString(val,area_format));
 				if ( RecomputeVersion10Acreage_boolean ) {
-					acswspr_yts = tsp.getAcswsprTS();
-					acswspr_val = acswspr_yts.getDataValue ( temp_DateTime );
-					acgwspr_yts = tsp.getAcgwsprTS();
-					acgwspr_val = acgwspr_yts.getDataValue ( temp_DateTime );
+					acswspr_val = tsp.getValue ( FIELD_ACSWSPR, year );
+					acgwspr_val = tsp.getValue ( FIELD_ACGWSPR, year );
 					if ( (acswspr_val < 0.0) || (acgwspr_val < 0.0) ) {
 						val = -999.0;
 					}
@@ -3437,8 +3330,7 @@ DateTime start, DateTime end, PropList props ) throws IOException
 			}
 			else {
 				// add the new land acreage
-				acswfl_yts = tsp.getAcswflTS();
-				acswfl_val = acswfl_yts.getDataValue ( temp_DateTime );
+				acswfl_val = tsp.getValue ( FIELD_ACSWFL, year );
 				if ( acswfl_val >= area_big ) {
 					v.add(StringUtil.formatString(acswfl_val,area_format0));
 				}
@@ -3446,8 +3338,7 @@ DateTime start, DateTime end, PropList props ) throws IOException
 					v.add(StringUtil.formatString(acswfl_val,area_format));
 				}
 								
-				acswspr_yts = tsp.getAcswsprTS();
-				acswspr_val = acswspr_yts.getDataValue ( temp_DateTime );
+				acswspr_val = tsp.getValue ( FIELD_ACSWSPR, year );
 				if ( acswspr_val >= area_big ) {
 					v.add(StringUtil.formatString(acswspr_val,area_format0));
 				}
@@ -3455,8 +3346,7 @@ DateTime start, DateTime end, PropList props ) throws IOException
 					v.add(StringUtil.formatString(acswspr_val,area_format));
 				}
 				
-				acgwfl_yts = tsp.getAcgwflTS();
-				acgwfl_val = acgwfl_yts.getDataValue ( temp_DateTime );
+				acgwfl_val = tsp.getValue ( FIELD_ACGWFL, year );
 				if ( acgwfl_val >= area_big ) {
 					v.add(StringUtil.formatString(acgwfl_val,area_format0));
 				}
@@ -3464,8 +3354,7 @@ DateTime start, DateTime end, PropList props ) throws IOException
 					v.add(StringUtil.formatString(acgwfl_val,area_format));
 				}
 				
-				acgwspr_yts = tsp.getAcgwsprTS();
-				acgwspr_val = acgwspr_yts.getDataValue ( temp_DateTime );
+				acgwspr_val = tsp.getValue ( FIELD_ACGWSPR, year );
 				if ( acgwspr_val >= area_big ) {
 					v.add(StringUtil.formatString(acgwspr_val,area_format0));
 				}
@@ -3473,14 +3362,11 @@ DateTime start, DateTime end, PropList props ) throws IOException
 					v.add(StringUtil.formatString(acgwspr_val,area_format));
 				}
 			}
-			mprate_yts = tsp.getMprateTS();
-			val = mprate_yts.getDataValue ( temp_DateTime );
+			val = tsp.getValue ( FIELD_MPRATE, year );
 			v.add(StringUtil.formatString(val,"%12.0f"));
-			gmode_yts = tsp.getGmodeTS();
-			val = gmode_yts.getDataValue ( temp_DateTime );
+			val = tsp.getValue ( FIELD_GMODE, year );
 			v.add(StringUtil.formatString((int)(val + .1),"%3d"));
-			tacre_yts = tsp.getTacreTS();
-			val = tacre_yts.getDataValue ( temp_DateTime );
+			val = tsp.getValue ( FIELD_TACRE, year );
 			if ( val >= area_big ) {
 				v.add(StringUtil.formatString(val,area_format0));
 			}
@@ -3489,8 +3375,7 @@ DateTime start, DateTime end, PropList props ) throws IOException
 			}
 			if ( !version10 ) {
 				// Add the new supply type acreage
-				acsw_yts = tsp.getAcswTS();
-				acsw_val = acsw_yts.getDataValue ( temp_DateTime );
+				acsw_val = tsp.getValue ( FIELD_ACSW, year );
 				if ( acsw_val >= area_big ) {
 					v.add(StringUtil.formatString(acsw_val,area_format0));
 				}
@@ -3498,8 +3383,7 @@ DateTime start, DateTime end, PropList props ) throws IOException
 					v.add(StringUtil.formatString(acsw_val,area_format));
 				}
 				// Add the new supply type acreage
-				acgw_yts = tsp.getAcgwTS();
-				acgw_val = acgw_yts.getDataValue ( temp_DateTime );
+				acgw_val = tsp.getValue ( FIELD_ACGW, year );
 				if ( acgw_val >= area_big ) {
 					v.add(StringUtil.formatString(acgw_val,area_format0));
 				}
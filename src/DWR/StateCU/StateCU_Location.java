@@ -30,7 +30,9 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import RTi.Util.IO.IOUtil;
 import RTi.Util.IO.PropList;
@@ -142,8 +144,9 @@ private double[] __temperature_station_weights = null;
 /**
 The list of StateCU_Parcel observations, as an archive of observations to use with data processing.
 These are read from HydroBase by StateDMI ReadCULocationParcelsFromHydroBase command.
+The parcels are sorted by year and indexed by year and parcel identifier.
 */
-private List<StateCU_Parcel> __parcelList = new ArrayList<>();
+private StateCU_ParcelStore __parcelStore = new StateCU_ParcelStore ( true );
 
 /**
  * Indicate whether any SetCropPatternTS() commands are used in StateDMI.
@@ -190,59 +193,11 @@ public StateCU_Location()
  * Any additions to the supply should be handled elsewhere, such as when creating/updating the parcel object during read.
  */
 public void addParcel ( StateCU_Parcel parcelToAdd ) {
-	StateCU_Parcel parcelFound = null;
-	for ( StateCU_Parcel parcel : this.__parcelList ) {
-		if ( (parcel.getYear() == parcelToAdd.getYear()) && parcel.getID().equals(parcelToAdd.getID()) ) {
-			// Found an existing parcel.
-			parcelFound = parcel;
-			break;
-		}
-	}
-	/*
-	if ( parcelFound != null ) {
-		// Add the supply to the existing found parcel if it has not already been added
-		for ( StateCU_Supply supply : parcelToAdd.getSupplyList() ) {
-			parcelFound.addSupply(supply);
-		}
-	}
-	else {
-	*/
-	if ( parcelFound == null ) {
+	if ( this.__parcelStore.getParcel(parcelToAdd.getYear(), parcelToAdd.getID()) == null ) {
 		// Add the new parcel to the list:
 		// - add after the same year, if was already added so that year lines up for main model node ID
-		boolean sortByYear = true;
-		if ( (this.__parcelList.size() == 0) || !sortByYear ) {
-			// Just add at the end.
-			this.__parcelList.add(parcelToAdd);
-		}
-		else {
-			// Have at least one parcel.
-			// Search to insert at end of matched year or before higher year, for example:
-			//    1954
-			//    1954
-			//    1970
-			//    1970
-			//    1980
-			//    1980
-			StateCU_Parcel parcel = null;
-			int ifound = -1;
-			for ( int i = 0; i < this.__parcelList.size(); i++ ) {
-				parcel = this.__parcelList.get(i);
-				if ( parcel.getYear() > parcelToAdd.getYear() ) {
-					ifound = i;
-					break;
-				}
-			}
-			if ( ifound >= 0 ) {
-				// Found a year that is <= the current year.
-				// Add after that year, may be a new slot in the list.
-				this.__parcelList.add(ifound,parcelToAdd);
-			}
-			else {
-				// Did not find a year that is > the current year so add at the end.
-				this.__parcelList.add(parcelToAdd);
-			}
-		}
+		// - if a parcel with the same year and ID was already added, the supply should be handled elsewhere
+		this.__parcelStore.add(parcelToAdd);
 	}
 }
 
@@ -265,39 +220,26 @@ public void createBackup() {
  * @param endStart end year to limit search.
  */
 public static List<Integer> getParcelYears ( List<StateCU_Location> culocList, int yearStart, int yearEnd ) {
-	List<Integer> parcelYears = new ArrayList<>();
-	int parcelYear;
-	boolean found = false;
+	// Use a set to check whether a year has already been added, but return the years in the order found.
+	Set<Integer> parcelYears = new LinkedHashSet<>();
 	for ( StateCU_Location culoc : culocList ) {
-		List<StateCU_Parcel> parcelList = culoc.getParcelList();
-		for ( StateCU_Parcel parcel : parcelList ) {
-			parcelYear = parcel.getYear();
-			if ( parcelYear <= 0 ) {
+		for ( Integer parcelYear : culoc.getParcelYearList() ) {
+			if ( parcelYear.intValue() <= 0 ) {
 				// Missing parcel year.
 				continue;
 			}
-			if ( (yearStart > 0) && (parcelYear < yearStart) ) {
+			if ( (yearStart > 0) && (parcelYear.intValue() < yearStart) ) {
 				// Parcel year is before requested start.
 				continue;
 			}
-			if ( (yearEnd > 0) && (parcelYear > yearEnd) ) {
+			if ( (yearEnd > 0) && (parcelYear.intValue() > yearEnd) ) {
 				// Parcel year is after requested end.
 				continue;
 			}
-			// See if the parcel year has already been added
-			found = false;
-			for ( Integer iparcel : parcelYears ) {
-				if ( iparcel.equals(parcelYear) ) {
-					found = true;
-					break;
-				}
-			}
-			if ( !found ) {
-				parcelYears.add ( Integer.valueOf(parcelYear) );
-			}
+			parcelYears.add ( parcelYear );
 		}
 	}
-	return parcelYears;
+	return new ArrayList<>(parcelYears);
 }
 
 /**
@@ -464,11 +406,11 @@ public String getClimateStationID ( int pos )
 }
 
 /**
-Return the full parcel list.
-@return the list of StateCU_Parcel
+Return the full parcel list.  The list cannot be modified - use addParcel() to add parcels.
+@return an unmodifiable view of the list of StateCU_Parcel
 */
 public List<StateCU_Parcel> getParcelList () {
-	return this.__parcelList;
+	return this.__parcelStore.getParcelList();
 }
 
 /**
@@ -477,13 +419,7 @@ Return the full parcel list for the requested year.
 @return the list of StateCU_Parcel for the requested year
 */
 public List<StateCU_Parcel> getParcelList ( int year ) {
-	List<StateCU_Parcel> parcelList = new ArrayList<>();
-	for ( StateCU_Parcel parcel : this.__parcelList ) {
-		if ( parcel.getYear() == year ) {
-			parcelList.add(parcel);
-		}
-	}
-	return parcelList;
+	return this.__parcelStore.getParcelList(year);
 }
 
 /**
@@ -491,22 +427,7 @@ Return the list of year for parcels associated with the location, sorted.
 @return the list of year for parcels associated with the location, sorted.
 */
 public List<Integer> getParcelYearList () {
-	List<Integer> parcelYearList = new ArrayList<>();
-	boolean found;
-	for ( StateCU_Parcel parcel : this.__parcelList ) {
-		found = false;
-		for ( Integer year : parcelYearList ) {
-			if ( year.equals(parcel.getYear()) ) {
-				found = true;
-				break;
-			}
-		}
-		if ( !found ) {
-			parcelYearList.add(Integer.valueOf(parcel.getYear()));
-		}
-	}
-	Collections.sort(parcelYearList);
-	return parcelYearList;
+	return this.__parcelStore.getParcelYearList();
 }
 
 /**
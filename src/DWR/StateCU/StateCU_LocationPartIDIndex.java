@@ -0,0 +1,198 @@
+// StateCU_LocationPartIDIndex - lookup of CU locations by location and collection part identifier
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateCU;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+Index of StateCU_Location by location identifier and collection part identifier.
+The index is created once from a list of locations after the collection information has been defined,
+and can then be used to find the location for each part (e.g., when assigning supplies to parcels) without
+searching the list and the collection parts for each lookup.  The index is not updated if the list or the
+collection information is changed and must be created again in that case.
+Identifiers are compared ignoring case and the first matching location in the list is returned,
+consistent with StateCU_Util.indexOf() and StateCU_Util.getLocationForPartID().
+*/
+public class StateCU_LocationPartIDIndex
+{
+
+/**
+Locations by location identifier key (see getKey()).
+*/
+private Map<String,StateCU_Location> __locationMap = new HashMap<>();
+
+/**
+Ditch collection locations by part identifier key.  Ditch collections are the same for all years.
+*/
+private Map<String,StateCU_Location> __ditchPartMap = new HashMap<>();
+
+/**
+Well collection locations by part identifier key, for collections that use well identifiers,
+which are the same for all years.
+*/
+private Map<String,StateCU_Location> __wellPartMap = new HashMap<>();
+
+/**
+Well collection locations by year and then part identifier key, for collections that use parcel identifiers,
+which vary by year.
+*/
+private Map<Integer,Map<String,StateCU_Location>> __parcelPartMap = new HashMap<>();
+
+/**
+Create the index for a list of locations.
+@param culocList list of StateCU_Location to index.  The collection information is assumed to have been defined
+for the locations.
+*/
+public StateCU_LocationPartIDIndex ( List<StateCU_Location> culocList )
+{
+	if ( culocList == null ) {
+		return;
+	}
+	for ( StateCU_Location culoc : culocList ) {
+		if ( culoc.getID() != null ) {
+			putIfAbsent ( __locationMap, culoc.getID(), culoc );
+		}
+		StateCU_Location_CollectionPartType partType = culoc.getCollectionPartType();
+		if ( partType == StateCU_Location_CollectionPartType.DITCH ) {
+			// Since ditches, year is irrelevant
+			addParts ( __ditchPartMap, culoc.getCollectionPartIDsForYear(-1), culoc );
+		}
+		else if ( partType == StateCU_Location_CollectionPartType.WELL ) {
+			addParts ( __wellPartMap, culoc.getCollectionPartIDs(), culoc );
+		}
+		else if ( partType == StateCU_Location_CollectionPartType.PARCEL ) {
+			int [] years = culoc.getCollectionYears();
+			if ( years == null ) {
+				continue;
+			}
+			for ( int year : years ) {
+				Map<String,StateCU_Location> partMap = __parcelPartMap.get(Integer.valueOf(year));
+				if ( partMap == null ) {
+					partMap = new HashMap<>();
+					__parcelPartMap.put ( Integer.valueOf(year), partMap );
+				}
+				addParts ( partMap, culoc.getCollectionPartIDsForYear(year), culoc );
+			}
+		}
+	}
+}
+
+/**
+Add the part identifiers for a location to a part map.
+*/
+private static void addParts ( Map<String,StateCU_Location> partMap, List<String> partIds, StateCU_Location culoc )
+{
+	if ( partIds == null ) {
+		return;
+	}
+	for ( String partId : partIds ) {
+		if ( partId != null ) {
+			putIfAbsent ( partMap, partId, culoc );
+		}
+	}
+}
+
+/**
+Return the key used to compare identifiers while ignoring case.
+Characters are converted to upper case and then lower case, consistent with String.equalsIgnoreCase().
+*/
+private static String getKey ( String id )
+{
+	return id.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+}
+
+/**
+Return the location that has the identifier.
+The result is the same as searching the list with StateCU_Util.indexOf().
+@param id location identifier to find
+@return the matching StateCU_Location, or null if not found
+*/
+public StateCU_Location getLocation ( String id )
+{
+	if ( id == null ) {
+		return null;
+	}
+	return __locationMap.get ( getKey(id) );
+}
+
+/**
+Determine the CU Location given a part identifier.  If the part identifier
+matches a full location, then the full location is returned.  Otherwise the ditch collection
+that includes the part is returned.  Only ditch identifiers can be matched (collections of parcels cannot).
+The result is the same as StateCU_Util.getLocationForPartID().
+@param partId the identifier to be found
+@return the matching StateCU_Location, or null if a match cannot be found.
+*/
+public StateCU_Location getLocationForPartID ( String partId )
+{
+	if ( partId == null ) {
+		return null;
+	}
+	String key = getKey ( partId );
+	StateCU_Location culoc = __locationMap.get ( key );
+	if ( culoc == null ) {
+		culoc = __ditchPartMap.get ( key );
+	}
+	return culoc;
+}
+
+/**
+Determine the well collection CU Location given a well part identifier.
+Collections that use well identifiers are checked first (same for all years),
+and then collections that use parcel identifiers for the year.
+@param partId the well or parcel identifier to be found
+@param year the year of interest, used with collections that use parcel identifiers
+@return the matching StateCU_Location, or null if a match cannot be found.
+*/
+public StateCU_Location getLocationForWellPartID ( String partId, int year )
+{
+	if ( partId == null ) {
+		return null;
+	}
+	String key = getKey ( partId );
+	StateCU_Location culoc = __wellPartMap.get ( key );
+	if ( culoc == null ) {
+		Map<String,StateCU_Location> partMap = __parcelPartMap.get(Integer.valueOf(year));
+		if ( partMap != null ) {
+			culoc = partMap.get ( key );
+		}
+	}
+	return culoc;
+}
+
+/**
+Add a location to a map if the key is not already in the map, so that the first location in the list is used.
+*/
+private static void putIfAbsent ( Map<String,StateCU_Location> map, String id, StateCU_Location culoc )
+{
+	String key = getKey ( id );
+	if ( !map.containsKey(key) ) {
+		map.put ( key, culoc );
+	}
+}
+
+}
@@ -692,6 +692,7 @@ private void initialize() {
  * </ul>
  * This method is called if the object is detected to be in a dirty state,
  * meaning data have been set but derived values have not been updated.
+ * Use StateCU_ParcelRecomputeEngine to recompute many parcels at once.
  */
 public void recompute () {
 	if ( !this.isDirty() ) {
@@ -715,6 +716,9 @@ public void recompute () {
 	// Loop through the well supply parcels and update the irrigAreaFraction and irrigArea based on count
 	// - divide the parcel area by the number of wells
 	// - divide the diversion area by the number of diversions
+	// Formatted surface water fraction, which is the same for all surface water supplies
+	// - format once because parcels may be recomputed in bulk (see StateCU_ParcelRecomputeEngine)
+	String areaIrrigFractionSWString = null;
 	for ( StateCU_Supply supply : this.supplyList ) {
 		if ( supply instanceof StateCU_SupplyFromGW ) {
 			StateCU_SupplyFromGW supplyFromGW = (StateCU_SupplyFromGW)supply;
@@ -773,7 +777,10 @@ public void recompute () {
 			// - this should the same as the default for CheckParcels(AreaFormat) parameter. 
 			int areaPrecision = 1;
 			String areaFormat = "%." + areaPrecision + "f";
-			if ( !String.format(areaFormat, supplyFromSW.getAreaIrrigFraction()).equals(
+			if ( areaIrrigFractionSWString == null ) {
+				areaIrrigFractionSWString = String.format(areaFormat, supplyFromSW.getAreaIrrigFraction());
+			}
+			if ( !areaIrrigFractionSWString.equals(
 				String.format(areaFormat, supplyFromSW.getAreaIrrigFractionHydroBase())) ) {
 				//Message.printWarning(3, "", "Calculated supply fraction is " + supplyFromSW.getAreaIrrigFraction() +
 				//	" HydroBase fraction is " + supplyFromSW.getAreaIrrigFractionHydroBase() );
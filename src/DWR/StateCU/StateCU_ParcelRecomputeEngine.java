@@ -0,0 +1,234 @@
+// StateCU_ParcelRecomputeEngine - recompute derived parcel supply data for many parcels
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateCU;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import RTi.Util.Message.Message;
+
+/**
+Recompute derived supply data (supply counts and irrigated area fractions) for many StateCU_Parcel
+in one call, rather than recomputing each parcel as it is accessed after addSupply().
+Parcels that are not dirty are skipped.  Parcels can be recomputed in parallel because StateCU_Parcel.recompute()
+only modifies the parcel and its own supply objects.  A parcel that is shared by several locations is recomputed once.
+Counters are accumulated over all calls until reset() is called.
+*/
+public class StateCU_ParcelRecomputeEngine
+{
+
+/**
+Minimum number of parcels for each thread.  Smaller lists are recomputed on the calling thread.
+*/
+private static final int __MIN_PARCELS_PER_THREAD = 1000;
+
+/**
+Number of parcels that were examined.
+*/
+private long __parcelCount = 0;
+
+/**
+Number of parcels that were recomputed because they were dirty.
+*/
+private long __recomputeCount = 0;
+
+/**
+Number of supplies in the parcels that were recomputed.
+*/
+private long __supplyCount = 0;
+
+/**
+Elapsed time for recomputing, seconds.
+*/
+private double __elapsedSeconds = 0.0;
+
+/**
+Construct an engine with zero counters.
+*/
+public StateCU_ParcelRecomputeEngine ()
+{
+}
+
+/**
+Return the elapsed time for recomputing, seconds.
+@return the elapsed time for recomputing, seconds
+*/
+public double getElapsedSeconds ()
+{
+	return __elapsedSeconds;
+}
+
+/**
+Return the number of parcels that were examined.
+@return the number of parcels that were examined
+*/
+public long getParcelCount ()
+{
+	return __parcelCount;
+}
+
+/**
+Return the number of parcels that were recomputed because they were dirty.
+@return the number of parcels that were recomputed
+*/
+public long getRecomputeCount ()
+{
+	return __recomputeCount;
+}
+
+/**
+Return the number of parcels that were skipped because they were not dirty.
+@return the number of parcels that were skipped
+*/
+public long getSkippedCount ()
+{
+	return __parcelCount - __recomputeCount;
+}
+
+/**
+Return the number of supplies in the parcels that were recomputed.
+@return the number of supplies that were processed
+*/
+public long getSupplyCount ()
+{
+	return __supplyCount;
+}
+
+/**
+Recompute the dirty parcels in a list.
+@param parcelList list of parcels to recompute; each parcel should only be in the list once
+@param parallel if true, recompute using a thread pool sized to the number of processors
+*/
+public void recompute ( final List<StateCU_Parcel> parcelList, boolean parallel )
+{	String routine = getClass().getSimpleName() + ".recompute";
+	long start = System.nanoTime();
+	int size = parcelList.size();
+	int threadCount = Math.min(Runtime.getRuntime().availableProcessors(), size/__MIN_PARCELS_PER_THREAD);
+	long [] counts;
+	if ( !parallel || (threadCount <= 1) ) {
+		counts = recompute ( parcelList, 0, size );
+	}
+	else {
+		counts = new long[2];
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			List<Future<long []>> futures = new ArrayList<Future<long []>>(threadCount);
+			int blockSize = (size + threadCount - 1)/threadCount;
+			for ( int blockStart = 0; blockStart < size; blockStart += blockSize ) {
+				final int start0 = blockStart;
+				final int end0 = Math.min(size, blockStart + blockSize);
+				futures.add ( executor.submit(new Callable<long []>() {
+					public long [] call () {
+						return recompute ( parcelList, start0, end0 );
+					}
+				}));
+			}
+			for ( Future<long []> future : futures ) {
+				long [] blockCounts = future.get();
+				counts[0] += blockCounts[0];
+				counts[1] += blockCounts[1];
+			}
+		}
+		catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException ( "Interrupted recomputing parcels.", e );
+		}
+		catch ( ExecutionException e ) {
+			throw new RuntimeException ( "Error recomputing parcels.", e.getCause() );
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+	double seconds = (System.nanoTime() - start)/1.0e9;
+	__parcelCount += size;
+	__recomputeCount += counts[0];
+	__supplyCount += counts[1];
+	__elapsedSeconds += seconds;
+	if ( Message.isDebugOn ) {
+		Message.printDebug ( 1, routine, "Examined " + size + " parcels, recomputed " + counts[0] +
+			" parcels with " + counts[1] + " supplies in " + String.format("%.3f", seconds) + " seconds." );
+	}
+}
+
+/**
+Recompute the dirty parcels in a range of a list.
+@return the number of parcels recomputed and the number of supplies in those parcels
+*/
+private static long [] recompute ( List<StateCU_Parcel> parcelList, int start, int end )
+{
+	long [] counts = new long[2];
+	for ( int i = start; i < end; i++ ) {
+		StateCU_Parcel parcel = parcelList.get(i);
+		if ( parcel.isDirty() ) {
+			parcel.recompute();
+			++counts[0];
+			counts[1] += parcel.getSupplyList().size();
+		}
+	}
+	return counts;
+}
+
+/**
+Recompute the dirty parcels for a list of locations.
+Parcels that are associated with more than one location are recomputed once.
+@param culocList list of locations
+@param year parcel year to recompute, or a value <= 0 to recompute parcels for all years
+@param parallel if true, recompute using a thread pool sized to the number of processors
+*/
+public void recomputeLocations ( List<StateCU_Location> culocList, int year, boolean parallel )
+{
+	Set<StateCU_Parcel> parcelSet = Collections.newSetFromMap(new IdentityHashMap<StateCU_Parcel,Boolean>());
+	List<StateCU_Parcel> parcelList = new ArrayList<StateCU_Parcel>();
+	for ( StateCU_Location culoc : culocList ) {
+		List<StateCU_Parcel> culocParcelList = (year > 0) ? culoc.getParcelList(year) : culoc.getParcelList();
+		for ( StateCU_Parcel parcel : culocParcelList ) {
+			if ( parcelSet.add(parcel) ) {
+				parcelList.add ( parcel );
+			}
+		}
+	}
+	recompute ( parcelList, parallel );
+}
+
+/**
+Reset the counters to zero.
+*/
+public void reset ()
+{
+	__parcelCount = 0;
+	__recomputeCount = 0;
+	__supplyCount = 0;
+	__elapsedSeconds = 0.0;
+}
+
+}
@@ -0,0 +1,172 @@
+// StateCU_ParcelStore - parcel list indexed by year and parcel identifier
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateCU;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+List of StateCU_Parcel that is indexed by parcel year and by parcel year and identifier.
+This is used by StateCU_Location, StateCU_CropPatternTS, and StateCU_IrrigationPracticeTS to hold parcels so that
+parcels for a year can be found without searching the full list and so that duplicate parcels can be detected
+without a search.  The parcel year and identifier must not be changed after the parcel is added.
+*/
+public class StateCU_ParcelStore
+{
+
+/**
+All parcels, in the order determined by __sortByYear.
+*/
+private List<StateCU_Parcel> __parcelList = new ArrayList<>();
+
+/**
+Unmodifiable view of __parcelList, returned by getParcelList() so that parcels are only added with add(),
+which keeps the indexes consistent with the list.
+*/
+private List<StateCU_Parcel> __parcelListView = Collections.unmodifiableList(__parcelList);
+
+/**
+Parcels for each year, in the order that they were added, sorted by year.
+*/
+private TreeMap<Integer,List<StateCU_Parcel>> __yearParcelMap = new TreeMap<>();
+
+/**
+First parcel added for each year and identifier, using the key from getParcelKey().
+*/
+private Map<String,StateCU_Parcel> __parcelKeyMap = new HashMap<>();
+
+/**
+Whether parcels are inserted into __parcelList after the parcels for the same and earlier years.
+If false, parcels are added to the end of the list.
+*/
+private boolean __sortByYear = false;
+
+/**
+Construct an empty parcel store.
+@param sortByYear if true, the full parcel list is kept sorted by year, with parcels for the same year in the
+order that they were added.  If false, the full parcel list is in the order that parcels were added.
+*/
+public StateCU_ParcelStore ( boolean sortByYear )
+{
+	__sortByYear = sortByYear;
+}
+
+/**
+Add a parcel.  The parcel is added even if a parcel with the same year and identifier has already been added
+(use getParcel() to check first if duplicates are not allowed).
+@param parcel the parcel to add
+*/
+public void add ( StateCU_Parcel parcel )
+{
+	Integer year = Integer.valueOf(parcel.getYear());
+	List<StateCU_Parcel> yearParcelList = __yearParcelMap.get(year);
+	if ( yearParcelList == null ) {
+		yearParcelList = new ArrayList<>();
+		__yearParcelMap.put ( year, yearParcelList );
+	}
+	yearParcelList.add ( parcel );
+	String key = getParcelKey ( parcel.getYear(), parcel.getID() );
+	if ( !__parcelKeyMap.containsKey(key) ) {
+		__parcelKeyMap.put ( key, parcel );
+	}
+	if ( __sortByYear ) {
+		// Insert after the parcels for the same and earlier years, which is the same as inserting
+		// before the first parcel with a later year.
+		int pos = 0;
+		for ( List<StateCU_Parcel> list : __yearParcelMap.headMap(year,true).values() ) {
+			pos += list.size();
+		}
+		// The count includes the parcel that was just added.
+		__parcelList.add ( pos - 1, parcel );
+	}
+	else {
+		__parcelList.add ( parcel );
+	}
+}
+
+/**
+Return the first parcel that was added for a year and identifier.
+The identifier is compared using case.
+@param year parcel year
+@param id parcel identifier
+@return the parcel, or null if not found
+*/
+public StateCU_Parcel getParcel ( int year, String id )
+{
+	return __parcelKeyMap.get ( getParcelKey(year, id) );
+}
+
+/**
+Return the key used to look up a parcel by year and identifier.
+*/
+private static String getParcelKey ( int year, String id )
+{
+	return year + ":" + id;
+}
+
+/**
+Return the full parcel list.  The list cannot be modified - use add() to add parcels.
+@return an unmodifiable view of the list of StateCU_Parcel, which reflects parcels that are added later
+*/
+public List<StateCU_Parcel> getParcelList ()
+{
+	return __parcelListView;
+}
+
+/**
+Return the parcels for a year.
+@param year parcel year
+@return a new list of StateCU_Parcel for the year, in the order that they were added
+*/
+public List<StateCU_Parcel> getParcelList ( int year )
+{
+	List<StateCU_Parcel> yearParcelList = __yearParcelMap.get(Integer.valueOf(year));
+	if ( yearParcelList == null ) {
+		return new ArrayList<>();
+	}
+	return new ArrayList<>(yearParcelList);
+}
+
+/**
+Return the parcel years, sorted.
+@return a new list of the parcel years, sorted
+*/
+public List<Integer> getParcelYearList ()
+{
+	return new ArrayList<>(__yearParcelMap.keySet());
+}
+
+/**
+Return the number of parcels.
+*/
+public int size ()
+{
+	return __parcelList.size();
+}
+
+}
@@ -63,6 +63,13 @@ Crop coefficient for each stage.
 */
 private double [][] __kcb = null;
 
+/**
+Version of the curve data, incremented when curve positions or coefficients are set, used by
+StateCU_CropCoefficientEngine to know when cached coefficient tables need to be recomputed.
+Changes made directly to the arrays returned by the get methods are not detected.
+*/
+private int __curveVersion = 0;
+
 /**
 Construct a StateCU_PenmanMonteith instance and set to missing and empty data.
 @param nGrowthStage the number of growth stages.
@@ -149,6 +156,14 @@ public double getKcday(int igs, int index)
 	return __kcday[igs][index];
 }
 
+/**
+Return the version of the curve data, which is incremented each time curve positions or coefficients are set.
+@return the version of the curve data.
+*/
+public int getCurveVersion ()
+{	return __curveVersion;
+}
+
 /**
 Returns the data column header for the specifically checked data.
 @return Data column header.
@@ -299,6 +314,7 @@ public void restoreOriginal() {
 	__kcb = bc.__kcb;
 	__kcday = bc.__kcday;
 	__nGrowthStages = bc.__nGrowthStages;
+	++__curveVersion;
 	_isClone = false;
 	_original = null;
 }
@@ -310,6 +326,7 @@ Set the curve value for the crop coefficient curve (coefficient only).
 */
 public void setCurveValue ( int igs, int i, double coeff )
 {	__kcb[igs][i] = coeff;
+	++__curveVersion;
 }
 
 /**
@@ -322,6 +339,7 @@ Set the values for the crop coefficient curve (curve position and coefficient).
 public void setCurveValues ( int igs, int i, double pos, double coeff )
 {	__kcday[igs][i] = pos;
 	__kcb[igs][i] = coeff;
+	++__curveVersion;
 }
 
 /**
@@ -333,6 +351,7 @@ For example 1 corresponds to 5% for a percent curve or day 15 for a day curve.
 public void setCurvePosition(int igs, int i, double pos)
 {
 	__kcday[igs][i] = pos;
+	++__curveVersion;
 }
 
 // TODO SAM 2009-05-08 Evaluate whether to allow passing in max coefficient value for check
@@ -31,6 +31,7 @@ import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Vector;
+import java.util.regex.Pattern;
 
 import RTi.TS.MonthTS;
 import RTi.TS.TS;
@@ -173,6 +174,84 @@ public static boolean isReportFile ( String filename )
 	return false;
 }
 
+/**
+Parse a data line from a StateCU frost dates file into the year and the identifier and date fields
+(fixed widths 5, 12, 8, 8, 8, 8), without the general format handling of StringUtil.fixedRead().
+Fields that are beyond the end of the line are returned as empty strings.
+@param iline Data line to parse.
+@param fields Array of size 6 to receive the untrimmed fields.
+@return the year from the first field.
+*/
+private static int parseFrostDatesFileDataLine ( String iline, String [] fields )
+{	int [] format_w = { 5, 12, 8, 8, 8, 8 };
+	int len = iline.length();
+	int start = 0;
+	for ( int i = 0; i < format_w.length; i++ ) {
+		int end = Math.min(start + format_w[i], len);
+		fields[i] = (start < end) ? iline.substring(start,end) : "";
+		start = end;
+	}
+	try {
+		return Integer.parseInt(fields[0].trim());
+	}
+	catch ( NumberFormatException e ) {
+		// Use the general parser so that the year is the same as previous versions...
+		return ((Integer)StringUtil.fixedRead(iline, "i5").get(0)).intValue();
+	}
+}
+
+/**
+Parse a data line from a StateCU report file.  The fields are parsed directly from the line into the values
+array, with the year in the first position, without creating objects for each value.
+If a field is blank or is not a number, StringUtil.fixedRead() is used for the line so that the values are
+the same as previous versions.
+@param iline Data line to parse.
+@param format Field types for StringUtil.fixedRead().
+@param format_w Field widths.
+@param values Array to receive the values, with size of at least format_w.length.
+@param v List to reuse with StringUtil.fixedRead(), can be null.
+@return the list from StringUtil.fixedRead() if it was used, or v if not.
+*/
+private static List<Object> parseReportFileDataLine ( String iline, int [] format, int [] format_w,
+	double [] values, List<Object> v )
+{	int start = 0;
+	int len = iline.length();
+	boolean parsed = true;
+	try {
+		for ( int i = 0; i < format_w.length; i++ ) {
+			int end = start + format_w[i];
+			if ( end > len ) {
+				parsed = false;
+				break;
+			}
+			String field = iline.substring(start,end).trim();
+			if ( field.length() == 0 ) {
+				parsed = false;
+				break;
+			}
+			if ( format[i] == StringUtil.TYPE_INTEGER ) {
+				values[i] = Integer.parseInt(field);
+			}
+			else {
+				values[i] = Double.parseDouble(field);
+			}
+			start = end;
+		}
+	}
+	catch ( NumberFormatException e ) {
+		parsed = false;
+	}
+	if ( parsed ) {
+		return v;
+	}
+	v = StringUtil.fixedRead ( iline, format, format_w, v );
+	values[0] = ((Integer)v.get(0)).intValue();
+	for ( int i = 1; i < format_w.length; i++ ) {
+		values[i] = ((Double)v.get(i)).doubleValue();
+	}
+	return v;
+}
+
 /**
 Read a time series from a StateCU format file.  The TSID string is specified
 in addition to the path to the file.  It is expected that a TSID in the file
@@ -490,7 +569,8 @@ throws Exception
 	// Sometimes, the time series files have empty lines at the
 	// bottom, checking it's length seemed to solve the problem.
 
-	String format_annual = "i5s12s8s8s8s8";
+	String [] fields = new String[6];	// Fields parsed from a data line, using widths 5, 12, 8, 8, 8, 8
+	int line_year = 0;		// Year parsed from a data line
 	boolean first_line_read = false;	// Indicate that initial year is
 						// is being read.
 	currentIDindex = 0;
@@ -516,7 +596,7 @@ throws Exception
 		// file...
 
 		if ( !read_data || (requested_id == null) ) {
-			v = StringUtil.fixedRead(iline, format_annual);	
+			line_year = parseFrostDatesFileDataLine(iline, fields);
 			line_parsed = true;
 		}
 
@@ -525,10 +605,10 @@ throws Exception
 
 		if ( !first_line_read ) {
 			if ( !line_parsed ) {
-				v = StringUtil.fixedRead(iline,format_annual );	
+				line_year = parseFrostDatesFileDataLine(iline, fields);
 				line_parsed = true;
 			}
-			current_year = ((Integer)v.get(0)).intValue();
+			current_year = line_year;
 			if ( current_year != y1 ) {
 				message = "First data record does not match " +
 					"start of period:  " + y1;
@@ -565,10 +645,10 @@ throws Exception
 		// OR a requested identifier has been found...
 
 		if ( !line_parsed ) {
-			v = StringUtil.fixedRead (iline, format_annual);	
+			line_year = parseFrostDatesFileDataLine(iline, fields);
 			line_parsed = true;
 		}
-		current_year = ((Integer)v.get(0)).intValue();
+		current_year = line_year;
 		if ( Message.isDebugOn ) {
 			Message.printDebug ( dl, rtn,
 			"Found id!  Read annual format." );
@@ -577,7 +657,7 @@ throws Exception
 		if ( requested_id == null ) {
 			// Need to get because it is parsed above only when
 			// searching for a requested ID...
-			id = ((String)v.get(1)).trim();
+			id = fields[1].trim();
 		}
 
 		if ( Message.isDebugOn ) {
@@ -833,10 +913,10 @@ throws Exception
 
 		try {	// Might return a null...
 			// Need to save the data...
-			current_year = ((Integer)v.get(0)).intValue();
+			current_year = line_year;
 			date.setYear ( current_year );
 			if ( currentTS0 != null ) {
-				string = ((String)v.get(2)).trim();
+				string = fields[2].trim();
 				if ( string.charAt(0) != '-' ) {
 					// Not missing...
 					try {	tsdate = DateTime.parse(string);
@@ -853,7 +933,7 @@ throws Exception
 				}
 			}
 			if ( currentTS1 != null ) {
-				string = ((String)v.get(3)).trim();
+				string = fields[3].trim();
 				if ( string.charAt(0) != '-' ) {
 					try {	tsdate = DateTime.parse(string);
 						tsdate.setYear ( current_year );
@@ -869,7 +949,7 @@ throws Exception
 				}
 			}
 			if ( currentTS2 != null ) {
-				string = ((String)v.get(4)).trim();
+				string = fields[4].trim();
 				if ( string.charAt(0) != '-' ) {
 					try {	tsdate = DateTime.parse(string);
 						tsdate.setYear ( current_year );
@@ -885,7 +965,7 @@ throws Exception
 				}
 			}
 			if ( currentTS3 != null ) {
-				string = ((String)v.get(5)).trim();
+				string = fields[5].trim();
 				if ( string.charAt(0) != '-' ) {
 					try {	tsdate = DateTime.parse(string);
 						tsdate.setYear ( current_year );
@@ -957,6 +1037,7 @@ throws Exception
 	String req_data_type = null;
 	String req_interval = null;
 	String req_id_pattern = null;	// Need for wildcarding
+	Pattern req_id_regex = null;	// Compiled once rather than matching the string for each location
 	List<TS> tslist = new Vector<TS>();
 	int dl = 1;
 	int line_count = 0;
@@ -966,6 +1047,7 @@ throws Exception
 		req_tsident = new TSIdent ( req_tsident_string );
 		req_id = req_tsident.getLocation();
 		req_id_pattern = StringUtil.replaceString(req_id,"*",".*");
+		req_id_regex = Pattern.compile ( req_id_pattern );
 		if ( req_id.indexOf('*') >= 0 ) {
 			req_id_has_wildcards = true;
 		}
@@ -1028,6 +1110,7 @@ throws Exception
 	YearTS area_ts = null, yts = null, depth_ts = null;
 	MonthTS mts = null;		// The time series to return.
 	List<Object> v = null;		// Used to parse
+	double [] values = new double[format.length];	// Values parsed from a data line
 	String iline;			// Line read from file.
 	boolean include_area_ts = true;	// Indicate which time series to include
 	boolean include_mts = true;
@@ -1077,6 +1160,28 @@ throws Exception
 		iline = in.readLine();	++line_count;
 		iline = in.readLine();	++line_count;
 		iline = in.readLine();	++line_count;
+		if ( (req_id != null) && !req_id_regex.matcher(id).matches() ) {
+			// No need to process - skip the data lines for the
+			// location without buffering or parsing them...
+			if ( Message.isDebugOn ) {
+				Message.printDebug ( dl, routine,
+				"Ignoring - " + id +
+				" does not match requested \"" +
+				req_id + "\"" );
+			}
+			while ( true ) {
+				iline = in.readLine();
+				if ( (iline == null) || iline.startsWith("-") ) {
+					break;
+				}
+				++line_count;
+			}
+			if ( iline == null ) {
+				break;
+			}
+			++line_count;
+			continue;
+		}
 		// Now read the data associated with the time series - one line
 		// per year...
 		ilines.clear ();
@@ -1094,19 +1199,9 @@ throws Exception
 			if ( iline.startsWith ( "-" ) ) {
 				// End of this time series' data.
 				// Process the lines that were previously read
-				// and bufferred.
-				if (	((req_id != null) &&
-					!id.matches(req_id_pattern)) ) {
-					// No need to process...
-					if ( Message.isDebugOn ) {
-						Message.printDebug ( dl,
-						routine,
-						"Ignoring - " + id +
-						" does not match requested \"" +
-						req_id + "\"" );
-					}
-					break;
-				}
+				// and bufferred.  Locations that do not match
+				// the requested identifier were skipped above.
+				req_id_found = true;
 				size = ilines.size();
 				if ( Message.isDebugOn ) {
 					Message.printDebug ( dl, routine,
@@ -1124,16 +1219,14 @@ throws Exception
 					// Need to determine period using the
 					// first column from the first and last
 					// lines for this location...
-					v = StringUtil.fixedRead((String)
+					v = parseReportFileDataLine (
 						ilines.get(0),
-						format, format_w, v );
-					year1 = ((Integer)
-						v.get(0)).intValue();
-					v = StringUtil.fixedRead((String)
+						format, format_w, values, v );
+					year1 = (int)values[0];
+					v = parseReportFileDataLine (
 						ilines.get( size- 1),
-						format, format_w, v );
-					year2 = ((Integer)
-						v.get(0)).intValue();
+						format, format_w, values, v );
+					year2 = (int)values[0];
 					date1.setMonth(1);
 					date1.setYear(year1);
 					date2.setMonth(12);
@@ -1338,20 +1431,15 @@ throws Exception
 					// the data
 					// for the time series.
 					for ( i = 0; i < size; i++ ) {
-						v = StringUtil.fixedRead(
-							(String)
+						v = parseReportFileDataLine (
 							ilines.get(i),
-							format, format_w, v );
-						year =((Integer)v.get(0)).
-							intValue();
+							format, format_w, values, v );
+						year = (int)values[0];
 						date.setYear(year);
 						date.setMonth(1);
 						if ( include_area_ts ) {
 							area_ts.setDataValue(
-								date,
-							 	((Double)v.
-								get(1)).
-								doubleValue() );
+								date, values[1] );
 						}
 						if ( include_mts ) {
 							for ( icol = 2; icol<14;
@@ -1359,27 +1447,18 @@ throws Exception
 								addMonth(1)) {
 								mts.
 								setDataValue(
-								date,
-							 	((Double)v.
-								get(
-								icol)).
-								doubleValue() );
+								date, values[icol] );
 							}
 							// Reset year...
 							date.setYear ( year );
 						}
 						if ( include_yts ) {
 							yts.setDataValue(
-							date, ((Double)v.
-							get(14)).
-							doubleValue() );
+							date, values[14] );
 						}
 						if ( include_depth_ts ) {
 							depth_ts.setDataValue(
-								date,
-							 	((Double)v.
-								get(15)).
-								doubleValue() );
+								date, values[15] );
 						}
 					}
 				}
@@ -81,6 +81,8 @@ public static Validator[] getIDValidators()
 Determine the CU Location given a part identifier.  If the part identifier
 matches a full location, then the full location identifier is returned.  Only ditch
 identifiers can be matched (collections of parcels cannot).
+This method searches the list for each call.  If many parts are looked up (e.g., when assigning supplies
+to parcels), create a StateCU_LocationPartIDIndex once and use it for the lookups.
 @param CULocation_List a Vector of StateCU_Location to be searched.  The
 collection information is assumed to have been defined for the locations.
 @param part_id The identifier to be found in the list of locations.
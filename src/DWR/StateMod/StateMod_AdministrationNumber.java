@@ -26,7 +26,6 @@ package DWR.StateMod;
 import RTi.Util.Message.Message;
 import RTi.Util.String.StringUtil;
 import RTi.Util.Time.DateTime;
-import RTi.Util.Time.TimeUtil;
 
 /**
 Store and convert administration numbers.  The conversion logic is based on
@@ -39,11 +38,17 @@ representation of the administration number is also stored; however, because
 of possible round-off and truncation, the integer representation is the most
 accurate.  Use the toString() method to generate an 11.5 format string for the
 administration number.  Use the equals(), lessThan(), and greaterThan() methods
-to compare administration numbers.  Note that reading an administration number
+to compare administration numbers.  Administration numbers can also be handled without creating objects,
+using the static methods that convert between dates and day numbers (days after the 1849-12-31 datum) and
+that compute a long key (whole*100000 + fraction) that sorts in administration number order.  These methods
+use precomputed tables of day offsets rather than DateTime arithmetic.  Note that reading an administration number
 as a floating-point number from a database may introduce a round-off error
 that will result in an error back-computing the dates.  Usually the error
 in this case is no more than one day.
 
+The appropriation and prior adjudication dates are created when first requested, so an instance is not
+thread-safe and must not be shared between threads without synchronization.
+
 This class may be updated in the future to provide alternate representations of
 a date, for use with StateMod water rights.
 */
@@ -53,16 +58,42 @@ public final class StateMod_AdministrationNumber {
 
 public static final int FORMAT_VERBOSE = 1;	// Ways to format for toString()
 
-private static DateTime _admin_number_date_datum = null;
-private static int _admin_number_date_datum_days = 0;
+private static final double ADMIN_NUMBER_OFFSET = .0000001;
+					// Added to floating point administration numbers created from
+					// the whole and fraction, so that they are not truncated to .99999
+
+// Tables to convert between dates and day numbers (days after the 1849-12-31 datum) without DateTime...
+private static final int TABLE_FIRST_YEAR = 1700;	// First year in the day number tables
+private static final int TABLE_LAST_YEAR = 2400;	// Last year in the day number tables
+private static final int [] _year_offset_days = new int[TABLE_LAST_YEAR - TABLE_FIRST_YEAR + 2];
+					// Day number of December 31 of the previous year
+private static final int [][] _month_offset_days = {
+	{ 0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334, 365 },
+	{ 0, 31, 60, 91, 121, 152, 182, 213, 244, 274, 305, 335, 366 }
+					// Days before the start of each month, non-leap and leap years
+};
+
+static {
+	// Datum is 1849-12-31 so the offset for 1850 is zero
+	int days = 0;
+	for ( int year = 1850; year > TABLE_FIRST_YEAR; year-- ) {
+		days -= (isLeapYear(year - 1) ? 366 : 365);
+	}
+	for ( int year = TABLE_FIRST_YEAR; year <= (TABLE_LAST_YEAR + 1); year++ ) {
+		_year_offset_days[year - TABLE_FIRST_YEAR] = days;
+		days += (isLeapYear(year) ? 366 : 365);
+	}
+}
 
 // Instance data...
 
 private double	_admin_number;	// 11.5 administration number
 private int	_whole;		// Whole part of the administration number
 private int	_fraction;	// Fractional part of the administration number
-private DateTime	_appro_date;	// Appropriation date.
-private DateTime	_padj_date;	// Prior adjudication date.
+private DateTime	_appro_date;	// Appropriation date, created from _appro_day_number if null (not thread-safe).
+private DateTime	_padj_date;	// Prior adjudication date, created from _padj_day_number if null (not thread-safe).
+private int	_appro_day_number;	// Appropriation date as day number, Integer.MIN_VALUE if not set.
+private int	_padj_day_number;	// Prior adjudication date as day number, Integer.MIN_VALUE if not set.
 
 /**
 Construct the administration number from the appropriation dates.  The
@@ -143,6 +174,55 @@ throws Exception
 	reset ( admin_number, prior_adj_date );
 }
 
+/**
+Compute an administration number key from appropriation and prior adjudication day numbers, using the same
+logic as constructing from dates, without creating objects.
+The key is whole*100000 + fraction, which sorts in administration number order.
+@param approDayNumber appropriation date as a day number (see getDayNumber()).
+@param priorAdjDayNumber prior adjudication date as a day number, or Integer.MIN_VALUE if no prior
+adjudication date applies.
+@return the administration number key.
+*/
+public static long computeAdminNumberKey ( int approDayNumber, int priorAdjDayNumber )
+{
+	if ( (priorAdjDayNumber == Integer.MIN_VALUE) || (approDayNumber > priorAdjDayNumber) ) {
+		// Case "a" in memo...
+		return (long)approDayNumber*100000L;
+	}
+	else {
+		// Case "b" in memo...
+		return (long)priorAdjDayNumber*100000L + approDayNumber;
+	}
+}
+
+/**
+Create a DateTime with day precision from a day number.
+*/
+private static DateTime createDate ( int dayNumber )
+{
+	int [] ymd = getYearMonthDay ( dayNumber, new int[3] );
+	DateTime date = new DateTime ( DateTime.DATE_ZERO | DateTime.PRECISION_DAY );
+	date.setYear(ymd[0]);
+	date.setMonth(ymd[1]);
+	date.setDay(ymd[2]);
+	return date;
+}
+
+/**
+Return the number of days from 0000-03-01 in the proleptic Gregorian calendar, used for dates outside the tables.
+*/
+private static int daysFromCivil ( int year, int month, int day )
+{
+	if ( month <= 2 ) {
+		--year;
+	}
+	int era = ((year >= 0) ? year : (year - 399))/400;
+	int yoe = year - era*400;
+	int doy = (153*(month + ((month > 2) ? -3 : 9)) + 2)/5 + day - 1;
+	int doe = yoe*365 + yoe/4 - yoe/100 + doy;
+	return era*146097 + doe;
+}
+
 /**
 @return true if the administration numbers are equal, false if not.  The
 comparison is made on the integer parts of the administration number to avoid
@@ -166,13 +246,80 @@ public double getAdminNumber ()
 }
 
 /**
-@return the appropriation date.
+@return the administration number key (whole*100000 + fraction), which sorts in administration number order.
+*/
+public long getAdminNumberKey ()
+{
+	return (long)_whole*100000L + _fraction;
+}
+
+/**
+Return the administration number key for a floating point administration number, using the same truncation
+as constructing from the administration number.
+@param adminNumber the administration number
+@return the administration number key (whole*100000 + fraction)
+*/
+public static long getAdminNumberKey ( double adminNumber )
+{
+	int whole = (int)adminNumber;
+	int fraction = (int)((adminNumber - (double)whole)*100000.0 + .001);
+	return (long)whole*100000L + fraction;
+}
+
+/**
+Return the floating point administration number for an administration number key.
+The result is the same as getAdminNumber() for an administration number constructed from dates.
+@param key administration number key (whole*100000 + fraction)
+@return the administration number
+*/
+public static double getAdminNumberFromKey ( long key )
+{
+	return toAdminNumber ( getWholeFromKey(key), getFractionFromKey(key) );
+}
+
+/**
+Return the appropriation day number for an administration number key, which is the fraction if non-zero
+or otherwise the whole number (see getJulianAppropriationDate()).
+@param key administration number key (whole*100000 + fraction)
+@return the appropriation date as a day number
+*/
+public static int getAppropriationDayNumberFromKey ( long key )
+{
+	int fraction = getFractionFromKey ( key );
+	if ( fraction != 0 ) {
+		return fraction;
+	}
+	return getWholeFromKey ( key );
+}
+
+/**
+@return the appropriation date.  The date is created when first requested, which is not thread-safe.
 */
 public DateTime getAppropriationDate ()
 {
+	if ( (_appro_date == null) && (_appro_day_number != Integer.MIN_VALUE) ) {
+		_appro_date = createDate ( _appro_day_number );
+	}
 	return _appro_date;
 }
 
+/**
+Return the day number for a date, which is the number of days after the administration number datum
+(1849-12-31), as used for the whole and fractional parts of an administration number.
+No objects are created.
+@param year year
+@param month month (1-12)
+@param day day of month (1-31)
+@return the day number
+*/
+public static int getDayNumber ( int year, int month, int day )
+{
+	if ( (year >= TABLE_FIRST_YEAR) && (year <= TABLE_LAST_YEAR) && (month >= 1) && (month <= 12) ) {
+		return _year_offset_days[year - TABLE_FIRST_YEAR] + _month_offset_days[isLeapYear(year) ? 1 : 0][month - 1] + day;
+	}
+	return daysFromCivil(year, month, day) - daysFromCivil(1849, 12, 31);
+}
+
 /**
 @return the fractional part of the administration number as an integer.
 */
@@ -181,6 +328,15 @@ public int getFraction ()
 	return _fraction;
 }
 
+/**
+@return the fractional part of an administration number key.
+@param key administration number key (whole*100000 + fraction)
+*/
+public static int getFractionFromKey ( long key )
+{
+	return (int)(key % 100000L);
+}
+
 /**
 @return the Julian appropriation date as an integer.  If the fractional part of
 the administration number is zero, the whole part of the number is returned.
@@ -196,10 +352,13 @@ public int getJulianAppropriationDate ()
 }
 
 /**
-@return the prior adjudication date.
+@return the prior adjudication date.  The date is created when first requested, which is not thread-safe.
 */
 public DateTime getPriorAdjudicationDate ()
 {
+	if ( (_padj_date == null) && (_padj_day_number != Integer.MIN_VALUE) ) {
+		_padj_date = createDate ( _padj_day_number );
+	}
 	return _padj_date;
 }
 
@@ -211,6 +370,66 @@ public int getWhole ()
 	return _whole;
 }
 
+/**
+@return the whole number part of an administration number key.
+@param key administration number key (whole*100000 + fraction)
+*/
+public static int getWholeFromKey ( long key )
+{
+	return (int)(key/100000L);
+}
+
+/**
+Return the year, month, and day for a day number (see getDayNumber()).
+@param dayNumber the number of days after the administration number datum (1849-12-31)
+@param ymd an array to receive the year, month, and day, which will be created if null
+or too short.  Pass a reused array to avoid creating objects.
+@return the array containing the year, month, and day
+*/
+public static int [] getYearMonthDay ( int dayNumber, int [] ymd )
+{
+	if ( (ymd == null) || (ymd.length < 3) ) {
+		ymd = new int[3];
+	}
+	int last = _year_offset_days.length - 1;
+	if ( (dayNumber > _year_offset_days[0]) && (dayNumber <= _year_offset_days[last]) ) {
+		// Estimate the year from the average length of a year and then adjust
+		int i = (int)(((long)(dayNumber - _year_offset_days[0] - 1)*400L)/146097L);
+		if ( i > (last - 1) ) {
+			i = last - 1;
+		}
+		while ( (i > 0) && (dayNumber <= _year_offset_days[i]) ) {
+			--i;
+		}
+		while ( dayNumber > _year_offset_days[i + 1] ) {
+			++i;
+		}
+		int year = TABLE_FIRST_YEAR + i;
+		int dayOfYear = dayNumber - _year_offset_days[i];
+		int [] monthOffsetDays = _month_offset_days[isLeapYear(year) ? 1 : 0];
+		int month = 1;
+		while ( dayOfYear > monthOffsetDays[month] ) {
+			++month;
+		}
+		ymd[0] = year;
+		ymd[1] = month;
+		ymd[2] = dayOfYear - monthOffsetDays[month - 1];
+		return ymd;
+	}
+	// Outside the tables so compute from the proleptic Gregorian calendar
+	int z = dayNumber + daysFromCivil(1849, 12, 31);
+	int era = ((z >= 0) ? z : (z - 146096))/146097;
+	int doe = z - era*146097;
+	int yoe = (doe - doe/1460 + doe/36524 - doe/146096)/365;
+	int doy = doe - (365*yoe + yoe/4 - yoe/100);
+	int mp = (5*doy + 2)/153;
+	int month = mp + ((mp < 10) ? 3 : -9);
+	ymd[0] = yoe + era*400 + ((month <= 2) ? 1 : 0);
+	ymd[1] = month;
+	ymd[2] = doy - (153*mp + 2)/5 + 1;
+	return ymd;
+}
+
 /**
 @return true if the current instance is greater than "a".  The
 comparison is made on the integer parts of the administration number to avoid
@@ -244,21 +463,16 @@ private void initialize ()
 	_fraction = 0;		// Fractional part of the administration number
 	_appro_date = null;	// Appropriation date.
 	_padj_date = null;	// Prior adjudication date.
+	_appro_day_number = Integer.MIN_VALUE;
+	_padj_day_number = Integer.MIN_VALUE;
 }
 
 /**
-Initialize the datum for the adiminstration number (December 31, 1849).
-This datum is used for subsequent conversions.
+Indicate whether a year is a leap year in the Gregorian calendar.
 */
-private void initializeDatum ()
+private static boolean isLeapYear ( int year )
 {
-	_admin_number_date_datum = new DateTime ( DateTime.DATE_ZERO |
-		DateTime.PRECISION_DAY );
-	_admin_number_date_datum.setMonth ( 12 );
-	_admin_number_date_datum.setDay ( 31 );
-	_admin_number_date_datum.setYear ( 1849 );
-	_admin_number_date_datum_days =
-	_admin_number_date_datum.getAbsoluteDay ();
+	return ((year%4 == 0) && (year%100 != 0)) || (year%400 == 0);
 }
 
 /**
@@ -309,37 +523,27 @@ throws Exception
 		_padj_date = new DateTime ( prior_adj_date );
 	}
 
-	// Set the datum to 1849-12-31...
-	if ( _admin_number_date_datum == null ) {
-		initializeDatum();
+	// Day numbers are relative to the 1849-12-31 datum and are computed without DateTime arithmetic...
+	_appro_day_number = getDayNumber ( _appro_date.getYear(), _appro_date.getMonth(), _appro_date.getDay() );
+	if ( _padj_date != null ) {
+		_padj_day_number = getDayNumber ( _padj_date.getYear(), _padj_date.getMonth(), _padj_date.getDay() );
 	}
 
 	if ( _padj_date == null ) {
 		// Case "a" in memo...
 		// Integer math so no problem with roundoff...
-		_whole = _appro_date.getAbsoluteDay() -
-			_admin_number_date_datum_days;
+		_whole = _appro_day_number;
 		_fraction = 0;
-		// Now save the floating point version...
-		_admin_number = (double)_whole;
 	}
 	else {	// Case "a" in memo...
 		// Whole number...
-		if ( _appro_date.greaterThan(_padj_date) ) {
-			// Do the integer math first...
-			_whole = _appro_date.getAbsoluteDay() -
-					_admin_number_date_datum_days;
-			// Now do the floating point math...
-			_admin_number = (double)_whole + .00000001;
+		if ( _appro_day_number > _padj_day_number ) {
+			_whole = _appro_day_number;
 		}
 		else {	// Case "b" in the memo...
 			// Apparently, a +1 is not needed, although Will Burt's
 			// 1987 memo mentions it.
-			// Do the integer math first...
-			_whole = _padj_date.getAbsoluteDay() -
-				_admin_number_date_datum_days;
-			// Now do the floating point math...
-			_admin_number = (double)_whole + .00000001;
+			_whole = _padj_day_number;
 			// Fraction...
 			// These commented lines appear to agree with Will
 			// Burt's 1987 memo but do not give an answer that
@@ -347,18 +551,13 @@ throws Exception
 			//fraction = (double)(appro_date.getAbsoluteDay() -
 			//       datum_days)/admin_number;
 			// This logic gives a value that matches the database...
-			// Do integer math...
-			_fraction = _appro_date.getAbsoluteDay() -
-				_admin_number_date_datum_days;
-			// Now do the floating point math...
-			_admin_number += (double)_fraction/100000.0;
+			_fraction = _appro_day_number;
 		}
 	}
-	// As a final step, add a very small number to the floating point value
-	// to help make sure that the value is not truncated to .99999
-	// something.  This will likely not cause any problems, even if
-	// admin numbers are averaged, etc.
-	_admin_number += .0000001;
+	// Save the floating point version, which includes a very small number to help make sure
+	// that the value is not truncated to .99999 something.  This will likely not cause any
+	// problems, even if admin numbers are averaged, etc.
+	_admin_number = toAdminNumber ( _whole, _fraction );
 }
 
 /**
@@ -375,11 +574,7 @@ an integer.
 */
 private void reset ( double admin_number, DateTime prior_adj_date )
 throws Exception
-{	if ( _admin_number_date_datum == null ) {
-		initializeDatum ();
-	}
-
-	// Initialize the instance data...
+{	// Initialize the instance data...
 
 	initialize();
 
@@ -389,6 +584,7 @@ throws Exception
 	if ( prior_adj_date != null ) {
 		_padj_date = new DateTime ( prior_adj_date, 
 		DateTime.PRECISION_DAY );
+		_padj_day_number = getDayNumber ( _padj_date.getYear(), _padj_date.getMonth(), _padj_date.getDay() );
 	}
 
 	// Divide the admin number into whole number and fraction.  Use
@@ -402,42 +598,21 @@ throws Exception
 	// a decision to back-calculate the dates in the reverse of the
 	// original logic.  Assume that if the fraction is zero that no
 	// prior adjudication date was available.
-	int appro_date_days = 0;
-	int [] date_data;
+	// The dates are created from the day numbers when requested, to avoid creating
+	// objects when only the administration number is used.
 
 	if ( _fraction == 0 ) {
 		// Case "a" in memo...
 		// The integer is the appropriation date and the
 		// previous adjudication date is indeterminate.
-		appro_date_days = _whole + _admin_number_date_datum_days;
-		date_data = TimeUtil.getYearMonthDayFromAbsoluteDay (
-			appro_date_days );
-		_appro_date = new DateTime ( DateTime.DATE_ZERO|
-			DateTime.PRECISION_DAY );
-		_appro_date.setYear(date_data[0]);
-		_appro_date.setMonth(date_data[1]);
-		_appro_date.setDay(date_data[2]);
+		_appro_day_number = _whole;
 	}
 	else {	// Case "a" in memo...
 		// Fraction is the appropriation date...
-		appro_date_days = _fraction + _admin_number_date_datum_days;
-		date_data = TimeUtil.getYearMonthDayFromAbsoluteDay (
-			appro_date_days );
-		_appro_date = new DateTime ( DateTime.DATE_ZERO |
-			DateTime.PRECISION_DAY );
-		_appro_date.setYear(date_data[0]);
-		_appro_date.setMonth(date_data[1]);
-		_appro_date.setDay(date_data[2]);
+		_appro_day_number = _fraction;
 		// Whole number is the prior adjudication date...
-		int computed_prior_adj_date_days = _whole +
-			_admin_number_date_datum_days;
-		date_data = TimeUtil.getYearMonthDayFromAbsoluteDay (
-			computed_prior_adj_date_days );
-		_padj_date = new DateTime ( DateTime.DATE_ZERO |
-			DateTime.PRECISION_DAY );
-		_padj_date.setYear(date_data[0]);
-		_padj_date.setMonth(date_data[1]);
-		_padj_date.setDay(date_data[2]);
+		_padj_date = null;
+		_padj_day_number = _whole;
 	}
 }
 
@@ -452,6 +627,14 @@ throws Exception
 	reset ( appro_date, (DateTime)null );
 }
 
+/**
+Return the floating point administration number for the whole and fractional parts.
+*/
+private static double toAdminNumber ( int whole, int fraction )
+{
+	return (double)whole + (double)fraction/100000.0 + ADMIN_NUMBER_OFFSET;
+}
+
 /**
 @return a string representation of the administration number created by
 concatenating the integer whole and fractional parts of the number.  The
@@ -471,7 +654,9 @@ only option and is assumed.
 */
 public String toString ( int format )
 {
-	if ( _padj_date == null ) {
+	// Make sure that dates are created from the day numbers
+	getAppropriationDate();
+	if ( getPriorAdjudicationDate() == null ) {
 		String string = new String(
 		" AdminNum: " + _admin_number +
 		" ApproDate: " + _appro_date.toString(
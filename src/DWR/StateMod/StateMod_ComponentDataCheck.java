@@ -38,6 +38,7 @@ package DWR.StateMod;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
 import RTi.Util.IO.CheckFile;
@@ -55,6 +56,11 @@ public class StateMod_ComponentDataCheck extends DataSet_ComponentDataCheck
 	StateMod_DataSet __dataset;	// StateMod dataset object 
 	private int __gen_problems = 0;	// Keeps track of the # of
 									// general data problems
+	private StateMod_ComponentValidationCache __validation_cache = null; // Cached validation results
+									// for incremental checks, or null
+	private Map<Integer,List<StateMod_ComponentValidationProblem>> __validation_results = null;
+									// Validation problems for each component
+									// type from one engine run, or null
 
 /**
 Constructor that initializes the component type and CheckFile.
@@ -75,6 +81,31 @@ StateMod_DataSet set )
 	__dataset = set;
 }
 
+/**
+Check several components, appending the results to the same check file.  The component objects for all
+of the components are validated in one StateMod_ComponentValidationEngine run, which shares the identifier
+index and threads across the components, and the results are then added to the check file for each
+component in the order requested.
+@param types StateMod component types to check.
+@param file CheckFile to append data checks to.
+@param set StateMod data set containing the components.
+@param props Property list for properties on data checks.
+@param cache Cached validation results for incremental checks, or null to validate all objects.
+@return CheckFile The data check file object.
+ */
+public static CheckFile checkComponentTypes( int [] types, CheckFile file, StateMod_DataSet set,
+	PropList props, StateMod_ComponentValidationCache cache )
+{
+	StateMod_ComponentValidationEngine engine = new StateMod_ComponentValidationEngine( set );
+	Map<Integer,List<StateMod_ComponentValidationProblem>> results = engine.validateComponents( types, cache );
+	for ( int i = 0; i < types.length; i++ ) {
+		StateMod_ComponentDataCheck check = new StateMod_ComponentDataCheck( types[i], file, set );
+		check.setValidationResults( results );
+		check.checkComponentType( props );
+	}
+	return file;
+}
+
 /**
 Finds out which check method to call based on the input type.  Acts
 like a factory for StateMod data checks.
@@ -795,13 +826,15 @@ private void checkWellRights_CapacityData()
 	// loop through the vector of data and perform specific
 	// data checks
 	size = wes_Vector.size();
+	// Index the rights once rather than searching all rights for each well
+	StateMod_RightsIndex<StateMod_WellRight> rightsIndex = new StateMod_RightsIndex<StateMod_WellRight>(wer_Vector);
 	for ( int i = 0; i < size; i++ ) {
 		wes_i = wes_Vector.get(i);
 		if ( wes_i == null ) {
 			continue;
 		}
 		String [] checks = 
-		wes_i.checkComponentData_Capacity( wer_Vector, i );
+		wes_i.checkComponentData_Capacity( rightsIndex, i );
 		// add the data to the data vector
 		if ( checks != null && checks.length > 0 ) {
 			data.add(checks);
@@ -837,17 +870,21 @@ private List<StateMod_ComponentValidationProblem> doSpecificDataChecks( List<? e
 		return checks;
 	}
 	// Check each component object by calling the
-	// checkComponentData() method.  Each component
+	// validateComponent() method.  Each component
 	// needs to implement this method and extend from
-	// the StateMod_Component interface.
-	StateMod_ComponentValidator comp = null;
-	for ( int i = 0; i < data.size(); i++ ) {
-		comp = data.get( i );
-		StateMod_ComponentValidation validation = comp.validateComponent( __dataset );
-		if ( validation.size() > 0 ) {
-			checks.addAll( validation.getAll() );
+	// the StateMod_ComponentValidator interface.
+	// The engine validates blocks of objects in parallel and returns the problems in object order.
+	// If the data set check already validated the component, use those results.
+	// If a cache is set, only objects affected by edits since the last check are validated.
+	if ( __validation_results != null ) {
+		List<StateMod_ComponentValidationProblem> problems = __validation_results.get( Integer.valueOf(__type) );
+		if ( problems != null ) {
+			checks.addAll( problems );
+			return checks;
 		}
 	}
+	StateMod_ComponentValidationEngine engine = new StateMod_ComponentValidationEngine( __dataset );
+	checks.addAll( engine.validate( data, __validation_cache ) );
 	return checks;
 }
 
@@ -977,6 +1014,29 @@ private List<String[]> performDataValidation( StateMod_Data_TableModel tm, Strin
 	return data;
 }
 
+/**
+Set the cache used to validate incrementally.  If set, each check validates only the objects that
+were edited, or that depend on edited data, since the previous check that used the cache, which allows
+checks to be refreshed quickly after editing.  The same cache should be used for checks of the same data set.
+@param cache the validation cache, or null to validate all objects.
+ */
+public void setValidationCache( StateMod_ComponentValidationCache cache )
+{
+	__validation_cache = cache;
+}
+
+/**
+Set the validation problems for each component type, as returned by
+StateMod_ComponentValidationEngine.validateComponents().  If set, the specific data checks use the
+results for the component being checked rather than validating the component again, so that one engine
+run can be shared by the checks of all components in a data set.
+@param results validation problems for each component type, or null to validate when checked.
+ */
+public void setValidationResults( Map<Integer,List<StateMod_ComponentValidationProblem>> results )
+{
+	__validation_results = results;
+}
+
 //TODO smalers 2019-05-29 need to fix this to actually translate the data
 /**
  * Convert a ComponentValidationProblem to String[] needed for general data check report formatting.
@@ -0,0 +1,300 @@
+// StateMod_ComponentValidationCache - cached validation results used for incremental validation
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import RTi.Util.IO.DataSetComponent;
+
+/**
+Cache of validation results for StateMod_ComponentValidator objects, used by
+StateMod_ComponentValidationEngine to validate a data set incrementally.  An object is validated again only if:
+<ol>
+<li>	it has not been validated (e.g., it was added to the data set),</li>
+<li>	it is dirty (edited),</li>
+<li>	its river node identifier (cgoto, e.g., the station for a right) matches a dirty object,</li>
+<li>	it is a water right that was moved to another station,</li>
+<li>	it is a station and one of its water rights was added, removed, edited, or moved to another station, or</li>
+<li>	an identifier that it looked up during validation was added, removed, or edited.</li>
+</ol>
+Because StateMod_Data dirty flags are only reset when data are saved, edited objects continue to be
+validated on each run until the data set is saved.
+Keep one instance for a data set, for example in a data check window, and pass it to each validation run.
+The cache must only be used by one validation run at a time.
+*/
+public class StateMod_ComponentValidationCache
+{
+
+/**
+Cached result for a single object.
+*/
+static class Entry
+{
+	/**
+	Validation result.
+	*/
+	StateMod_ComponentValidation validation;
+	/**
+	Lookups made during validation (see StateMod_ComponentValidationIndex.getLookupKey()).
+	*/
+	String [] lookups;
+
+	Entry ( StateMod_ComponentValidation validation, String [] lookups )
+	{	this.validation = validation;
+		this.lookups = lookups;
+	}
+}
+
+/**
+Component types for water rights, which are tracked so that stations are validated again when their rights change.
+*/
+private static final int [] __RIGHTS_COMPONENT_TYPES = {
+	StateMod_DataSet.COMP_DIVERSION_RIGHTS,
+	StateMod_DataSet.COMP_RESERVOIR_RIGHTS,
+	StateMod_DataSet.COMP_INSTREAM_RIGHTS,
+	StateMod_DataSet.COMP_WELL_RIGHTS
+};
+
+/**
+Cached entries for each validated data list (compared by reference), for each object in the list.
+*/
+private Map<List<?>,Map<StateMod_ComponentValidator,Entry>> __entries =
+	new IdentityHashMap<List<?>,Map<StateMod_ComponentValidator,Entry>>();
+
+/**
+Lookup keys for all identifiers in the data set at the end of the previous run, or null if no run.
+*/
+private Set<String> __lookupKeys = null;
+
+/**
+Component types that had data at the end of the previous run, or null if no run.
+Validation often skips checks when a component has no data, in which case no lookups are recorded,
+so all objects are validated again if a component gains or loses all of its data.
+*/
+private Set<Integer> __componentTypes = null;
+
+/**
+Identifier key for the location (station) of each water right at the end of the previous run, or null if no run.
+*/
+private Map<StateMod_Right,String> __rightLocationKeys = null;
+
+/**
+Number of objects validated and reused from the cache in the last run.
+*/
+private int __validatedCount = 0;
+private int __reusedCount = 0;
+
+/**
+Create an empty cache.
+*/
+public StateMod_ComponentValidationCache ()
+{
+}
+
+/**
+Clear the cache so that the next run validates all objects.
+*/
+public void clear ()
+{
+	__entries.clear();
+	__lookupKeys = null;
+	__componentTypes = null;
+	__rightLocationKeys = null;
+}
+
+/**
+Return the entries for a data list, or null if the list has not been validated.
+*/
+Map<StateMod_ComponentValidator,Entry> getEntries ( List<?> dataList )
+{
+	return __entries.get ( dataList );
+}
+
+/**
+Return the number of objects that were reused from the cache in the last run.
+*/
+public int getReusedCount ()
+{
+	return __reusedCount;
+}
+
+/**
+Return the number of objects that were validated in the last run.
+*/
+public int getValidatedCount ()
+{
+	return __validatedCount;
+}
+
+/**
+Indicate whether an object needs to be validated.
+@param entry the cached entry for the object, or null if not cached
+@param o the object
+@param changedLookupKeys lookup keys for identifiers that were added, removed, or edited since the last run
+@param dirtyIDKeys identifier keys for dirty objects
+@param changedRightLocationKeys identifier keys for stations whose water rights changed since the last run
+*/
+static boolean needsValidation ( Entry entry, StateMod_ComponentValidator o, Set<String> changedLookupKeys,
+	Set<String> dirtyIDKeys, Set<String> changedRightLocationKeys )
+{
+	if ( entry == null ) {
+		return true;
+	}
+	if ( o instanceof StateMod_Data ) {
+		StateMod_Data data = (StateMod_Data)o;
+		if ( data._isDirty ) {
+			return true;
+		}
+		if ( (data._cgoto != null) && !dirtyIDKeys.isEmpty() &&
+			dirtyIDKeys.contains(StateMod_ComponentValidationIndex.getKey(data._cgoto)) ) {
+			return true;
+		}
+		if ( !(o instanceof StateMod_Right) && (data._id != null) && !changedRightLocationKeys.isEmpty() &&
+			changedRightLocationKeys.contains(StateMod_ComponentValidationIndex.getKey(data._id)) ) {
+			return true;
+		}
+	}
+	if ( !changedLookupKeys.isEmpty() ) {
+		for ( int i = 0; i < entry.lookups.length; i++ ) {
+			if ( changedLookupKeys.contains(entry.lookups[i]) ) {
+				return true;
+			}
+		}
+	}
+	return false;
+}
+
+/**
+Set the counts for the last run.
+*/
+void setCounts ( int validatedCount, int reusedCount )
+{
+	__validatedCount = validatedCount;
+	__reusedCount = reusedCount;
+}
+
+/**
+Set the entries for a data list, replacing previous entries (objects no longer in the list are discarded).
+*/
+void setEntries ( List<?> dataList, Map<StateMod_ComponentValidator,Entry> entries )
+{
+	__entries.put ( dataList, entries );
+}
+
+/**
+Update the identifiers for the data set and return the lookup keys that changed since the last run,
+including the identifiers of dirty objects.  If the components that have data have changed, the cached
+results are discarded.
+@param index the index for the current run
+*/
+Set<String> updateLookupKeys ( StateMod_ComponentValidationIndex index )
+{
+	Set<Integer> componentTypes = index.getComponentTypes();
+	if ( (__componentTypes != null) && !__componentTypes.equals(componentTypes) ) {
+		__entries.clear();
+	}
+	__componentTypes = componentTypes;
+	Set<String> lookupKeys = index.getAllLookupKeys();
+	Set<String> changed = new HashSet<String>(index.getDirtyLookupKeys());
+	if ( __lookupKeys != null ) {
+		// Added identifiers
+		for ( String key : lookupKeys ) {
+			if ( !__lookupKeys.contains(key) ) {
+				changed.add ( key );
+			}
+		}
+		// Removed identifiers
+		for ( String key : __lookupKeys ) {
+			if ( !lookupKeys.contains(key) ) {
+				changed.add ( key );
+			}
+		}
+	}
+	__lookupKeys = lookupKeys;
+	return changed;
+}
+
+/**
+Update the water rights for the data set and return the identifier keys for the locations (stations) that
+had rights added, removed, edited, or moved to another location since the last run.
+Station results can depend on their rights (e.g., capacity compared to the sum of decrees), but stations do
+not look up their rights by identifier, so the changes are not detected by updateLookupKeys().
+@param dataset the data set being validated
+*/
+Set<String> updateRightLocationKeys ( StateMod_DataSet dataset )
+{
+	Map<StateMod_Right,String> rightLocationKeys = new IdentityHashMap<StateMod_Right,String>();
+	Set<String> changed = new HashSet<String>();
+	for ( int i = 0; i < __RIGHTS_COMPONENT_TYPES.length; i++ ) {
+		DataSetComponent comp = dataset.getComponentForComponentType ( __RIGHTS_COMPONENT_TYPES[i] );
+		if ( (comp == null) || !(comp.getData() instanceof List) ) {
+			continue;
+		}
+		for ( Object o : (List<?>)comp.getData() ) {
+			if ( !(o instanceof StateMod_Right) ) {
+				continue;
+			}
+			StateMod_Right right = (StateMod_Right)o;
+			String locationID = right.getLocationIdentifier();
+			if ( locationID == null ) {
+				continue;
+			}
+			String key = StateMod_ComponentValidationIndex.getKey ( locationID );
+			rightLocationKeys.put ( right, key );
+			if ( __rightLocationKeys == null ) {
+				continue;
+			}
+			String keyPrev = __rightLocationKeys.remove ( right );
+			if ( keyPrev == null ) {
+				// Added right
+				changed.add ( key );
+			}
+			else if ( !keyPrev.equals(key) ) {
+				// Right moved to another location - setCgoto() does not mark the right dirty so also discard
+				// its cached result
+				changed.add ( keyPrev );
+				changed.add ( key );
+				for ( Map<StateMod_ComponentValidator,Entry> entries : __entries.values() ) {
+					entries.remove ( right );
+				}
+			}
+			else if ( (right instanceof StateMod_Data) && ((StateMod_Data)right)._isDirty ) {
+				// Edited right
+				changed.add ( key );
+			}
+		}
+	}
+	if ( __rightLocationKeys != null ) {
+		// Rights that remain from the previous run were removed
+		changed.addAll ( __rightLocationKeys.values() );
+	}
+	__rightLocationKeys = rightLocationKeys;
+	return changed;
+}
+
+}
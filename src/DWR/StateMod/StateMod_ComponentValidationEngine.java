@@ -0,0 +1,398 @@
+// StateMod_ComponentValidationEngine - validate StateMod data set components using multiple threads
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import RTi.Util.IO.DataSetComponent;
+import RTi.Util.Message.Message;
+
+/**
+Validate StateMod_ComponentValidator objects in a data set using multiple threads.
+A StateMod_ComponentValidationIndex is created once for the run and is made available to the
+validateComponent() methods through the data set, so that identifier checks do not search the data lists
+for each object.  Objects are validated in blocks and the problems are merged in the order of the
+components and objects, so the results are the same as validating the objects one at a time.
+If a StateMod_ComponentValidationCache is provided, only objects that were edited or that depend on edited
+data are validated and the cached results are used for other objects, so that results can be refreshed
+quickly after an edit.
+The data set must not be modified while validation is running.
+*/
+public class StateMod_ComponentValidationEngine
+{
+
+/**
+Minimum number of objects in a block of work.  Smaller lists are validated in one block because the
+overhead of threads outweighs the benefit.
+*/
+private static final int __MIN_BLOCK_SIZE = 250;
+
+/**
+Result of validating one object.
+*/
+private static class Result
+{
+	StateMod_ComponentValidator data;
+	StateMod_ComponentValidation validation;
+	String [] lookups;
+}
+
+/**
+The data set being validated.
+*/
+private StateMod_DataSet __dataset;
+
+/**
+Number of threads to use.
+*/
+private int __threadCount;
+
+/**
+Create an engine that uses one thread per available processor.
+@param dataset the data set to validate
+*/
+public StateMod_ComponentValidationEngine ( StateMod_DataSet dataset )
+{
+	this ( dataset, Runtime.getRuntime().availableProcessors() );
+}
+
+/**
+Create an engine.
+@param dataset the data set to validate
+@param threadCount the number of threads to use, 1 to validate on the calling thread
+*/
+public StateMod_ComponentValidationEngine ( StateMod_DataSet dataset, int threadCount )
+{
+	__dataset = dataset;
+	__threadCount = Math.max(1, threadCount);
+}
+
+/**
+Return the data for a component type, or null if not available.
+*/
+private List<? extends StateMod_ComponentValidator> getComponentData ( int componentType )
+{
+	DataSetComponent comp = __dataset.getComponentForComponentType ( componentType );
+	if ( comp == null ) {
+		return null;
+	}
+	Object data = comp.getData();
+	if ( !(data instanceof List) ) {
+		return null;
+	}
+	List<?> dataList = (List<?>)data;
+	if ( (dataList.size() == 0) || !(dataList.get(0) instanceof StateMod_ComponentValidator) ) {
+		return null;
+	}
+	@SuppressWarnings("unchecked")
+	List<? extends StateMod_ComponentValidator> validatorList = (List<? extends StateMod_ComponentValidator>)dataList;
+	return validatorList;
+}
+
+/**
+Return the number of threads used for validation.
+*/
+public int getThreadCount ()
+{
+	return __threadCount;
+}
+
+/**
+Add the validation tasks for a list of objects, split into blocks.
+*/
+private void submit ( ExecutorService executor, final List<? extends StateMod_ComponentValidator> data,
+	final boolean recordLookups, List<Future<List<Result>>> futures )
+{
+	int size = data.size();
+	int blockSize = Math.max(__MIN_BLOCK_SIZE, (size + __threadCount - 1)/__threadCount);
+	for ( int start = 0; start < size; start += blockSize ) {
+		final int blockStart = start;
+		final int blockEnd = Math.min(size, start + blockSize);
+		futures.add ( executor.submit(new Callable<List<Result>>() {
+			public List<Result> call () {
+				return validate ( data, blockStart, blockEnd, recordLookups );
+			}
+		}));
+	}
+}
+
+/**
+Validate a list of objects from the data set.
+@param data the objects to validate
+@return the validation problems, in the order of the objects
+*/
+public List<StateMod_ComponentValidationProblem> validate ( List<? extends StateMod_ComponentValidator> data )
+{
+	return validate ( data, null );
+}
+
+/**
+Validate a list of objects from the data set, optionally using cached results.
+@param data the objects to validate
+@param cache cache of validation results from previous runs, to validate incrementally, or null to validate
+all objects
+@return the validation problems, in the order of the objects
+*/
+public List<StateMod_ComponentValidationProblem> validate ( List<? extends StateMod_ComponentValidator> data,
+	StateMod_ComponentValidationCache cache )
+{
+	List<List<? extends StateMod_ComponentValidator>> dataLists = new ArrayList<List<? extends StateMod_ComponentValidator>>(1);
+	dataLists.add ( data );
+	return validateLists ( dataLists, cache ).get(0);
+}
+
+/**
+Validate objects in a range of a list on the current thread.
+*/
+private List<Result> validate ( List<? extends StateMod_ComponentValidator> data, int start, int end,
+	boolean recordLookups )
+{
+	List<Result> results = new ArrayList<Result>(end - start);
+	List<String> lookups = null;
+	if ( recordLookups ) {
+		lookups = new ArrayList<String>();
+	}
+	try {
+		for ( int i = start; i < end; i++ ) {
+			StateMod_ComponentValidator comp = data.get(i);
+			if ( comp == null ) {
+				continue;
+			}
+			if ( recordLookups ) {
+				lookups.clear();
+				StateMod_ComponentValidationIndex.setLookupRecorder ( lookups );
+			}
+			Result result = new Result();
+			result.data = comp;
+			result.validation = comp.validateComponent ( __dataset );
+			if ( recordLookups ) {
+				result.lookups = lookups.toArray(new String[lookups.size()]);
+			}
+			results.add ( result );
+		}
+	}
+	finally {
+		if ( recordLookups ) {
+			StateMod_ComponentValidationIndex.setLookupRecorder ( null );
+		}
+	}
+	return results;
+}
+
+/**
+Validate several lists of objects from the data set, sharing the threads and identifier index.
+@param dataLists the lists of objects to validate (null lists are allowed)
+@param cache cache of results from previous runs, or null to validate all objects
+@return the validation problems for each list, in the order of the lists and objects
+*/
+private List<List<StateMod_ComponentValidationProblem>> validateLists (
+	List<List<? extends StateMod_ComponentValidator>> dataLists, StateMod_ComponentValidationCache cache )
+{
+	String routine = getClass().getSimpleName() + ".validateLists";
+	StateMod_ComponentValidationIndex indexPrev = __dataset.getComponentValidationIndex();
+	StateMod_ComponentValidationIndex index = indexPrev;
+	if ( index == null ) {
+		index = new StateMod_ComponentValidationIndex(__dataset);
+		__dataset.setComponentValidationIndex ( index );
+	}
+	// Determine the objects to validate, which is all objects unless using a cache
+	List<List<? extends StateMod_ComponentValidator>> todoLists = dataLists;
+	Set<String> changedLookupKeys = null;
+	Set<String> dirtyIDKeys = null;
+	Set<String> changedRightLocationKeys = null;
+	if ( cache != null ) {
+		changedLookupKeys = cache.updateLookupKeys ( index );
+		dirtyIDKeys = index.getDirtyIDKeys();
+		changedRightLocationKeys = cache.updateRightLocationKeys ( __dataset );
+		todoLists = new ArrayList<List<? extends StateMod_ComponentValidator>>(dataLists.size());
+		for ( List<? extends StateMod_ComponentValidator> data : dataLists ) {
+			List<StateMod_ComponentValidator> todo = new ArrayList<StateMod_ComponentValidator>();
+			if ( data != null ) {
+				Map<StateMod_ComponentValidator,StateMod_ComponentValidationCache.Entry> entries =
+					cache.getEntries ( data );
+				for ( StateMod_ComponentValidator o : data ) {
+					if ( o == null ) {
+						continue;
+					}
+					StateMod_ComponentValidationCache.Entry entry = null;
+					if ( entries != null ) {
+						entry = entries.get ( o );
+					}
+					if ( StateMod_ComponentValidationCache.needsValidation(entry, o, changedLookupKeys, dirtyIDKeys,
+						changedRightLocationKeys) ) {
+						todo.add ( o );
+					}
+				}
+			}
+			todoLists.add ( todo );
+		}
+	}
+	boolean recordLookups = (cache != null);
+	List<List<Result>> resultLists = new ArrayList<List<Result>>(dataLists.size());
+	ExecutorService executor = null;
+	try {
+		if ( __threadCount > 1 ) {
+			executor = Executors.newFixedThreadPool ( __threadCount );
+			// Submit all the work first so that lists can be validated concurrently
+			List<List<Future<List<Result>>>> futureLists = new ArrayList<List<Future<List<Result>>>>(todoLists.size());
+			for ( List<? extends StateMod_ComponentValidator> data : todoLists ) {
+				List<Future<List<Result>>> futures = new ArrayList<Future<List<Result>>>();
+				if ( data != null ) {
+					submit ( executor, data, recordLookups, futures );
+				}
+				futureLists.add ( futures );
+			}
+			// Merge the results in order
+			for ( List<Future<List<Result>>> futures : futureLists ) {
+				List<Result> results = new ArrayList<Result>();
+				for ( Future<List<Result>> future : futures ) {
+					results.addAll ( future.get() );
+				}
+				resultLists.add ( results );
+			}
+		}
+		else {
+			for ( List<? extends StateMod_ComponentValidator> data : todoLists ) {
+				if ( data == null ) {
+					resultLists.add ( new ArrayList<Result>() );
+				}
+				else {
+					resultLists.add ( validate(data, 0, data.size(), recordLookups) );
+				}
+			}
+		}
+	}
+	catch ( InterruptedException e ) {
+		Thread.currentThread().interrupt();
+		throw new RuntimeException ( "Validation was interrupted.", e );
+	}
+	catch ( ExecutionException e ) {
+		Message.printWarning ( 3, routine, e.getCause() );
+		throw new RuntimeException ( "Error validating data set components (" + e.getCause() + ").", e.getCause() );
+	}
+	finally {
+		if ( executor != null ) {
+			executor.shutdownNow();
+		}
+		if ( indexPrev == null ) {
+			__dataset.setComponentValidationIndex ( null );
+		}
+	}
+	// Convert the results to problem lists, combining with cached results if a cache is used
+	List<List<StateMod_ComponentValidationProblem>> problemLists =
+		new ArrayList<List<StateMod_ComponentValidationProblem>>(dataLists.size());
+	int validatedCount = 0;
+	int reusedCount = 0;
+	for ( int i = 0; i < dataLists.size(); i++ ) {
+		List<StateMod_ComponentValidationProblem> problems = new ArrayList<StateMod_ComponentValidationProblem>();
+		List<Result> results = resultLists.get(i);
+		validatedCount += results.size();
+		if ( cache == null ) {
+			for ( Result result : results ) {
+				problems.addAll ( result.validation.getAll() );
+			}
+		}
+		else if ( dataLists.get(i) != null ) {
+			List<? extends StateMod_ComponentValidator> data = dataLists.get(i);
+			Map<StateMod_ComponentValidator,StateMod_ComponentValidationCache.Entry> entriesPrev = cache.getEntries(data);
+			Map<StateMod_ComponentValidator,StateMod_ComponentValidationCache.Entry> entries =
+				new IdentityHashMap<StateMod_ComponentValidator,StateMod_ComponentValidationCache.Entry>(data.size()*2);
+			for ( Result result : results ) {
+				entries.put ( result.data, new StateMod_ComponentValidationCache.Entry(result.validation, result.lookups) );
+			}
+			for ( StateMod_ComponentValidator o : data ) {
+				if ( o == null ) {
+					continue;
+				}
+				StateMod_ComponentValidationCache.Entry entry = entries.get ( o );
+				if ( (entry == null) && (entriesPrev != null) ) {
+					entry = entriesPrev.get ( o );
+					if ( entry != null ) {
+						entries.put ( o, entry );
+						++reusedCount;
+					}
+				}
+				if ( entry != null ) {
+					problems.addAll ( entry.validation.getAll() );
+				}
+			}
+			cache.setEntries ( data, entries );
+		}
+		problemLists.add ( problems );
+	}
+	if ( cache != null ) {
+		cache.setCounts ( validatedCount, reusedCount );
+		Message.printStatus ( 2, routine, "Validated " + validatedCount + " objects, reused " + reusedCount +
+			" cached results." );
+	}
+	return problemLists;
+}
+
+/**
+Validate the data for the requested component types.
+@param componentTypes the component types to validate (e.g., StateMod_DataSet.COMP_DIVERSION_STATIONS)
+@return the validation problems for each component type, in the order of the requested types.
+Components that have no data, or whose data are not StateMod_ComponentValidator, have an empty list.
+*/
+public Map<Integer,List<StateMod_ComponentValidationProblem>> validateComponents ( int [] componentTypes )
+{
+	return validateComponents ( componentTypes, null );
+}
+
+/**
+Validate the data for the requested component types, optionally using cached results.
+@param componentTypes the component types to validate (e.g., StateMod_DataSet.COMP_DIVERSION_STATIONS)
+@param cache cache of validation results from previous runs, to validate incrementally, or null to validate
+all objects
+@return the validation problems for each component type, in the order of the requested types.
+Components that have no data, or whose data are not StateMod_ComponentValidator, have an empty list.
+*/
+public Map<Integer,List<StateMod_ComponentValidationProblem>> validateComponents ( int [] componentTypes,
+	StateMod_ComponentValidationCache cache )
+{
+	List<List<? extends StateMod_ComponentValidator>> dataLists =
+		new ArrayList<List<? extends StateMod_ComponentValidator>>(componentTypes.length);
+	for ( int i = 0; i < componentTypes.length; i++ ) {
+		dataLists.add ( getComponentData(componentTypes[i]) );
+	}
+	List<List<StateMod_ComponentValidationProblem>> problemLists = validateLists ( dataLists, cache );
+	Map<Integer,List<StateMod_ComponentValidationProblem>> problemMap =
+		new LinkedHashMap<Integer,List<StateMod_ComponentValidationProblem>>();
+	for ( int i = 0; i < componentTypes.length; i++ ) {
+		problemMap.put ( Integer.valueOf(componentTypes[i]), problemLists.get(i) );
+	}
+	return problemMap;
+}
+
+}
@@ -0,0 +1,253 @@
+// StateMod_ComponentValidationIndex - identifier lookup index used when validating a StateMod data set
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import RTi.Util.IO.DataSetComponent;
+
+/**
+Identifier index for the data lists in a StateMod_DataSet, used by validateComponent() implementations to
+check whether an identifier (e.g., river node or station) is in the data set without searching the list for
+each object.  The index is created once for a validation run by StateMod_ComponentValidationEngine and is
+read-only after creation so that it can be shared by validation threads.  The index is only valid while
+the data set is not modified, which is the case during validation.
+When validating incrementally, the lookups made while validating an object are recorded so that the object
+can be validated again if one of the identifiers that it looked up is added to or removed from the data set.
+*/
+public class StateMod_ComponentValidationIndex
+{
+
+/**
+Lookups made on the current thread, as component type and identifier key, or null if not recording.
+*/
+private static final ThreadLocal<Collection<String>> __lookupRecorder = new ThreadLocal<Collection<String>>();
+
+/**
+Data lists that are indexed, compared by reference.
+*/
+private List<List<?>> __dataLists = new ArrayList<List<?>>();
+
+/**
+Component type for each list in __dataLists.
+*/
+private List<Integer> __componentTypes = new ArrayList<Integer>();
+
+/**
+Identifier keys (see getKey()) for each list in __dataLists.
+*/
+private List<Set<String>> __idSets = new ArrayList<Set<String>>();
+
+/**
+Identifier keys for objects that are dirty (edited), without and with the component type.
+*/
+private Set<String> __dirtyIDKeys = new HashSet<String>();
+private Set<String> __dirtyLookupKeys = new HashSet<String>();
+
+/**
+Create the index for all data components in the data set.
+@param dataset the data set to index
+*/
+public StateMod_ComponentValidationIndex ( StateMod_DataSet dataset )
+{
+	List<DataSetComponent> comps = dataset.getComponents();
+	if ( comps == null ) {
+		return;
+	}
+	for ( DataSetComponent comp : comps ) {
+		if ( comp.isGroup() ) {
+			@SuppressWarnings("unchecked")
+			List<DataSetComponent> comps2 = (List<DataSetComponent>)comp.getData();
+			if ( comps2 != null ) {
+				for ( DataSetComponent comp2 : comps2 ) {
+					addComponent ( comp2 );
+				}
+			}
+		}
+		else {
+			addComponent ( comp );
+		}
+	}
+}
+
+/**
+Add a component's data to the index, if the data are a list of StateMod_Data.
+*/
+private void addComponent ( DataSetComponent comp )
+{
+	Object data = comp.getData();
+	if ( !(data instanceof List) ) {
+		return;
+	}
+	List<?> dataList = (List<?>)data;
+	int size = dataList.size();
+	if ( (size == 0) || !(dataList.get(0) instanceof StateMod_Data) ) {
+		return;
+	}
+	int componentType = comp.getComponentType();
+	Set<String> ids = new HashSet<String>(size*2);
+	for ( int i = 0; i < size; i++ ) {
+		Object o = dataList.get(i);
+		if ( o instanceof StateMod_Data ) {
+			StateMod_Data smData = (StateMod_Data)o;
+			if ( smData._id != null ) {
+				String key = getKey(smData._id);
+				ids.add ( key );
+				if ( smData._isDirty ) {
+					__dirtyIDKeys.add ( key );
+					__dirtyLookupKeys.add ( getLookupKey(componentType, key) );
+				}
+			}
+		}
+	}
+	__dataLists.add ( dataList );
+	__componentTypes.add ( Integer.valueOf(componentType) );
+	__idSets.add ( ids );
+}
+
+/**
+Indicate whether a data list contains an object with the identifier.
+If the data set is being validated by StateMod_ComponentValidationEngine, the index for the data set is used.
+Otherwise the list is searched.
+The result is the same as StateMod_Util.indexOf(dataList,id) &gt;= 0.
+@param dataset the data set being validated, can be null
+@param dataList the data list to check
+@param id the identifier to find (case is ignored)
+@return true if an object with the identifier is in the list
+*/
+public static boolean containsID ( StateMod_DataSet dataset, List<? extends StateMod_Data> dataList, String id )
+{
+	if ( id == null ) {
+		return false;
+	}
+	if ( dataset != null ) {
+		StateMod_ComponentValidationIndex index = dataset.getComponentValidationIndex();
+		if ( index != null ) {
+			int pos = index.indexOfList ( dataList );
+			if ( pos >= 0 ) {
+				String key = getKey(id);
+				Collection<String> recorder = __lookupRecorder.get();
+				if ( recorder != null ) {
+					recorder.add ( getLookupKey(index.__componentTypes.get(pos).intValue(), key) );
+				}
+				return index.__idSets.get(pos).contains ( key );
+			}
+		}
+	}
+	return StateMod_Util.indexOf(dataList, id) >= 0;
+}
+
+/**
+Return the identifier keys (see getKey()) for each indexed component type, as lookup keys
+(see getLookupKey()).  This is used to determine which identifiers have been added or removed between
+validation runs.
+*/
+Set<String> getAllLookupKeys ()
+{
+	Set<String> keys = new HashSet<String>();
+	int size = __dataLists.size();
+	for ( int i = 0; i < size; i++ ) {
+		int componentType = __componentTypes.get(i).intValue();
+		for ( String key : __idSets.get(i) ) {
+			keys.add ( getLookupKey(componentType, key) );
+		}
+	}
+	return keys;
+}
+
+/**
+Return the component types that are indexed, which are the components that have StateMod_Data objects.
+*/
+Set<Integer> getComponentTypes ()
+{
+	return new HashSet<Integer>(__componentTypes);
+}
+
+/**
+Return the identifier keys (see getKey()) for objects in the data set that are dirty.
+*/
+Set<String> getDirtyIDKeys ()
+{
+	return __dirtyIDKeys;
+}
+
+/**
+Return the lookup keys (see getLookupKey()) for objects in the data set that are dirty.
+*/
+Set<String> getDirtyLookupKeys ()
+{
+	return __dirtyLookupKeys;
+}
+
+/**
+Return the key used to compare identifiers while ignoring case.
+Characters are converted to upper case and then lower case, consistent with String.equalsIgnoreCase().
+*/
+static String getKey ( String id )
+{
+	return id.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+}
+
+/**
+Return the key for a lookup, which combines the component type and identifier key.
+*/
+static String getLookupKey ( int componentType, String key )
+{
+	return componentType + ":" + key;
+}
+
+/**
+Return the position of a data list in the index, or -1 if the list is not indexed.
+*/
+private int indexOfList ( List<?> dataList )
+{
+	int size = __dataLists.size();
+	for ( int i = 0; i < size; i++ ) {
+		if ( __dataLists.get(i) == dataList ) {
+			return i;
+		}
+	}
+	return -1;
+}
+
+/**
+Start or stop recording the lookups made by containsID() on the current thread.
+@param recorder collection to receive lookup keys, or null to stop recording
+*/
+static void setLookupRecorder ( Collection<String> recorder )
+{
+	if ( recorder == null ) {
+		__lookupRecorder.remove();
+	}
+	else {
+		__lookupRecorder.set ( recorder );
+	}
+}
+
+}
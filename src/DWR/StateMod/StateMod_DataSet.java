@@ -31,6 +31,7 @@ import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.util.StringTokenizer;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
 import javax.swing.JFrame;
@@ -1255,6 +1256,32 @@ Significant figures for output.
 */
 private int __isig = 0;
 
+/**
+Identifier index used while validating the data set, set by StateMod_ComponentValidationEngine.
+*/
+private volatile StateMod_ComponentValidationIndex __componentValidationIndex = null;
+
+/**
+Index of all water rights sorted by administration number, created when first requested.
+*/
+private StateMod_RightsPriorityIndex __rightsPriorityIndex = null;
+
+/**
+Indicates whether a rights component has been marked dirty since the rights priority index was refreshed,
+in which case rights may have been added or removed and the index is refreshed when next requested.
+*/
+private boolean __rightsPriorityIndexStale = false;
+
+/**
+Metrics for the most recent readStateModFile() call, or null if the data set has not been read.
+*/
+private StateMod_DataSetLoadMetrics __loadMetrics = null;
+
+/**
+File to which load metrics are written as JSON after readStateModFile(), or null to not write.
+*/
+private String __loadMetricsFile = null;
+
 /**
 Constructor.  Makes a blank data set.  It is expected that other information 
 will be set during further processing.
@@ -1446,13 +1473,15 @@ private List<String> checkComponentData_WellRights ( PropList props )
 	int count = 0;			// Count of well stations with potential problems.
 	String id_i = null;
 	List<StateMod_WellRight> rights = null;
+	// Index the rights once rather than searching all rights for each station
+	StateMod_RightsIndex<StateMod_WellRight> rightsIndex = new StateMod_RightsIndex<StateMod_WellRight>(wer_Vector);
 	for ( int i = 0; i < size; i++ ) {
 		wes_i = wes_Vector.get(i);
 		if ( wes_i == null ) {
 			continue;
 		}
 		id_i = wes_i.getID();
-		rights = StateMod_Util.getRightsForStation ( id_i, wer_Vector );
+		rights = rightsIndex.getRightsForStation ( id_i );
 		// TODO SAM 2007-01-02 Evaluate how to put this code in a separate method and share between rights and stations.
 		if ( (rights == null) || (rights.size() == 0) ) {
 			// The following is essentially a copy of code for well
@@ -1610,13 +1639,15 @@ void checkComponentData_WellRights_Capacity ( List<String> message_list )
 	int size_rights = 0;
 	String id_i = null;
 	List<StateMod_WellRight> rights = null;
+	// Index the rights once rather than searching all rights for each station
+	StateMod_RightsIndex<StateMod_WellRight> rightsIndex = new StateMod_RightsIndex<StateMod_WellRight>(wer_Vector);
 	for ( int i = 0; i < size; i++ ) {
 		wes_i = wes_Vector.get(i);
 		if ( wes_i == null ) {
 			continue;
 		}
 		id_i = wes_i.getID();
-		rights = StateMod_Util.getRightsForStation ( id_i, wer_Vector );
+		rights = rightsIndex.getRightsForStation ( id_i );
 		size_rights = 0;
 		if ( rights != null ) {
 			size_rights = rights.size();
@@ -2257,6 +2288,13 @@ public int[] getComponentGroupNumbers() {
 	return __component_groups;
 }
 
+/**
+Return the identifier index used while validating the data set, or null if validation is not running.
+*/
+StateMod_ComponentValidationIndex getComponentValidationIndex ()
+{	return __componentValidationIndex;
+}
+
 /**
 Get the calendar/water/irrigation year
 @return year type for data set
@@ -2757,6 +2795,16 @@ public int getIystr() {
 	return __iystr;
 }
 
+/**
+Return the metrics for the most recent readStateModFile() call, including bytes read, records, parse and connect
+time for each component, and the total load time.
+@return the load metrics, or null if the data set has not been read
+*/
+public StateMod_DataSetLoadMetrics getLoadMetrics ()
+{
+	return __loadMetrics;
+}
+
 /**
 Return a list of String containing information about modified data in the data
 set.  This can be used during development to see how a GUI modifies data when it is set.
@@ -3036,6 +3084,21 @@ public double getRfacto() {
 	return __rfacto;
 }
 
+/**
+Return the index of diversion, reservoir, instream flow, and well rights sorted by administration number.
+The index is created when first requested.  Edits to administration numbers are applied by the index itself.
+If a rights component has been marked dirty (see setDirty()) since the index was last refreshed, rights may
+have been added or removed and the index is refreshed before it is returned.  Call refreshRightsPriorityIndex()
+after adding or removing rights without marking the component dirty.
+@return the rights priority index
+*/
+public synchronized StateMod_RightsPriorityIndex getRightsPriorityIndex ()
+{	if ( (__rightsPriorityIndex == null) || __rightsPriorityIndexStale ) {
+		return refreshRightsPriorityIndex();
+	}
+	return __rightsPriorityIndex;
+}
+
 /**
 Return a DateTime corresponding to the run end.  Daily precision is always
 returned and calendar dates are used.
@@ -5155,7 +5218,13 @@ If a component is dirty, it needs to be written to a file because data or the fi
 if the component should be marked clean (from data read, or edits saved).
 */
 public void setDirty(int componentType, boolean isDirty)
-{	DataSetComponent comp = getComponentForComponentType ( componentType );
+{	if ( isDirty && ((componentType == COMP_DIVERSION_RIGHTS) || (componentType == COMP_RESERVOIR_RIGHTS) ||
+		(componentType == COMP_INSTREAM_RIGHTS) || (componentType == COMP_WELL_RIGHTS)) ) {
+		synchronized ( this ) {
+			__rightsPriorityIndexStale = true;
+		}
+	}
+	DataSetComponent comp = getComponentForComponentType ( componentType );
 	if ( comp != null ) {
 		comp.setDirty(isDirty);
 		//if ( Message.isDebugOn ) {
@@ -5322,6 +5391,8 @@ throws IllegalArgumentException, IOException
 	// Now start reading new scenario...
 	StopWatch totalReadTime = new StopWatch();
 	StopWatch readTime = new StopWatch();
+	StopWatch connectTime = new StopWatch();
+	__loadMetrics = new StateMod_DataSetLoadMetrics();
 
 	Message.printStatus(1, routine, "Reading all information from input directory: \"" + getDataSetDirectory());
 
@@ -5715,7 +5786,11 @@ throws IllegalArgumentException, IOException
 				Message.printStatus ( 1, routine, "Connecting instream flow rights to stations.");
 				@SuppressWarnings("unchecked")
 				List<StateMod_InstreamFlow> ifsList = (List<StateMod_InstreamFlow>)getComponentForComponentType ( COMP_INSTREAM_STATIONS ).getData();
+				connectTime.clear();
+				connectTime.start();
 				StateMod_InstreamFlow.connectAllRights(ifsList, ifrList );
+				connectTime.stop();
+				__loadMetrics.addConnectSeconds ( comp.getComponentType(), comp.getComponentName(), connectTime.getSeconds() );
 			}
 		}
 		catch (Exception e) {
@@ -5750,7 +5825,11 @@ throws IllegalArgumentException, IOException
 				Message.printStatus ( 1, routine, "Connecting reservoir rights with reservoir stations.");
 				@SuppressWarnings("unchecked")
 				List<StateMod_Reservoir> resList = (List<StateMod_Reservoir>)getComponentForComponentType( COMP_RESERVOIR_STATIONS).getData();
+				connectTime.clear();
+				connectTime.start();
 				StateMod_Reservoir.connectAllRights( resList, rerList );
+				connectTime.stop();
+				__loadMetrics.addConnectSeconds ( comp.getComponentType(), comp.getComponentName(), connectTime.getSeconds() );
 			}
 		}
 		catch (Exception e) {
@@ -5785,7 +5864,11 @@ throws IllegalArgumentException, IOException
 				Message.printStatus ( 1, routine, "Connecting diversion rights to diversion stations" );
 				@SuppressWarnings("unchecked")
 				List<StateMod_Diversion> ddsList = (List<StateMod_Diversion>)getComponentForComponentType ( COMP_DIVERSION_STATIONS).getData();
+				connectTime.clear();
+				connectTime.start();
 				StateMod_Diversion.connectAllRights( ddsList, ddrList );
+				connectTime.stop();
+				__loadMetrics.addConnectSeconds ( comp.getComponentType(), comp.getComponentName(), connectTime.getSeconds() );
 			}
 		}
 		catch (Exception e) {
@@ -5850,7 +5933,11 @@ throws IllegalArgumentException, IOException
 				Message.printStatus ( 1, routine, "Connecting well rights to well stations.");
 				@SuppressWarnings("unchecked")
 				List<StateMod_Well> wesList = (List<StateMod_Well>)getComponentForComponentType( COMP_WELL_STATIONS).getData();
+				connectTime.clear();
+				connectTime.start();
 				StateMod_Well.connectAllRights( wesList, werList );
+				connectTime.stop();
+				__loadMetrics.addConnectSeconds ( comp.getComponentType(), comp.getComponentName(), connectTime.getSeconds() );
 			}
 		}
 		catch (Exception e) {
@@ -7336,24 +7423,34 @@ throws IllegalArgumentException, IOException
 		// Connect all the instream flow time series to the stations...
 	
 		Message.printStatus (1,routine,"Connect all instream flow time series");
+		connectTime.clear();
+		connectTime.start();
 		StateMod_InstreamFlow.connectAllTS (
 			(List<StateMod_InstreamFlow>)getComponentForComponentType( COMP_INSTREAM_STATIONS).getData(),
 			(List<MonthTS>)getComponentForComponentType( COMP_INSTREAM_DEMAND_TS_MONTHLY).getData(),
 			(List<MonthTS>)getComponentForComponentType( COMP_INSTREAM_DEMAND_TS_AVERAGE_MONTHLY).getData(),
 			(List<DayTS>)getComponentForComponentType( COMP_INSTREAM_DEMAND_TS_DAILY).getData() );
+		connectTime.stop();
+		readStateModFile_AddConnectSeconds ( COMP_INSTREAM_STATIONS, connectTime.getSeconds() );
 	
 		// Connect all the reservoir time series to the stations...
 	
+		connectTime.clear();
+		connectTime.start();
 		StateMod_Reservoir.connectAllTS (
 			(List<StateMod_Reservoir>)getComponentForComponentType( COMP_RESERVOIR_STATIONS).getData(),
 			(List<MonthTS>)getComponentForComponentType( COMP_RESERVOIR_CONTENT_TS_MONTHLY).getData(),
 			(List<DayTS>)getComponentForComponentType( COMP_RESERVOIR_CONTENT_TS_DAILY).getData(),
 			(List<MonthTS>)getComponentForComponentType( COMP_RESERVOIR_TARGET_TS_MONTHLY).getData(),
 			(List<DayTS>)getComponentForComponentType( COMP_RESERVOIR_TARGET_TS_DAILY).getData());
+		connectTime.stop();
+		readStateModFile_AddConnectSeconds ( COMP_RESERVOIR_STATIONS, connectTime.getSeconds() );
 	
 		// Connect all the diversion time series to the stations...
 	
 		Message.printStatus ( 1, routine, "Connect all diversion time series");
+		connectTime.clear();
+		connectTime.start();
 		StateMod_Diversion.connectAllTS(
 			(List<StateMod_Diversion>)getComponentForComponentType( COMP_DIVERSION_STATIONS).getData(),
 			(List<MonthTS>)getComponentForComponentType( COMP_DIVERSION_TS_MONTHLY).getData(),
@@ -7365,10 +7462,14 @@ throws IllegalArgumentException, IOException
 			(List<StateCU_IrrigationPracticeTS>)getComponentForComponentType( COMP_IRRIGATION_PRACTICE_TS_YEARLY).getData(),
 			(List<MonthTS>)getComponentForComponentType( COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_MONTHLY).getData(),
 			(List<DayTS>)getComponentForComponentType( COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_DAILY).getData());
+		connectTime.stop();
+		readStateModFile_AddConnectSeconds ( COMP_DIVERSION_STATIONS, connectTime.getSeconds() );
 	
 		// Connect all the well time series to the stations...
 	
 		Message.printStatus ( 1, routine, "Connect all well time series");
+		connectTime.clear();
+		connectTime.start();
 		StateMod_Well.connectAllTS(
 			(List<StateMod_Well>)getComponentForComponentType( COMP_WELL_STATIONS).getData(),
 			(List<MonthTS>)getComponentForComponentType( COMP_WELL_PUMPING_TS_MONTHLY).getData(), 
@@ -7378,6 +7479,8 @@ throws IllegalArgumentException, IOException
 			(List<StateCU_IrrigationPracticeTS>)getComponentForComponentType( COMP_IRRIGATION_PRACTICE_TS_YEARLY).getData(),
 			(List<MonthTS>)getComponentForComponentType( COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_MONTHLY).getData(),
 			(List<DayTS>)getComponentForComponentType( COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_DAILY).getData());
+		connectTime.stop();
+		readStateModFile_AddConnectSeconds ( COMP_WELL_STATIONS, connectTime.getSeconds() );
 	
 		// Process the old-style ris, rim, rid files for the new convention...
 	
@@ -7395,20 +7498,28 @@ throws IllegalArgumentException, IOException
 		// Connect all the stream gage station time series to the stations...
 	
 		Message.printStatus (1,routine,"Connect all river station time series");
+		connectTime.clear();
+		connectTime.start();
 		StateMod_StreamGage.connectAllTS(
 			(List<StateMod_StreamGage>)getComponentForComponentType( COMP_STREAMGAGE_STATIONS).getData(),
 			(List<MonthTS>)getComponentForComponentType( COMP_STREAMGAGE_HISTORICAL_TS_MONTHLY).getData(),
 			(List<DayTS>)getComponentForComponentType( COMP_STREAMGAGE_HISTORICAL_TS_DAILY).getData(),
 			(List<MonthTS>)getComponentForComponentType( COMP_STREAMGAGE_NATURAL_FLOW_TS_MONTHLY).getData(),
 			(List<DayTS>)getComponentForComponentType( COMP_STREAMGAGE_NATURAL_FLOW_TS_DAILY).getData());
+		connectTime.stop();
+		readStateModFile_AddConnectSeconds ( COMP_STREAMGAGE_STATIONS, connectTime.getSeconds() );
 	
 		// Connect all the stream estimate station time series to the stations...
 	
 		Message.printStatus (1,routine, "Connect all stream estimate station time series");
+		connectTime.clear();
+		connectTime.start();
 		StateMod_StreamEstimate.connectAllTS(
 			(List<StateMod_StreamEstimate>)getComponentForComponentType( COMP_STREAMESTIMATE_STATIONS).getData(),
 			(List<MonthTS>)getComponentForComponentType( COMP_STREAMESTIMATE_NATURAL_FLOW_TS_MONTHLY).getData(),
 			(List<DayTS>)getComponentForComponentType( COMP_STREAMESTIMATE_NATURAL_FLOW_TS_DAILY).getData());
+		connectTime.stop();
+		readStateModFile_AddConnectSeconds ( COMP_STREAMESTIMATE_STATIONS, connectTime.getSeconds() );
 	
 		totalReadTime.stop();
 		Message.printStatus(1, routine, "Total time to read StateMod files is "
@@ -7474,6 +7585,19 @@ throws IllegalArgumentException, IOException
 	checkComponentVisibility ();
 
 	totalReadTime.stop();
+	__loadMetrics.setTotalSeconds ( totalReadTime.getSeconds() );
+	// The metrics are only output when requested with debug or a metrics file (see setLoadMetricsFile())
+	if ( Message.isDebugOn ) {
+		Message.printDebug ( 1, routine, "Load metrics:\n" + __loadMetrics.toJSON() );
+	}
+	if ( __loadMetricsFile != null ) {
+		try {
+			__loadMetrics.writeJSONFile ( getDataFilePathAbsolute(__loadMetricsFile) );
+		}
+		catch ( Exception e ) {
+			Message.printWarning ( 3, routine, "Error writing load metrics file \"" + __loadMetricsFile + "\" (" + e + ")." );
+		}
+	}
 	String msg = "Total time to read all files is "
 		+ StringUtil.formatString(totalReadTime.getSeconds(),"%.3f") + " seconds";
 	Message.printStatus(1, routine, msg );
@@ -7481,6 +7605,7 @@ throws IllegalArgumentException, IOException
 	setDirty(COMP_CONTROL, false);
 
 	readTime = null;
+	connectTime = null;
 	totalReadTime = null;
 	// TODO - uncomment for debugging
 	//Message.printStatus ( 2, routine,
@@ -7490,6 +7615,19 @@ throws IllegalArgumentException, IOException
 	//Message.printStatus ( 2, routine, super.toString () );
 }
 
+/**
+This method is a helper routine to readStateModFile().  It adds the time to connect time series
+to the stations for a component to the load metrics.
+@param componentType Component type for the stations.
+@param seconds Number of seconds to connect.
+*/
+private void readStateModFile_AddConnectSeconds ( int componentType, double seconds )
+{	DataSetComponent comp = getComponentForComponentType ( componentType );
+	if ( (comp != null) && (__loadMetrics != null) ) {
+		__loadMetrics.addConnectSeconds ( componentType, comp.getComponentName(), seconds );
+	}
+}
+
 /**
 This method is a helper routine to readStateModFile().  It calls
 Message.printStatus() with the message that a particular file is being read,
@@ -7516,6 +7654,9 @@ throws Exception
 		throw new Exception(description + " file \"" + fn + "\" not readable.");
 	}
 
+	if ( __loadMetrics != null ) {
+		__loadMetrics.readComponentStart ( comp, fn );
+	}
 	String msg = "Reading " + description + " data from \"" + fn + "\"";
 	// The status message is printed becauset process listeners may not be registered.
 	Message.printStatus(1, "StateMod_DataSet.readInputAnnounce1", msg );
@@ -7526,6 +7667,7 @@ throws Exception
 This method is a helper routine to readStateModFile().  It calls
 Message.printStatus() with the message that a file has been read successively.
 Then it prints a similar, but shorter, message to the status bar.
+The load metrics for the component are also saved.
 @param comp Component being read.
 @param seconds Number of seconds to read.
 */
@@ -7534,6 +7676,10 @@ private void readStateModFile_Announce2 ( DataSetComponent comp, double seconds
 	String fn = getDataFilePathAbsolute ( comp );
 	String description = comp.getComponentName();
 
+	if ( __loadMetrics != null ) {
+		__loadMetrics.readComponentEnd ( comp, seconds );
+	}
+
 	// The status message is printed becauset process listeners may not be registered.
 	String msg = description + " data read from \"" + fn + "\" in "
 		+ StringUtil.formatString(seconds,"%.3f") + " seconds";
@@ -7541,6 +7687,23 @@ private void readStateModFile_Announce2 ( DataSetComponent comp, double seconds
 	sendProcessListenerMessage (StateMod_GUIUtil.STATUS_READ_COMPLETE,msg);
 }
 
+/**
+Refresh the index of rights sorted by administration number to reflect rights that have been added, removed,
+or had their administration number edited, without sorting all rights again.  The index is created if it
+has not been requested.
+@return the rights priority index
+*/
+public synchronized StateMod_RightsPriorityIndex refreshRightsPriorityIndex ()
+{	__rightsPriorityIndexStale = false;
+	if ( __rightsPriorityIndex == null ) {
+		__rightsPriorityIndex = new StateMod_RightsPriorityIndex ( this );
+	}
+	else {
+		__rightsPriorityIndex.refresh ( this );
+	}
+	return __rightsPriorityIndex;
+}
+
 /**
 Remove a ProcessListener that was previously added with addProcessListener().
 @param p ProcessListener to remove.
@@ -7559,13 +7722,23 @@ running data checks are added to the check file.
 @param type StateModComponent type.
 */
 public String runComponentChecks( int type, String fname, String commands, String header )
+{
+	return runComponentChecks( new int [] { type }, fname, commands, header );
+}
+
+/**
+Performs the check file setup and calls code to check several components, adding the
+results for all components to the same check file.  The component objects are validated
+in one StateMod_ComponentValidationEngine run.
+@param types StateModComponent types, in the order to list in the check file.
+*/
+public String runComponentChecks( int [] types, String fname, String commands, String header )
 {
 	String check_file = "";
 	CheckFile chk = new CheckFile( fname, commands );
 	chk.addToHeader( header );
-	StateMod_ComponentDataCheck check = new StateMod_ComponentDataCheck(type, chk, this);
-	// Run the data checks for the component and retrieve the finalized check file
-	CheckFile final_check = check.checkComponentType( null );
+	// Run the data checks for the components and retrieve the finalized check file
+	CheckFile final_check = StateMod_ComponentDataCheck.checkComponentTypes( types, chk, this, null, null );
 	try {
 		final_check.finalizeCheckFile();
 		check_file = final_check.toString();
@@ -7626,6 +7799,36 @@ throws IOException {
 	out.println("</StateMod_DataSet>");
 }
 
+/**
+Validate the data for several components, using other available components as appropriate.
+The objects for all of the components are validated in one StateMod_ComponentValidationEngine run, which
+shares identifier lookups between components and validates objects in parallel.  The messages from
+checkComponentData() are listed for each component, followed by the validation problems for the component.
+@param comp_types the component types.
+@param props Properties to control the check (currently unused).  This may
+be used to control whether results are returned, and in what format.
+@return the Vector of check results messages, for the components in the order requested.
+*/
+public List<String> validateComponentData ( int [] comp_types, PropList props )
+{	List<String> message_list = new Vector<String>();
+	StateMod_ComponentValidationEngine engine = new StateMod_ComponentValidationEngine ( this );
+	Map<Integer,List<StateMod_ComponentValidationProblem>> results = engine.validateComponents ( comp_types );
+	for ( int i = 0; i < comp_types.length; i++ ) {
+		message_list.addAll ( checkComponentData ( comp_types[i], props ) );
+		List<StateMod_ComponentValidationProblem> problems = results.get ( Integer.valueOf(comp_types[i]) );
+		if ( problems.size() > 0 ) {
+			message_list.add ( "" );
+			message_list.add ( "The following " + lookupComponentName(comp_types[i]) + " problems (" +
+				problems.size() + ") were found:" );
+			message_list.add ( "" );
+			for ( StateMod_ComponentValidationProblem problem : problems ) {
+				message_list.add ( problem.getProblem() + "  " + problem.getRecommendation() );
+			}
+		}
+	}
+	return message_list;
+}
+
 /**
 Write the data set to an XML file.  The filename is adjusted to the 
 working directory if necessary using IOUtil.getPathUsingWorkingDir().
@@ -7730,6 +7933,14 @@ public void setCfacto(String cfacto) {
 	}
 }
 
+/**
+Set the identifier index used while validating the data set.
+@param index the index, or null when validation is complete
+*/
+void setComponentValidationIndex ( StateMod_ComponentValidationIndex index )
+{	__componentValidationIndex = index;
+}
+
 /**
 Set the calendar/water/irrigation year
 @param cyrl year type
@@ -8414,6 +8625,15 @@ public void setIystr(String iystr) {
 	}
 }
 
+/**
+Set the file to which load metrics are written as JSON after readStateModFile() (see getLoadMetrics()).
+@param loadMetricsFile the file to write, or null to not write the metrics
+*/
+public void setLoadMetricsFile ( String loadMetricsFile )
+{
+	__loadMetricsFile = loadMetricsFile;
+}
+
 /**
 Set type of evaporation data. Use SM_MONTHLY or SM_AVERAGE.
 @param moneva type of evaporation data
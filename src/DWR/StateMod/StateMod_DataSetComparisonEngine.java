@@ -0,0 +1,663 @@
+// StateMod_DataSetComparisonEngine - compare the components of two StateMod data sets
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import RTi.TS.TS;
+import RTi.Util.IO.DataSetComponent;
+import RTi.Util.Message.Message;
+import RTi.Util.Time.DateTime;
+
+/**
+Compare the components of two StateMod data sets, for example two scenario versions of a data set.
+All components that contain a list of StateMod_Data objects (stations, rights, and other data) or a list
+of time series are compared.  Objects are matched using a hash join on the identifier (case-insensitive,
+with a sequence number appended for repeated identifiers):  the objects in the second data set are hashed,
+the first data set is then processed in order, and the remaining objects in the second data set are those that
+were added.  Matching StateMod_Data objects are compared with the compareTo() method of their class and
+time series are compared by period and values, and the differences are reported.  Components are compared in
+parallel and the results are returned in the order of the components in the first data set.
+The data sets must not be modified while the comparison is running.
+*/
+public class StateMod_DataSetComparisonEngine
+{
+
+/**
+Differences for one object that is in both data sets.
+*/
+public static class ObjectDifference
+{
+	private String __id;
+	private List<String> __fieldDifferences;
+
+	private ObjectDifference ( String id, List<String> fieldDifferences )
+	{
+		__id = id;
+		__fieldDifferences = fieldDifferences;
+	}
+
+	/**
+	Return the differences, each formatted as "field: value1 -> value2".
+	*/
+	public List<String> getFieldDifferences ()
+	{
+		return __fieldDifferences;
+	}
+
+	/**
+	Return the object identifier.
+	*/
+	public String getID ()
+	{
+		return __id;
+	}
+}
+
+/**
+Differences for one component.
+*/
+public static class ComponentDifference
+{
+	private int __componentType;
+	private String __componentName;
+	private int __count1 = 0;
+	private int __count2 = 0;
+	private List<String> __added = new ArrayList<String>();
+	private List<String> __removed = new ArrayList<String>();
+	private List<ObjectDifference> __changed = new ArrayList<ObjectDifference>();
+
+	private ComponentDifference ( int componentType, String componentName )
+	{
+		__componentType = componentType;
+		__componentName = componentName;
+	}
+
+	/**
+	Return the identifiers of objects that are only in the second data set.
+	*/
+	public List<String> getAdded ()
+	{
+		return __added;
+	}
+
+	/**
+	Return the objects that are in both data sets and are different.
+	*/
+	public List<ObjectDifference> getChanged ()
+	{
+		return __changed;
+	}
+
+	/**
+	Return the component name.
+	*/
+	public String getComponentName ()
+	{
+		return __componentName;
+	}
+
+	/**
+	Return the component type.
+	*/
+	public int getComponentType ()
+	{
+		return __componentType;
+	}
+
+	/**
+	Return the number of objects in the first data set.
+	*/
+	public int getCount1 ()
+	{
+		return __count1;
+	}
+
+	/**
+	Return the number of objects in the second data set.
+	*/
+	public int getCount2 ()
+	{
+		return __count2;
+	}
+
+	/**
+	Return the identifiers of objects that are only in the first data set.
+	*/
+	public List<String> getRemoved ()
+	{
+		return __removed;
+	}
+
+	/**
+	Indicate whether there are differences.
+	*/
+	public boolean hasDifferences ()
+	{
+		return (__added.size() > 0) || (__removed.size() > 0) || (__changed.size() > 0);
+	}
+}
+
+/**
+The first data set.
+*/
+private StateMod_DataSet __dataset1;
+
+/**
+The second data set.
+*/
+private StateMod_DataSet __dataset2;
+
+/**
+Number of threads to use.
+*/
+private int __threadCount;
+
+/**
+Tolerance for comparing time series values.
+*/
+private double __tolerance = 0.0;
+
+/**
+Create an engine that uses one thread per available processor.
+@param dataset1 the first data set (e.g., the original scenario)
+@param dataset2 the second data set (e.g., the new scenario)
+*/
+public StateMod_DataSetComparisonEngine ( StateMod_DataSet dataset1, StateMod_DataSet dataset2 )
+{
+	this ( dataset1, dataset2, Runtime.getRuntime().availableProcessors() );
+}
+
+/**
+Create an engine.
+@param dataset1 the first data set (e.g., the original scenario)
+@param dataset2 the second data set (e.g., the new scenario)
+@param threadCount the number of threads to use, 1 to compare on the calling thread
+*/
+public StateMod_DataSetComparisonEngine ( StateMod_DataSet dataset1, StateMod_DataSet dataset2, int threadCount )
+{
+	__dataset1 = dataset1;
+	__dataset2 = dataset2;
+	__threadCount = Math.max(1, threadCount);
+}
+
+/**
+Compare the data sets.
+@return the differences for each component that has data in either data set, in the order of the components
+in the first data set
+*/
+public List<ComponentDifference> compare ()
+{
+	final Map<Integer,DataSetComponent> comps1 = getComponentMap ( __dataset1 );
+	final Map<Integer,DataSetComponent> comps2 = getComponentMap ( __dataset2 );
+	List<Integer> componentTypes = new ArrayList<Integer>();
+	for ( Map.Entry<Integer,DataSetComponent> entry : comps1.entrySet() ) {
+		if ( (getData(entry.getValue()) != null) || (getData(comps2.get(entry.getKey())) != null) ) {
+			componentTypes.add ( entry.getKey() );
+		}
+	}
+	for ( Map.Entry<Integer,DataSetComponent> entry : comps2.entrySet() ) {
+		if ( !comps1.containsKey(entry.getKey()) && (getData(entry.getValue()) != null) ) {
+			componentTypes.add ( entry.getKey() );
+		}
+	}
+	List<ComponentDifference> differences = new ArrayList<ComponentDifference>();
+	if ( (__threadCount == 1) || (componentTypes.size() < 2) ) {
+		for ( Integer componentType : componentTypes ) {
+			differences.add ( compareComponent(componentType.intValue(), comps1.get(componentType),
+				comps2.get(componentType)) );
+		}
+		return differences;
+	}
+	ExecutorService executor = Executors.newFixedThreadPool ( Math.min(__threadCount, componentTypes.size()) );
+	try {
+		List<Future<ComponentDifference>> futures = new ArrayList<Future<ComponentDifference>>();
+		for ( final Integer componentType : componentTypes ) {
+			futures.add ( executor.submit ( new Callable<ComponentDifference>() {
+				public ComponentDifference call ()
+				{
+					return compareComponent ( componentType.intValue(), comps1.get(componentType),
+						comps2.get(componentType) );
+				}
+			}));
+		}
+		for ( Future<ComponentDifference> future : futures ) {
+			differences.add ( future.get() );
+		}
+	}
+	catch ( InterruptedException e ) {
+		Thread.currentThread().interrupt();
+		throw new RuntimeException ( "Data set comparison was interrupted.", e );
+	}
+	catch ( ExecutionException e ) {
+		throw new RuntimeException ( "Error comparing data sets (" + e.getCause() + ").", e.getCause() );
+	}
+	finally {
+		executor.shutdownNow();
+	}
+	return differences;
+}
+
+/**
+Compare one component in the two data sets.
+*/
+private ComponentDifference compareComponent ( int componentType, DataSetComponent comp1, DataSetComponent comp2 )
+{
+	String componentName = (comp1 != null) ? comp1.getComponentName() : comp2.getComponentName();
+	ComponentDifference difference = new ComponentDifference ( componentType, componentName );
+	List<?> data1 = getData ( comp1 );
+	List<?> data2 = getData ( comp2 );
+	// Hash the second data set
+	Map<String,Object> objects2 = new LinkedHashMap<String,Object>();
+	if ( data2 != null ) {
+		difference.__count2 = data2.size();
+		Map<String,Integer> occurrences = new LinkedHashMap<String,Integer>();
+		for ( Object o : data2 ) {
+			String key = getKey ( o, occurrences );
+			if ( key != null ) {
+				objects2.put ( key, o );
+			}
+		}
+	}
+	// Process the first data set in order, matching with the second data set
+	if ( data1 != null ) {
+		difference.__count1 = data1.size();
+		Map<String,Integer> occurrences = new LinkedHashMap<String,Integer>();
+		for ( Object o1 : data1 ) {
+			String key = getKey ( o1, occurrences );
+			if ( key == null ) {
+				continue;
+			}
+			Object o2 = objects2.remove ( key );
+			if ( o2 == null ) {
+				difference.__removed.add ( getID(o1) );
+				continue;
+			}
+			List<String> fieldDifferences = new ArrayList<String>();
+			if ( (o1 instanceof TS) && (o2 instanceof TS) ) {
+				compareTS ( (TS)o1, (TS)o2, fieldDifferences );
+			}
+			else if ( (o1 instanceof StateMod_Data) && (o2 instanceof StateMod_Data) ) {
+				compareData ( (StateMod_Data)o1, (StateMod_Data)o2, fieldDifferences );
+			}
+			if ( fieldDifferences.size() > 0 ) {
+				difference.__changed.add ( new ObjectDifference(getID(o1), fieldDifferences) );
+			}
+		}
+	}
+	// Objects that were not matched were added in the second data set
+	for ( Object o2 : objects2.values() ) {
+		difference.__added.add ( getID(o2) );
+	}
+	return difference;
+}
+
+/**
+Compare two StateMod_Data objects using the compareTo() method of the class, which compares the values that
+are saved in the data files.  If the objects are different, the identifier, name, river node, switch, and
+coordinates are checked, followed by the data fields of the class (see compareFields()), so that each
+difference can be listed.
+*/
+private void compareData ( StateMod_Data data1, StateMod_Data data2, List<String> fieldDifferences )
+{
+	if ( data1.getClass() != data2.getClass() ) {
+		fieldDifferences.add ( "class: " + data1.getClass().getSimpleName() + " -> " +
+			data2.getClass().getSimpleName() );
+		return;
+	}
+	try {
+		if ( data1.compareTo(data2) == 0 ) {
+			return;
+		}
+	}
+	catch ( RuntimeException e ) {
+		// For example, a null value that compareTo() does not handle
+		Message.printWarning ( 3, "StateMod_DataSetComparisonEngine.compareData",
+			"Unable to compare \"" + data1.getID() + "\" (" + e + ")." );
+		fieldDifferences.add ( "data: unable to compare (" + e + ")" );
+		return;
+	}
+	compareValue ( "ID", data1.getID(), data2.getID(), fieldDifferences );
+	compareValue ( "name", data1.getName(), data2.getName(), fieldDifferences );
+	compareValue ( "river node", data1.getCgoto(), data2.getCgoto(), fieldDifferences );
+	if ( data1.getSwitch() != data2.getSwitch() ) {
+		fieldDifferences.add ( "switch: " + data1.getSwitch() + " -> " + data2.getSwitch() );
+	}
+	if ( data1.getUTMx() != data2.getUTMx() ) {
+		fieldDifferences.add ( "UTM x: " + data1.getUTMx() + " -> " + data2.getUTMx() );
+	}
+	if ( data1.getUTMy() != data2.getUTMy() ) {
+		fieldDifferences.add ( "UTM y: " + data1.getUTMy() + " -> " + data2.getUTMy() );
+	}
+	for ( Class<?> c = data1.getClass(); (c != null) && (c != StateMod_Data.class); c = c.getSuperclass() ) {
+		compareFields ( c, data1, data2, fieldDifferences );
+	}
+	if ( fieldDifferences.size() == 0 ) {
+		// For example, compareTo() treats values as different that format the same
+		fieldDifferences.add ( "data: other " + data1.getClass().getSimpleName() + " values are different" );
+	}
+}
+
+/**
+Compare the data fields that are declared in a class, for two objects of the class.
+Data fields are the non-static fields named with a single leading underscore (e.g., _divcap), which are
+the values that are read from and written to the data files - fields named with two leading underscores hold
+derived or cached values and are not compared.  Fields that are strings, primitive values, or arrays of
+primitive values are compared and are listed using the name without the underscore (e.g., "divcap"), which is
+the StateMod variable name.  Other fields (e.g., lists of rights and time series) are compared as objects
+in their own components.
+*/
+private void compareFields ( Class<?> c, StateMod_Data data1, StateMod_Data data2, List<String> fieldDifferences )
+{
+	for ( Field field : c.getDeclaredFields() ) {
+		String name = field.getName();
+		if ( Modifier.isStatic(field.getModifiers()) || !name.startsWith("_") || name.startsWith("__") ) {
+			continue;
+		}
+		Class<?> type = field.getType();
+		if ( !type.isPrimitive() && (type != String.class) &&
+			!(type.isArray() && type.getComponentType().isPrimitive()) ) {
+			continue;
+		}
+		Object value1;
+		Object value2;
+		try {
+			field.setAccessible ( true );
+			value1 = field.get ( data1 );
+			value2 = field.get ( data2 );
+		}
+		catch ( Exception e ) {
+			// Should not happen for fields of the class itself
+			Message.printWarning ( 3, "StateMod_DataSetComparisonEngine.compareFields",
+				"Unable to get \"" + name + "\" for \"" + data1.getID() + "\" (" + e + ")." );
+			continue;
+		}
+		name = name.substring(1);
+		if ( type == String.class ) {
+			compareValue ( name, (String)value1, (String)value2, fieldDifferences );
+		}
+		else if ( type.isArray() ) {
+			int length1 = (value1 == null) ? 0 : Array.getLength(value1);
+			int length2 = (value2 == null) ? 0 : Array.getLength(value2);
+			if ( length1 != length2 ) {
+				fieldDifferences.add ( name + ": " + length1 + " values -> " + length2 + " values" );
+				continue;
+			}
+			for ( int i = 0; i < length1; i++ ) {
+				Object element1 = Array.get ( value1, i );
+				Object element2 = Array.get ( value2, i );
+				if ( !element1.equals(element2) ) {
+					fieldDifferences.add ( name + "[" + i + "]: " + element1 + " -> " + element2 );
+				}
+			}
+		}
+		else if ( !value1.equals(value2) ) {
+			// Boxed primitive values, where equals() treats NaN as equal to NaN
+			fieldDifferences.add ( name + ": " + value1 + " -> " + value2 );
+		}
+	}
+}
+
+/**
+Compare two time series, checking the period and data values.
+*/
+private void compareTS ( TS ts1, TS ts2, List<String> fieldDifferences )
+{
+	if ( (ts1.getDataIntervalBase() != ts2.getDataIntervalBase()) ||
+		(ts1.getDataIntervalMult() != ts2.getDataIntervalMult()) ) {
+		fieldDifferences.add ( "interval: " + ts1.getIdentifier().getInterval() + " -> " +
+			ts2.getIdentifier().getInterval() );
+		return;
+	}
+	if ( !isEqual(ts1.getDataUnits(), ts2.getDataUnits()) ) {
+		fieldDifferences.add ( "units: " + ts1.getDataUnits() + " -> " + ts2.getDataUnits() );
+	}
+	DateTime start1 = ts1.getDate1();
+	DateTime end1 = ts1.getDate2();
+	DateTime start2 = ts2.getDate1();
+	DateTime end2 = ts2.getDate2();
+	if ( (start1 == null) || (end1 == null) || (start2 == null) || (end2 == null) ) {
+		return;
+	}
+	if ( !start1.equals(start2) || !end1.equals(end2) ) {
+		fieldDifferences.add ( "period: " + start1 + " to " + end1 + " -> " + start2 + " to " + end2 );
+	}
+	// Compare values for the overall period (values outside a period are missing)
+	DateTime date = new DateTime ( start1.lessThan(start2) ? start1 : start2 );
+	DateTime end = end1.greaterThan(end2) ? end1 : end2;
+	int base = ts1.getDataIntervalBase();
+	int mult = ts1.getDataIntervalMult();
+	int count = 0;
+	String first = null;
+	for ( ; date.lessThanOrEqualTo(end); date.addInterval(base,mult) ) {
+		double value1 = ts1.getDataValue ( date );
+		double value2 = ts2.getDataValue ( date );
+		boolean missing1 = ts1.isDataMissing ( value1 );
+		boolean missing2 = ts2.isDataMissing ( value2 );
+		if ( (missing1 && missing2) || (!missing1 && !missing2 && isEqual(value1, value2)) ) {
+			continue;
+		}
+		if ( count == 0 ) {
+			first = date + " " + (missing1 ? "missing" : ("" + value1)) + " -> " + (missing2 ? "missing" : ("" + value2));
+		}
+		++count;
+	}
+	if ( count > 0 ) {
+		fieldDifferences.add ( "values: " + count + " different, first at " + first );
+	}
+}
+
+/**
+Compare two string values, adding a difference if they are not equal (case-sensitive, null is the same as null).
+*/
+private void compareValue ( String name, String value1, String value2, List<String> fieldDifferences )
+{
+	if ( !isEqual(value1, value2) ) {
+		fieldDifferences.add ( name + ": " + formatValue(value1) + " -> " + formatValue(value2) );
+	}
+}
+
+/**
+Format the results of a comparison as a text report.
+@param differences the differences returned by compare()
+@return the report lines
+*/
+public static List<String> formatReport ( List<ComponentDifference> differences )
+{
+	List<String> v = new ArrayList<String>();
+	for ( ComponentDifference difference : differences ) {
+		v.add ( difference.getComponentName() + ":  " + difference.getCount1() + " objects in first data set, " +
+			difference.getCount2() + " in second, " + difference.getRemoved().size() + " only in first, " +
+			difference.getAdded().size() + " only in second, " + difference.getChanged().size() + " changed" );
+		if ( !difference.hasDifferences() ) {
+			continue;
+		}
+		for ( String id : difference.getRemoved() ) {
+			v.add ( "    Only in first:   " + id );
+		}
+		for ( String id : difference.getAdded() ) {
+			v.add ( "    Only in second:  " + id );
+		}
+		for ( ObjectDifference changed : difference.getChanged() ) {
+			v.add ( "    Changed:         " + changed.getID() );
+			for ( String fieldDifference : changed.getFieldDifferences() ) {
+				v.add ( "        " + fieldDifference );
+			}
+		}
+	}
+	return v;
+}
+
+/**
+Format a string value for output.
+*/
+private String formatValue ( String value )
+{
+	if ( value == null ) {
+		return "null";
+	}
+	return "\"" + value + "\"";
+}
+
+/**
+Return the components in a data set, by component type, including the components in groups.
+*/
+private static Map<Integer,DataSetComponent> getComponentMap ( StateMod_DataSet dataset )
+{
+	Map<Integer,DataSetComponent> comps = new LinkedHashMap<Integer,DataSetComponent>();
+	List<DataSetComponent> comps0 = dataset.getComponents();
+	if ( comps0 == null ) {
+		return comps;
+	}
+	for ( DataSetComponent comp : comps0 ) {
+		if ( comp.isGroup() ) {
+			@SuppressWarnings("unchecked")
+			List<DataSetComponent> comps2 = (List<DataSetComponent>)comp.getData();
+			if ( comps2 != null ) {
+				for ( DataSetComponent comp2 : comps2 ) {
+					comps.put ( Integer.valueOf(comp2.getComponentType()), comp2 );
+				}
+			}
+		}
+		else {
+			comps.put ( Integer.valueOf(comp.getComponentType()), comp );
+		}
+	}
+	return comps;
+}
+
+/**
+Return the component data if a non-empty list of StateMod_Data or time series, or null.
+*/
+private static List<?> getData ( DataSetComponent comp )
+{
+	if ( (comp == null) || !(comp.getData() instanceof List) ) {
+		return null;
+	}
+	List<?> data = (List<?>)comp.getData();
+	if ( data.size() == 0 ) {
+		return null;
+	}
+	Object o = data.get(0);
+	if ( (o instanceof StateMod_Data) || (o instanceof TS) ) {
+		return data;
+	}
+	return null;
+}
+
+/**
+Return the identifier of an object for output.
+*/
+private String getID ( Object o )
+{
+	if ( o instanceof StateMod_Data ) {
+		return ((StateMod_Data)o).getID();
+	}
+	else if ( o instanceof TS ) {
+		return ((TS)o).getIdentifierString();
+	}
+	return "" + o;
+}
+
+/**
+Return the key used to match an object, with a sequence number appended for repeated identifiers,
+or null if the object cannot be matched.
+*/
+private String getKey ( Object o, Map<String,Integer> occurrences )
+{
+	String id = null;
+	if ( o instanceof StateMod_Data ) {
+		id = ((StateMod_Data)o).getID();
+	}
+	else if ( o instanceof TS ) {
+		id = ((TS)o).getIdentifierString();
+	}
+	if ( id == null ) {
+		return null;
+	}
+	String key = id.toUpperCase();
+	Integer count = occurrences.get ( key );
+	if ( count == null ) {
+		occurrences.put ( key, Integer.valueOf(1) );
+		return key;
+	}
+	occurrences.put ( key, Integer.valueOf(count.intValue() + 1) );
+	return key + "#" + (count.intValue() + 1);
+}
+
+/**
+Return the tolerance used to compare time series values.
+*/
+public double getTolerance ()
+{
+	return __tolerance;
+}
+
+/**
+Determine whether two double values are equal within the tolerance.
+*/
+private boolean isEqual ( double value1, double value2 )
+{
+	if ( value1 == value2 ) {
+		return true;
+	}
+	if ( Double.isNaN(value1) && Double.isNaN(value2) ) {
+		return true;
+	}
+	return Math.abs(value1 - value2) <= __tolerance;
+}
+
+/**
+Determine whether two string values are equal (case-sensitive).
+*/
+private boolean isEqual ( String value1, String value2 )
+{
+	if ( value1 == null ) {
+		return value2 == null;
+	}
+	return value1.equals(value2);
+}
+
+/**
+Set the tolerance used to compare time series values (default is 0, exact comparison).
+StateMod_Data objects are always compared exactly, using their compareTo() method.
+@param tolerance the maximum absolute difference for values to be considered equal
+*/
+public void setTolerance ( double tolerance )
+{
+	__tolerance = tolerance;
+}
+
+}
@@ -0,0 +1,514 @@
+// StateMod_DataSetLoadMetrics - metrics for reading the components of a StateMod data set
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import RTi.Util.IO.DataSetComponent;
+import RTi.Util.String.StringUtil;
+
+/**
+Metrics for reading the components of a StateMod data set, collected by StateMod_DataSet.readStateModFile().
+For each component that is processed the file size, number of records (objects in the component data list),
+parse time, time to connect the data to other components (rights and time series to stations), and an estimate
+of the heap memory allocated while reading are saved.  The total time to read the data set is also saved.
+The metrics can be retrieved with StateMod_DataSet.getLoadMetrics() and formatted as a JSON summary with toJSON(),
+for example to compare load performance between data sets or software versions.
+StateCU_DataSet.readStateCUFile() also uses this class, with addComponentRead() for components read on other threads.
+*/
+public class StateMod_DataSetLoadMetrics
+{
+
+/**
+Metrics for one data set component.
+*/
+public static class ComponentMetrics
+{
+	private int __componentType;
+	private String __componentName;
+	private String __fileName = null;
+	private boolean __read = false;
+	private boolean __error = false;
+	private long __bytes = 0;
+	private int __records = -1;
+	private double __parseSeconds = 0.0;
+	private double __connectSeconds = 0.0;
+	private long __allocatedBytes = -1;
+
+	private ComponentMetrics ( int componentType, String componentName )
+	{
+		__componentType = componentType;
+		__componentName = componentName;
+	}
+
+	/**
+	Return the estimated number of bytes allocated on the heap while reading the component,
+	or -1 if the estimate is not available from the Java virtual machine.
+	*/
+	public long getAllocatedBytes ()
+	{
+		return __allocatedBytes;
+	}
+
+	/**
+	Return the size of the file that was read, bytes.
+	*/
+	public long getBytesRead ()
+	{
+		return __bytes;
+	}
+
+	/**
+	Return the component name.
+	*/
+	public String getComponentName ()
+	{
+		return __componentName;
+	}
+
+	/**
+	Return the component type (StateMod_DataSet.COMP_*).
+	*/
+	public int getComponentType ()
+	{
+		return __componentType;
+	}
+
+	/**
+	Return the time to connect the component data to other components, seconds.
+	*/
+	public double getConnectSeconds ()
+	{
+		return __connectSeconds;
+	}
+
+	/**
+	Return the error flag, true if there was an error reading the component file.
+	*/
+	public boolean getError ()
+	{
+		return __error;
+	}
+
+	/**
+	Return the absolute path to the file that was read, or null if the component was not read.
+	*/
+	public String getFileName ()
+	{
+		return __fileName;
+	}
+
+	/**
+	Return the time to read and parse the file, seconds.
+	*/
+	public double getParseSeconds ()
+	{
+		return __parseSeconds;
+	}
+
+	/**
+	Return the number of records (objects in the component data list), or -1 if the component data are not a list.
+	*/
+	public int getRecordCount ()
+	{
+		return __records;
+	}
+
+	/**
+	Indicate whether the component file was read.
+	*/
+	public boolean wasRead ()
+	{
+		return __read;
+	}
+}
+
+/**
+Thread bean used to get the bytes allocated by a thread, or null if not available.
+*/
+private static final ThreadMXBean __threadBean;
+
+/**
+Method com.sun.management.ThreadMXBean.getThreadAllocatedBytes(long), or null if not available.
+The method is looked up with reflection because the com.sun.management package is specific to some
+Java virtual machines, and the allocated bytes are optional information.
+*/
+private static final Method __getThreadAllocatedBytesMethod;
+
+static {
+	ThreadMXBean threadBean = null;
+	Method getThreadAllocatedBytesMethod = null;
+	try {
+		threadBean = ManagementFactory.getThreadMXBean();
+		Class<?> beanClass = Class.forName ( "com.sun.management.ThreadMXBean" );
+		if ( beanClass.isInstance(threadBean) ) {
+			Method isSupportedMethod = beanClass.getMethod ( "isThreadAllocatedMemorySupported" );
+			Method isEnabledMethod = beanClass.getMethod ( "isThreadAllocatedMemoryEnabled" );
+			if ( Boolean.TRUE.equals(isSupportedMethod.invoke(threadBean)) &&
+				Boolean.TRUE.equals(isEnabledMethod.invoke(threadBean)) ) {
+				getThreadAllocatedBytesMethod = beanClass.getMethod ( "getThreadAllocatedBytes", long.class );
+			}
+		}
+	}
+	catch ( Throwable e ) {
+		// Allocated bytes are not available (class not found, security restriction, etc.).
+		getThreadAllocatedBytesMethod = null;
+	}
+	__threadBean = threadBean;
+	__getThreadAllocatedBytesMethod = getThreadAllocatedBytesMethod;
+}
+
+/**
+Component metrics in the order that components were processed, by component type.
+*/
+private Map<Integer,ComponentMetrics> __componentMetrics = new LinkedHashMap<Integer,ComponentMetrics>();
+
+/**
+Metrics for the component currently being read, or null if no component is being read.
+*/
+private ComponentMetrics __current = null;
+
+/**
+Allocated bytes for the current thread when the current component read was started.
+*/
+private long __startAllocatedBytes = -1;
+
+/**
+Total time to read the data set, seconds.
+*/
+private double __totalSeconds = 0.0;
+
+/**
+Add the metrics for a component that was read without calling readComponentStart() and readComponentEnd(),
+for example because the component was read on another thread.  This should be called after the component data are set.
+@param comp the component
+@param fileName absolute path to the file that was read
+@param seconds the time for the read, seconds
+@param allocatedBytes bytes allocated by the thread that read the file (see getCurrentThreadAllocatedBytes()),
+or -1 if not available
+@param error whether there was an error reading the file
+*/
+public void addComponentRead ( DataSetComponent comp, String fileName, double seconds, long allocatedBytes, boolean error )
+{
+	ComponentMetrics metrics = getOrCreateComponentMetrics ( comp.getComponentType(), comp.getComponentName() );
+	metrics.__fileName = fileName;
+	metrics.__read = true;
+	if ( fileName != null ) {
+		metrics.__bytes = new File(fileName).length();
+	}
+	metrics.__error = error;
+	metrics.__parseSeconds = seconds;
+	Object data = comp.getData();
+	if ( !error && (data instanceof List) ) {
+		metrics.__records = ((List<?>)data).size();
+	}
+	metrics.__allocatedBytes = allocatedBytes;
+}
+
+/**
+Add time to connect a component's data to other components.
+If the component is being read, the time is subtracted from the parse time when the read is finished.
+@param componentType the component type (StateMod_DataSet.COMP_*)
+@param componentName the component name
+@param seconds the time to connect, seconds
+*/
+public void addConnectSeconds ( int componentType, String componentName, double seconds )
+{
+	getOrCreateComponentMetrics ( componentType, componentName ).__connectSeconds += seconds;
+}
+
+/**
+Return the bytes allocated by the current thread, or -1 if not available.
+The value is not available if the Java virtual machine does not provide com.sun.management.ThreadMXBean
+or does not support measuring thread memory allocation, in which case the allocated bytes are output as -1.
+@return the bytes allocated by the current thread, or -1 if not available
+*/
+public static long getCurrentThreadAllocatedBytes ()
+{
+	if ( __getThreadAllocatedBytesMethod == null ) {
+		return -1;
+	}
+	try {
+		Object bytes = __getThreadAllocatedBytesMethod.invoke ( __threadBean, Long.valueOf(Thread.currentThread().getId()) );
+		if ( bytes instanceof Long ) {
+			return ((Long)bytes).longValue();
+		}
+	}
+	catch ( Throwable e ) {
+		// Treat as not available.
+	}
+	return -1;
+}
+
+/**
+Return the metrics for a component, or null if the component has not been processed.
+@param componentType the component type (StateMod_DataSet.COMP_*)
+*/
+public ComponentMetrics getComponentMetrics ( int componentType )
+{
+	return __componentMetrics.get ( Integer.valueOf(componentType) );
+}
+
+/**
+Return the metrics for all components that have been processed, in the order processed.
+*/
+public List<ComponentMetrics> getComponentMetricsList ()
+{
+	return new ArrayList<ComponentMetrics>(__componentMetrics.values());
+}
+
+/**
+Return the metrics for a component, creating if necessary.
+*/
+private ComponentMetrics getOrCreateComponentMetrics ( int componentType, String componentName )
+{
+	Integer key = Integer.valueOf(componentType);
+	ComponentMetrics metrics = __componentMetrics.get ( key );
+	if ( metrics == null ) {
+		metrics = new ComponentMetrics ( componentType, componentName );
+		__componentMetrics.put ( key, metrics );
+	}
+	return metrics;
+}
+
+/**
+Return the total number of bytes read for all components.
+*/
+public long getTotalBytesRead ()
+{
+	long total = 0;
+	for ( ComponentMetrics metrics : __componentMetrics.values() ) {
+		total += metrics.__bytes;
+	}
+	return total;
+}
+
+/**
+Return the total time to connect component data, seconds.
+*/
+public double getTotalConnectSeconds ()
+{
+	double total = 0.0;
+	for ( ComponentMetrics metrics : __componentMetrics.values() ) {
+		total += metrics.__connectSeconds;
+	}
+	return total;
+}
+
+/**
+Return the total time to parse component files, seconds.
+*/
+public double getTotalParseSeconds ()
+{
+	double total = 0.0;
+	for ( ComponentMetrics metrics : __componentMetrics.values() ) {
+		total += metrics.__parseSeconds;
+	}
+	return total;
+}
+
+/**
+Return the total number of records read for all components.
+*/
+public int getTotalRecordCount ()
+{
+	int total = 0;
+	for ( ComponentMetrics metrics : __componentMetrics.values() ) {
+		if ( metrics.__records > 0 ) {
+			total += metrics.__records;
+		}
+	}
+	return total;
+}
+
+/**
+Return the total time to read the data set, seconds, including time that is not attributed to a component.
+*/
+public double getTotalSeconds ()
+{
+	return __totalSeconds;
+}
+
+/**
+Indicate whether the bytes allocated by a thread are available from the Java virtual machine
+(see getCurrentThreadAllocatedBytes()).
+@return true if allocated bytes are available, false if not
+*/
+public static boolean isAllocatedBytesAvailable ()
+{
+	return __getThreadAllocatedBytesMethod != null;
+}
+
+/**
+Quote a string for JSON output.
+*/
+private static String quote ( String s )
+{
+	if ( s == null ) {
+		return "null";
+	}
+	StringBuilder b = new StringBuilder(s.length() + 2);
+	b.append ( '"' );
+	for ( int i = 0; i < s.length(); i++ ) {
+		char c = s.charAt(i);
+		if ( (c == '"') || (c == '\\') ) {
+			b.append ( '\\' ).append ( c );
+		}
+		else if ( c < ' ' ) {
+			b.append ( String.format("\\u%04x", (int)c) );
+		}
+		else {
+			b.append ( c );
+		}
+	}
+	b.append ( '"' );
+	return b.toString();
+}
+
+/**
+Indicate that reading a component has finished.  This is called whether or not the file was read.
+The parse time is the read time minus the connect time that was added while reading.
+@param comp the component
+@param seconds the time for the read, seconds, including connecting data
+*/
+public void readComponentEnd ( DataSetComponent comp, double seconds )
+{
+	ComponentMetrics metrics = getOrCreateComponentMetrics ( comp.getComponentType(), comp.getComponentName() );
+	if ( metrics != __current ) {
+		// The component was not read (no file or empty file).
+		return;
+	}
+	metrics.__error = comp.getErrorReadingInputFile();
+	metrics.__parseSeconds = Math.max(0.0, seconds - metrics.__connectSeconds);
+	Object data = comp.getData();
+	if ( data instanceof List ) {
+		metrics.__records = ((List<?>)data).size();
+	}
+	if ( __startAllocatedBytes >= 0 ) {
+		long allocatedBytes = getCurrentThreadAllocatedBytes();
+		if ( allocatedBytes >= 0 ) {
+			metrics.__allocatedBytes = allocatedBytes - __startAllocatedBytes;
+		}
+	}
+	__current = null;
+	__startAllocatedBytes = -1;
+}
+
+/**
+Indicate that reading a component has started.
+@param comp the component
+@param fileName absolute path to the file being read
+*/
+public void readComponentStart ( DataSetComponent comp, String fileName )
+{
+	ComponentMetrics metrics = getOrCreateComponentMetrics ( comp.getComponentType(), comp.getComponentName() );
+	metrics.__fileName = fileName;
+	metrics.__read = true;
+	if ( fileName != null ) {
+		metrics.__bytes = new File(fileName).length();
+	}
+	__current = metrics;
+	__startAllocatedBytes = getCurrentThreadAllocatedBytes();
+}
+
+/**
+Set the total time to read the data set.
+@param totalSeconds the total time, seconds
+*/
+public void setTotalSeconds ( double totalSeconds )
+{
+	__totalSeconds = totalSeconds;
+}
+
+/**
+Format the metrics as a JSON object with totals and an array of component metrics.
+Only components that were read or that have connect time are included.
+If allocated bytes are not available from the Java virtual machine, "allocatedBytesAvailable" is false
+and the allocated bytes for each component are -1.
+*/
+public String toJSON ()
+{
+	String nl = System.getProperty("line.separator");
+	StringBuilder b = new StringBuilder();
+	b.append ( "{" + nl );
+	b.append ( "  \"totalSeconds\": " + StringUtil.formatString(__totalSeconds,"%.6f") + "," + nl );
+	b.append ( "  \"totalParseSeconds\": " + StringUtil.formatString(getTotalParseSeconds(),"%.6f") + "," + nl );
+	b.append ( "  \"totalConnectSeconds\": " + StringUtil.formatString(getTotalConnectSeconds(),"%.6f") + "," + nl );
+	b.append ( "  \"totalBytesRead\": " + getTotalBytesRead() + "," + nl );
+	b.append ( "  \"totalRecords\": " + getTotalRecordCount() + "," + nl );
+	b.append ( "  \"allocatedBytesAvailable\": " + isAllocatedBytesAvailable() + "," + nl );
+	b.append ( "  \"components\": [" );
+	boolean first = true;
+	for ( ComponentMetrics metrics : __componentMetrics.values() ) {
+		if ( !metrics.__read && (metrics.__connectSeconds == 0.0) ) {
+			continue;
+		}
+		if ( !first ) {
+			b.append ( "," );
+		}
+		first = false;
+		b.append ( nl + "    {" );
+		b.append ( "\"componentType\": " + metrics.__componentType );
+		b.append ( ", \"componentName\": " + quote(metrics.__componentName) );
+		b.append ( ", \"file\": " + quote(metrics.__fileName) );
+		b.append ( ", \"read\": " + metrics.__read );
+		b.append ( ", \"error\": " + metrics.__error );
+		b.append ( ", \"bytesRead\": " + metrics.__bytes );
+		b.append ( ", \"records\": " + metrics.__records );
+		b.append ( ", \"parseSeconds\": " + StringUtil.formatString(metrics.__parseSeconds,"%.6f") );
+		b.append ( ", \"connectSeconds\": " + StringUtil.formatString(metrics.__connectSeconds,"%.6f") );
+		b.append ( ", \"allocatedBytes\": " + metrics.__allocatedBytes );
+		b.append ( "}" );
+	}
+	b.append ( nl + "  ]" + nl + "}" + nl );
+	return b.toString();
+}
+
+/**
+Write the metrics to a file as JSON (see toJSON()).
+@param filename the file to write
+@exception IOException if the file cannot be written
+*/
+public void writeJSONFile ( String filename )
+throws IOException
+{
+	PrintWriter out = new PrintWriter ( filename );
+	try {
+		out.print ( toJSON() );
+	}
+	finally {
+		out.close();
+	}
+}
+
+}
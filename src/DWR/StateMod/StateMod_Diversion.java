@@ -2316,7 +2316,7 @@ public StateMod_ComponentValidation validateComponent ( StateMod_DataSet dataset
 	else {
 		// Verify that the river node is in the data set, if the network is available
 		if ( rinList != null ) {
-			if ( StateMod_Util.indexOf(rinList, riverID) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, rinList, riverID) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"Diversion \"" + id +
 					"\" river network ID (" + riverID + ") is not found in the list of river network nodes.",
 					"Specify a valid river network ID to associate the diversion with a river network node.") );
@@ -2344,7 +2344,7 @@ public StateMod_ComponentValidation validateComponent ( StateMod_DataSet dataset
 		}
 		else if ( (ddsList != null) && (ddsList.size() > 0) ) {
 			// Check the diversion station list
-			if ( StateMod_Util.indexOf(ddsList, dailyID) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, ddsList, dailyID) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"Diversion \"" + id + "\" daily ID (" + dailyID +
 				") is not 0, 3, or 4 and is not found in the list of diversion stations.",
 				"Specify the daily ID as 0, 3, 4, or a matching diversion ID.") );
@@ -2412,7 +2412,7 @@ public StateMod_ComponentValidation validateComponent ( StateMod_DataSet dataset
 		crtnid = ret.getCrtnid();
 		if ( rinList != null ) {
 			// Make sure that the return location is in the network list
-			if ( StateMod_Util.indexOf(rinList, crtnid) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, rinList, crtnid) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"Diversion \"" + id +
 					"\" return " + (i + 1) + " location (" + crtnid +
 					") is not found in the list of river network nodes.",
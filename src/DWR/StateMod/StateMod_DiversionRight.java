@@ -423,6 +423,7 @@ public void setIrtem(String irtem) {
 		if ( !_isClone && _dataset != null ) {
 			_dataset.setDirty(StateMod_DataSet.COMP_DIVERSION_RIGHTS, true);
 		}
+		StateMod_RightsPriorityIndex.rightChanged ( this );
 	}
 }
 
@@ -462,7 +463,7 @@ public StateMod_ComponentValidation validateComponent( StateMod_DataSet dataset
 		@SuppressWarnings("unchecked")
 		List<StateMod_Diversion> ddsList = (List<StateMod_Diversion>)comp2.getData();
 		if ( (ddsList != null) && (ddsList.size() > 0) ) {
-			if ( StateMod_Util.indexOf(ddsList, cgoto) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, ddsList, cgoto) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"Diversion right \"" + id +
 					"\" associated diversion (" + cgoto + ") is not found in the list of diversion stations.",
 					"Specify a valid diversion station ID to associate the diversion right.") );
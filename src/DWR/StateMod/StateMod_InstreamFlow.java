@@ -790,7 +790,7 @@ public StateMod_ComponentValidation validateComponent( StateMod_DataSet dataset
 	else {
 		// Verify that the river node is in the data set, if the network is available
 		if ( rinList != null ) {
-			if ( StateMod_Util.indexOf(rinList, riverID) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, rinList, riverID) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"Instream flow station \"" + id +
 					"\" river network ID (" + riverID + ") is not found in the list of river network nodes.",
 					"Specify a valid river network ID to associate the instream flow station.") );
@@ -805,7 +805,7 @@ public StateMod_ComponentValidation validateComponent( StateMod_DataSet dataset
 	else {
 		// Verify that the river node is in the data set, if the network is available
 		if ( rinList != null ) {
-			if ( StateMod_Util.indexOf(rinList, downstreamRiverID) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, rinList, downstreamRiverID) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"Instream flow station \"" + id +
 					"\" downstream river network ID (" + riverID +
 					") is not found in the list of river network nodes.",
@@ -823,7 +823,7 @@ public StateMod_ComponentValidation validateComponent( StateMod_DataSet dataset
 		}
 		else if ( (ifsList != null) && (ifsList.size() > 0) ) {
 			// Check the instream flow station list
-			if ( StateMod_Util.indexOf(ifsList, dailyID) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, ifsList, dailyID) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"Instream flow station \"" + id +
 				"\" daily ID (" + dailyID +
 				") is not 0, 3, or 4 and is not found in the list of instream flow stations.",
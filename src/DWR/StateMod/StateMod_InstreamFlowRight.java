@@ -380,6 +380,7 @@ public void setIrtem(String irtem) {
 		if ( !_isClone && _dataset != null ) {
 			_dataset.setDirty(StateMod_DataSet.COMP_INSTREAM_RIGHTS, true);
 		}
+		StateMod_RightsPriorityIndex.rightChanged ( this );
 	}
 }
 
@@ -424,7 +425,7 @@ public StateMod_ComponentValidation validateComponent ( StateMod_DataSet dataset
 		@SuppressWarnings("unchecked")
 		List<StateMod_InstreamFlow> ifsList = (List<StateMod_InstreamFlow>)comp2.getData();
 		if ( (ifsList != null) && (ifsList.size() > 0) ) {
-			if ( StateMod_Util.indexOf(ifsList, cgoto) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, ifsList, cgoto) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"Instream flow right \"" + id +
 					"\" associated instream flow (" + cgoto + ") is not found in the list of instream flow stations.",
 					"Specify a valid instream flow station ID to associate with the instream flow right.") );
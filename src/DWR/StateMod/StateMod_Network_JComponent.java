@@ -66,14 +66,21 @@ import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.awt.print.PageFormat;
 import java.awt.print.Printable;
 import java.awt.print.PrinterJob;
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Vector;
 
 import javax.swing.JCheckBoxMenuItem;
@@ -309,6 +316,23 @@ Whether to snap node and legend movements to a grid.
 */
 private boolean __snapToGrid = false;
 
+/**
+Whether interactive drawing should use level of detail rendering, which skips labels and aggregates symbols
+when nodes are small on the screen and only draws the main stems when zoomed far out.
+*/
+private boolean __useLevelOfDetail = true;
+
+/**
+Whether level of detail settings are being applied for the current drawing.
+*/
+private boolean __levelOfDetailActive = false;
+
+/**
+Whether interactive drawing should use cached network tiles.  If false, the full visible network is
+redrawn for each refresh, which is the legacy behavior.
+*/
+private boolean __useTileCache = true;
+
 /**
 A buffered image to use for rendering what will be printed or saved to an image file.
 */
@@ -514,6 +538,12 @@ Backup of the data limits for the network as initially opened, for zoom out.
 */
 private GRLimits __dataLimitsMax;
 
+/**
+Limits used to skip network elements that are outside of the area being drawn, in data units.
+If null, all network elements are drawn (e.g., when printing or saving the entire network).
+*/
+private GRLimits __cullLimits = null;
+
 /**
 The limits of the node being dragged.
 */
@@ -643,13 +673,6 @@ The total width of the screen buffer.
 */
 private int __totalBufferWidth;
 
-/**
-The current position within the undo Vector.  The change operation at 
-position __undoPos - 1 is the one that last happened.  If __undoPos is 
-less than __undoOperations.size(), then redo can be done.  If __undoPos is 0 then no undo can be done.
-*/
-private int __undoPos = 0;
-
 /**
 Popup JMenuItems
 */
@@ -716,9 +739,60 @@ See the HydrologyNodeNetwork.writeXML() method for supported properties.
 private List<PropList> __links = new Vector<PropList>();
 
 /**
-List to hold change operations.
+Nodes connected to each node by links, with the key as the node common identifier.  Created when needed by
+getLinkedNodes() and set to null when the nodes or links change.
+*/
+private Map<String,List<HydrologyNode>> __linkedNodes = null;
+
+/**
+Level of detail:  whether each node in __nodes should be drawn and whether its label should be drawn.
+The arrays are recomputed when the scale changes or the network is changed.
+*/
+private boolean[]
+	__lodNodeDrawn = null,
+	__lodLabelDrawn = null;
+
+/**
+Level of detail:  the maximum reach level that is drawn (1 is the main stem).
+*/
+private int __lodReachLevel = Integer.MAX_VALUE;
+
+/**
+Level of detail:  data units per pixel used when the level of detail arrays were computed.
 */
-private List<StateMod_Network_UndoData> __undoOperations = new Vector<StateMod_Network_UndoData>();
+private double __lodDataPerPixel = -1;
+
+/**
+Level of detail:  whether the level of detail arrays need to be recomputed because the network changed.
+*/
+private boolean __lodDirty = true;
+
+/**
+Level of detail:  node symbol size in pixels below which labels are not drawn and symbols are aggregated.
+*/
+private final double __LOD_LABEL_PIXELS = 6.0;
+
+/**
+Level of detail:  node symbol size in pixels below which only the main stems are drawn.
+*/
+private final double __LOD_MAIN_STEM_PIXELS = 3.0;
+
+/**
+Cache of rendered network tiles, used for interactive drawing so that panning and zooming do not
+require redrawing the full network.
+*/
+private StateMod_Network_TileCache __tileCache = new StateMod_Network_TileCache();
+
+/**
+Margin, in pixels, that is added to the limits being drawn when determining whether network elements are
+visible.  Node labels are drawn next to the node symbol and may extend beyond the symbol.
+*/
+private final int __CULL_MARGIN_PIXELS = 200;
+
+/**
+Bounded history of change operations, which tracks the position for undo and redo.
+*/
+private StateMod_Network_UndoHistory __undoHistory = new StateMod_Network_UndoHistory();
 
 /**
 Constructor used for headless operations, in particular printing.
@@ -781,7 +855,7 @@ public StateMod_Network_JComponent(StateMod_Network_JFrame parent, double scale)
 	// TODO (JTS - 2004-07-13) remove this call?
 	setPrintFontSize(10);
 
-	__undoOperations = new Vector<StateMod_Network_UndoData>();
+	__undoHistory.clear();
 }
 
 /**
@@ -835,8 +909,8 @@ public void actionPerformed(ActionEvent event)
 			removeIDFromLinks(id);
 			__network.deleteNode(id);
 			buildNodeArray();
-			findMaxReachLevel();		
-			__undoOperations = new Vector<StateMod_Network_UndoData>();
+			__maxReachLevel = findMaxReachLevel();		
+			__undoHistory.clear();
 			__parent.setUndo(false);
 			__parent.setRedo(false);			
 		}
@@ -1076,9 +1150,24 @@ protected void addLink(String fromNodeId, String toNodeId, String linkId, String
 	p.set("FromArrowStyle", fromArrowStyle );
 	p.set("ToArrowStyle", toArrowStyle );
 	__links.add(p);
+	__linkedNodes = null;
 	forceRepaint();
 }
 
+/**
+Add a node to the nodes that are linked to another node, used by getLinkedNodes().
+@param id the common identifier of the node that the linked node is added for.
+@param linkedNode the node at the other end of the link.
+*/
+private void addLinkedNode(String id, HydrologyNode linkedNode) {
+	List<HydrologyNode> linkedNodes = __linkedNodes.get(id);
+	if (linkedNodes == null) {
+		linkedNodes = new Vector<HydrologyNode>();
+		__linkedNodes.put(id, linkedNodes);
+	}
+	linkedNodes.add(linkedNode);
+}
+
 /**
 Adds a node to the network.
 @param name the name of the node.
@@ -1099,7 +1188,7 @@ boolean isNaturalFlow, boolean isImport) {
 	setNetworkChanged (true);
 	__parent.setNetwork(network, true, true);
 	buildNodeArray();
-	findMaxReachLevel();
+	__maxReachLevel = findMaxReachLevel();
 	forceRepaint();
 }
 
@@ -1136,18 +1225,12 @@ so that the operation can be undone.
 @param data the UndoData detailing what happened in the operation.
 */
 private void addNodeChangeOperation(StateMod_Network_UndoData data) {
-	// undoPos tracks the current position within the undo list and
+	// The history tracks the current position within the undo list and
 	// is used to allow undos and redos.  If a user has made changes,
 	// and then undoes them, and then makes a new change, the previous
-	// undos are made unavailable and are lost.  The following gets
-	// rid of undos that cannot be undone
-	if (__undoPos < __undoOperations.size()) {
-		while (__undoPos < __undoOperations.size()) {
-			__undoOperations.remove(__undoPos);
-		}
-	}
-	__undoOperations.add(data);
-	__undoPos = __undoOperations.size();
+	// undos are made unavailable and are lost.  The history is bounded
+	// so the oldest operations are discarded.
+	__undoHistory.add(data);
 
 	// If a new undo is added, then it is the last undo in the list.
 	__parent.setUndo(true);
@@ -1181,6 +1264,7 @@ private void adjustLinksForNodeRename(String idPre, String idPost) {
 			p.setValue("ToNodeID", idPost);
 		}
 	}
+	__linkedNodes = null;
 }	
 
 /**
@@ -1233,6 +1317,7 @@ private void buildNodeArray() {
 	// Move the nodes from the list into an array for quicker traversal.
 
 	__nodes = new HydrologyNode[size];
+	__linkedNodes = null;
 
 	for (int i = 0; i < size; i++) {
 		__nodes[i] = (HydrologyNode)nodes.get(i);
@@ -1636,6 +1721,24 @@ private int calculateScaledFont(String name, String style, int size, boolean isP
 	return printFontSize;
 }
 
+/**
+Determine whether the visible network can be composed from cached tiles.  Tiles require that the
+horizontal and vertical scales are the same and that the drawing area has been sized.
+@return true if tiles can be used for drawing.
+*/
+private boolean canDrawNetworkTiles() {
+	if ((getBounds().width <= 0) || (getBounds().height <= 0) || (__screenDataWidth <= 0.0)
+		|| (__screenDataHeight <= 0.0)) {
+		return false;
+	}
+	double xScale = getBounds().width / __screenDataWidth;
+	double yScale = getBounds().height / __screenDataHeight;
+	if (Math.abs(xScale - yScale) > 0.01 * xScale) {
+		return false;
+	}
+	return true;
+}
+
 /**
 Checks the id of the specified node to see if it is unique in the network.
 If not, the string _X (where X is the number of instances of this node's ID)
@@ -1780,6 +1883,144 @@ private double convertDrawingYToDataY(double y) {
 	}
 }
 
+/**
+Compute the level of detail settings for the current scale:  the maximum reach level to draw, which nodes
+to draw (only one node symbol is drawn for nodes that fall in the same few pixels), and which node labels
+to draw (labels that would overlap a previously placed label are skipped, with main stem labels placed first).
+The results are reused until the scale changes or the network is changed.  If the results change for a node,
+the network tiles for the node are invalidated.
+*/
+private void computeLevelOfDetail() {
+	double dataPerPixel = convertDrawingXToDataX(1.0);
+	boolean sameScale = (__lodNodeDrawn != null) && (__lodNodeDrawn.length == __nodes.length)
+		&& (dataPerPixel == __lodDataPerPixel);
+	if (sameScale && !__lodDirty) {
+		return;
+	}
+	int nNodes = __nodes.length;
+	boolean[] nodeDrawn = new boolean[nNodes];
+	boolean[] labelDrawn = new boolean[nNodes];
+	double nodeDataDiameter = 0.0;
+	int maxReachLevel = 0;
+	for (int i = 0; i < nNodes; i++) {
+		nodeDataDiameter = Math.max(nodeDataDiameter, __nodes[i].getDataDiameter());
+		maxReachLevel = Math.max(maxReachLevel, __nodes[i].getReachLevel());
+	}
+	double nodePixels = (dataPerPixel > 0.0) ? (nodeDataDiameter / dataPerPixel) : 0.0;
+
+	// Only draw main stems when nodes are very small, with more tributary levels as the nodes get larger
+	int reachLevel = Integer.MAX_VALUE;
+	if ((nodePixels < __LOD_MAIN_STEM_PIXELS) && (maxReachLevel > 1)) {
+		reachLevel = Math.max(1, (int)Math.ceil(maxReachLevel * nodePixels / __LOD_MAIN_STEM_PIXELS));
+	}
+
+	// Order the nodes by reach level so that main stem nodes have priority
+	Integer[] order = new Integer[nNodes];
+	for (int i = 0; i < nNodes; i++) {
+		order[i] = Integer.valueOf(i);
+	}
+	Arrays.sort(order, new Comparator<Integer>() {
+		public int compare(Integer i1, Integer i2) {
+			return Integer.compare(__nodes[i1.intValue()].getReachLevel(), __nodes[i2.intValue()].getReachLevel());
+		}
+	});
+
+	boolean drawLabels = (nodePixels >= __LOD_LABEL_PIXELS);
+	// Cell size for aggregating symbols, large enough that aggregated symbols are indistinguishable
+	double symbolCell = Math.max(nodeDataDiameter, dataPerPixel * __LOD_LABEL_PIXELS);
+	Set<Long> usedSymbolCells = new HashSet<Long>();
+	double fontHeight = dataPerPixel * Math.max(1, __fontSizePixels);
+	StateMod_Network_LabelPlacer labelPlacer = new StateMod_Network_LabelPlacer(fontHeight * 8.0);
+	for (int io = 0; io < nNodes; io++) {
+		int i = order[io].intValue();
+		HydrologyNode node = __nodes[i];
+		if (node.getReachLevel() > reachLevel) {
+			continue;
+		}
+		if (!drawLabels) {
+			// Aggregate symbols - only draw the first symbol in a cell
+			long col = (long)Math.floor((node.getX() - __dataLeftX) / symbolCell);
+			long row = (long)Math.floor((node.getY() - __dataBottomY) / symbolCell);
+			if (!usedSymbolCells.add(Long.valueOf((col << 32) | (row & 0xffffffffL)))) {
+				continue;
+			}
+			nodeDrawn[i] = true;
+			continue;
+		}
+		nodeDrawn[i] = true;
+		// Estimate the label extent from the label position and the font size
+		String label = node.getCommonID();
+		double w = 0.6 * fontHeight * ((label == null) ? 0 : label.length());
+		double h = fontHeight;
+		double r = node.getDataDiameter() / 2.0;
+		double x = node.getX();
+		double y = node.getY();
+		double x1, y1;
+		int dir = node.getLabelDirection() % 10;
+		if (dir == 1) {
+			// Above center
+			x1 = x - w / 2;
+			y1 = y + r;
+		}
+		else if (dir == 2) {
+			// Below center
+			x1 = x - w / 2;
+			y1 = y - r - h;
+		}
+		else if (dir == 3) {
+			// Left
+			x1 = x - r - w;
+			y1 = y - h / 2;
+		}
+		else if (dir == 5) {
+			// Lower left
+			x1 = x - r - w;
+			y1 = y - r - h;
+		}
+		else if (dir == 6) {
+			// Upper left
+			x1 = x - r - w;
+			y1 = y + r;
+		}
+		else if (dir == 7) {
+			// Upper right
+			x1 = x + r;
+			y1 = y + r;
+		}
+		else if (dir == 8) {
+			// Lower right
+			x1 = x + r;
+			y1 = y - r - h;
+		}
+		else if (dir == 9) {
+			// Center
+			x1 = x - w / 2;
+			y1 = y - h / 2;
+		}
+		else {
+			// Right, the default
+			x1 = x + r;
+			y1 = y - h / 2;
+		}
+		labelDrawn[i] = labelPlacer.place(x1, y1, x1 + w, y1 + h);
+	}
+
+	// If recomputed for the same scale (e.g., after moving nodes), invalidate the tiles for nodes
+	// where the level of detail changed - tiles for other scales are created with new results
+	if (sameScale) {
+		for (int i = 0; i < nNodes; i++) {
+			if ((nodeDrawn[i] != __lodNodeDrawn[i]) || (labelDrawn[i] != __lodLabelDrawn[i])) {
+				invalidateNetworkTilesForNode(__nodes[i]);
+			}
+		}
+	}
+	__lodNodeDrawn = nodeDrawn;
+	__lodLabelDrawn = labelDrawn;
+	__lodReachLevel = reachLevel;
+	__lodDataPerPixel = dataPerPixel;
+	__lodDirty = false;
+}
+
 /**
 Create a drawing area representing the full-scale rendering of the network.  This is used to calculate the
 scale when rendering occurs for different media than the layout, or a part of the full layout.
@@ -1889,6 +2130,7 @@ private void deleteLink() {
 		// If there is only one link involving the clicked-on node, then delete it outright.
 		int i = nums.get(0).intValue();
 		__links.remove(i);
+		__linkedNodes = null;
 		setNetworkChanged (true);
 		forceRepaint();
 		return;
@@ -1912,6 +2154,7 @@ private void deleteLink() {
 		if (link.equals(s)) {
 			int j = nums.get(i).intValue();
 			__links.remove(j);
+			__linkedNodes = null;
 			forceRepaint();
 			setNetworkChanged (true);
 			return;
@@ -1927,9 +2170,9 @@ public void deleteNode(String id) {
 	removeIDFromLinks(id);
 	__network.deleteNode(id);
 	buildNodeArray();
-	findMaxReachLevel();
+	__maxReachLevel = findMaxReachLevel();
 	forceRepaint();	
-	__undoOperations = new Vector<StateMod_Network_UndoData>();
+	__undoHistory.clear();
 	__parent.setUndo(false);
 	__parent.setRedo(false);
 }
@@ -2383,6 +2626,10 @@ private void drawLinks ( GRJComponentDrawingArea drawingArea, List<PropList> lin
 	GRArrowStyleType toArrowStyle = GRArrowStyleType.NONE;
 	double arrowWidth = 0; // Arrow head width and length
 	double arrowLength = 0;
+	// Level of detail arrays correspond to the main node array
+	boolean lod = __levelOfDetailActive && (nodes == __nodes) && (__lodNodeDrawn != null)
+		&& (__lodNodeDrawn.length == nodes.length);
+	int node1Pos, node2Pos;
 	for ( PropList p : links ) {
 		fromNodeId = p.getValue("FromNodeID");
 		toNodeId = p.getValue("ToNodeID");
@@ -2404,17 +2651,31 @@ private void drawLinks ( GRJComponentDrawingArea drawingArea, List<PropList> lin
 		}
 		node1 = null;
 		node2 = null;
+		node1Pos = -1;
+		node2Pos = -1;
 		for (int j = 0; j < nodes.length; j++) {
 			if (nodes[j].getCommonID().equals(fromNodeId)) {
 				node1 = nodes[j];
+				node1Pos = j;
 			}
 			if (nodes[j].getCommonID().equals(toNodeId)) {
 				node2 = nodes[j];
+				node2Pos = j;
 			}
 			if (node1 != null && node2 != null) {
 				j = nodes.length + 1;
 			}
 		}
+		if (lod && (node1 != null) && (node2 != null)
+			&& (!isLevelOfDetailNodeDrawn(node1Pos) || !isLevelOfDetailNodeDrawn(node2Pos))) {
+			// Zoomed out and one of the nodes is not drawn
+			continue;
+		}
+		if ((__cullLimits != null) && (node1 != null) && (node2 != null)
+			&& !lineOverlapsLimits(__cullLimits, node1.getX(), node1.getY(), node2.getX(), node2.getY())) {
+			// Link is not in the area being drawn
+			continue;
+		}
 		if ( lineStyle == GRLineStyleType.DASHED ) {
 			// Set line style to dashes
 			linePattern = dashPattern;
@@ -2499,6 +2760,35 @@ private void drawLinks ( GRJComponentDrawingArea drawingArea, List<PropList> lin
 	drawingArea.setFloatLineDash(null, (float)0);
 }
 
+/**
+Draws the network content (annotation renderers, network lines, links, and nodes) using the
+current drawing area limits.  Elements outside of __cullLimits (if not null) are skipped.
+@param f the font that is used for node labels.
+*/
+private void drawNetworkContent(Font f) {
+	String routine = getClass().getSimpleName() + ".drawNetworkContent";
+	// Draw annotations below the network since node size is exaggerated
+	try {
+		for ( StateMod_Network_AnnotationData annotationData: getAnnotationData() ) {
+			StateMod_Network_AnnotationRenderer annotationRenderer =
+				annotationData.getStateModNetworkAnnotationRenderer();
+			annotationRenderer.renderStateModNetworkAnnotation(this, annotationData );
+		}
+	}
+	catch ( Exception e ) {
+		Message.printWarning ( 3, routine, "Error drawing annotations (" + e + ")." );
+		Message.printWarning ( 3, routine, e );
+	}
+
+	setAntiAlias(__antiAlias);
+	drawNetworkLines();
+	setAntiAlias(__antiAlias);
+	drawLinks(getDrawingArea(), getLinkList(), getNodesArray(), getDashPattern());
+	setAntiAlias(__antiAlias);
+	__drawingArea.setFont(f.getName(), f.getStyle(), __fontSizePoints);
+	drawNodes( getDrawingArea(), getNodesArray() );
+}
+
 /**
 Draws the lines between all the nodes.
 */
@@ -2577,6 +2867,17 @@ private void drawNetworkLines()
 		y[0] = node.getY();
 		x[1] = ds.getX();
 		y[1] = ds.getY();		
+
+		if ((__cullLimits != null) && !lineOverlapsLimits(__cullLimits, x[0], y[0], x[1], y[1])) {
+			// Line is not in the area being drawn
+			holdNode = node;
+			continue;
+		}
+		if (__levelOfDetailActive && (node.getReachLevel() > __lodReachLevel)) {
+			// Zoomed out so only draw main stems
+			holdNode = node;
+			continue;
+		}
 	
 		if (__shadedRivers) {
 			// Show a shaded wide line for the rivers
@@ -2607,11 +2908,61 @@ private void drawNetworkLines()
 	GRDrawingAreaUtil.setLineWidth(__drawingArea, 1);
 }		
 
+/**
+Draws the visible network by composing cached tiles into the double buffer.  Tiles that have not been
+rendered for the current zoom level, or that were invalidated by an edit, are rendered first.
+@param f the font that is used for node labels.
+*/
+private void drawNetworkTiles(Font f) {
+	double pixelsPerDataUnit = getBounds().width / __screenDataWidth;
+	int tileSize = __tileCache.getTileSize();
+	__tileCache.setOrigin(__dataLeftX, __dataBottomY);
+	double screenTopY = __screenBottomY + __screenDataHeight;
+	int col1 = __tileCache.getTileColumn(__screenLeftX, pixelsPerDataUnit);
+	int col2 = __tileCache.getTileColumn(__screenLeftX + __screenDataWidth, pixelsPerDataUnit);
+	int row1 = __tileCache.getTileRow(__screenBottomY, pixelsPerDataUnit);
+	int row2 = __tileCache.getTileRow(screenTopY, pixelsPerDataUnit);
+	// Pixel position of the tile origin relative to the upper left of the screen, rounded once so that
+	// adjacent tiles line up exactly
+	int originPixelX = (int)Math.round((__dataLeftX - __screenLeftX) * pixelsPerDataUnit);
+	int originPixelY = (int)Math.round((screenTopY - __dataBottomY) * pixelsPerDataUnit);
+	Graphics bufferGraphics = _graphics;
+	for (int row = row1; row <= row2; row++) {
+		for (int col = col1; col <= col2; col++) {
+			StateMod_Network_TileCache.Tile tile = __tileCache.getTile(pixelsPerDataUnit, col, row);
+			if (tile.dirty) {
+				renderNetworkTile(tile, f, bufferGraphics);
+			}
+			bufferGraphics.drawImage(tile.image, originPixelX + col * tileSize,
+				originPixelY - (row + 1) * tileSize, null);
+		}
+	}
+}
+
 /**
 Draws the nodes on the screen.
 */
 private void drawNodes( GRJComponentDrawingArea drawingArea, HydrologyNode [] nodes ) {
+	GRLimits cullLimits = __cullLimits;
+	// Level of detail arrays correspond to the main node array
+	boolean lod = __levelOfDetailActive && (nodes == __nodes) && (__lodNodeDrawn != null)
+		&& (__lodNodeDrawn.length == nodes.length);
 	for (int i = 0; i < nodes.length; i++) {
+		if ((cullLimits != null) && !within(cullLimits, nodes[i])) {
+			continue;
+		}
+		if (lod && !nodes[i].isSelected()) {
+			if (!isLevelOfDetailNodeDrawn(i)) {
+				continue;
+			}
+			if (__drawNodeLabels && !__lodLabelDrawn[i]) {
+				// Draw the symbol without the label
+				HydrologyNode.setDrawText(false);
+				nodes[i].draw(drawingArea);
+				HydrologyNode.setDrawText(true);
+				continue;
+			}
+		}
 		nodes[i].draw(drawingArea);
 	}
 }
@@ -3025,6 +3376,8 @@ private int findNodeOrAnnotationAtXY(double x, double y)
 Forces the display to be completely repainted.
 */
 public void forceRepaint() {
+	__tileCache.invalidateAll();
+	__lodDirty = true;
 	__forceRefresh = true;
 	repaint();
 }
@@ -3045,6 +3398,18 @@ protected HydrologyNode getAnnotationNode(int nodeNum) {
 	return __annotations.get(nodeNum);
 }
 
+/**
+Return the limits to use for skipping network elements that are not in the area being drawn.
+The limits are expanded by a margin so that labels of nodes just outside the area are still drawn.
+@param limits the data limits of the area being drawn.
+@return the expanded limits.
+*/
+private GRLimits getCullLimits(GRLimits limits) {
+	double margin = Math.max(2.0 * __currNodeSize, convertDrawingXToDataX(__CULL_MARGIN_PIXELS));
+	return new GRLimits(limits.getLeftX() - margin, limits.getBottomY() - margin,
+		limits.getRightX() + margin, limits.getTopY() + margin);
+}
+
 /**
 Return the dash pattern used for dashed lines.
 */
@@ -3109,6 +3474,40 @@ protected List<PropList> getLinkList()
 	return __links;
 }
 
+/**
+Return the nodes that are connected to a node by links.  The nodes for all links are determined once
+and reused until the nodes or links change, so that dragging a node does not search all the links.
+@param node the node for which to return linked nodes.
+@return the nodes linked to the node, or an empty list if the node has no links.
+*/
+private List<HydrologyNode> getLinkedNodes(HydrologyNode node) {
+	if (__linkedNodes == null) {
+		__linkedNodes = new HashMap<String,List<HydrologyNode>>();
+		if ((__links != null) && (__nodes != null)) {
+			Map<String,HydrologyNode> nodeMap = new HashMap<String,HydrologyNode>();
+			for (int i = 0; i < __nodes.length; i++) {
+				nodeMap.put(__nodes[i].getCommonID(), __nodes[i]);
+			}
+			for (PropList p : __links) {
+				String fromNodeId = p.getValue("FromNodeID");
+				String toNodeId = p.getValue("ToNodeID");
+				HydrologyNode fromNode = nodeMap.get(fromNodeId);
+				HydrologyNode toNode = nodeMap.get(toNodeId);
+				if ((fromNode == null) || (toNode == null)) {
+					continue;
+				}
+				addLinkedNode(fromNodeId, toNode);
+				addLinkedNode(toNodeId, fromNode);
+			}
+		}
+	}
+	List<HydrologyNode> linkedNodes = __linkedNodes.get(node.getCommonID());
+	if (linkedNodes == null) {
+		return new Vector<HydrologyNode>();
+	}
+	return linkedNodes;
+}
+
 /**
 Return the margin in inches (all sides are the same).
 */
@@ -3344,6 +3743,46 @@ protected void initializeForPrinting()
 	//zoomOneToOne();
 }
 
+/**
+Invalidate the cached network tiles that overlap the limits, for example after a node is moved.
+The limits are expanded to account for node symbols and labels.
+@param limits the data limits that were changed.
+*/
+private void invalidateNetworkTiles(GRLimits limits) {
+	GRLimits cullLimits = getCullLimits(limits);
+	__tileCache.invalidate(cullLimits.getLeftX(), cullLimits.getBottomY(),
+		cullLimits.getRightX(), cullLimits.getTopY());
+}
+
+/**
+Invalidate the cached network tiles that contain the node, the network lines connecting the node to its
+upstream and downstream nodes, and links to the node.  This should be called before and after moving a node.
+@param node the node that is being changed.
+*/
+private void invalidateNetworkTilesForNode(HydrologyNode node) {
+	double minX = node.getX();
+	double maxX = minX;
+	double minY = node.getY();
+	double maxY = minY;
+	List<HydrologyNode> connectedNodes = new Vector<HydrologyNode>();
+	HydrologyNode ds = node.getDownstreamNode();
+	if (ds != null) {
+		connectedNodes.add(ds);
+	}
+	List<HydrologyNode> upstreamNodes = node.getUpstreamNodes();
+	if (upstreamNodes != null) {
+		connectedNodes.addAll(upstreamNodes);
+	}
+	connectedNodes.addAll(getLinkedNodes(node));
+	for (HydrologyNode connectedNode : connectedNodes) {
+		minX = Math.min(minX, connectedNode.getX());
+		maxX = Math.max(maxX, connectedNode.getX());
+		minY = Math.min(minY, connectedNode.getY());
+		maxY = Math.max(maxY, connectedNode.getY());
+	}
+	invalidateNetworkTiles(new GRLimits(minX, minY, maxX, maxY));
+}
+
 /**
 Inverts the value of Y so that Y runs from 0 at the bottom to MAX at the top.
 This method typically is only called by interactive events such as mouse drags since
@@ -3382,6 +3821,18 @@ public boolean isDirty() {
 	return false;
 }
 
+/**
+Checks whether a node is drawn with the current level of detail settings.  Selected nodes are always drawn.
+@param pos the position of the node in the main node array.
+@return true if the node symbol is drawn, false if it is skipped.
+*/
+private boolean isLevelOfDetailNodeDrawn(int pos) {
+	if (__nodes[pos].isSelected()) {
+		return true;
+	}
+	return __lodNodeDrawn[pos] && (__nodes[pos].getReachLevel() <= __lodReachLevel);
+}
+
 /**
 Listens for key presses events and cancels drags if Escape is pushed.
 @param event the KeyEvent that happened.
@@ -3421,6 +3872,25 @@ Does nothing.
 */
 public void keyTyped(KeyEvent event) {}
 
+/**
+Determine whether a line may be visible in the limits, using the bounding box of the line.
+@param limits limits to check.
+@param x1 X coordinate of the first point.
+@param y1 Y coordinate of the first point.
+@param x2 X coordinate of the second point.
+@param y2 Y coordinate of the second point.
+@return true if the bounding box of the line overlaps the limits.
+*/
+private boolean lineOverlapsLimits(GRLimits limits, double x1, double y1, double x2, double y2) {
+	if ((Math.max(x1, x2) < limits.getLeftX()) || (Math.min(x1, x2) > limits.getRightX())) {
+		return false;
+	}
+	if ((Math.max(y1, y2) < limits.getBottomY()) || (Math.min(y1, y2) > limits.getTopY())) {
+		return false;
+	}
+	return true;
+}
+
 /**
 Does nothing.
 */
@@ -3564,7 +4034,7 @@ public void mouseDragged(MouseEvent event) {
 			__mouseDataY += __screenBottomY;
 		}
 
-		forceRepaint();
+		repaintView();
 	}
 	else if (__drawingBox) {
 		__currDragX = convertDrawingXToDataX(event.getX()) + __screenLeftX;
@@ -3611,6 +4081,8 @@ public void mousePressed(MouseEvent event) {
 
 	// if a node was clicked on ...
 	if (__clickedNodeNum > -1) {
+		// Moves are only coalesced in the undo history within one press, drag, and release
+		__undoHistory.startGesture();
 		__mouseDeviceX = event.getX();
 		__mouseDeviceY = event.getY();
 		if (__isLastSelectedAnAnnotation) {
@@ -3946,6 +4418,12 @@ private void moveDraggedNodes() {
 		createMultiNodeChangeOperation();
 	}
 		
+	// Invalidate the tiles for the original and new node positions so that only those tiles are redrawn
+	invalidateNetworkTilesForNode(__nodes[__clickedNodeNum]);
+	for (int i = 0; i < __draggedNodes.length; i++) {
+		invalidateNetworkTilesForNode(__nodes[__draggedNodes[i]]);
+	}
+
 	__nodes[__clickedNodeNum].setX(__mouseDataX);
 	__nodes[__clickedNodeNum].setY(__mouseDataY);
 	__nodes[__clickedNodeNum].setDirty(true);
@@ -3954,8 +4432,14 @@ private void moveDraggedNodes() {
 	for (int i = 0; i < __draggedNodes.length; i++) {
 		moveDraggedNode(i);
 	}
-	
-	forceRepaint();
+
+	invalidateNetworkTilesForNode(__nodes[__clickedNodeNum]);
+	for (int i = 0; i < __draggedNodes.length; i++) {
+		invalidateNetworkTilesForNode(__nodes[__draggedNodes[i]]);
+	}
+	// Label placement depends on node positions so recompute (tiles for nodes that change are invalidated)
+	__lodDirty = true;
+	repaintView();
 	__parent.displayNode(__nodes[__clickedNodeNum]);
 //	__nodes[__clickedNodeNum].setSelected(false);
 }
@@ -4243,26 +4727,27 @@ public void paint(Graphics g) {
 			__drawingArea.setFont(f.getName(), f.getStyle(), __fontSizePoints);			
 		}
 		
-		// Draw annotations below the network since node size is exaggerated
-		try {
-			for ( StateMod_Network_AnnotationData annotationData: getAnnotationData() ) {
-				StateMod_Network_AnnotationRenderer annotationRenderer =
-					annotationData.getStateModNetworkAnnotationRenderer();
-				annotationRenderer.renderStateModNetworkAnnotation(this, annotationData );
-			}
+		__levelOfDetailActive = false;
+		if (__useLevelOfDetail && !__printingNetwork && !__printingScreen && !__savingNetwork && !__savingScreen) {
+			// Printed and saved output always shows every node, label, and link
+			computeLevelOfDetail();
+			__levelOfDetailActive = true;
 		}
-		catch ( Exception e ) {
-			Message.printWarning ( 3, routine, "Error drawing annotations (" + e + ")." );
-			Message.printWarning ( 3, routine, e );
+		if (!__printingNetwork && !__printingScreen && !__savingNetwork && !__savingScreen
+			&& __useTileCache && canDrawNetworkTiles()) {
+			// Normal interactive drawing - compose the visible area from cached tiles
+			drawNetworkTiles(f);
 		}
-        
-		setAntiAlias(__antiAlias);
-		drawNetworkLines();
-		setAntiAlias(__antiAlias);
-		drawLinks(getDrawingArea(), getLinkList(), getNodesArray(), getDashPattern());
-		setAntiAlias(__antiAlias);
-		__drawingArea.setFont(f.getName(), f.getStyle(), __fontSizePoints);
-		drawNodes( getDrawingArea(), getNodesArray() );
+		else {
+			if (!__printingNetwork && !__savingNetwork) {
+				// Only the visible screen is drawn so skip what is not visible
+				__cullLimits = getCullLimits(getVisibleDataLimits());
+			}
+			drawNetworkContent(f);
+			__cullLimits = null;
+		}
+		// Reset so that other drawing, such as the new printing code, draws the full network
+		__levelOfDetailActive = false;
 
 		setAntiAlias(__antiAlias);
 		if (!__eraseLegend) {
@@ -4847,21 +5332,21 @@ protected void readMakenetFile(	StateMod_NodeDataProvider nodeDataProvider, Stri
 		__annotations = new Vector<HydrologyNode>();
 	}	
 	__links = __network.getLinkList();
+	__linkedNodes = null;
 	printNetworkInfo();
 	buildNodeArray();
-	findMaxReachLevel();	
+	__maxReachLevel = findMaxReachLevel();	
 }
 
 /**
 Redoes one change operation.
 */
 protected void redo() {
-	if (__undoPos == __undoOperations.size() || !__editable) {
+	if (!__undoHistory.canRedo() || !__editable) {
 		return;
 	}
 
-	StateMod_Network_UndoData data = (StateMod_Network_UndoData)__undoOperations.get(__undoPos);
-	__undoPos++;
+	StateMod_Network_UndoData data = __undoHistory.redo();
 	__nodes[data.nodeNum].setX(data.newX);
 	__nodes[data.nodeNum].setY(data.newY);
 
@@ -4874,7 +5359,7 @@ protected void redo() {
 	
 	forceRepaint();
 
-	if (__undoPos == __undoOperations.size()) {
+	if (!__undoHistory.canRedo()) {
 		__parent.setRedo(false);
 	}
 	else {
@@ -4916,12 +5401,67 @@ private void removeIDFromLinks(String id) {
 
 		if (found) {
 			__links.remove(i);
+			__linkedNodes = null;
 			Message.printWarning(2, routine, 
 				"ID '" + id + "' found in a link.  The link will no longer be drawn.");
 		}
 	}
 }	
 
+/**
+Render a network tile into its image.  The drawing area is temporarily configured to draw the tile
+extent into the tile image and is then restored to draw to the double buffer.
+@param tile the tile to render.
+@param f the font that is used for node labels.
+@param bufferGraphics the double buffer graphics, to restore after rendering.
+*/
+private void renderNetworkTile(StateMod_Network_TileCache.Tile tile, Font f, Graphics bufferGraphics) {
+	int tileSize = __tileCache.getTileSize();
+	BufferedImage image = tile.image;
+	if (image == null) {
+		image = new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_RGB);
+	}
+	Graphics2D tileGraphics = image.createGraphics();
+	GRLimits holdDataLimits = new GRLimits(__drawingArea.getDataLimits());
+	GRLimits holdDrawingLimits = new GRLimits(__drawingArea.getDrawingLimits());
+	GRLimits tileLimits = new GRLimits(tile.leftX, tile.bottomY, tile.rightX, tile.topY);
+	// The drawing area measures device Y from the top of the component, so map the bottom of the
+	// component to the bottom of the tile image
+	tileGraphics.transform(AffineTransform.getTranslateInstance(0, tileSize - getBounds().height));
+	try {
+		forceGraphics(tileGraphics);
+		__drawingArea.setDrawingLimits(new GRLimits(0, 0, tileSize, tileSize), GRUnits.DEVICE, GRLimits.DEVICE);
+		__drawingArea.setDataLimits(tileLimits);
+		setAntiAlias(__antiAlias);
+		// Area outside the network is grey and the network is white, consistent with clear()
+		GRDrawingAreaUtil.setColor(__drawingArea, GRColor.gray);
+		GRDrawingAreaUtil.fillRectangle(__drawingArea, tile.leftX, tile.bottomY,
+			tile.rightX - tile.leftX, tile.topY - tile.bottomY);
+		GRDrawingAreaUtil.setColor(__drawingArea, GRColor.white);
+		GRDrawingAreaUtil.fillRectangle(__drawingArea,
+			__dataLeftX, __dataBottomY, __totalDataWidth, __totalDataHeight);
+		__cullLimits = getCullLimits(tileLimits);
+		drawNetworkContent(f);
+	}
+	finally {
+		__cullLimits = null;
+		tileGraphics.dispose();
+		forceGraphics(bufferGraphics);
+		__drawingArea.setDrawingLimits(holdDrawingLimits, GRUnits.DEVICE, GRLimits.DEVICE);
+		__drawingArea.setDataLimits(holdDataLimits);
+	}
+	__tileCache.setRendered(tile, image);
+}
+
+/**
+Repaint the display after the visible extent has changed (pan or zoom) but the network has not.
+Cached network tiles are reused and only tiles that have not been drawn are rendered.
+*/
+private void repaintView() {
+	__forceRefresh = true;
+	repaint();
+}
+
 /**
 Saves the entire network to an image file.
 */
@@ -5033,7 +5573,7 @@ protected void saveXML(String filename) {
 	p.set("NodeSize=" + __nodeSizeFullScale);
 	double [] edgeBuffer = { 0, 0, 0, 0 };
 	try {
-		__network.writeXML(selectedFilename, limits, __parent.getLayouts(), __annotations, __links,
+		__network.writeXMLNetworkFile(selectedFilename, limits, __parent.getLayouts(), __annotations, __links,
 			__legendDataLimits, edgeBuffer );
 	}
 	catch (Exception e) {
@@ -5130,6 +5670,7 @@ protected void setNetwork ( StateMod_NodeNetwork network, boolean dirty, boolean
 	if (__network == null && network != null) {
 		// new network
 		__links = network.getLinkList();
+		__linkedNodes = null;
 		__annotations = network.getAnnotationList();
 	}
 
@@ -5144,7 +5685,7 @@ protected void setNetwork ( StateMod_NodeNetwork network, boolean dirty, boolean
 		return;
 	}
 	buildNodeArray();
-	findMaxReachLevel();	
+	__maxReachLevel = findMaxReachLevel();	
 	__network.setLinkList(__links);
 	__network.setAnnotationList(__annotations);
 	if ( __referenceJComponent != null ) {
@@ -5291,6 +5832,16 @@ Sets the size (in points) that nodes should be printed at.
 @param nodeSizePoints the size (in points) of nodes when printed at 1:1.
 */
 public void setPrintNodeSize ( double nodeSizePoints )
+{	setPrintNodeSize ( nodeSizePoints, true );
+}
+
+/**
+Sets the size (in points) that nodes should be printed at.
+@param nodeSizePoints the size (in points) of nodes when printed at 1:1.
+@param invalidateTiles if true, invalidate all cached network tiles; specify false when the node size is
+being changed only to be consistent with a new zoom level, in which case tiles for the zoom level are reused.
+*/
+private void setPrintNodeSize ( double nodeSizePoints, boolean invalidateTiles )
 {	String routine = getClass().getName() + ".setPrintNodeSize";
 	if ( __printingNetwork ) {
 		Message.printStatus ( 2, routine, "Setting print node size=" + nodeSizePoints + " points." );
@@ -5335,7 +5886,12 @@ public void setPrintNodeSize ( double nodeSizePoints )
 		__nodes[i].setDataDiameter(diam);
 		__nodes[i].calculateExtents(getDrawingArea());
 	}
-	forceRepaint();
+	if ( invalidateTiles ) {
+		forceRepaint();
+	}
+	else {
+		repaintView();
+	}
 }
 
 /**
@@ -5401,7 +5957,7 @@ protected void setViewPosition(int x, int y) {
 		__screenBottomY = __dataBottomY;
 	}
 
-	forceRepaint();
+	repaintView();
 }
 
 /**
@@ -5484,12 +6040,11 @@ private double unconvertY(double y) {
 Undoes one change operation.
 */
 protected void undo() {
-	if (__undoPos == 0 || !__editable) {
+	if (!__undoHistory.canUndo() || !__editable) {
 		return;
 	}
 
-	__undoPos--;
-	StateMod_Network_UndoData data = (StateMod_Network_UndoData)__undoOperations.get(__undoPos);
+	StateMod_Network_UndoData data = __undoHistory.undo();
 	__nodes[data.nodeNum].setX(data.oldX);
 	__nodes[data.nodeNum].setY(data.oldY);
 
@@ -5501,7 +6056,7 @@ protected void undo() {
 	}
 	
 	forceRepaint();
-	if (__undoPos == 0) {
+	if (!__undoHistory.canUndo()) {
 		__parent.setUndo(false);
 	}	
 	else {
@@ -5725,10 +6280,10 @@ protected void zoomIn() {
 	__screenLeftX = cx - (__screenDataWidth / 2);
 	__screenBottomY = cy - (__screenDataHeight / 2);
 
-	setPrintNodeSize(__currNodeSize * 2);
+	setPrintNodeSize(__currNodeSize * 2, false);
 	scaleUnscalables();
 	if (!__ignoreRepaint) {
-		forceRepaint();
+		repaintView();
 	}
 	__zoomPercentage *= 2;
 	if (__zoomPercentage == 100) {
@@ -5838,10 +6393,10 @@ protected void zoomOut() {
 	__screenLeftX = cx - (__screenDataWidth / 2);
 	__screenBottomY = cy - (__screenDataHeight / 2);
 	
-	setPrintNodeSize(__currNodeSize / 2);
+	setPrintNodeSize(__currNodeSize / 2, false);
 	scaleUnscalables();
 	if (!__ignoreRepaint) {
-		forceRepaint();
+		repaintView();
 	}
 	__zoomPercentage /= 2;
 	if (__zoomPercentage == 100) {
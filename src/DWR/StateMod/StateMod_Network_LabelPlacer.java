@@ -0,0 +1,138 @@
+// StateMod_Network_LabelPlacer - fast rectangle collision checks for decluttering network labels
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+Places rectangles (e.g., node label extents) on a uniform grid and rejects rectangles that overlap a rectangle
+that was previously placed.  This is used by StateMod_Network_JComponent to declutter labels when many nodes
+are drawn close together.  Each rectangle is only compared with rectangles in the grid cells that it overlaps,
+so placing N labels is approximately linear in N.  Coordinates can be in any units (typically data units)
+as long as the cell size uses the same units.
+*/
+public class StateMod_Network_LabelPlacer
+{
+
+/**
+Size of a grid cell.
+*/
+private double __cellSize;
+
+/**
+Placed rectangles for each grid cell, each rectangle as x1, y1, x2, y2.
+*/
+private Map<Long,List<double[]>> __cells = new HashMap<Long,List<double[]>>();
+
+/**
+Number of rectangles that were placed.
+*/
+private int __placedCount = 0;
+
+/**
+Number of rectangles that were rejected because of overlap.
+*/
+private int __rejectedCount = 0;
+
+/**
+Constructor.
+@param cellSize the size of a grid cell, which should be similar to the size of a typical rectangle.
+*/
+public StateMod_Network_LabelPlacer ( double cellSize )
+{	if ( !(cellSize > 0.0) ) {
+		cellSize = 1.0;
+	}
+	__cellSize = cellSize;
+}
+
+/**
+Return the key for a grid cell.
+*/
+private long getCellKey ( int column, int row )
+{	return (((long)column) << 32) | (row & 0xffffffffL);
+}
+
+/**
+Return the number of rectangles that were placed.
+*/
+public int getPlacedCount ()
+{	return __placedCount;
+}
+
+/**
+Return the number of rectangles that were rejected because they overlapped a placed rectangle.
+*/
+public int getRejectedCount ()
+{	return __rejectedCount;
+}
+
+/**
+Place a rectangle if it does not overlap a previously placed rectangle.
+@param x1 left coordinate
+@param y1 bottom coordinate
+@param x2 right coordinate
+@param y2 top coordinate
+@return true if the rectangle was placed, false if it overlaps a rectangle that was already placed
+*/
+public boolean place ( double x1, double y1, double x2, double y2 )
+{	int col1 = (int)Math.floor(x1/__cellSize);
+	int col2 = (int)Math.floor(x2/__cellSize);
+	int row1 = (int)Math.floor(y1/__cellSize);
+	int row2 = (int)Math.floor(y2/__cellSize);
+	// First check for overlap
+	for ( int col = col1; col <= col2; col++ ) {
+		for ( int row = row1; row <= row2; row++ ) {
+			List<double[]> rects = __cells.get(Long.valueOf(getCellKey(col,row)));
+			if ( rects == null ) {
+				continue;
+			}
+			for ( double [] r : rects ) {
+				if ( (x2 > r[0]) && (x1 < r[2]) && (y2 > r[1]) && (y1 < r[3]) ) {
+					++__rejectedCount;
+					return false;
+				}
+			}
+		}
+	}
+	// No overlap so add to each cell
+	double [] rect = { x1, y1, x2, y2 };
+	for ( int col = col1; col <= col2; col++ ) {
+		for ( int row = row1; row <= row2; row++ ) {
+			Long key = Long.valueOf(getCellKey(col,row));
+			List<double[]> rects = __cells.get(key);
+			if ( rects == null ) {
+				rects = new ArrayList<double[]>(4);
+				__cells.put(key, rects);
+			}
+			rects.add(rect);
+		}
+	}
+	++__placedCount;
+	return true;
+}
+
+}
@@ -0,0 +1,302 @@
+// StateMod_Network_TileCache - cache of rasterized network tiles, by zoom level
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+Cache of rasterized network tiles used by StateMod_Network_JComponent for interactive drawing.
+The network is divided into square tiles of fixed pixel size, anchored at the lower-left corner of the
+network data limits.  Tiles are keyed by zoom level (the number of pixels per data unit) and the tile
+column and row, so that panning reuses tiles that were already drawn and zooming back to a previous zoom
+level reuses the tiles for that level.  Each tile remembers the data extent that it covers so that an edit
+(e.g., dragging nodes) only needs to invalidate the tiles that overlap the changed area.
+The cache is bounded - the least recently used tiles are discarded when the maximum count is reached.
+This class is not thread-safe and is intended to be used only from the Swing event thread.
+*/
+public class StateMod_Network_TileCache
+{
+
+/**
+A single cached tile.
+*/
+public static class Tile
+{
+	/**
+	Tile column and row, with 0,0 being the lower-left tile.
+	*/
+	public final int column;
+	public final int row;
+
+	/**
+	Data extent covered by the tile.
+	*/
+	public final double leftX;
+	public final double bottomY;
+	public final double rightX;
+	public final double topY;
+
+	/**
+	Rendered image for the tile, or null if not yet rendered.
+	*/
+	public BufferedImage image = null;
+
+	/**
+	Whether the image needs to be rendered (again).
+	*/
+	public boolean dirty = true;
+
+	private Tile ( int column, int row, double leftX, double bottomY, double rightX, double topY )
+	{	this.column = column;
+		this.row = row;
+		this.leftX = leftX;
+		this.bottomY = bottomY;
+		this.rightX = rightX;
+		this.topY = topY;
+	}
+
+	/**
+	Indicate whether the tile overlaps the data rectangle.
+	*/
+	public boolean overlaps ( double x1, double y1, double x2, double y2 )
+	{	return (x2 >= this.leftX) && (x1 <= this.rightX) && (y2 >= this.bottomY) && (y1 <= this.topY);
+	}
+}
+
+/**
+Default tile size in pixels.
+*/
+public static final int DEFAULT_TILE_SIZE = 256;
+
+/**
+Default maximum number of tiles to keep.  At the default tile size each tile is 256KB so the default
+limits the cache to approximately 64MB.
+*/
+public static final int DEFAULT_MAX_TILES = 256;
+
+/**
+Tile size, pixels.
+*/
+private int __tileSize = DEFAULT_TILE_SIZE;
+
+/**
+Maximum number of tiles to keep.
+*/
+private int __maxTiles = DEFAULT_MAX_TILES;
+
+/**
+Origin of the tile grid in data units.
+*/
+private double __originX = 0.0;
+private double __originY = 0.0;
+
+/**
+Counters used to evaluate the effectiveness of the cache.
+*/
+private long __hitCount = 0;
+private long __renderCount = 0;
+
+/**
+Tiles for all zoom levels, in least recently used order.
+*/
+private LinkedHashMap<String,Tile> __tiles = null;
+
+/**
+Construct a cache with default tile size and maximum tile count.
+*/
+public StateMod_Network_TileCache ()
+{	this ( DEFAULT_TILE_SIZE, DEFAULT_MAX_TILES );
+}
+
+/**
+Construct a cache.
+@param tileSize tile width and height, pixels
+@param maxTiles maximum number of tiles to retain for all zoom levels
+*/
+public StateMod_Network_TileCache ( int tileSize, int maxTiles )
+{	if ( tileSize < 16 ) {
+		tileSize = 16;
+	}
+	if ( maxTiles < 1 ) {
+		maxTiles = 1;
+	}
+	__tileSize = tileSize;
+	__maxTiles = maxTiles;
+	final int maxTilesFinal = maxTiles;
+	__tiles = new LinkedHashMap<String,Tile>(64, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		protected boolean removeEldestEntry ( Map.Entry<String,Tile> eldest ) {
+			return size() > maxTilesFinal;
+		}
+	};
+}
+
+/**
+Return the number of tiles currently in the cache.
+*/
+public int getCachedTileCount ()
+{	return __tiles.size();
+}
+
+/**
+Return the number of tile requests that were satisfied with a rendered tile.
+*/
+public long getHitCount ()
+{	return __hitCount;
+}
+
+/**
+Return the maximum number of tiles that are retained.
+*/
+public int getMaxTiles ()
+{	return __maxTiles;
+}
+
+/**
+Return the number of times that tiles were marked as rendered.
+*/
+public long getRenderCount ()
+{	return __renderCount;
+}
+
+/**
+Return the tile for the given zoom level and position, creating an empty (dirty) tile if necessary.
+The caller should render the tile if Tile.dirty is true and then call setRendered().
+@param pixelsPerDataUnit the zoom level, as pixels per data unit
+@param column tile column, 0+ from the tile origin
+@param row tile row, 0+ from the tile origin
+*/
+public Tile getTile ( double pixelsPerDataUnit, int column, int row )
+{	String key = getZoomKey(pixelsPerDataUnit) + ":" + column + ":" + row;
+	Tile tile = __tiles.get(key);
+	if ( tile == null ) {
+		double tileData = __tileSize/pixelsPerDataUnit;
+		double leftX = __originX + column*tileData;
+		double bottomY = __originY + row*tileData;
+		tile = new Tile ( column, row, leftX, bottomY, leftX + tileData, bottomY + tileData );
+		__tiles.put(key, tile);
+	}
+	else if ( !tile.dirty ) {
+		++__hitCount;
+	}
+	return tile;
+}
+
+/**
+Return the tile column containing the data X coordinate.
+@param x data X coordinate
+@param pixelsPerDataUnit the zoom level, as pixels per data unit
+*/
+public int getTileColumn ( double x, double pixelsPerDataUnit )
+{	return (int)Math.floor((x - __originX)*pixelsPerDataUnit/__tileSize);
+}
+
+/**
+Return the tile row containing the data Y coordinate.
+@param y data Y coordinate
+@param pixelsPerDataUnit the zoom level, as pixels per data unit
+*/
+public int getTileRow ( double y, double pixelsPerDataUnit )
+{	return (int)Math.floor((y - __originY)*pixelsPerDataUnit/__tileSize);
+}
+
+/**
+Return the tile size, pixels.
+*/
+public int getTileSize ()
+{	return __tileSize;
+}
+
+/**
+Return the key used for a zoom level.  The zoom is rounded so that small floating point differences
+in the computed scale do not result in separate tile sets.
+*/
+private String getZoomKey ( double pixelsPerDataUnit )
+{	return "" + Math.round(pixelsPerDataUnit*1.0e6);
+}
+
+/**
+Invalidate all tiles, for example when the network structure or drawing properties change.
+The images are discarded because they will typically all be redrawn at a different size or content.
+*/
+public void invalidateAll ()
+{	__tiles.clear();
+}
+
+/**
+Invalidate the tiles for all zoom levels that overlap the data rectangle.
+The tile images are retained and will be redrawn in place.
+@param x1 left data X
+@param y1 bottom data Y
+@param x2 right data X
+@param y2 top data Y
+*/
+public void invalidate ( double x1, double y1, double x2, double y2 )
+{	if ( x1 > x2 ) {
+		double temp = x1;
+		x1 = x2;
+		x2 = temp;
+	}
+	if ( y1 > y2 ) {
+		double temp = y1;
+		y1 = y2;
+		y2 = temp;
+	}
+	Iterator<Tile> it = __tiles.values().iterator();
+	while ( it.hasNext() ) {
+		Tile tile = it.next();
+		if ( tile.overlaps(x1, y1, x2, y2) ) {
+			tile.dirty = true;
+		}
+	}
+}
+
+/**
+Set the origin of the tile grid.  If the origin changes, all tiles are invalidated.
+@param x data X of the lower-left corner of tile 0,0
+@param y data Y of the lower-left corner of tile 0,0
+*/
+public void setOrigin ( double x, double y )
+{	if ( (x != __originX) || (y != __originY) ) {
+		__originX = x;
+		__originY = y;
+		invalidateAll();
+	}
+}
+
+/**
+Indicate that a tile has been rendered.
+@param tile the tile that was rendered
+@param image the rendered image
+*/
+public void setRendered ( Tile tile, BufferedImage image )
+{	tile.image = image;
+	tile.dirty = false;
+	++__renderCount;
+}
+
+}
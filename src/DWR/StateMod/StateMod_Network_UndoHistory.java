@@ -0,0 +1,413 @@
+// StateMod_Network_UndoHistory - bounded, compact undo history for network node moves
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+/**
+Bounded undo history for StateMod_Network_JComponent node moves.
+Operations are stored in a ring buffer so that the oldest operations are discarded when the maximum number of
+operations or the memory cap is reached.  Each operation stores the node positions and the move deltas in
+primitive arrays, and a single delta is stored when all nodes moved by the same amount (the typical case when
+dragging a group of nodes).  Consecutive moves of the same set of nodes within one mouse gesture (see
+startGesture()), where the second move starts where the first ended, are coalesced into one operation so that
+the gesture is undone in one step.  Moves from separate gestures are always separate operations.
+StateMod_Network_UndoData is used to pass operations to and from the history.
+This class is not thread-safe and is intended to be used only from the Swing event thread.
+*/
+public class StateMod_Network_UndoHistory
+{
+
+/**
+Default maximum number of operations.
+*/
+public static final int DEFAULT_MAX_OPERATIONS = 500;
+
+/**
+Default memory cap, bytes.
+*/
+public static final long DEFAULT_MAX_BYTES = 4L*1024L*1024L;
+
+/**
+A single compact undo operation.
+*/
+private static class Operation
+{
+	/**
+	Node positions in the node array, with the first being the clicked node.
+	*/
+	int [] nodes;
+	/**
+	Original positions, interleaved x, y.
+	*/
+	double [] oldXY;
+	/**
+	Move deltas, interleaved x, y.  If length 2, the same delta applies to all nodes.
+	*/
+	double [] deltaXY;
+	/**
+	Gesture in which the operation was added, or 0 if not added during a gesture.
+	*/
+	long gesture;
+
+	/**
+	Return the estimated memory use for the operation, bytes.
+	*/
+	long getByteCount ()
+	{	// Object and array headers plus array contents
+		return 24 + 3*16 + 4L*nodes.length + 8L*oldXY.length + 8L*deltaXY.length;
+	}
+
+	/**
+	Return the new X position for the node at index i.
+	*/
+	double getNewX ( int i )
+	{	return oldXY[2*i] + ((deltaXY.length == 2) ? deltaXY[0] : deltaXY[2*i]);
+	}
+
+	/**
+	Return the new Y position for the node at index i.
+	*/
+	double getNewY ( int i )
+	{	return oldXY[2*i + 1] + ((deltaXY.length == 2) ? deltaXY[1] : deltaXY[2*i + 1]);
+	}
+}
+
+/**
+Ring buffer of operations.
+*/
+private Operation [] __operations;
+
+/**
+Index in __operations of the oldest operation.
+*/
+private int __start = 0;
+
+/**
+Number of operations in the history, including operations that can be redone.
+*/
+private int __count = 0;
+
+/**
+Number of operations that can be undone.  Operations __position to __count - 1 can be redone.
+*/
+private int __position = 0;
+
+/**
+Estimated memory use of the operations, bytes.
+*/
+private long __byteCount = 0;
+
+/**
+Memory cap, bytes.
+*/
+private long __maxBytes = DEFAULT_MAX_BYTES;
+
+/**
+Whether consecutive moves of the same nodes in a gesture should be coalesced.
+*/
+private boolean __coalesceMoves = true;
+
+/**
+Current gesture, incremented by startGesture(), or 0 if no gesture has been started.
+*/
+private long __gesture = 0;
+
+/**
+Construct a history with default limits.
+*/
+public StateMod_Network_UndoHistory ()
+{	this ( DEFAULT_MAX_OPERATIONS, DEFAULT_MAX_BYTES );
+}
+
+/**
+Construct a history.
+@param maxOperations maximum number of operations to retain
+@param maxBytes memory cap for retained operations, bytes
+*/
+public StateMod_Network_UndoHistory ( int maxOperations, long maxBytes )
+{	if ( maxOperations < 1 ) {
+		maxOperations = 1;
+	}
+	__operations = new Operation[maxOperations];
+	__maxBytes = maxBytes;
+}
+
+/**
+Add an operation.  Any operations that could be redone are discarded.
+@param data the operation to add
+*/
+public void add ( StateMod_Network_UndoData data )
+{	int nOther = (data.otherNodes == null) ? 0 : data.otherNodes.length;
+	int n = nOther + 1;
+	int [] nodes = new int[n];
+	double [] oldXY = new double[2*n];
+	double [] newXY = new double[2*n];
+	nodes[0] = data.nodeNum;
+	oldXY[0] = data.oldX;
+	oldXY[1] = data.oldY;
+	newXY[0] = data.newX;
+	newXY[1] = data.newY;
+	for ( int i = 0; i < nOther; i++ ) {
+		nodes[i + 1] = data.otherNodes[i];
+		oldXY[2*i + 2] = data.oldXs[i];
+		oldXY[2*i + 3] = data.oldYs[i];
+		newXY[2*i + 2] = data.newXs[i];
+		newXY[2*i + 3] = data.newYs[i];
+	}
+	// Discard operations that could have been redone
+	while ( __count > __position ) {
+		__byteCount -= get(__count - 1).getByteCount();
+		__operations[index(__count - 1)] = null;
+		--__count;
+	}
+	if ( __coalesceMoves && (__gesture > 0) && (__count > 0) ) {
+		Operation last = get(__count - 1);
+		if ( (last.gesture == __gesture) && isContinuation(last, nodes, oldXY) ) {
+			__byteCount -= last.getByteCount();
+			last.deltaXY = computeDeltas(last.oldXY, newXY);
+			__byteCount += last.getByteCount();
+			return;
+		}
+	}
+	Operation op = new Operation();
+	op.nodes = nodes;
+	op.oldXY = oldXY;
+	op.deltaXY = computeDeltas(oldXY, newXY);
+	op.gesture = __gesture;
+	if ( __count == __operations.length ) {
+		removeOldest();
+	}
+	__operations[index(__count)] = op;
+	++__count;
+	__position = __count;
+	__byteCount += op.getByteCount();
+	// Enforce the memory cap, always keeping the newest operation
+	while ( (__byteCount > __maxBytes) && (__count > 1) ) {
+		removeOldest();
+	}
+}
+
+/**
+Indicate whether an operation can be redone.
+*/
+public boolean canRedo ()
+{	return __position < __count;
+}
+
+/**
+Indicate whether an operation can be undone.
+*/
+public boolean canUndo ()
+{	return __position > 0;
+}
+
+/**
+Clear the history.
+*/
+public void clear ()
+{	for ( int i = 0; i < __operations.length; i++ ) {
+		__operations[i] = null;
+	}
+	__start = 0;
+	__count = 0;
+	__position = 0;
+	__byteCount = 0;
+}
+
+/**
+Compute the move deltas, using a single delta if all nodes moved the same amount.
+*/
+private double [] computeDeltas ( double [] oldXY, double [] newXY )
+{	double dx = newXY[0] - oldXY[0];
+	double dy = newXY[1] - oldXY[1];
+	boolean uniform = true;
+	for ( int i = 2; i < oldXY.length; i += 2 ) {
+		if ( ((newXY[i] - oldXY[i]) != dx) || ((newXY[i + 1] - oldXY[i + 1]) != dy) ) {
+			uniform = false;
+			break;
+		}
+	}
+	if ( uniform ) {
+		return new double[] { dx, dy };
+	}
+	double [] deltaXY = new double[oldXY.length];
+	for ( int i = 0; i < oldXY.length; i++ ) {
+		deltaXY[i] = newXY[i] - oldXY[i];
+	}
+	return deltaXY;
+}
+
+/**
+Return the operation at the position relative to the oldest operation.
+*/
+private Operation get ( int i )
+{	return __operations[index(i)];
+}
+
+/**
+Return the estimated memory use of the history, bytes.
+*/
+public long getByteCount ()
+{	return __byteCount;
+}
+
+/**
+Return the number of operations in the history, including operations that can be redone.
+*/
+public int getCount ()
+{	return __count;
+}
+
+/**
+Return the memory cap, bytes.
+*/
+public long getMaxBytes ()
+{	return __maxBytes;
+}
+
+/**
+Return the ring buffer index for the position relative to the oldest operation.
+*/
+private int index ( int i )
+{	return (__start + i) % __operations.length;
+}
+
+/**
+Determine whether a move continues the previous operation:  the same nodes in the same order,
+starting where the previous operation ended.
+*/
+private boolean isContinuation ( Operation last, int [] nodes, double [] oldXY )
+{	if ( last.nodes.length != nodes.length ) {
+		return false;
+	}
+	for ( int i = 0; i < nodes.length; i++ ) {
+		if ( last.nodes[i] != nodes[i] ) {
+			return false;
+		}
+		if ( !isSamePosition(last.getNewX(i), oldXY[2*i]) || !isSamePosition(last.getNewY(i), oldXY[2*i + 1]) ) {
+			return false;
+		}
+	}
+	return true;
+}
+
+/**
+Determine whether two coordinates are the same, allowing for roundoff from storing deltas.
+*/
+private boolean isSamePosition ( double a, double b )
+{	return Math.abs(a - b) <= 1.0e-9*(1.0 + Math.abs(a));
+}
+
+/**
+Return the operation to redo and advance the position.
+@return the operation to redo (apply the new positions), or null if nothing can be redone
+*/
+public StateMod_Network_UndoData redo ()
+{	if ( !canRedo() ) {
+		return null;
+	}
+	Operation op = get(__position);
+	++__position;
+	return toUndoData(op);
+}
+
+/**
+Remove the oldest operation.
+*/
+private void removeOldest ()
+{	__byteCount -= __operations[__start].getByteCount();
+	__operations[__start] = null;
+	__start = (__start + 1) % __operations.length;
+	--__count;
+	if ( __position > 0 ) {
+		--__position;
+	}
+}
+
+/**
+Set whether consecutive moves of the same nodes within a gesture should be coalesced.
+*/
+public void setCoalesceMoves ( boolean coalesceMoves )
+{	__coalesceMoves = coalesceMoves;
+}
+
+/**
+Set the memory cap, discarding the oldest operations if necessary.
+@param maxBytes memory cap, bytes
+*/
+public void setMaxBytes ( long maxBytes )
+{	__maxBytes = maxBytes;
+	while ( (__byteCount > __maxBytes) && (__count > 1) ) {
+		removeOldest();
+	}
+}
+
+/**
+Start a mouse gesture (e.g., when the mouse button is pressed).  Moves that are added before the next gesture is
+started can be coalesced, and moves in different gestures are never coalesced.
+*/
+public void startGesture ()
+{	++__gesture;
+}
+
+/**
+Convert a compact operation to the full undo data.
+*/
+private StateMod_Network_UndoData toUndoData ( Operation op )
+{	StateMod_Network_UndoData data = new StateMod_Network_UndoData();
+	data.nodeNum = op.nodes[0];
+	data.oldX = op.oldXY[0];
+	data.oldY = op.oldXY[1];
+	data.newX = op.getNewX(0);
+	data.newY = op.getNewY(0);
+	int nOther = op.nodes.length - 1;
+	if ( nOther > 0 ) {
+		data.otherNodes = new int[nOther];
+		data.oldXs = new double[nOther];
+		data.oldYs = new double[nOther];
+		data.newXs = new double[nOther];
+		data.newYs = new double[nOther];
+		for ( int i = 0; i < nOther; i++ ) {
+			data.otherNodes[i] = op.nodes[i + 1];
+			data.oldXs[i] = op.oldXY[2*i + 2];
+			data.oldYs[i] = op.oldXY[2*i + 3];
+			data.newXs[i] = op.getNewX(i + 1);
+			data.newYs[i] = op.getNewY(i + 1);
+		}
+	}
+	return data;
+}
+
+/**
+Return the operation to undo and move the position back.
+@return the operation to undo (apply the old positions), or null if nothing can be undone
+*/
+public StateMod_Network_UndoData undo ()
+{	if ( !canUndo() ) {
+		return null;
+	}
+	--__position;
+	return toUndoData(get(__position));
+}
+
+}
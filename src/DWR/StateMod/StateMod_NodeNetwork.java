@@ -23,24 +23,34 @@ NoticeEnd */
 
 package DWR.StateMod;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.security.InvalidParameterException;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 
 // Before 2017-07-01 used Xerces but Java is now distributed with embedded Xerces
 //import org.apache.xerces.parsers.DOMParser;
-import org.w3c.dom.Document;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 // Java 8.
 //import com.sun.org.apache.xerces.internal.parsers.DOMParser;
@@ -48,6 +58,7 @@ import org.w3c.dom.NodeList;
 import RTi.DMI.DMIUtil;
 import RTi.GR.GRLimits;
 import RTi.GR.GRText;
+import RTi.Util.IO.Prop;
 import RTi.Util.IO.PropList;
 import RTi.Util.Message.Message;
 import RTi.Util.String.StringUtil;
@@ -1715,6 +1726,8 @@ throws Exception {
 
 /**
 Reads a HydroBase_NodeNetwork from an XML Network file.
+The file is read with a streaming (StAX) parser, which creates nodes, links, layouts, and annotations
+directly as the file is read, without first creating a DOM document.
 @param filename the name of the file to read.
 @return the network read from the file.
 */
@@ -1726,47 +1739,185 @@ throws Exception {
 	List<PropList> networkLayoutList = new Vector<PropList>(); // List of all layouts
 	List<HydrologyNode> networkAnnotationList = new Vector<HydrologyNode>(); // List of all annotations read - these are built-in
 													// as opposed to run-time annotations from the StateMod GUI
+	// LeftX, LowerY, RightX, TopY, LegendX, LegendY - from network properties
+	Double [] extentData = { Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN };
+	// LeftX, LowerY, RightX, TopY, from checking network coordinates
+	Double [] extentDataFromNodes = { Double.NaN, Double.NaN, Double.NaN, Double.NaN };
+	// Left, right, top, bottom
+	Double [] edgeBuffer = { Double.NaN, Double.NaN, Double.NaN, Double.NaN };
 
-	// java 8.
-	//DOMParser parser = null;
-
-	// Java 11.
-	Document doc = null;
-	try {	
-		// Java 8.
-		//parser = new DOMParser();
-		//parser.parse(filename);
-
-		// Java 11.
-		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-		DocumentBuilder builder = factory.newDocumentBuilder();
-		doc = builder.parse(filename);
-		doc.getDocumentElement().normalize();
+	XMLStreamReader reader = null;
+	InputStream in = null;
+	try {
+		in = new BufferedInputStream(new FileInputStream(filename));
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		// Network files do not use a DTD so do not process one, which also prevents external entities
+		// from being read from other files or URLs
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		reader = factory.createXMLStreamReader(in);
+		// Depth of the current element, 1 being the root element
+		int depth = 0;
+		// Whether the root element is StateMod_Network, in which case its children are processed
+		boolean rootIsNetwork = false;
+		// Node being read, to receive DownstreamNode and UpstreamNode child elements
+		HydrologyNode hnode = null;
+		int hnodeDepth = -1;
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				++depth;
+				String elementName = reader.getLocalName();
+				if ((hnode != null) && (depth == (hnodeDepth + 1))) {
+					// Child of a network node
+					String [][] attributes = readXMLNetworkFile_GetAttributes(reader);
+					if (elementName.equalsIgnoreCase("DownstreamNode")) {
+						readXMLNetworkFile_ProcessDownstreamNode(hnode, attributes);
+					}
+					else if (elementName.equalsIgnoreCase("UpstreamNode")) {
+						readXMLNetworkFile_ProcessUpstreamNodes(hnode, attributes);
+					}
+					continue;
+				}
+				if ((depth == 1) && elementName.equalsIgnoreCase("StateMod_Network")) {
+					rootIsNetwork = true;
+					readXMLNetworkFile_ProcessStateMod_NetworkNode(readXMLNetworkFile_GetAttributes(reader),
+						extentData, edgeBuffer);
+					continue;
+				}
+				if ((depth != 1) && !((depth == 2) && rootIsNetwork)) {
+					// Only the root element and the children of the StateMod_Network element are processed
+					continue;
+				}
+				if (elementName.equalsIgnoreCase("PageLayout")) {
+					readXMLNetworkFile_ProcessLayoutNode(readXMLNetworkFile_GetAttributes(reader), networkLayoutList);
+				}
+				else if (elementName.equalsIgnoreCase("Node")) {
+					hnode = new HydrologyNode();
+					hnodeDepth = depth;
+					readXMLNetworkFile_ProcessNodeAttributes(hnode, readXMLNetworkFile_GetAttributes(reader),
+						extentDataFromNodes);
+				}
+				else if (elementName.equalsIgnoreCase("Annotation")) {
+					readXMLNetworkFile_ProcessAnnotation(readXMLNetworkFile_GetAttributes(reader),
+						networkAnnotationList);
+				}
+				else if (elementName.equalsIgnoreCase("Link")) {
+					readXMLNetworkFile_ProcessLink(readXMLNetworkFile_GetAttributes(reader), networkLinkList);
+				}
+			}
+			else if (event == XMLStreamConstants.END_ELEMENT) {
+				if ((hnode != null) && (depth == hnodeDepth)) {
+					networkNodeList.add(hnode);
+					hnode = null;
+					hnodeDepth = -1;
+				}
+				--depth;
+			}
+		}
 	}
 	catch (Exception e) {
 		Message.printWarning(2, routine, "Error reading XML Network file \"" + filename + "\"");
 		Message.printWarning(2, routine, e);
 		throw new Exception("Error reading XML Network file \"" + filename + "\"");
 	}
+	finally {
+		if (reader != null) {
+			try {
+				reader.close();
+			}
+			catch (XMLStreamException e) {
+				// Ignore
+			}
+		}
+		if (in != null) {
+			in.close();
+		}
+	}
 
-	// Now get information from the document.  For now don't hold the document as a data member...
-	// Java 8.
-	//Document doc = parser.getDocument();
+	return readXMLNetworkFile_CreateNetwork(filename, networkNodeList, networkLinkList, networkLayoutList,
+		networkAnnotationList, extentData, extentDataFromNodes);
+}
 
-	// Loop through and process the document nodes, starting with the root node.
-	// Pass data needed during processing but keep handing within static code
+/**
+Builds all the network connections based on individual network nodes read in
+from an XML file and returns the network that was built.
+@return a HydroBase_NodeNetwork with all its connections built.
+*/
+private static StateMod_NodeNetwork readXMLNetworkFile_BuildNetworkFromXMLNodes(
+	List<HydrologyNode> networkNodeList) {
+	// Put the nodes into an array for quicker iteration
+	int size = networkNodeList.size();
 
-	// LeftX, LowerY, RightX, TopY, LegendX, LegendY - from network properties
-	Double [] extentData = { Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN };
-	// LeftX, LowerY, RightX, TopY, from checking network coordinates
-	Double [] extentDataFromNodes = { Double.NaN, Double.NaN, Double.NaN, Double.NaN };
-	
-	// Left, right, top, bottom
-	Double [] edgeBuffer = { Double.NaN, Double.NaN, Double.NaN, Double.NaN };
-	
-	readXMLNetworkFile_ProcessDocumentNode(doc, networkNodeList, networkLinkList, networkLayoutList,
-		networkAnnotationList, extentData, extentDataFromNodes, edgeBuffer );
-	
+	// Add the nodes to an array for quicker traversal.
+	HydrologyNode[] nodes = new HydrologyNode[size];
+	// Index the nodes by identifier so that connections can be made without searching the list for each node.
+	// If identifiers are duplicated, the first node is used, consistent with legacy behavior.
+	Map<String,HydrologyNode> nodeMap = new HashMap<String,HydrologyNode>(size*2);
+	for (int i = 0; i < size; i++) {
+		nodes[i] = networkNodeList.get(i);
+		String id = nodes[i].getCommonID();
+		if ((id != null) && !nodeMap.containsKey(id)) {
+			nodeMap.put(id, nodes[i]);
+		}
+	}
+
+	String dsid = null;
+	String[] usid = null;
+	HydrologyNode connectedNode = null;
+	// Right now every node has a String that tells what its upstream
+	// and downstream nodes are.  No connections.  Find the nodes that
+	// match the upstream and downstream node IDs and make the connections.
+	for (int i = 0; i < size; i++) {
+		dsid = nodes[i].getDownstreamNodeID();
+		usid = nodes[i].getUpstreamNodeIDs();
+
+		if (dsid != null && !dsid.equals("") && !dsid.equalsIgnoreCase("null")) {
+			connectedNode = nodeMap.get(dsid);
+			if (connectedNode != null) {
+				nodes[i].setDownstreamNode(connectedNode);
+			}
+		}
+
+		for (int j = 0; j < usid.length; j++) {
+			connectedNode = nodeMap.get(usid[j]);
+			if (connectedNode != null) {
+				nodes[i].addUpstreamNode(connectedNode);
+			}
+		}
+	}
+
+	// Put the nodes back in a list for placement back into the node network.
+	List<HydrologyNode> v = new Vector<HydrologyNode>();
+	for (int i = 0; i < size; i++) {
+		v.add(nodes[i]);
+	}
+
+	StateMod_NodeNetwork network = new StateMod_NodeNetwork();
+	network.setNetworkFromNodes(v);
+	// TODO SAM 2011-07-08 Why does the shading in the network diagram not seem to work?
+	// Also calculate secondary information like stream level.
+	//network.calculateNetworkNodeData(networkNodeList, false);
+	return network;
+}
+
+/**
+Create the network from the data read from an XML network file.
+This is called by readXMLNetworkFile() after the file has been read.
+@param filename the name of the file that was read
+@param networkNodeList list of nodes read
+@param networkLinkList list of link data
+@param networkLayoutList list of page layout data
+@param networkAnnotationList list of annotations
+@param extentData extent data from network properties (xmin, ymin, xmax, ymax, legendx, legendy)
+@param extentDataFromNodes extent data from node coordinates (xmin, ymin, xmax, ymax)
+@return the network that was created
+*/
+private static StateMod_NodeNetwork readXMLNetworkFile_CreateNetwork(String filename,
+	List<HydrologyNode> networkNodeList, List<PropList> networkLinkList, List<PropList> networkLayoutList,
+	List<HydrologyNode> networkAnnotationList, Double [] extentData, Double [] extentDataFromNodes )
+{
+	String routine = "StateMod_NodeNetwork.readXMLNetworkFile";
 	// Check the extent data for the network against the extents from the nodes...
 	// Legacy code adjusts the data limits to page size so for example a wide network will have its Y
 	// limits adjusted to be higher
@@ -1813,83 +1964,56 @@ throws Exception {
 }
 
 /**
-Builds all the network connections based on individual network nodes read in
-from an XML file and returns the network that was built.
-@return a HydroBase_NodeNetwork with all its connections built.
+Return the attributes of the current element of a streaming reader as arrays of names and values.
+The attributes are sorted by name so that they are processed in the same order as the legacy DOM reader,
+which is important for attributes that are combined (e.g., LabelPosition and ReservoirDir).
+@param reader the streaming reader, positioned on a start element
+@return an array with the attribute names in [0] and the values in [1]
 */
-private static StateMod_NodeNetwork readXMLNetworkFile_BuildNetworkFromXMLNodes(
-	List<HydrologyNode> networkNodeList) {
-	// Put the nodes into an array for quicker iteration
-	int size = networkNodeList.size();
-
-	// Add the nodes to an array for quicker traversal.  The nodes will be
-	// looped through entirely size*3 times, so with a large Vector 
-	// performance will be impacted by all the casts.  
-	HydrologyNode[] nodes = new HydrologyNode[size];
-	for (int i = 0; i < size; i++) {
-		nodes[i] = networkNodeList.get(i);
-	}
-
-	String dsid = null;
-	String[] usid = null;
-	// Right now every node has a String that tells what its upstream
-	// and downstream nodes are.  No connections.  Find the nodes that
-	// match the upstream and downstream node IDs and make the connections.
-	for (int i = 0; i < size; i++) {
-		dsid = nodes[i].getDownstreamNodeID();
-		usid = nodes[i].getUpstreamNodeIDs();
-
-		if (dsid != null && !dsid.equals("") && !dsid.equalsIgnoreCase("null")) {
-			for (int j = 0; j < size; j++) {
-				if (nodes[j].getCommonID().equals(dsid)) {
-					nodes[i].setDownstreamNode(nodes[j]);
-					j = size + 1;
-				}
-			}
-		}
-		
-		for (int j = 0; j < usid.length; j++) {
-			for (int k = 0; k < size; k++) {
-				if (nodes[k].getCommonID().equals(usid[j])) {
-					nodes[i].addUpstreamNode(nodes[k]);
-					k = size + 1;
-				}
-			}
+private static String [][] readXMLNetworkFile_GetAttributes(XMLStreamReader reader)
+{
+	int nattributes = reader.getAttributeCount();
+	final String [] names = new String[nattributes];
+	String [] values = new String[nattributes];
+	Integer [] order = new Integer[nattributes];
+	for (int i = 0; i < nattributes; i++) {
+		String prefix = reader.getAttributePrefix(i);
+		names[i] = reader.getAttributeLocalName(i);
+		if ((prefix != null) && (prefix.length() > 0)) {
+			names[i] = prefix + ":" + names[i];
 		}
+		values[i] = reader.getAttributeValue(i);
+		order[i] = Integer.valueOf(i);
 	}
-
-	// Put the nodes back in a list for placement back into the node network.
-	List<HydrologyNode> v = new Vector<HydrologyNode>();
-	for (int i = 0; i < size; i++) {
-		v.add(nodes[i]);
+	Arrays.sort(order, new Comparator<Integer>() {
+		public int compare(Integer i1, Integer i2) {
+			return names[i1.intValue()].compareTo(names[i2.intValue()]);
+		}
+	});
+	String [][] nameValues = new String[2][nattributes];
+	for (int i = 0; i < nattributes; i++) {
+		nameValues[0][i] = names[order[i].intValue()];
+		nameValues[1][i] = values[order[i].intValue()];
 	}
-
-	StateMod_NodeNetwork network = new StateMod_NodeNetwork();
-	network.setNetworkFromNodes(v);
-	// TODO SAM 2011-07-08 Why does the shading in the network diagram not seem to work?
-	// Also calculate secondary information like stream level.
-	//network.calculateNetworkNodeData(networkNodeList, false);
-	return network;
+	return nameValues;
 }
 
 /**
 Processes an annotation node from an XML file and builds the annotation that will appear on the network.
-@param node the XML Node containing the annotation information.
+@param attributes the annotation attribute names [0] and values [1].
 */
-private static void readXMLNetworkFile_ProcessAnnotation(Node node, List<HydrologyNode> networkAnnotationList ) 
+private static void readXMLNetworkFile_ProcessAnnotation(String [][] attributes,
+	List<HydrologyNode> networkAnnotationList )
 throws Exception {
-	NamedNodeMap attributes = node.getAttributes();;
-	Node attributeNode;
 	String name = null;
 	String value = null;	
-	int nattributes = attributes.getLength();
+	int nattributes = attributes[0].length;
 
 	HydrologyNode hnode = new HydrologyNode();
 	PropList p = new PropList("");
 	for (int i = 0; i < nattributes; i++) {
-		attributeNode = attributes.item(i);
-		name = attributeNode.getNodeName();
-		value = attributeNode.getNodeValue();
+		name = attributes[0][i];
+		value = attributes[1][i];
 		if (name.equalsIgnoreCase("FontSize")) {
 			p.set("OriginalFontSize", value);
 		}
@@ -1902,106 +2026,31 @@ throws Exception {
 	networkAnnotationList.add(hnode);
 }
 
-/**
-Processes a document node while reading from an XML file, the data lists and arrays will be populated during
-the read.
-@param node the node to process
-@param networkNodeList empty list of nodes
-@param networkLinkList empty list of link data
-@param networkLayoutList empty list of page layout data
-@param networkAnnotationList empty list of annotations,
-@param extentData empty array of extent data (xmin, xmax, ymin, ymax, legendx, legendy)
-@param edgeBuffer empty array of buffer values (left, right, top, bottom)
-@throws Exception if an error occurs.
-*/
-private static void readXMLNetworkFile_ProcessDocumentNode(Node node, List<HydrologyNode> networkNodeList,
-	List<PropList> networkLinkList, List<PropList> networkLayoutList, List<HydrologyNode> networkAnnotationList,
-	Double[] extentData, Double[] extentDataFromNodes, Double [] edgeBuffer )
-throws Exception {
-	NodeList children;
-	switch (node.getNodeType()) {
-		case Node.DOCUMENT_NODE:
-			// The main data set node.  Get the data set type, etc.
-			readXMLNetworkFile_ProcessDocumentNode(((Document)node).getDocumentElement(), networkNodeList,
-				networkLinkList, networkLayoutList, networkAnnotationList, extentData, extentDataFromNodes,
-				edgeBuffer );
-			children = node.getChildNodes();
-			if (children != null) {
-				readXMLNetworkFile_ProcessDocumentNode(children.item(0), networkNodeList, networkLinkList,
-					networkLayoutList, networkAnnotationList, extentData, extentDataFromNodes, edgeBuffer );
-			}				
-			break;
-		case Node.ELEMENT_NODE:
-			// Data set components.  Print the basic information...
-			String elementName = node.getNodeName();
-			if (elementName.equalsIgnoreCase("StateMod_Network")) {
-				readXMLNetworkFile_ProcessStateMod_NetworkNode(node, extentData, edgeBuffer);
-				// The main document node will have a list 
-				// of children but components will not.
-				// Recursively process each node...
-				children = node.getChildNodes();
-				if (children != null) {
-					int len = children.getLength();
-					for (int i = 0; i < len; i++) {
-						readXMLNetworkFile_ProcessDocumentNode(children.item(i),networkNodeList,
-							networkLinkList, networkLayoutList, networkAnnotationList, extentData,
-							extentDataFromNodes, edgeBuffer );
-					}
-				}
-			}
-			else if (elementName.equalsIgnoreCase("PageLayout")) {
-				readXMLNetworkFile_ProcessLayoutNode(node, networkLayoutList);
-			}
-			else if (elementName.equalsIgnoreCase("Node")) {
-				readXMLNetworkFile_ProcessNode(node, networkNodeList, extentData, extentDataFromNodes );
-			}
-			else if (elementName.equalsIgnoreCase("Annotation")) {
-				readXMLNetworkFile_ProcessAnnotation(node, networkAnnotationList );
-			}			
-			else if (elementName.equalsIgnoreCase("Link")) {
-				readXMLNetworkFile_ProcessLink(node, networkLinkList);
-			}
-			break;
-	}
-}
-
 /**
 Processes a "Downstream" node containing the ID of the downstream node from the Network node.
 @param hnode the HydroBase_Node being built.
-@param node the XML node read from the file.
+@param attributes the element attribute names [0] and values [1].
 @throws Exception if an error occurs.
 */
-private static void readXMLNetworkFile_ProcessDownstreamNode(HydrologyNode hnode, Node node) 
+private static void readXMLNetworkFile_ProcessDownstreamNode(HydrologyNode hnode, String [][] attributes)
 throws Exception
 {
-	NamedNodeMap attributes = node.getAttributes();
-	Node attributeNode;
-	int nattributes = attributes.getLength();
-	String name = null;
-	String value = null;
-
+	int nattributes = attributes[0].length;
 	for (int i = 0; i < nattributes; i++) {
-		attributeNode = attributes.item(i);
-		name = attributeNode.getNodeName();
-		value = attributeNode.getNodeValue();
-		if (name.equalsIgnoreCase("ID")) {
-			hnode.setDownstreamNodeID(value);
+		if (attributes[0][i].equalsIgnoreCase("ID")) {
+			hnode.setDownstreamNodeID(attributes[1][i]);
 		}
 	}
 }
 
 /**
 Called by the readXML code when processing a Layout node.
-@param node the node being read.
+@param attributes the layout attribute names [0] and values [1].
 */
-private static void readXMLNetworkFile_ProcessLayoutNode(Node node, List<PropList> networkLayoutList ) {
-	NamedNodeMap attributes;
-	Node attributeNode;
+private static void readXMLNetworkFile_ProcessLayoutNode(String [][] attributes, List<PropList> networkLayoutList ) {
 	String name = null;
 	String value = null;
-	
-	attributes = node.getAttributes();
-	int nattributes = attributes.getLength();
+	int nattributes = attributes[0].length;
 
 	PropList p = new PropList("Layout");
 	p.set("ID=\"Page Layout #" + (networkLayoutList.size() + 1) + "\"");
@@ -2011,9 +2060,8 @@ private static void readXMLNetworkFile_ProcessLayoutNode(Node node, List<PropLis
 	p.set("NodeSize=\"" + DEFAULT_NODE_SIZE + "\"");
 	p.set("IsDefault=\"false\"");
 	for (int i = 0; i < nattributes; i++) {
-		attributeNode = attributes.item(i);
-		name = attributeNode.getNodeName();
-		value = attributeNode.getNodeValue();
+		name = attributes[0][i];
+		value = attributes[1][i];
 		if (name.equalsIgnoreCase("ID")) {
 			p.set("ID=\"" + value + "\"");
 		}
@@ -2038,51 +2086,39 @@ private static void readXMLNetworkFile_ProcessLayoutNode(Node node, List<PropLis
 
 /**
 Processes a link node from an XML file and builds the link that will appear on the network.
-@param node the XML Node containing the link information.
+@param attributes the link attribute names [0] and values [1].
 */
-private static void readXMLNetworkFile_ProcessLink(Node node, List<PropList> networkLinkList) 
+private static void readXMLNetworkFile_ProcessLink(String [][] attributes, List<PropList> networkLinkList)
 throws Exception {
-	NamedNodeMap attributes = node.getAttributes();;
-	Node attributeNode;
-	String name = null;
-	String value = null;	
-	int nattributes = attributes.getLength();
+	int nattributes = attributes[0].length;
 
 	PropList p = new PropList("");
 	for (int i = 0; i < nattributes; i++) {
-		attributeNode = attributes.item(i);
-		name = attributeNode.getNodeName();
-		value = attributeNode.getNodeValue();
-		p.set(name, value);
+		p.set(attributes[0][i], attributes[1][i]);
 	}
 
 	networkLinkList.add(p);
 }
 
 /**
-Process the data attributes of a HydroBase_Node in the XML file.
-@param node the XML document node being processed
-@param networkNodeList the list of nodes from the network
-@param extentData the network extent (from network properties)
+Set the data attributes of a HydroBase_Node from the XML file.
+@param hnode the node being created
+@param attributes the node attribute names [0] and values [1]
 @param extentDataFromNodes the network extent from node coordinates
 @throws Exception if an error occurs.
 */
-private static void readXMLNetworkFile_ProcessNode(Node node, List<HydrologyNode> networkNodeList,
-		Double [] extentData, Double [] extentDataFromNodes ) 
+private static void readXMLNetworkFile_ProcessNodeAttributes(HydrologyNode hnode, String [][] attributes,
+	Double [] extentDataFromNodes )
 throws Exception {
-	NamedNodeMap attributes = node.getAttributes();;
-	Node attributeNode;
 	String area = null;
 	String precip = null;
 	String name = null;
 	String value = null;	
-	int nattributes = attributes.getLength();
+	int nattributes = attributes[0].length;
 
-	HydrologyNode hnode = new HydrologyNode();
 	for (int i = 0; i < nattributes; i++) {
-		attributeNode = attributes.item(i);
-		name = attributeNode.getNodeName();
-		value = attributeNode.getNodeValue();
+		name = attributes[0][i];
+		value = attributes[1][i];
 		if (name.equalsIgnoreCase("AlternateX")) {
 			hnode.setDBX(Double.valueOf(value).doubleValue());
 		}
@@ -2246,52 +2282,26 @@ throws Exception {
 	else {
 		// do nothing
 	}
-
-	NodeList children = node.getChildNodes();
-
-	if (children != null) {
-		String elementName = null;
-		int len = children.getLength();
-		for (int i = 0; i < len; i++) {
-			node = children.item(i);
-			elementName = node.getNodeName();
-			// Evaluate the nodes attributes...
-			if (elementName.equalsIgnoreCase("DownstreamNode")) {
-				readXMLNetworkFile_ProcessDownstreamNode(hnode, node );
-			}
-			else if (elementName.equalsIgnoreCase("UpstreamNode")) {
-				readXMLNetworkFile_ProcessUpstreamNodes(hnode, node);
-			}
-			else {}
-		}
-	}
-
-	networkNodeList.add(hnode);
 }
 
 /**
 Called by the readXML code when processing a StateMod_Network node.
-@param node the XML node being read
+@param attributes the network attribute names [0] and values [1]
 @param extentData the maximum data coordinates of the network, considering node coordinates
 @param edgeBuffer the additional edge buffer, in node coordinate units, that should be added to the
 edges of the network when rendering
 */
-private static void readXMLNetworkFile_ProcessStateMod_NetworkNode(Node node, Double [] extentData,
+private static void readXMLNetworkFile_ProcessStateMod_NetworkNode(String [][] attributes, Double [] extentData,
 	Double [] edgeBuffer ) 
 throws Exception {
 	String routine = "StateMod_NodeNetwork.processStateMod_NetworkNode";
-	NamedNodeMap attributes;
-	Node attributeNode;
 	String name = null;
 	String value = null;
-	
-	attributes = node.getAttributes();
-	int nattributes = attributes.getLength();
+	int nattributes = attributes[0].length;
 	
 	for (int i = 0; i < nattributes; i++) {
-		attributeNode = attributes.item(i);
-		name = attributeNode.getNodeName();
-		value = attributeNode.getNodeValue();
+		name = attributes[0][i];
+		value = attributes[1][i];
 		if (name.equalsIgnoreCase("XMin")) {
 			extentData[0] = Double.valueOf(value);
 			Message.printStatus(2, routine, "Read Xmin=" + extentData[0] );
@@ -2336,23 +2346,15 @@ throws Exception {
 /**
 Processes an "Upstream" node containing the IDs of the upstream nodes from the Network node.
 @param hnode the HydroBase_Node being built.
-@param node the XML node read from the file.
+@param attributes the element attribute names [0] and values [1].
 @throws Exception if an error occurs.
 */
-private static void readXMLNetworkFile_ProcessUpstreamNodes(HydrologyNode hnode, Node node) 
+private static void readXMLNetworkFile_ProcessUpstreamNodes(HydrologyNode hnode, String [][] attributes)
 throws Exception {
-	NamedNodeMap attributes = node.getAttributes();
-	Node attributeNode;
-	int nattributes = attributes.getLength();
-	String name = null;
-	String value = null;
-
+	int nattributes = attributes[0].length;
 	for (int i = 0; i < nattributes; i++) {
-		attributeNode = attributes.item(i);
-		name = attributeNode.getNodeName();
-		value = attributeNode.getNodeValue();
-		if (name.equalsIgnoreCase("ID")) {
-			hnode.addUpstreamNodeID(value);
+		if (attributes[0][i].equalsIgnoreCase("ID")) {
+			hnode.addUpstreamNodeID(attributes[1][i]);
 		}
 	}
 }
@@ -2381,4 +2383,216 @@ throws Exception
 	}
 }
 
+/**
+Write the network to an XML network file using a streaming (StAX) writer, which avoids building a DOM
+document in memory.  The file format is the same as that read by readXMLNetworkFile().
+@param filename the name of the file to write
+@param limits the data limits of the network
+@param layouts list of PropList containing page layout properties
+@param annotations list of HydrologyNode with annotation PropList as the associated object
+@param links list of PropList containing link properties
+@param legendLimits the limits of the legend, or null if not known
+@param edgeBuffer edge buffer values (left, right, top, bottom)
+@throws Exception if an error occurs writing the file
+*/
+public void writeXMLNetworkFile(String filename, GRLimits limits, List<PropList> layouts,
+	List<HydrologyNode> annotations, List<PropList> links, GRLimits legendLimits, double [] edgeBuffer )
+throws Exception
+{	String routine = getClass().getSimpleName() + ".writeXMLNetworkFile";
+	XMLStreamWriter writer = null;
+	OutputStream out = null;
+	String nl = System.getProperty("line.separator");
+	try {
+		out = new BufferedOutputStream(new FileOutputStream(filename));
+		XMLOutputFactory factory = XMLOutputFactory.newInstance();
+		writer = factory.createXMLStreamWriter(out, "UTF-8");
+		writer.writeStartDocument("UTF-8", "1.0");
+		writer.writeCharacters(nl);
+		writer.writeStartElement("StateMod_Network");
+		writer.writeAttribute("XMin", "" + limits.getLeftX());
+		writer.writeAttribute("YMin", "" + limits.getBottomY());
+		writer.writeAttribute("XMax", "" + limits.getRightX());
+		writer.writeAttribute("YMax", "" + limits.getTopY());
+		if ( edgeBuffer != null ) {
+			writer.writeAttribute("EdgeBufferLeft", "" + edgeBuffer[0]);
+			writer.writeAttribute("EdgeBufferRight", "" + edgeBuffer[1]);
+			writer.writeAttribute("EdgeBufferTop", "" + edgeBuffer[2]);
+			writer.writeAttribute("EdgeBufferBottom", "" + edgeBuffer[3]);
+		}
+		if ( legendLimits != null ) {
+			writer.writeAttribute("LegendX", "" + legendLimits.getLeftX());
+			writer.writeAttribute("LegendY", "" + legendLimits.getBottomY());
+		}
+		writer.writeCharacters(nl);
+
+		// Page layouts...
+		if ( layouts != null ) {
+			for ( PropList p : layouts ) {
+				writer.writeCharacters("  ");
+				writer.writeEmptyElement("PageLayout");
+				writeXMLNetworkFile_PropListAttributes(writer, p, false);
+				writer.writeCharacters(nl);
+			}
+		}
+
+		// Nodes, in computational order...
+		HydrologyNode holdNode = null;
+		HydrologyNode node = getMostUpstreamNode();
+		while ( (node != null) && (node != holdNode) ) {
+			writeXMLNetworkFile_Node(writer, node, nl);
+			if (node.getType() == HydrologyNode.NODE_TYPE_END) {
+				break;
+			}
+			holdNode = node;
+			node = getDownstreamNode(node, POSITION_COMPUTATIONAL);
+		}
+
+		// Annotations and links...
+		if ( annotations != null ) {
+			for ( HydrologyNode annotation : annotations ) {
+				writer.writeCharacters("  ");
+				writer.writeEmptyElement("Annotation");
+				writeXMLNetworkFile_PropListAttributes(writer, (PropList)annotation.getAssociatedObject(), true);
+				writer.writeCharacters(nl);
+			}
+		}
+		if ( links != null ) {
+			for ( PropList p : links ) {
+				writer.writeCharacters("  ");
+				writer.writeEmptyElement("Link");
+				writeXMLNetworkFile_PropListAttributes(writer, p, false);
+				writer.writeCharacters(nl);
+			}
+		}
+
+		writer.writeEndElement();
+		writer.writeCharacters(nl);
+		writer.writeEndDocument();
+		writer.flush();
+	}
+	catch (Exception e) {
+		Message.printWarning(2, routine, "Error writing XML Network file \"" + filename + "\"");
+		Message.printWarning(2, routine, e);
+		throw new Exception("Error writing XML Network file \"" + filename + "\"");
+	}
+	finally {
+		if (writer != null) {
+			try {
+				writer.close();
+			}
+			catch (XMLStreamException e) {
+				// Ignore
+			}
+		}
+		if (out != null) {
+			out.close();
+		}
+	}
+}
+
+/**
+Write a single network node, including its downstream and upstream node identifiers.
+@param writer the streaming writer
+@param node the node to write
+@param nl the line separator
+*/
+private void writeXMLNetworkFile_Node(XMLStreamWriter writer, HydrologyNode node, String nl)
+throws XMLStreamException
+{	writer.writeCharacters("  ");
+	writer.writeStartElement("Node");
+	writer.writeAttribute("ID", node.getCommonID());
+	writer.writeAttribute("Type", node.getVerboseType());
+	writer.writeAttribute("X", "" + node.getX());
+	writer.writeAttribute("Y", "" + node.getY());
+	writer.writeAttribute("AlternateX", "" + node.getDBX());
+	writer.writeAttribute("AlternateY", "" + node.getDBY());
+	writer.writeAttribute("Area", "" + node.getArea());
+	writer.writeAttribute("Precipitation", "" + node.getPrecip());
+	writer.writeAttribute("ComputationalOrder", "" + node.getComputationalOrder());
+	if ( node.getDescription() != null ) {
+		writer.writeAttribute("Description", node.getDescription());
+	}
+	writer.writeAttribute("IsNaturalFlow", "" + node.getIsNaturalFlow());
+	writer.writeAttribute("IsImport", "" + node.getIsImport());
+	writer.writeAttribute("LabelAngle", "" + node.getLabelAngle());
+	String labelPosition = "AboveCenter";
+	switch ( node.getLabelDirection() % 10 ) {
+		case 2: labelPosition = "BelowCenter"; break;
+		case 3: labelPosition = "Left"; break;
+		case 4: labelPosition = "Right"; break;
+		case 5: labelPosition = "LowerLeft"; break;
+		case 6: labelPosition = "UpperLeft"; break;
+		case 7: labelPosition = "UpperRight"; break;
+		case 8: labelPosition = "LowerRight"; break;
+		case 9: labelPosition = "Center"; break;
+	}
+	writer.writeAttribute("LabelPosition", labelPosition);
+	switch ( node.getLabelDirection() / 10 ) {
+		case 1: writer.writeAttribute("ReservoirDir", "Down"); break;
+		case 2: writer.writeAttribute("ReservoirDir", "Up"); break;
+		case 3: writer.writeAttribute("ReservoirDir", "Right"); break;
+		case 4: writer.writeAttribute("ReservoirDir", "Left"); break;
+	}
+	if ( node.getNetID() != null ) {
+		writer.writeAttribute("NetID", node.getNetID());
+	}
+	writer.writeAttribute("NodeInReachNum", "" + node.getNodeInReachNumber());
+	writer.writeAttribute("ReachCounter", "" + node.getReachCounter());
+	writer.writeAttribute("Serial", "" + node.getSerial());
+	writer.writeAttribute("TributaryNum", "" + node.getTributaryNumber());
+	writer.writeAttribute("UpstreamOrder", "" + node.getUpstreamOrder());
+	writer.writeCharacters(nl);
+	HydrologyNode dsNode = node.getDownstreamNode();
+	if ( dsNode != null ) {
+		writer.writeCharacters("    ");
+		writer.writeEmptyElement("DownstreamNode");
+		writer.writeAttribute("ID", dsNode.getCommonID());
+		writer.writeCharacters(nl);
+	}
+	List<HydrologyNode> upstreamNodes = node.getUpstreamNodes();
+	if ( upstreamNodes != null ) {
+		for ( HydrologyNode usNode : upstreamNodes ) {
+			writer.writeCharacters("    ");
+			writer.writeEmptyElement("UpstreamNode");
+			writer.writeAttribute("ID", usNode.getCommonID());
+			writer.writeCharacters(nl);
+		}
+	}
+	writer.writeCharacters("  ");
+	writer.writeEndElement();
+	writer.writeCharacters(nl);
+}
+
+/**
+Write the properties in a PropList as attributes of the current element.
+@param writer the streaming writer, positioned after a start element
+@param p the properties to write
+@param isAnnotation if true, the annotation "OriginalFontSize" property is written as "FontSize" and the
+run-time scaled "FontSize" property is not written, consistent with readXMLNetworkFile()
+*/
+private void writeXMLNetworkFile_PropListAttributes(XMLStreamWriter writer, PropList p, boolean isAnnotation)
+throws XMLStreamException
+{	if ( p == null ) {
+		return;
+	}
+	int size = p.size();
+	for ( int i = 0; i < size; i++ ) {
+		Prop prop = p.elementAt(i);
+		String key = prop.getKey();
+		String value = prop.getValue();
+		if ( (key == null) || (value == null) ) {
+			continue;
+		}
+		if ( isAnnotation ) {
+			if ( key.equalsIgnoreCase("FontSize") ) {
+				continue;
+			}
+			else if ( key.equalsIgnoreCase("OriginalFontSize") ) {
+				key = "FontSize";
+			}
+		}
+		writer.writeAttribute(key, value);
+	}
+}
+
 }
@@ -1187,7 +1187,17 @@ handle.  If false, the right should be treated as strings on read.
 */
 public static boolean isRightUnderstoodByCode( int rightTypeNumber, StateMod_DataSet dataSet )
 {
-	StateMod_OperationalRight_Metadata metadata = StateMod_OperationalRight_Metadata.getMetadata(rightTypeNumber);
+	return isRightUnderstoodByCode ( StateMod_OperationalRight_Metadata.getMetadata(rightTypeNumber), dataSet );
+}
+
+/**
+Indicate whether an operational right is known to the software, given its metadata.
+This version can be called when the metadata have already been looked up for the right.
+@param metadata the right type metadata, or null if the right type is not known
+@param dataSet StateMod_DataSet, needed to check some relationships during the read (e.g., type 24).
+*/
+public static boolean isRightUnderstoodByCode( StateMod_OperationalRight_Metadata metadata, StateMod_DataSet dataSet )
+{
 	if ( (metadata == null) || !metadata.getFullEditingSupported(dataSet) ) {
 		return false;
 	}
@@ -2159,7 +2169,9 @@ throws Exception {
 			Message.printStatus( 2, routine, "Reading operating rule type " + rightType +
 				" starting at line " + linecount );
 			
-			boolean rightUnderstoodByCode = isRightUnderstoodByCode(rightType,dataSet);
+			// Metadata were set with the right type above - use for all decisions for the right
+			StateMod_OperationalRight_Metadata metadata = anOprit.getMetadata();
+			boolean rightUnderstoodByCode = isRightUnderstoodByCode(metadata,dataSet);
 			
 			if ( !rightUnderstoodByCode ) {
 				// The type is not known so read in as strings and set the type to negative.
@@ -2174,8 +2186,6 @@ throws Exception {
 					".  Reading as text to continue reading file." );
 				// Add metadata so that code in the GUI for example will be able to list the right type, but
 				// treat as text
-				StateMod_OperationalRight_Metadata metadata =
-					StateMod_OperationalRight_Metadata.getMetadata(rightType);
 				if ( metadata == null ) {
 					StateMod_OperationalRight_Metadata_SourceOrDestinationType [] source1Array_1 =
 			    		new StateMod_OperationalRight_Metadata_SourceOrDestinationType[0];
@@ -2189,7 +2199,7 @@ throws Exception {
 						new StateMod_OperationalRight_Metadata_AssociatedPlanAllowedType[0];
 					StateMod_OperationalRight_Metadata_DiversionType [] diversionTypeArray_1 =
 						new StateMod_OperationalRight_Metadata_DiversionType[0];
-					StateMod_OperationalRight_Metadata.getAllMetadata().add(
+					StateMod_OperationalRight_Metadata.addMetadata(
 						new StateMod_OperationalRight_Metadata( rightType,
 							false, // Right is not fully understood for editing
 							"Unknown Type",
@@ -2214,8 +2224,6 @@ throws Exception {
 			// If here the operational right is understood and additional lines of data may be provided.
 
 			// May have monthly switch and intervening structures.  For now check the value.
-			StateMod_OperationalRight_Metadata metadata =
-				StateMod_OperationalRight_Metadata.getMetadata(rightType);
 			
 			// FIXME SAM 2008-03-17 Need some more checks for things like invalid -11 and + 13
 			
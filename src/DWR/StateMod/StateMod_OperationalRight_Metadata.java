@@ -103,6 +103,18 @@ List of static global metadata, meant to be initialized once and shared within t
 */
 private static List<StateMod_OperationalRight_Metadata> __opRightsMetadataList = null;
 
+/**
+Metadata indexed by right type number, for fast lookup.  The array is replaced (not modified) when metadata are
+added so that it can be read without synchronization.  It is null until initialize() has been called.
+*/
+private static volatile StateMod_OperationalRight_Metadata [] __opRightsMetadataIndex = null;
+
+/**
+Maximum right type number that is stored in __opRightsMetadataIndex.  Metadata for larger numbers
+(which are not expected) are found by searching the list.
+*/
+private static final int __MAX_INDEXED_RIGHT_TYPE = 1000;
+
 /**
 Whether the operational right uses intervening structures with loss.
 These are usually indicated in the dumx value
@@ -153,8 +165,50 @@ public StateMod_OperationalRight_Metadata ( int rightTypeNumber, boolean fullEdi
 	setTransitAndConveyanceLossAllowed ( transitAndConveyanceLossAllowedType );
 }
 
+/**
+Add metadata to the global list, for example for a right type that is not known to the software.
+If metadata for the right type already exist, the existing metadata will continue to be returned by getMetadata().
+@param metadata the metadata to add
+*/
+public static void addMetadata ( StateMod_OperationalRight_Metadata metadata )
+{
+	initialize();
+	synchronized ( StateMod_OperationalRight_Metadata.class ) {
+		__opRightsMetadataList.add ( metadata );
+		__opRightsMetadataIndex = createIndex ( __opRightsMetadataIndex, metadata );
+	}
+}
+
+/**
+Create a new metadata index that includes the given metadata.
+@param index the current index, or null if no index has been created
+@param metadata the metadata to add
+@return the new index
+*/
+private static StateMod_OperationalRight_Metadata [] createIndex ( StateMod_OperationalRight_Metadata [] index,
+	StateMod_OperationalRight_Metadata metadata )
+{
+	int rightTypeNumber = metadata.getRightTypeNumber();
+	if ( index == null ) {
+		index = new StateMod_OperationalRight_Metadata[0];
+	}
+	if ( (rightTypeNumber < 0) || (rightTypeNumber > __MAX_INDEXED_RIGHT_TYPE) ) {
+		return index;
+	}
+	if ( (rightTypeNumber < index.length) && (index[rightTypeNumber] != null) ) {
+		// Keep the first metadata for a right type, consistent with searching the list
+		return index;
+	}
+	StateMod_OperationalRight_Metadata [] newIndex =
+		new StateMod_OperationalRight_Metadata[Math.max(index.length, rightTypeNumber + 1)];
+	System.arraycopy ( index, 0, newIndex, 0, index.length );
+	newIndex[rightTypeNumber] = metadata;
+	return newIndex;
+}
+
 /**
 Return the list of all metadata.
+Metadata should be added using addMetadata() so that the metadata can be found with getMetadata().
 */
 public static List<StateMod_OperationalRight_Metadata> getAllMetadata ()
 {
@@ -289,14 +343,24 @@ public String getLimitsNotes ()
 
 /**
 Return the metadata given an operational right number.
+The metadata are looked up in an index so this method can be called for each right without searching the list.
 @param rightTypeNumber the operational right type number
 */
 public static StateMod_OperationalRight_Metadata getMetadata ( int rightTypeNumber )
 {
 	initialize();
-	for ( StateMod_OperationalRight_Metadata metadata : getAllMetadata() ) {
-		if ( metadata.getRightTypeNumber() == rightTypeNumber ) {
-			return metadata;
+	StateMod_OperationalRight_Metadata [] index = __opRightsMetadataIndex;
+	if ( (rightTypeNumber >= 0) && (rightTypeNumber < index.length) && (index[rightTypeNumber] != null) ) {
+		return index[rightTypeNumber];
+	}
+	// Not in the index, for example if added directly to the list returned by getAllMetadata(),
+	// so search the list and add to the index if found.
+	synchronized ( StateMod_OperationalRight_Metadata.class ) {
+		for ( StateMod_OperationalRight_Metadata metadata : __opRightsMetadataList ) {
+			if ( metadata.getRightTypeNumber() == rightTypeNumber ) {
+				__opRightsMetadataIndex = createIndex ( __opRightsMetadataIndex, metadata );
+				return metadata;
+			}
 		}
 	}
 	return null;
@@ -925,10 +989,35 @@ public StateMod_OperationalRight_Metadata_TransitAndConveyanceLossAllowedType ge
 }
 
 /**
-Initialize the singleton list of operational right metadata.  Do this rather than having a large amount
-of static data in memory.
+Initialize the singleton list and index of operational right metadata.  Do this rather than having a large
+amount of static data in memory.  Initialization occurs once and is thread-safe.
 */
 private static void initialize ()
+{
+	if ( __opRightsMetadataIndex != null ) {
+		// No need to initialize.
+		return;
+	}
+	synchronized ( StateMod_OperationalRight_Metadata.class ) {
+		if ( __opRightsMetadataIndex != null ) {
+			return;
+		}
+		initializeList();
+		StateMod_OperationalRight_Metadata [] index = null;
+		for ( StateMod_OperationalRight_Metadata metadata : __opRightsMetadataList ) {
+			index = createIndex ( index, metadata );
+		}
+		if ( index == null ) {
+			index = new StateMod_OperationalRight_Metadata[0];
+		}
+		__opRightsMetadataIndex = index;
+	}
+}
+
+/**
+Initialize the singleton list of operational right metadata.  This is called by initialize() when synchronized.
+*/
+private static void initializeList ()
 {
 	if ( __opRightsMetadataList != null ) {
 		// No need to initialize.
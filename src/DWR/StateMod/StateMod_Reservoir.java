@@ -1674,7 +1674,7 @@ public StateMod_ComponentValidation validateComponent ( StateMod_DataSet dataset
 	else {
 		// Verify that the river node is in the data set, if the network is available
 		if ( rinList != null ) {
-			if ( StateMod_Util.indexOf(rinList, riverID) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, rinList, riverID) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"Reservoir \"" + id +
 					"\" river network ID (" + riverID + ") is not found in the list of river network nodes.",
 					"Specify a valid river network ID to associate the reservoir with a river network node.") );
@@ -1703,7 +1703,7 @@ public StateMod_ComponentValidation validateComponent ( StateMod_DataSet dataset
 		}
 		else if ( (resList != null) && (resList.size() > 0) ) {
 			// Check the reservoir station list
-			if ( StateMod_Util.indexOf(resList, dailyID) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, resList, dailyID) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"Reservoir \"" + id + "\" daily ID (" + dailyID +
 				") is not 0, 3, 4, or 5 and is not found in the list of reservoir stations.",
 				"Specify the daily ID as 0, 3, 4, 5, or a matching reservoir ID.") );
@@ -688,6 +688,7 @@ public void setRtem(String rtem) {
 		if ( !_isClone && _dataset != null ) {
 			_dataset.setDirty(StateMod_DataSet.COMP_RESERVOIR_RIGHTS, true);
 		}
+		StateMod_RightsPriorityIndex.rightChanged ( this );
 	}
 }
 
@@ -727,7 +728,7 @@ public StateMod_ComponentValidation validateComponent( StateMod_DataSet dataset
 		@SuppressWarnings("unchecked")
 		List<StateMod_Reservoir> resList = (List<StateMod_Reservoir>)comp2.getData();
 		if ( (resList != null) && (resList.size() > 0) ) {
-			if ( StateMod_Util.indexOf(resList, cgoto) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, resList, cgoto) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"Reservoir right \"" + id +
 					"\" associated reservoir (" + cgoto + ") is not found in the list of reservoir stations.",
 					"Specify a valid reservoir station ID to associate with the reservoir right.") );
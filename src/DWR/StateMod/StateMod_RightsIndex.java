@@ -0,0 +1,230 @@
+// StateMod_RightsIndex - index of water rights by station, location, and parcel
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.Vector;
+
+/**
+Index of a list of water rights by station (cgoto), location, and parcel, to allow rights to be found without
+searching the full list for each station.  The methods return the same results as the StateMod_Util methods
+with the same names (e.g., StateMod_Util.getRightsForStation()), with rights in the order of the original list.
+StateMod_Util.getWaterRightsForLocation(), getWaterRightsForParcel(), and getWaterRightIdentifiersForLocation()
+create an index for each call.
+Create the index once and use it for all lookups, for example when checking all well stations against well rights.
+The index is not updated if the list of rights is modified and must be created again.
+The index is read-only after creation and can be shared between threads.
+@param <T> the type of water right
+*/
+public class StateMod_RightsIndex<T extends StateMod_Right>
+{
+
+/**
+Rights for each station, using the "cgoto" value, with the key as the upper case station identifier.
+*/
+private Map<String,List<T>> __rightsByStation = new HashMap<String,List<T>>();
+
+/**
+Rights for each location (see StateMod_Right.getLocationIdentifier()), with the key as upper case location.
+*/
+private Map<String,List<T>> __rightsByLocation = new HashMap<String,List<T>>();
+
+/**
+Well rights for each parcel, with the key as upper case parcel identifier.
+*/
+private Map<String,List<T>> __rightsByParcel = new HashMap<String,List<T>>();
+
+/**
+All rights, for requests that are not for a specific location.
+*/
+private List<T> __rights = new ArrayList<T>();
+
+/**
+Create an index for the rights.
+@param rights the list of rights to index, can be null
+*/
+public StateMod_RightsIndex ( List<? extends T> rights )
+{
+	if ( rights == null ) {
+		return;
+	}
+	int size = rights.size();
+	for ( int i = 0; i < size; i++ ) {
+		T right = rights.get(i);
+		if ( right == null ) {
+			continue;
+		}
+		__rights.add ( right );
+		add ( __rightsByStation, getStationID(right), right );
+		add ( __rightsByLocation, right.getLocationIdentifier(), right );
+		if ( right instanceof StateMod_WellRight ) {
+			add ( __rightsByParcel, ((StateMod_WellRight)right).getParcelID(), right );
+		}
+	}
+}
+
+/**
+Add a right to a map.
+*/
+private void add ( Map<String,List<T>> map, String id, T right )
+{
+	if ( id == null ) {
+		return;
+	}
+	String key = getKey ( id );
+	List<T> rights = map.get ( key );
+	if ( rights == null ) {
+		rights = new ArrayList<T>(2);
+		map.put ( key, rights );
+	}
+	rights.add ( right );
+}
+
+/**
+Filter rights by parcel year.
+@param rights list of rights, or null
+@param reqParcelYear parcel year to match, or -1 to match all
+@param wellRightsOnly if true, only well rights are returned
+*/
+private List<T> filter ( List<T> rights, int reqParcelYear, boolean wellRightsOnly )
+{
+	List<T> matchlist = new Vector<T>();
+	if ( rights == null ) {
+		return matchlist;
+	}
+	for ( T right : rights ) {
+		if ( right instanceof StateMod_WellRight ) {
+			if ( (reqParcelYear != -1) && (((StateMod_WellRight)right).getParcelYear() != reqParcelYear) ) {
+				continue;
+			}
+		}
+		else if ( wellRightsOnly ) {
+			continue;
+		}
+		matchlist.add ( right );
+	}
+	return matchlist;
+}
+
+/**
+Return the key used to compare identifiers while ignoring case.
+*/
+private String getKey ( String id )
+{
+	return id.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+}
+
+/**
+Return the list of water rights for a station, matching the "cgoto" value.
+The result is the same as StateMod_Util.getRightsForStation().
+@param stationID station identifier to match (case-insensitive)
+@return the list of water rights that match the station identifier.  A non-null
+list is guaranteed (but may have zero length).
+*/
+public List<T> getRightsForStation ( String stationID )
+{
+	if ( stationID == null ) {
+		return new Vector<T>();
+	}
+	return filter ( __rightsByStation.get(getKey(stationID)), -1, false );
+}
+
+/**
+Return the station identifier ("cgoto") for a right, or null if not a station right.
+*/
+private String getStationID ( T right )
+{
+	if ( right instanceof StateMod_DiversionRight ) {
+		return ((StateMod_DiversionRight)right).getCgoto();
+	}
+	else if ( right instanceof StateMod_InstreamFlowRight ) {
+		return ((StateMod_InstreamFlowRight)right).getCgoto();
+	}
+	else if ( right instanceof StateMod_ReservoirRight ) {
+		return ((StateMod_ReservoirRight)right).getCgoto();
+	}
+	else if ( right instanceof StateMod_WellRight ) {
+		return ((StateMod_WellRight)right).getCgoto();
+	}
+	return null;
+}
+
+/**
+Get a list of water right identifiers for a location.
+The result is the same as StateMod_Util.getWaterRightIdentifiersForLocation().
+@param locID location identifier to match (case-insensitive), or null to match all locations
+@param reqParcelYear parcel year for data or -1 to use all (only used with well rights)
+@return a list of unique right identifiers, in the order found in the original list
+*/
+public List<String> getWaterRightIdentifiersForLocation ( String locID, int reqParcelYear )
+{
+	List<String> matchlist = new Vector<String>();
+	Set<String> found = new HashSet<String>();
+	for ( T right : getWaterRightsForLocation(locID, reqParcelYear) ) {
+		String rightID = right.getIdentifier();
+		if ( found.add(getKey(rightID)) ) {
+			matchlist.add ( rightID );
+		}
+	}
+	return matchlist;
+}
+
+/**
+Get a list of water rights for a location.
+The result is the same as StateMod_Util.getWaterRightsForLocation().
+@param locID location identifier to match (case-insensitive), or null to return all rights for the
+requested parcel year
+@param reqParcelYear parcel year for data or -1 to use all (only used with well rights)
+@return a list of water rights for the location, in the order found in the original list
+*/
+public List<T> getWaterRightsForLocation ( String locID, int reqParcelYear )
+{
+	if ( locID == null ) {
+		return filter ( __rights, reqParcelYear, false );
+	}
+	return filter ( __rightsByLocation.get(getKey(locID)), reqParcelYear, false );
+}
+
+/**
+Get a list of well rights for a parcel.
+The result is the same as StateMod_Util.getWaterRightsForParcel().
+@param parcelID parcel identifier to match (case-insensitive)
+@param reqParcelYear parcel year for data or -1 to use all
+@return a list of water rights for the parcel, in the order found in the original list
+*/
+public List<T> getWaterRightsForParcel ( String parcelID, int reqParcelYear )
+{
+	if ( parcelID == null ) {
+		return new Vector<T>();
+	}
+	return filter ( __rightsByParcel.get(getKey(parcelID)), reqParcelYear, true );
+}
+
+}
@@ -0,0 +1,522 @@
+// StateMod_RightsPriorityIndex - data set water rights sorted by administration number
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import RTi.Util.IO.DataSetComponent;
+
+/**
+Index of water rights of all types (diversion, reservoir, instream flow, and well rights) sorted by
+administration number (priority).  The administration numbers are stored in a primitive array in sorted order,
+parallel to the rights, so that range queries such as "all rights senior to an administration number" and
+"free water rights" use a binary search rather than sorting all rights each time.
+Rights with equal administration numbers are kept in the order that they were added.
+Rights that do not have a valid administration number are treated as the most junior.
+The administration number set methods of the rights call rightChanged(), which records the right in each
+index that contains it, and the recorded rights are moved to their new position when the index is next read,
+so edits do not require the index to be sorted or refreshed.  The on/off switch and decree are not indexed
+(the index returns the right objects, which have the current values).
+Rights that are added to or removed from the data set lists are not tracked by the index - use add() and
+remove(), or refresh() to synchronize with the data set lists (see StateMod_DataSet.getRightsPriorityIndex(),
+which refreshes the index after a rights component has been marked dirty).
+The methods are synchronized so that the index can be shared between threads.
+*/
+public class StateMod_RightsPriorityIndex
+{
+
+/**
+Component types for the rights that are indexed by refresh().
+*/
+private static final int [] __RIGHTS_COMPONENT_TYPES = {
+	StateMod_DataSet.COMP_DIVERSION_RIGHTS,
+	StateMod_DataSet.COMP_RESERVOIR_RIGHTS,
+	StateMod_DataSet.COMP_INSTREAM_RIGHTS,
+	StateMod_DataSet.COMP_WELL_RIGHTS
+};
+
+/**
+Administration numbers in sorted order.
+*/
+private double [] __adminNumbers = new double[16];
+
+/**
+Rights, parallel to __adminNumbers.
+*/
+private StateMod_Right [] __rights = new StateMod_Right[16];
+
+/**
+Number of rights in the index.
+*/
+private int __size = 0;
+
+/**
+Administration number that was used to index each right, needed to find the right when it is removed
+or updated after its administration number has been edited.
+*/
+private Map<StateMod_Right,Double> __indexedAdminNumbers = new IdentityHashMap<StateMod_Right,Double>();
+
+/**
+Rights in the index that had their administration number set since the index was last read, to be moved
+by applyChanges().
+*/
+private Map<StateMod_Right,Boolean> __changedRights = new IdentityHashMap<StateMod_Right,Boolean>();
+
+/**
+All indexes that have been created and are still in use, notified by rightChanged().
+*/
+private static final Map<StateMod_RightsPriorityIndex,Boolean> __indexes =
+	Collections.synchronizedMap(new WeakHashMap<StateMod_RightsPriorityIndex,Boolean>());
+
+/**
+Create an empty index.
+*/
+public StateMod_RightsPriorityIndex ()
+{
+	__indexes.put ( this, Boolean.TRUE );
+}
+
+/**
+Create an index for the rights in a data set.
+@param dataset data set to process
+*/
+public StateMod_RightsPriorityIndex ( StateMod_DataSet dataset )
+{
+	refresh ( dataset );
+	__indexes.put ( this, Boolean.TRUE );
+}
+
+/**
+Add a right to the index.  Nothing is done if the right is already in the index.
+@param right the right to add
+*/
+public synchronized void add ( StateMod_Right right )
+{
+	if ( (right == null) || __indexedAdminNumbers.containsKey(right) ) {
+		return;
+	}
+	double adminNumber = getAdminNumber ( right );
+	// Insert after rights with the same administration number
+	int pos = getUpperBound ( adminNumber );
+	if ( __size == __rights.length ) {
+		int capacity = 2*__size;
+		__adminNumbers = Arrays.copyOf ( __adminNumbers, capacity );
+		__rights = Arrays.copyOf ( __rights, capacity );
+	}
+	System.arraycopy ( __adminNumbers, pos, __adminNumbers, pos + 1, __size - pos );
+	System.arraycopy ( __rights, pos, __rights, pos + 1, __size - pos );
+	__adminNumbers[pos] = adminNumber;
+	__rights[pos] = right;
+	++__size;
+	__indexedAdminNumbers.put ( right, Double.valueOf(adminNumber) );
+}
+
+/**
+Add rights to the index.  Rights that are already in the index are ignored.
+The rights are sorted and merged with the index, which is faster than adding rights one at a time
+when many rights are added.
+@param rights the rights to add
+*/
+public synchronized void addAll ( List<? extends StateMod_Right> rights )
+{
+	// Determine the rights to add
+	final List<StateMod_Right> newRights = new ArrayList<StateMod_Right>();
+	final List<Double> newAdminNumbers = new ArrayList<Double>();
+	for ( StateMod_Right right : rights ) {
+		if ( (right == null) || __indexedAdminNumbers.containsKey(right) ) {
+			continue;
+		}
+		Double adminNumber = Double.valueOf ( getAdminNumber(right) );
+		// Put in the map now to ignore duplicates in the list
+		__indexedAdminNumbers.put ( right, adminNumber );
+		newRights.add ( right );
+		newAdminNumbers.add ( adminNumber );
+	}
+	int newSize = newRights.size();
+	if ( newSize == 0 ) {
+		return;
+	}
+	// Sort the new rights by administration number (the sort is stable so the list order is retained
+	// for equal administration numbers)
+	Integer [] order = new Integer[newSize];
+	for ( int i = 0; i < newSize; i++ ) {
+		order[i] = Integer.valueOf(i);
+	}
+	Arrays.sort ( order, new Comparator<Integer>() {
+		public int compare ( Integer i1, Integer i2 )
+		{
+			return Double.compare ( newAdminNumbers.get(i1.intValue()).doubleValue(),
+				newAdminNumbers.get(i2.intValue()).doubleValue() );
+		}
+	});
+	// Merge with the rights in the index, keeping rights that are already in the index first
+	// when administration numbers are equal
+	int capacity = Math.max ( __rights.length, __size + newSize );
+	double [] adminNumbers = new double[capacity];
+	StateMod_Right [] mergedRights = new StateMod_Right[capacity];
+	int i = 0;
+	int j = 0;
+	int k = 0;
+	while ( (i < __size) || (j < newSize) ) {
+		if ( (j == newSize) ||
+			((i < __size) && (__adminNumbers[i] <= newAdminNumbers.get(order[j].intValue()).doubleValue())) ) {
+			adminNumbers[k] = __adminNumbers[i];
+			mergedRights[k] = __rights[i];
+			++i;
+		}
+		else {
+			int pos = order[j].intValue();
+			adminNumbers[k] = newAdminNumbers.get(pos).doubleValue();
+			mergedRights[k] = newRights.get(pos);
+			++j;
+		}
+		++k;
+	}
+	__adminNumbers = adminNumbers;
+	__rights = mergedRights;
+	__size = k;
+}
+
+/**
+Move the rights that had their administration number changed since the index was last read.
+This is called by each method that reads or changes the index.
+*/
+private void applyChanges ()
+{
+	if ( __changedRights.size() == 0 ) {
+		return;
+	}
+	List<StateMod_Right> changedRights = new ArrayList<StateMod_Right>(__changedRights.keySet());
+	__changedRights.clear();
+	for ( StateMod_Right right : changedRights ) {
+		Double indexed = __indexedAdminNumbers.get ( right );
+		if ( (indexed != null) && (indexed.doubleValue() != getAdminNumber(right)) ) {
+			remove ( right );
+			add ( right );
+		}
+	}
+}
+
+/**
+Remove all rights from the index.
+*/
+public synchronized void clear ()
+{
+	Arrays.fill ( __rights, 0, __size, null );
+	__size = 0;
+	__indexedAdminNumbers.clear();
+	__changedRights.clear();
+}
+
+/**
+Return the rights between two positions as a new list.
+*/
+private List<StateMod_Right> copyRange ( int start, int end )
+{
+	List<StateMod_Right> rights = new ArrayList<StateMod_Right>(Math.max(0, end - start));
+	for ( int i = start; i < end; i++ ) {
+		rights.add ( __rights[i] );
+	}
+	return rights;
+}
+
+/**
+Return the administration number for a right as a double, or Double.MAX_VALUE if not a valid number.
+*/
+private double getAdminNumber ( StateMod_Right right )
+{
+	String adminNumber = right.getAdministrationNumber();
+	if ( adminNumber != null ) {
+		try {
+			double value = Double.parseDouble ( adminNumber.trim() );
+			if ( !Double.isNaN(value) ) {
+				return value;
+			}
+		}
+		catch ( NumberFormatException e ) {
+			// Treat as most junior below
+		}
+	}
+	return Double.MAX_VALUE;
+}
+
+/**
+Return the free water rights, which are rights with an administration number greater than or equal to the
+free water administration number, in priority order.
+@param freeWaterAdminNumber the smallest administration number that is considered free water (e.g., 90000.0)
+@return the free water rights
+*/
+public synchronized List<StateMod_Right> getFreeWaterRights ( double freeWaterAdminNumber )
+{
+	applyChanges();
+	return copyRange ( getLowerBound(freeWaterAdminNumber), __size );
+}
+
+/**
+Return the position of the first administration number that is greater than or equal to a value.
+*/
+private int getLowerBound ( double adminNumber )
+{
+	int low = 0;
+	int high = __size;
+	while ( low < high ) {
+		int mid = (low + high) >>> 1;
+		if ( __adminNumbers[mid] < adminNumber ) {
+			low = mid + 1;
+		}
+		else {
+			high = mid;
+		}
+	}
+	return low;
+}
+
+/**
+Return all rights in priority order.
+@return all rights in the index, most senior first
+*/
+public synchronized List<StateMod_Right> getRights ()
+{
+	applyChanges();
+	return copyRange ( 0, __size );
+}
+
+/**
+Return the rights for a set of locations (e.g., structures), in priority order.
+@param locationIDs location identifiers to match (case-insensitive)
+@return the rights for the locations, most senior first
+*/
+public synchronized List<StateMod_Right> getRightsForLocations ( List<String> locationIDs )
+{
+	applyChanges();
+	Set<String> ids = new HashSet<String>();
+	for ( String locationID : locationIDs ) {
+		if ( locationID != null ) {
+			ids.add ( locationID.toUpperCase() );
+		}
+	}
+	List<StateMod_Right> rights = new ArrayList<StateMod_Right>();
+	for ( int i = 0; i < __size; i++ ) {
+		String locationID = __rights[i].getLocationIdentifier();
+		if ( (locationID != null) && ids.contains(locationID.toUpperCase()) ) {
+			rights.add ( __rights[i] );
+		}
+	}
+	return rights;
+}
+
+/**
+Return the rights with administration numbers in a range, in priority order.
+@param minAdminNumber the minimum administration number (inclusive)
+@param maxAdminNumber the maximum administration number (inclusive)
+@return the rights in the range
+*/
+public synchronized List<StateMod_Right> getRightsInRange ( double minAdminNumber, double maxAdminNumber )
+{
+	applyChanges();
+	return copyRange ( getLowerBound(minAdminNumber), getUpperBound(maxAdminNumber) );
+}
+
+/**
+Return the rights that are senior to (have a smaller administration number than) an administration number,
+in priority order.
+@param adminNumber the administration number to compare
+@param includeEqual if true, also include rights with the same administration number
+@return the senior rights
+*/
+public synchronized List<StateMod_Right> getRightsSeniorTo ( double adminNumber, boolean includeEqual )
+{
+	applyChanges();
+	return copyRange ( 0, includeEqual ? getUpperBound(adminNumber) : getLowerBound(adminNumber) );
+}
+
+/**
+Return the number of rights in the index.
+*/
+public synchronized int getSize ()
+{
+	return __size;
+}
+
+/**
+Return the position after the last administration number that is less than or equal to a value.
+*/
+private int getUpperBound ( double adminNumber )
+{
+	int low = 0;
+	int high = __size;
+	while ( low < high ) {
+		int mid = (low + high) >>> 1;
+		if ( __adminNumbers[mid] <= adminNumber ) {
+			low = mid + 1;
+		}
+		else {
+			high = mid;
+		}
+	}
+	return low;
+}
+
+/**
+Return the position of a right in the index, or -1 if not found.
+*/
+private int indexOf ( StateMod_Right right )
+{
+	Double adminNumber = __indexedAdminNumbers.get ( right );
+	if ( adminNumber == null ) {
+		return -1;
+	}
+	// Search the rights that have the same administration number
+	int end = getUpperBound ( adminNumber.doubleValue() );
+	for ( int i = getLowerBound(adminNumber.doubleValue()); i < end; i++ ) {
+		if ( __rights[i] == right ) {
+			return i;
+		}
+	}
+	return -1;
+}
+
+/**
+Record that a right in the index had its administration number set, so that the right is moved when the
+index is next read.
+*/
+private synchronized void markChanged ( StateMod_Right right )
+{
+	if ( __indexedAdminNumbers.containsKey(right) ) {
+		__changedRights.put ( right, Boolean.TRUE );
+	}
+}
+
+/**
+Synchronize the index with the rights lists in a data set.  Rights that were added to or removed from the
+lists are added to or removed from the index, and rights with an edited administration number are moved.
+Other rights are not changed, so the index does not need to be sorted again.
+@param dataset data set to process
+*/
+public synchronized void refresh ( StateMod_DataSet dataset )
+{
+	applyChanges();
+	Map<StateMod_Right,Boolean> current = new IdentityHashMap<StateMod_Right,Boolean>();
+	List<StateMod_Right> added = new ArrayList<StateMod_Right>();
+	for ( int i = 0; i < __RIGHTS_COMPONENT_TYPES.length; i++ ) {
+		DataSetComponent comp = dataset.getComponentForComponentType ( __RIGHTS_COMPONENT_TYPES[i] );
+		if ( (comp == null) || !(comp.getData() instanceof List) ) {
+			continue;
+		}
+		List<?> data = (List<?>)comp.getData();
+		int size = data.size();
+		for ( int j = 0; j < size; j++ ) {
+			Object o = data.get(j);
+			if ( o instanceof StateMod_Right ) {
+				StateMod_Right right = (StateMod_Right)o;
+				current.put ( right, Boolean.TRUE );
+				Double indexed = __indexedAdminNumbers.get ( right );
+				if ( indexed == null ) {
+					added.add ( right );
+				}
+				else if ( indexed.doubleValue() != getAdminNumber(right) ) {
+					update ( right );
+				}
+			}
+		}
+	}
+	addAll ( added );
+	// Remove rights that are no longer in the data set
+	if ( current.size() != __size ) {
+		int count = 0;
+		for ( int i = 0; i < __size; i++ ) {
+			if ( current.containsKey(__rights[i]) ) {
+				__adminNumbers[count] = __adminNumbers[i];
+				__rights[count] = __rights[i];
+				++count;
+			}
+			else {
+				__indexedAdminNumbers.remove ( __rights[i] );
+			}
+		}
+		Arrays.fill ( __rights, count, __size, null );
+		__size = count;
+	}
+}
+
+/**
+Remove a right from the index.
+@param right the right to remove
+@return true if the right was removed, false if it was not in the index
+*/
+public synchronized boolean remove ( StateMod_Right right )
+{
+	int pos = indexOf ( right );
+	if ( pos < 0 ) {
+		return false;
+	}
+	System.arraycopy ( __adminNumbers, pos + 1, __adminNumbers, pos, __size - pos - 1 );
+	System.arraycopy ( __rights, pos + 1, __rights, pos, __size - pos - 1 );
+	--__size;
+	__rights[__size] = null;
+	__indexedAdminNumbers.remove ( right );
+	__changedRights.remove ( right );
+	return true;
+}
+
+/**
+Notify the indexes that a right had its administration number set.  This is called by the set methods
+for the administration number of each right class.
+@param right the right that was changed
+*/
+static void rightChanged ( StateMod_Right right )
+{
+	if ( __indexes.size() == 0 ) {
+		return;
+	}
+	List<StateMod_RightsPriorityIndex> indexes;
+	synchronized ( __indexes ) {
+		indexes = new ArrayList<StateMod_RightsPriorityIndex>(__indexes.keySet());
+	}
+	for ( StateMod_RightsPriorityIndex index : indexes ) {
+		index.markChanged ( right );
+	}
+}
+
+/**
+Update the position of a right after its administration number has been edited.
+The right is added if it is not in the index.
+@param right the right to update
+*/
+public synchronized void update ( StateMod_Right right )
+{
+	remove ( right );
+	add ( right );
+}
+
+}
@@ -463,7 +463,7 @@ public StateMod_ComponentValidation validateComponent ( StateMod_DataSet dataset
 		// Verify that the downstream river node is in the data set, if the network is available - skip this
 		// check for the end node.
 		if ( (rinList != null) && !name.equalsIgnoreCase("END") && !name.endsWith("_END")) {
-			if ( StateMod_Util.indexOf(rinList, downstreamRiverID) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, rinList, downstreamRiverID) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"River node \"" + id +
 					"\" downstream node ID (" + downstreamRiverID + ") is not found in the list of river network nodes.",
 					"Specify a valid river network ID for the downstream node.") );
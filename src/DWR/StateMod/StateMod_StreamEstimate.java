@@ -590,7 +590,7 @@ public StateMod_ComponentValidation validateComponent( StateMod_DataSet dataset
 			@SuppressWarnings("unchecked")
 			List<StateMod_RiverNetworkNode> rinList = (List<StateMod_RiverNetworkNode>)comp.getData();
 			if ( (rinList != null) && (rinList.size() > 0) ) {
-				if ( StateMod_Util.indexOf(rinList, riverID) < 0 ) {
+				if ( !StateMod_ComponentValidationIndex.containsID(dataset, rinList, riverID) ) {
 					validation.add(new StateMod_ComponentValidationProblem(this,"Stream estimate \"" + id +
 						"\" river network ID (" + riverID + ") is not found in the list of river network nodes.",
 						"Specify a valid river network ID to associate the station with a river network node.") );
@@ -606,7 +606,7 @@ public StateMod_ComponentValidation validateComponent( StateMod_DataSet dataset
 			List<StateMod_StreamGage> risList = (List<StateMod_StreamGage>)comp.getData();
 			if ( (risList != null) && (risList.size() > 0) ) {
 				if ( !dailyID.equals("0") && !dailyID.equals("3") && !dailyID.equals("4") &&
-					(StateMod_Util.indexOf(risList, dailyID) < 0) ) {
+					(!StateMod_ComponentValidationIndex.containsID(dataset, risList, dailyID)) ) {
 					validation.add(new StateMod_ComponentValidationProblem(this,"Stream estimate \"" + id + "\" daily ID (" + dailyID +
 						") is not 0, 3, or 4 and is not found in the list of stream gages.",
 						"Specify the daily ID as 0, 3, 4, or that matches a stream gage ID.") );
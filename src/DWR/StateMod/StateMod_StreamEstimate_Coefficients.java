@@ -881,7 +881,7 @@ public StateMod_ComponentValidation validateComponent( StateMod_DataSet dataset
 		upper = getUpper(j);
 		// Make sure that node is in the network.
 		if ( (rinList != null) && (rinList.size() > 0) ) {
-			if ( StateMod_Util.indexOf(rinList, upper) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, rinList, upper) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"Stream estimate station \"" + id +
 					"\" estimate station ID (" + upper + ") is not found in the list of river network nodes.",
 					"Verify that stream estimate coefficient file is consistent with network information.") );
@@ -907,7 +907,7 @@ public StateMod_ComponentValidation validateComponent( StateMod_DataSet dataset
 		flowm = getFlowm(j);
 		// Make sure that node is in the network.
 		if ( (rinList != null) && (rinList.size() > 0) ) {
-			if ( StateMod_Util.indexOf(rinList, flowm) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, rinList, flowm) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"Stream estimate station \"" + id +
 					"\" gain station ID (" + flowm + ") is not found in the list of river network nodes.",
 					"Verify that stream estimate coefficient file is consistent with network information.") );
@@ -0,0 +1,710 @@
+// StateMod_TS_FileComparison - compare two StateMod time series files by streaming year blocks
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import RTi.Util.IO.IOUtil;
+import RTi.Util.Message.Message;
+import RTi.Util.String.StringUtil;
+import RTi.Util.Time.TimeInterval;
+import RTi.Util.Time.TimeUtil;
+
+/**
+Compare two StateMod time series files (e.g., two versions of a *.ddm or *.rih file) without reading
+either file into time series.  Each file is read and parsed on its own thread, one block at a time, where a block
+is the lines for one year (monthly files) or one year and month (daily files).  The blocks are compared in
+lock-step and the lines in a block are matched by station identifier, so only a few blocks are held in memory.
+Values are considered different if the difference exceeds both the absolute and relative tolerance.
+The results include, for each station, the number of values compared and different, the maximum difference and
+where it occurred, and the totals of the values in each file.
+Standard monthly and daily StateMod time series file formats are supported (not the *.xop format).
+Monthly files must have the same year type (first month in the header) because each line lists the months of
+one year starting with the first month, so the values in files with different year types do not line up.
+*/
+public class StateMod_TS_FileComparison
+{
+
+/**
+Results for one station.
+*/
+public static class StationDifference
+{
+	private String __id;
+	private boolean __inFile1 = false;
+	private boolean __inFile2 = false;
+	private int __valueCount = 0;
+	private int __differentCount = 0;
+	private double __maxDifference = 0.0;
+	private String __maxDifferenceDate = null;
+	private double __total1 = 0.0;
+	private double __total2 = 0.0;
+
+	private StationDifference ( String id )
+	{
+		__id = id;
+	}
+
+	/**
+	Return the number of values that are different (including values that are missing in only one file).
+	*/
+	public int getDifferentCount ()
+	{
+		return __differentCount;
+	}
+
+	/**
+	Return the station identifier.
+	*/
+	public String getID ()
+	{
+		return __id;
+	}
+
+	/**
+	Return the maximum absolute difference for values that are not missing in either file.
+	*/
+	public double getMaxDifference ()
+	{
+		return __maxDifference;
+	}
+
+	/**
+	Return the date (YYYY-MM or YYYY-MM-DD) of the maximum difference, or null if no differences.
+	*/
+	public String getMaxDifferenceDate ()
+	{
+		return __maxDifferenceDate;
+	}
+
+	/**
+	Return the total of the non-missing values in the first file.
+	*/
+	public double getTotal1 ()
+	{
+		return __total1;
+	}
+
+	/**
+	Return the total of the non-missing values in the second file.
+	*/
+	public double getTotal2 ()
+	{
+		return __total2;
+	}
+
+	/**
+	Return the number of values that were compared.
+	*/
+	public int getValueCount ()
+	{
+		return __valueCount;
+	}
+
+	/**
+	Indicate whether the station is in the first file.
+	*/
+	public boolean isInFile1 ()
+	{
+		return __inFile1;
+	}
+
+	/**
+	Indicate whether the station is in the second file.
+	*/
+	public boolean isInFile2 ()
+	{
+		return __inFile2;
+	}
+}
+
+/**
+Lines for one year (monthly) or year and month (daily), or the end of a file.
+*/
+private static class Block
+{
+	Header header;
+	int year;
+	int month;
+	List<String> ids = new ArrayList<String>();
+	List<double[]> values = new ArrayList<double[]>();
+	boolean end = false;
+	Exception error = null;
+}
+
+/**
+Header information for a file.
+*/
+private static class Header
+{
+	int month1;
+	int year1;
+	int month2;
+	int year2;
+	String units;
+	String yearType;
+}
+
+/**
+Reads one file and puts blocks in a queue.
+*/
+private class BlockReader extends Thread
+{
+	private BufferedReader __in;
+	private BlockingQueue<Block> __queue;
+	private String __filename;
+	private Header __header;
+
+	BlockReader ( BufferedReader in, String filename, Header header, BlockingQueue<Block> queue )
+	{
+		__in = in;
+		__filename = filename;
+		__header = header;
+		__queue = queue;
+		setDaemon ( true );
+		setName ( "StateMod_TS_FileComparison " + filename );
+	}
+
+	public void run ()
+	{
+		Block block = null;
+		try {
+			String line;
+			while ( (line = __in.readLine()) != null ) {
+				if ( line.startsWith("#") || (line.trim().length() == 0) ) {
+					continue;
+				}
+				int year;
+				int month = 0;
+				String id;
+				double [] values;
+				if ( __interval == TimeInterval.DAY ) {
+					year = parseInt ( line, 0, 4 );
+					month = parseInt ( line, 4, 8 );
+					id = substring ( line, 9, 21 ).trim();
+					values = parseValues ( line, 21, 31 );
+				}
+				else {
+					year = parseInt ( line, 0, 5 );
+					id = substring ( line, 5, 17 ).trim();
+					values = parseValues ( line, 17, 12 );
+				}
+				if ( (block != null) && ((block.year != year) || (block.month != month)) ) {
+					__queue.put ( block );
+					block = null;
+				}
+				if ( block == null ) {
+					block = new Block();
+					block.header = __header;
+					block.year = year;
+					block.month = month;
+				}
+				block.ids.add ( id );
+				block.values.add ( values );
+			}
+			if ( block != null ) {
+				__queue.put ( block );
+			}
+			block = new Block();
+			block.end = true;
+			__queue.put ( block );
+		}
+		catch ( InterruptedException e ) {
+			// Comparison was stopped
+		}
+		catch ( Exception e ) {
+			Block errorBlock = new Block();
+			errorBlock.end = true;
+			errorBlock.error = new Exception ( "Error reading \"" + __filename + "\" (" + e + ").", e );
+			try {
+				__queue.put ( errorBlock );
+			}
+			catch ( InterruptedException e2 ) {
+				// Comparison was cancelled
+			}
+		}
+		finally {
+			try {
+				__in.close();
+			}
+			catch ( IOException e ) {
+				// Ignore
+			}
+		}
+	}
+}
+
+/**
+Number of blocks that each reader can get ahead of the comparison.
+*/
+private static final int __QUEUE_SIZE = 4;
+
+/**
+The files to compare.
+*/
+private String __filename1;
+private String __filename2;
+
+/**
+File interval, TimeInterval.DAY or TimeInterval.MONTH.
+*/
+private int __interval;
+
+/**
+Headers for the files.
+*/
+private Header __header1 = null;
+private Header __header2 = null;
+
+/**
+Absolute tolerance.
+*/
+private double __absoluteTolerance = 0.0;
+
+/**
+Relative tolerance (fraction of the larger absolute value).
+*/
+private double __relativeTolerance = 0.0;
+
+/**
+Results for each station, in the order that stations were found.
+*/
+private Map<String,StationDifference> __stations = new LinkedHashMap<String,StationDifference>();
+
+/**
+Number of blocks that were only in one file.
+*/
+private int __unmatchedBlockCount = 0;
+
+/**
+Create a comparison for two files.
+@param filename1 the first file (the IOUtil.getPathUsingWorkingDir() method is applied)
+@param filename2 the second file (the IOUtil.getPathUsingWorkingDir() method is applied)
+*/
+public StateMod_TS_FileComparison ( String filename1, String filename2 )
+{
+	__filename1 = IOUtil.getPathUsingWorkingDir ( filename1 );
+	__filename2 = IOUtil.getPathUsingWorkingDir ( filename2 );
+}
+
+/**
+Compare the files.  The results are available from getStationDifferences() and formatReport().
+@exception Exception if the files cannot be read, have different intervals, or are monthly files with
+different year types
+*/
+public void compare ()
+throws Exception
+{
+	String routine = "StateMod_TS_FileComparison.compare";
+	__stations.clear();
+	__unmatchedBlockCount = 0;
+	int interval1 = StateMod_TS.getFileDataInterval ( __filename1 );
+	int interval2 = StateMod_TS.getFileDataInterval ( __filename2 );
+	if ( ((interval1 != TimeInterval.DAY) && (interval1 != TimeInterval.MONTH)) || (interval1 != interval2) ) {
+		throw new Exception ( "Files must both be monthly or daily StateMod time series files." );
+	}
+	__interval = interval1;
+	BufferedReader in1 = new BufferedReader ( new FileReader(__filename1) );
+	BufferedReader in2 = null;
+	try {
+		__header1 = readHeader ( in1, __filename1 );
+		in2 = new BufferedReader ( new FileReader(__filename2) );
+		__header2 = readHeader ( in2, __filename2 );
+		if ( (__interval == TimeInterval.MONTH) && (__header1.month1 != __header2.month1) ) {
+			throw new Exception ( "Monthly files must have the same year type - \"" + __filename1 + "\" has \"" +
+				__header1.yearType + "\" and \"" + __filename2 + "\" has \"" + __header2.yearType + "\"." );
+		}
+	}
+	catch ( Exception e ) {
+		in1.close();
+		if ( in2 != null ) {
+			in2.close();
+		}
+		throw e;
+	}
+	BlockingQueue<Block> queue1 = new ArrayBlockingQueue<Block>(__QUEUE_SIZE);
+	BlockingQueue<Block> queue2 = new ArrayBlockingQueue<Block>(__QUEUE_SIZE);
+	BlockReader reader1 = new BlockReader ( in1, __filename1, __header1, queue1 );
+	BlockReader reader2 = new BlockReader ( in2, __filename2, __header2, queue2 );
+	reader1.start();
+	reader2.start();
+	try {
+		Block block1 = next ( queue1 );
+		Block block2 = next ( queue2 );
+		while ( !block1.end || !block2.end ) {
+			int order;
+			if ( block1.end ) {
+				order = 1;
+			}
+			else if ( block2.end ) {
+				order = -1;
+			}
+			else if ( block1.year != block2.year ) {
+				order = (block1.year < block2.year) ? -1 : 1;
+			}
+			else {
+				order = (block1.month < block2.month) ? -1 : ((block1.month > block2.month) ? 1 : 0);
+			}
+			if ( order == 0 ) {
+				compareBlocks ( block1, block2 );
+				block1 = next ( queue1 );
+				block2 = next ( queue2 );
+			}
+			else if ( order < 0 ) {
+				compareBlocks ( block1, null );
+				block1 = next ( queue1 );
+			}
+			else {
+				compareBlocks ( null, block2 );
+				block2 = next ( queue2 );
+			}
+		}
+	}
+	finally {
+		// Stop the readers if the comparison did not complete
+		reader1.interrupt();
+		reader2.interrupt();
+	}
+	Message.printStatus ( 2, routine, "Compared " + __stations.size() + " stations in \"" + __filename1 +
+		"\" and \"" + __filename2 + "\"." );
+}
+
+/**
+Compare the lines in two blocks for the same year (and month).  One of the blocks can be null if the year is
+only in one file.
+*/
+private void compareBlocks ( Block block1, Block block2 )
+{
+	if ( (block1 == null) || (block2 == null) ) {
+		++__unmatchedBlockCount;
+	}
+	// Hash the second block by identifier, with a sequence number for repeated identifiers (e.g., *.tar files)
+	Map<String,double[]> values2 = new LinkedHashMap<String,double[]>();
+	if ( block2 != null ) {
+		Map<String,Integer> occurrences = new LinkedHashMap<String,Integer>();
+		for ( int i = 0; i < block2.ids.size(); i++ ) {
+			values2.put ( getKey(block2.ids.get(i), occurrences), block2.values.get(i) );
+		}
+	}
+	if ( block1 != null ) {
+		Map<String,Integer> occurrences = new LinkedHashMap<String,Integer>();
+		for ( int i = 0; i < block1.ids.size(); i++ ) {
+			String key = getKey ( block1.ids.get(i), occurrences );
+			compareValues ( key, block1, block1.values.get(i), block2, values2.remove(key) );
+		}
+	}
+	for ( Map.Entry<String,double[]> entry : values2.entrySet() ) {
+		compareValues ( entry.getKey(), block1, null, block2, entry.getValue() );
+	}
+}
+
+/**
+Compare the values for a station in a block.  Dates are formatted using the header of the first file, or the
+second file if the station is not in the first file for the block.
+@param block1 block from the first file, or null if the year (and month) is only in the second file
+@param values1 values from the first file, or null if not in the first file
+@param block2 block from the second file, or null if the year (and month) is only in the first file
+@param values2 values from the second file, or null if not in the second file
+*/
+private void compareValues ( String key, Block block1, double [] values1, Block block2, double [] values2 )
+{
+	Block block = (values1 != null) ? block1 : block2;
+	StationDifference station = __stations.get ( key );
+	if ( station == null ) {
+		station = new StationDifference ( key );
+		__stations.put ( key, station );
+	}
+	if ( values1 != null ) {
+		station.__inFile1 = true;
+	}
+	if ( values2 != null ) {
+		station.__inFile2 = true;
+	}
+	int count = 12;
+	if ( __interval == TimeInterval.DAY ) {
+		count = TimeUtil.numDaysInMonth ( block.month, block.year );
+	}
+	for ( int i = 0; i < count; i++ ) {
+		double value1 = (values1 == null) ? Double.NaN : values1[i];
+		double value2 = (values2 == null) ? Double.NaN : values2[i];
+		boolean missing1 = isMissing ( value1 );
+		boolean missing2 = isMissing ( value2 );
+		if ( !missing1 ) {
+			station.__total1 += value1;
+		}
+		if ( !missing2 ) {
+			station.__total2 += value2;
+		}
+		++station.__valueCount;
+		if ( missing1 && missing2 ) {
+			continue;
+		}
+		if ( missing1 || missing2 ) {
+			++station.__differentCount;
+			if ( station.__maxDifferenceDate == null ) {
+				station.__maxDifferenceDate = formatDate ( block, i );
+			}
+			continue;
+		}
+		double difference = Math.abs ( value1 - value2 );
+		if ( (difference > __absoluteTolerance) &&
+			(difference > __relativeTolerance*Math.max(Math.abs(value1), Math.abs(value2))) ) {
+			++station.__differentCount;
+			if ( (difference > station.__maxDifference) || (station.__maxDifferenceDate == null) ) {
+				station.__maxDifference = Math.max ( difference, station.__maxDifference );
+				station.__maxDifferenceDate = formatDate ( block, i );
+			}
+		}
+	}
+}
+
+/**
+Format the date for a value in a block, using calendar year and month.
+The header of the file that the block was read from is used because the files can have different periods.
+*/
+private String formatDate ( Block block, int i )
+{
+	if ( __interval == TimeInterval.DAY ) {
+		return StringUtil.formatString(block.year,"%04d") + "-" + StringUtil.formatString(block.month,"%02d") + "-" +
+			StringUtil.formatString(i + 1,"%02d");
+	}
+	// Monthly files list the year for the year type, starting with the first month in the header
+	int month0 = block.header.month1 - 1 + i;
+	int year = block.year;
+	if ( (year != 0) && (block.header.month2 < block.header.month1) ) {
+		// Not calendar year so the first months are in the previous calendar year
+		--year;
+	}
+	year += month0/12;
+	return StringUtil.formatString(year,"%04d") + "-" + StringUtil.formatString(month0%12 + 1,"%02d");
+}
+
+/**
+Format the results as a text report.
+@return the report lines
+*/
+public List<String> formatReport ()
+{
+	List<String> v = new ArrayList<String>();
+	v.add ( "First file:   " + __filename1 );
+	v.add ( "Second file:  " + __filename2 );
+	if ( (__header1 != null) && (__header2 != null) ) {
+		v.add ( "Periods:      " + __header1.month1 + "/" + __header1.year1 + " - " + __header1.month2 + "/" +
+			__header1.year2 + " and " + __header2.month1 + "/" + __header2.year1 + " - " + __header2.month2 + "/" +
+			__header2.year2 );
+		if ( !__header1.units.equalsIgnoreCase(__header2.units) ) {
+			v.add ( "Units are different:  \"" + __header1.units + "\" and \"" + __header2.units + "\"" );
+		}
+		if ( !__header1.yearType.equalsIgnoreCase(__header2.yearType) ) {
+			v.add ( "Year types are different:  \"" + __header1.yearType + "\" and \"" + __header2.yearType + "\"" );
+		}
+	}
+	v.add ( "Absolute tolerance:  " + __absoluteTolerance + "  Relative tolerance:  " + __relativeTolerance );
+	if ( __unmatchedBlockCount > 0 ) {
+		v.add ( "Number of " + ((__interval == TimeInterval.DAY) ? "months" : "years") +
+			" in only one file:  " + __unmatchedBlockCount );
+	}
+	v.add ( "" );
+	v.add ( "Station ID   | #Values | #Different | Max Difference | Max Date   | File1 Total     | File2 Total     | File2-File1" );
+	int differentStationCount = 0;
+	double total1 = 0.0;
+	double total2 = 0.0;
+	for ( StationDifference station : __stations.values() ) {
+		if ( station.getDifferentCount() > 0 ) {
+			++differentStationCount;
+		}
+		total1 += station.getTotal1();
+		total2 += station.getTotal2();
+		String id = station.getID();
+		if ( !station.isInFile1() ) {
+			id = id + " (2 only)";
+		}
+		else if ( !station.isInFile2() ) {
+			id = id + " (1 only)";
+		}
+		v.add ( StringUtil.formatString(id,"%-12.12s") + " | " +
+			StringUtil.formatString(station.getValueCount(),"%7d") + " | " +
+			StringUtil.formatString(station.getDifferentCount(),"%10d") + " | " +
+			StringUtil.formatString(station.getMaxDifference(),"%14.2f") + " | " +
+			StringUtil.formatString(((station.getMaxDifferenceDate() == null) ? "" : station.getMaxDifferenceDate()),"%-10.10s") + " | " +
+			StringUtil.formatString(station.getTotal1(),"%15.2f") + " | " +
+			StringUtil.formatString(station.getTotal2(),"%15.2f") + " | " +
+			StringUtil.formatString((station.getTotal2() - station.getTotal1()),"%15.2f") );
+	}
+	v.add ( "Total        |         |            |                |            | " +
+		StringUtil.formatString(total1,"%15.2f") + " | " + StringUtil.formatString(total2,"%15.2f") + " | " +
+		StringUtil.formatString((total2 - total1),"%15.2f") );
+	v.add ( "" );
+	v.add ( "Number of stations:  " + __stations.size() + ", with differences:  " + differentStationCount );
+	return v;
+}
+
+/**
+Return the key for a station in a block, with a sequence number appended for repeated identifiers.
+*/
+private String getKey ( String id, Map<String,Integer> occurrences )
+{
+	Integer count = occurrences.get ( id );
+	if ( count == null ) {
+		occurrences.put ( id, Integer.valueOf(1) );
+		return id;
+	}
+	occurrences.put ( id, Integer.valueOf(count.intValue() + 1) );
+	return id + "#" + (count.intValue() + 1);
+}
+
+/**
+Return the results for each station, in the order that stations were found.
+*/
+public List<StationDifference> getStationDifferences ()
+{
+	return new ArrayList<StationDifference>(__stations.values());
+}
+
+/**
+Determine whether a value is missing.
+*/
+private boolean isMissing ( double value )
+{
+	return Double.isNaN(value) || StateMod_Util.isMissing(value);
+}
+
+/**
+Return the next block from a queue, throwing the reader's exception if one occurred.
+*/
+private Block next ( BlockingQueue<Block> queue )
+throws Exception
+{
+	Block block = queue.take();
+	if ( block.error != null ) {
+		throw block.error;
+	}
+	return block;
+}
+
+/**
+Parse an integer from a fixed-width field, returning 0 if blank (e.g., no year for average files).
+*/
+private static int parseInt ( String line, int start, int end )
+{
+	String s = substring ( line, start, end ).trim();
+	if ( s.length() == 0 ) {
+		return 0;
+	}
+	return Integer.parseInt ( s );
+}
+
+/**
+Parse values from 8-character fixed-width fields, with blank or invalid values returned as NaN.
+*/
+private static double [] parseValues ( String line, int start, int count )
+{
+	double [] values = new double[count];
+	for ( int i = 0; i < count; i++ ) {
+		String s = substring ( line, start + 8*i, start + 8*(i + 1) ).trim();
+		if ( s.length() == 0 ) {
+			values[i] = Double.NaN;
+			continue;
+		}
+		try {
+			values[i] = Double.parseDouble ( s );
+		}
+		catch ( NumberFormatException e ) {
+			values[i] = Double.NaN;
+		}
+	}
+	return values;
+}
+
+/**
+Read the comments and header line of a file.
+*/
+private Header readHeader ( BufferedReader in, String filename )
+throws Exception
+{
+	String line;
+	while ( true ) {
+		line = in.readLine();
+		if ( line == null ) {
+			throw new Exception ( "No header found in \"" + filename + "\"." );
+		}
+		if ( !line.startsWith("#") && (line.trim().length() > 0) ) {
+			break;
+		}
+	}
+	// Same format as StateMod_TS.readTimeSeriesList(), including the work-around for non-standard headers
+	String format = "i5x1i4x5i5x1i4s5s5";
+	if ( (line.length() > 3) && (line.charAt(3) == '/') ) {
+		format = "i3x1i4x5i5x1i4s5s5";
+	}
+	List<Object> v = StringUtil.fixedRead ( line, format );
+	Header header = new Header();
+	header.month1 = ((Integer)v.get(0)).intValue();
+	header.year1 = ((Integer)v.get(1)).intValue();
+	header.month2 = ((Integer)v.get(2)).intValue();
+	header.year2 = ((Integer)v.get(3)).intValue();
+	header.units = ((String)v.get(4)).trim();
+	header.yearType = ((String)v.get(5)).trim();
+	return header;
+}
+
+/**
+Set the absolute tolerance (default 0).  Values are different if the absolute difference exceeds this value
+and the relative tolerance.
+*/
+public void setAbsoluteTolerance ( double absoluteTolerance )
+{
+	__absoluteTolerance = absoluteTolerance;
+}
+
+/**
+Set the relative tolerance as a fraction of the larger absolute value (default 0).  Values are different if
+the difference exceeds this fraction and the absolute tolerance.
+*/
+public void setRelativeTolerance ( double relativeTolerance )
+{
+	__relativeTolerance = relativeTolerance;
+}
+
+/**
+Return a substring of a fixed-width line, allowing for short lines.
+*/
+private static String substring ( String line, int start, int end )
+{
+	int length = line.length();
+	if ( start >= length ) {
+		return "";
+	}
+	return line.substring ( start, Math.min(end, length) );
+}
+
+}
@@ -25,7 +25,9 @@ package DWR.StateMod;
 
 import java.io.File;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Vector;
 
 import javax.swing.JFrame;
@@ -506,6 +508,28 @@ public static List<String> arrayToList(String[] array) {
 	return v;
 }
 
+/**
+Compare two StateMod time series files (monthly or daily) and return a report with, for each station,
+the number of values that differ, the maximum difference, and totals.  The files are compared one year
+(or month for daily files) at a time without reading the full files into memory.
+See StateMod_TS_FileComparison for details.
+@param path1 Path to first file.
+@param path2 Path to second file.
+@param absoluteTolerance values are different if the absolute difference is greater than this value...
+@param relativeTolerance ...and the difference is greater than this fraction of the larger absolute value.
+@return the lines of the comparison report.
+@exception Exception if the files cannot be compared.
+*/
+public static List<String> compareTimeSeriesFiles ( String path1, String path2,
+	double absoluteTolerance, double relativeTolerance )
+throws Exception
+{	StateMod_TS_FileComparison comparison = new StateMod_TS_FileComparison ( path1, path2 );
+	comparison.setAbsoluteTolerance ( absoluteTolerance );
+	comparison.setRelativeTolerance ( relativeTolerance );
+	comparison.compare();
+	return comparison.formatReport();
+}
+
 // TODO SAM 2004-09-07 JTS needs to javadoc.
 public static double calculateTimeSeriesDifference(TS ts1, TS ts2, boolean percent) 
 throws Exception
@@ -632,6 +656,18 @@ public static String[] checkForMissingValues( String[] data )
 	return data;
 }
 
+/**
+Compare two data sets and generate a summary of the differences for all station, right, and time series
+components.  See StateMod_DataSetComparisonEngine for details.
+@param dataset1 First data set.
+@param dataset2 Second data set.
+@return the lines of the comparison report.
+*/
+public static List<String> compareDataSets ( StateMod_DataSet dataset1, StateMod_DataSet dataset2 )
+{	StateMod_DataSetComparisonEngine engine = new StateMod_DataSetComparisonEngine ( dataset1, dataset2 );
+	return StateMod_DataSetComparisonEngine.formatReport ( engine.compare() );
+}
+
 // TODO SAM 2005-03-03 This simple test needs to be evaluated to determine
 // if it should be supported in all the file types.  For example, this code
 // could be moved to each StateMod class.
@@ -1478,7 +1514,6 @@ create the time series header information.
 @return a list of time series created from a list of water rights.
 @exception Exception if there is an error
 */
-@SuppressWarnings("unchecked")
 public static <T extends TS> List<T> createWaterRightTimeSeriesList ( List<? extends StateMod_Right> smrights,
 		int interval_base, int spatial_aggregation, int parcel_year,
 		boolean include_dataset_totals,
@@ -1488,6 +1523,32 @@ public static <T extends TS> List<T> createWaterRightTimeSeriesList ( List<? ext
 		DateTime FreeWaterAppropriationDate_DateTime,
 		boolean process_data )
 throws Exception
+{	return createWaterRightTimeSeriesList ( smrights, interval_base, spatial_aggregation, parcel_year,
+		include_dataset_totals, OutputStart_DateTime, OutputEnd_DateTime, FreeWaterAdministrationNumber_double,
+		FreeWaterMethod, FreeWaterAppropriationDate_DateTime, process_data, false );
+}
+
+/**
+Create a list of time series from a list of water rights.  A non-null list is guaranteed.
+See the overloaded version for a description of parameters.
+When time series are created for locations or parcels with DAY, MONTH, or YEAR interval, the decree change
+points are collected for each time series and the cumulative decree is filled in one pass using
+StateMod_WaterRightTSEngine, rather than adding each decree to the end of the period.
+@param parallel If true, fill the location or parcel time series in parallel (one thread per available
+processor).  The results are the same as filling the time series sequentially.
+@return a list of time series created from a list of water rights.
+@exception Exception if there is an error
+*/
+@SuppressWarnings("unchecked")
+public static <T extends TS> List<T> createWaterRightTimeSeriesList ( List<? extends StateMod_Right> smrights,
+		int interval_base, int spatial_aggregation, int parcel_year,
+		boolean include_dataset_totals,
+		DateTime OutputStart_DateTime, DateTime OutputEnd_DateTime,
+		double FreeWaterAdministrationNumber_double,
+		String FreeWaterMethod,
+		DateTime FreeWaterAppropriationDate_DateTime,
+		boolean process_data, boolean parallel )
+throws Exception
 {	String routine = "StateMod_Util.createWaterRightTimeSeriesList";
 	Message.printStatus ( 2, routine, "Creating time series of water rights for requested period " +
 			OutputStart_DateTime + " to " + OutputEnd_DateTime );	
@@ -1518,7 +1579,6 @@ throws Exception
 	boolean need_to_create_ts;	// Indicate whether new TS needed
 	String tsid = null;	// Time series identifier
 	String id = null;	// ID part of tsid
-	int pos = 0;		// Position of time series in list
 	String adminnum_String = null;
 	double adminnum_double;
 	StateMod_AdministrationNumber adminnum = null;
@@ -1560,16 +1620,29 @@ throws Exception
 	int status = 0;	// Used for error handling
 	int onoff;	// On/off switch for the right
 	int free_right_count; // count of free water rights at location
+	// Index the rights once rather than searching all rights for each location.
+	StateMod_RightsIndex<StateMod_Right> rightsIndex = new StateMod_RightsIndex<StateMod_Right>(smrights);
+	// Time series for each location or parcel, to avoid searching the time series list for each right.
+	HashMap<String,T> tsMap = new HashMap<String,T>();
+	String tsKey = null;
+	// Appropriation dates for the rights at the location, to avoid processing the administration number twice.
+	DateTime [] loc_decree_DateTimes = null;
+	// Engine to accumulate decree change points for location and parcel totals, filled after all rights are processed.
+	StateMod_WaterRightTSEngine tsEngine = null;
+	if ( process_data && ((spatial_aggregation == BYLOC) || (spatial_aggregation == BYPARCEL)) &&
+		StateMod_WaterRightTSEngine.isIntervalSupported(interval_base) ) {
+		tsEngine = new StateMod_WaterRightTSEngine ( interval_base );
+	}
 	// Process the list of locations.
 	for ( int iloc = 0; iloc < loc_size; iloc++ ) {
 		loc_id = loc_Vector.get(iloc);
 		Message.printStatus ( 2, routine, "Processing location \"" + loc_id + "\"");
 		if ( spatial_aggregation == BYPARCEL ) {
-			loc_rights = getWaterRightsForParcel ( smrights, loc_id, parcel_year );
+			loc_rights = rightsIndex.getWaterRightsForParcel ( loc_id, parcel_year );
 		}
 		else {
 		    // Process by location or individual rights...
-			loc_rights = getWaterRightsForLocation ( smrights, loc_id, parcel_year );
+			loc_rights = rightsIndex.getWaterRightsForLocation ( loc_id, parcel_year );
 		}
 		size = 0;
 		if ( loc_rights != null ) {
@@ -1580,6 +1653,7 @@ throws Exception
 		min_DateTime = null;	// Initialize
 		max_DateTime = null;
 		free_right_count = 0;
+		loc_decree_DateTimes = new DateTime[size];
 		if ( (spatial_aggregation == BYLOC) || (spatial_aggregation == BYPARCEL) ) {
 			for ( int i = 0; i < size; i++ ) {
 				smright = loc_rights.get(i);
@@ -1590,6 +1664,7 @@ throws Exception
 				adminnum_double = StringUtil.atod(adminnum_String);
 				adminnum = new StateMod_AdministrationNumber ( adminnum_double );
 				decree_DateTime = new DateTime(adminnum.getAppropriationDate());
+				loc_decree_DateTimes[i] = decree_DateTime;
 				if ( (min_DateTime == null) || decree_DateTime.lessThan(min_DateTime) ) {
 					min_DateTime = decree_DateTime;
 				}
@@ -1638,38 +1713,35 @@ throws Exception
 					}
 				}
 			}
+			else if ( loc_decree_DateTimes[i] != null ) {
+				// Decree date was determined above when getting the period for the location...
+				decree_DateTime = loc_decree_DateTimes[i];
+			}
 			else {
 			    // Process the admin number to get the decree date...
 				adminnum = new StateMod_AdministrationNumber ( adminnum_double );
 				decree_DateTime = new DateTime(adminnum.getAppropriationDate());
 			}
-			// TODO SAM 2007-05-16 Can optimize by saving instances above in memory
-			// so they don't need to be recreated.
 			need_to_create_ts = false;
+			tsKey = null;
 			if ( spatial_aggregation == BYLOC ) {
-				// Search for the location in the time series list.
+				// Search for the location in the time series that have been created.
 				// If found, add to the time series.  Otherwise, create a new time series.
-				pos = TSUtil.indexOf ( tslist, smright.getLocationIdentifier(), "Location", 1 );
-				if ( pos >= 0 ) {
-					// Will add to the matched right
-					ts = tslist.get(pos);
-				}
-				else {
+				tsKey = smright.getLocationIdentifier().toUpperCase(Locale.US);
+				ts = tsMap.get ( tsKey );
+				if ( ts == null ) {
 				    // Need to create a new total right.
 					id = smright.getLocationIdentifier();
 					need_to_create_ts = true;
 				}
 			}
 			else if ( spatial_aggregation == BYPARCEL ) {
-				// Search for the location in the time series list.
+				// Search for the parcel in the time series that have been created.
 				// If found, add to the time series.  Otherwise, create a new time series.
 				smwellright = (StateMod_WellRight)smright;
-				pos = TSUtil.indexOf ( tslist, smwellright.getParcelID(), "Location", 1 );
-				if ( pos >= 0 ) {
-					// Will add to the matched right
-					ts = tslist.get(pos);
-				}
-				else {
+				tsKey = smwellright.getParcelID().toUpperCase(Locale.US);
+				ts = tsMap.get ( tsKey );
+				if ( ts == null ) {
 				    // Need to create a new total right.
 					id = smwellright.getParcelID();
 					need_to_create_ts = true;
@@ -1785,6 +1857,9 @@ throws Exception
 				}
 				// No need to allocate space for irregular.  Add the time series to the list...
 				tslist.add ( ts );
+				if ( tsKey != null ) {
+					tsMap.put ( tsKey, ts );
+				}
 			}
 			// Now add to the right.  If daily, add to each time step.
 			if ( process_data ) {
@@ -1803,6 +1878,8 @@ throws Exception
 					if ( onoff > decree_DateTime.getYear() ) {
 						Message.printStatus(2,"", "Resetting decree year from " +
 								decree_DateTime.getYear() + " to on/off " + onoff );
+						// Copy because the date may be shared with the location period or other rights
+						decree_DateTime = new DateTime ( decree_DateTime );
 						decree_DateTime.setYear( onoff );
 					}
 				}
@@ -1818,8 +1895,14 @@ throws Exception
 					if ( (spatial_aggregation == BYLOC) || (spatial_aggregation == BYPARCEL)) {
 						if ( decree > 0.0 ) {
 							Message.printStatus(2,"", "Adding constant decree " + decree + " starting in " + decree_DateTime + " to " + ts.getDate2());
-							TSUtil.addConstant ( ts, decree_DateTime, ts.getDate2(), -1, decree,
+							if ( tsEngine != null ) {
+								// Save the change point and fill once after all rights are processed
+								tsEngine.addDecree ( ts, decree_DateTime, decree );
+							}
+							else {
+								TSUtil.addConstant ( ts, decree_DateTime, ts.getDate2(), -1, decree,
 									TSUtil.IGNORE_MISSING );
+							}
 						}
 					}
 					else {
@@ -1834,6 +1917,9 @@ throws Exception
 			}
 		}
 	}
+	if ( tsEngine != null ) {
+		tsEngine.fill ( parallel );
+	}
 	size = tslist.size();
 	if ( include_dataset_totals && (size > 0) ) {
 		// Include one time series that is the sum of all other time series.
@@ -3754,48 +3840,10 @@ nodes at which the rights apply.  One or more water right can exist with the sam
 @param loc_id Location identifier to match (case-insensitive).
 @param req_parcel_year Parcel year for data or -1 to use all (only used with well rights).
 @return a list of locations for water rights, in the order found in the original list.
+To look up many locations, create a StateMod_RightsIndex once and use it for all lookups.
 */
 public static List<String> getWaterRightIdentifiersForLocation ( List<? extends StateMod_Right> smrights, String loc_id, int req_parcel_year )
-{	List<String> matchlist = new Vector<String>();	// Returned data, identifiers (not full right)
-	int size = 0;
-	if ( smrights != null ) {
-		size = smrights.size();
-	}
-	StateMod_Right right = null;
-	int parcel_year;
-	String right_id;	// Right identifier
-	int matchlist_size = 0;
-	boolean found = false; // used to indicate matching ID found
-	for ( int i = 0; i < size; i++ ) {
-		right = smrights.get(i);
-		if ( (req_parcel_year != -1) && right instanceof StateMod_WellRight ) {
-			// Allow the year to filter.
-			parcel_year = ((StateMod_WellRight)right).getParcelYear();
-			if ( parcel_year != req_parcel_year ) {
-				// No need to process right.
-				continue;
-			}
-		}
-		if ( (loc_id != null) && !loc_id.equalsIgnoreCase(right.getLocationIdentifier()) ) {
-			// Not a matching location
-			continue;
-		}
-		// If here need to add the identifier if not already in the list...
-		right_id = right.getIdentifier();
-		found = false;
-		for ( int j = 0; j < matchlist_size; j++ ) {
-			if ( right_id.equalsIgnoreCase((String)matchlist.get(j)) ) {
-				found = true;
-				break;
-			}
-		}
-		if ( !found ) {
-			// Add to the list
-			matchlist.add ( right_id );
-			matchlist_size = matchlist.size();
-		}
-	}
-	return matchlist;
+{	return new StateMod_RightsIndex<StateMod_Right>(smrights).getWaterRightIdentifiersForLocation ( loc_id, req_parcel_year );
 }
 
 /**
@@ -3805,30 +3853,10 @@ Get a list of water rights for a location.  The locations are the nodes at which
 requested parcel year.
 @param req_parcel_year Parcel year for data or -1 to use all (only used with well rights).
 @return a list of locations for water rights, in the order found in the original list.
+To look up many locations, create a StateMod_RightsIndex once and use it for all lookups.
 */
 public static <T extends StateMod_Right> List<T> getWaterRightsForLocation ( List<T> smrights, String loc_id, int req_parcel_year )
-{	List<T> matchlist = new Vector<T>();	// Returned data
-	int size = 0;
-	if ( smrights != null ) {
-		size = smrights.size();
-	}
-	T right = null;
-	int parcel_year;
-	for ( int i = 0; i < size; i++ ) {
-		right = smrights.get(i);
-		if ( (req_parcel_year != -1) && right instanceof StateMod_WellRight ) {
-			// Allow the year to filter.
-			parcel_year = ((StateMod_WellRight)right).getParcelYear();
-			if ( parcel_year != req_parcel_year ) {
-				// No need to process right.
-				continue;
-			}
-		}
-		if ( (loc_id == null) || loc_id.equalsIgnoreCase(right.getLocationIdentifier()) ) {
-			matchlist.add ( right );
-		}
-	}
-	return matchlist;
+{	return new StateMod_RightsIndex<T>(smrights).getWaterRightsForLocation ( loc_id, req_parcel_year );
 }
 
 /**
@@ -3877,29 +3905,10 @@ Get a list of water rights for a parcel.
 @param parcel_id Parcel identifier to match (case-insensitive).
 @param req_parcel_year Parcel year for data or -1 to use all.
 @return a list of water rights for the parcel, in the order found in the original list.
+To look up many parcels, create a StateMod_RightsIndex once and use it for all lookups.
 */
 public static List<StateMod_Right> getWaterRightsForParcel ( List<? extends StateMod_Right> smrights, String parcel_id, int req_parcel_year )
-{	List<StateMod_Right> matchlist = new Vector<StateMod_Right>();	// Returned data
-	int size = 0;
-	if ( smrights != null ) {
-		size = smrights.size();
-	}
-	StateMod_Right right = null;
-	StateMod_WellRight wellright = null;
-	for ( int i = 0; i < size; i++ ) {
-		right = smrights.get(i);
-		if ( right instanceof StateMod_WellRight ) {
-			wellright = (StateMod_WellRight)right;
-			if ( (req_parcel_year != -1) && (wellright.getParcelYear() != req_parcel_year) ) {
-				// No need to process right.
-				continue;
-			}
-			if ( parcel_id.equalsIgnoreCase(wellright.getParcelID()) ) {
-				matchlist.add ( wellright );
-			}
-		}
-	}
-	return matchlist;
+{	return new StateMod_RightsIndex<StateMod_Right>(smrights).getWaterRightsForParcel ( parcel_id, req_parcel_year );
 }
 
 /**
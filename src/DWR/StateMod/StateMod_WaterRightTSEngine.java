@@ -0,0 +1,313 @@
+// StateMod_WaterRightTSEngine - fill step-function water right time series from decree change points
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2025 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import RTi.TS.TS;
+import RTi.Util.Time.DateTime;
+import RTi.Util.Time.TimeInterval;
+
+/**
+Fill water right time series (step functions of cumulative decree) from decree change points.
+Each water right contributes its decree from its (possibly adjusted) appropriation date to the end of the
+time series.  Rather than adding a constant to the time series for each right, the change points for all
+time series are saved as primitive date keys and decrees.  When filled, all change points are sorted once
+by date, which is the order of the administration numbers, and are then distributed to their time series in
+that order, so that the change points for a time series do not need to be sorted again.  The decrees for each
+time series are accumulated in a primitive array of time steps and the cumulative decree is written in a single
+pass through the time series period.  The result is the same as adding each decree with
+TSUtil.addConstant(...,TSUtil.IGNORE_MISSING) from the change date to the end of the period,
+including leaving missing values unchanged.
+Time series can optionally be filled in parallel, one time series per task, because each time series is only
+modified by one task.
+This class is intended to be used by StateMod_Util.createWaterRightTimeSeriesList() for DAY, MONTH, and YEAR
+time series that were allocated with zero values.
+*/
+public class StateMod_WaterRightTSEngine
+{
+
+/**
+Time series interval base, TimeInterval.DAY, MONTH, or YEAR.
+*/
+private int __intervalBase;
+
+/**
+Time series in the order that they were first added.
+*/
+private List<TS> __tslist = new ArrayList<TS>();
+
+/**
+Position of each time series in __tslist.
+*/
+private Map<TS,Integer> __tsPositions = new IdentityHashMap<TS,Integer>();
+
+/**
+Time series position for each change point.
+*/
+private int [] __tsIndices = new int[16];
+
+/**
+Date keys for the change points (see getDateKey()).
+*/
+private int [] __keys = new int[16];
+
+/**
+Decree added at each change point.
+*/
+private double [] __decrees = new double[16];
+
+/**
+Number of change points.
+*/
+private int __count = 0;
+
+/**
+Create an engine.
+@param intervalBase interval base for the time series, TimeInterval.DAY, MONTH, or YEAR.
+@exception IllegalArgumentException if the interval is not supported.
+*/
+public StateMod_WaterRightTSEngine ( int intervalBase )
+{
+	if ( !isIntervalSupported(intervalBase) ) {
+		throw new IllegalArgumentException ( "Interval " + intervalBase + " is not supported for water right time series." );
+	}
+	__intervalBase = intervalBase;
+}
+
+/**
+Add a decree that starts on a date and continues to the end of the time series.
+@param ts the time series to receive the decree
+@param start the date when the decree starts
+@param decree the decree to add
+*/
+public void addDecree ( TS ts, DateTime start, double decree )
+{
+	Integer pos = __tsPositions.get ( ts );
+	if ( pos == null ) {
+		pos = Integer.valueOf ( __tslist.size() );
+		__tsPositions.put ( ts, pos );
+		__tslist.add ( ts );
+	}
+	if ( __count == __keys.length ) {
+		int capacity = 2*__count;
+		__tsIndices = Arrays.copyOf ( __tsIndices, capacity );
+		__keys = Arrays.copyOf ( __keys, capacity );
+		__decrees = Arrays.copyOf ( __decrees, capacity );
+	}
+	__tsIndices[__count] = pos.intValue();
+	__keys[__count] = getDateKey ( start );
+	__decrees[__count] = decree;
+	++__count;
+}
+
+/**
+Fill all of the time series with the cumulative decrees.
+@param parallel if true, fill the time series using one thread per available processor
+*/
+public void fill ( boolean parallel )
+{
+	final int size = __tslist.size();
+	// Sort all of the change points by date, using the index in the low bits to find the change point.
+	// Equal dates remain in the order that the change points were added.
+	long [] order = new long[__count];
+	for ( int i = 0; i < __count; i++ ) {
+		order[i] = (((long)__keys[i]) << 32) | i;
+	}
+	Arrays.sort ( order );
+	// Distribute the sorted change points to the time series.  Each time series receives its change points
+	// in date order, positioned from starts[its] to starts[its + 1] in the sorted array.
+	final int [] starts = new int[size + 1];
+	for ( int i = 0; i < __count; i++ ) {
+		++starts[__tsIndices[i] + 1];
+	}
+	for ( int its = 0; its < size; its++ ) {
+		starts[its + 1] += starts[its];
+	}
+	final int [] sorted = new int[__count];
+	int [] next = Arrays.copyOf ( starts, size );
+	for ( int i = 0; i < __count; i++ ) {
+		int point = (int)(order[i] & 0xffffffffL);
+		sorted[next[__tsIndices[point]]++] = point;
+	}
+	int threadCount = Math.min ( size, Runtime.getRuntime().availableProcessors() );
+	if ( !parallel || (threadCount < 2) ) {
+		for ( int its = 0; its < size; its++ ) {
+			fill ( __tslist.get(its), sorted, starts[its], starts[its + 1] );
+		}
+		return;
+	}
+	ExecutorService executor = Executors.newFixedThreadPool ( threadCount );
+	try {
+		List<Future<Object>> futures = new ArrayList<Future<Object>>(size);
+		for ( int its = 0; its < size; its++ ) {
+			final TS ts = __tslist.get(its);
+			final int start = starts[its];
+			final int end = starts[its + 1];
+			futures.add ( executor.submit ( new Callable<Object>() {
+				public Object call ()
+				{
+					fill ( ts, sorted, start, end );
+					return null;
+				}
+			}));
+		}
+		for ( Future<Object> future : futures ) {
+			future.get();
+		}
+	}
+	catch ( InterruptedException e ) {
+		Thread.currentThread().interrupt();
+		throw new RuntimeException ( "Filling water right time series was interrupted.", e );
+	}
+	catch ( ExecutionException e ) {
+		throw new RuntimeException ( "Error filling water right time series (" + e.getCause() + ").", e.getCause() );
+	}
+	finally {
+		executor.shutdownNow();
+	}
+}
+
+/**
+Fill one time series with the cumulative decree.
+@param ts the time series to fill
+@param sorted change point indices, in date order for each time series
+@param start the first position in sorted for the time series
+@param end one past the last position in sorted for the time series
+*/
+private void fill ( TS ts, int [] sorted, int start, int end )
+{
+	DateTime date1 = ts.getDate1();
+	DateTime date2 = ts.getDate2();
+	if ( (date1 == null) || (date2 == null) || (start == end) ) {
+		return;
+	}
+	int intervalMult = Math.max ( 1, ts.getDataIntervalMult() );
+	int step1 = getStep ( getDateKey(date1) );
+	int nsteps = (getStep(getDateKey(date2)) - step1)/intervalMult + 1;
+	if ( nsteps <= 0 ) {
+		return;
+	}
+	// Add the decrees at the first time step on or after each change point
+	double [] increments = new double[nsteps];
+	for ( int i = start; i < end; i++ ) {
+		int point = sorted[i];
+		int diff = getStep(__keys[point]) - step1;
+		int pos = (diff <= 0) ? 0 : (diff + intervalMult - 1)/intervalMult;
+		if ( pos < nsteps ) {
+			increments[pos] += __decrees[point];
+		}
+	}
+	// Write the cumulative decree in one pass
+	DateTime date = new DateTime ( date1 );
+	double sum = 0.0;
+	double value;
+	for ( int i = 0; i < nsteps; i++, date.addInterval(__intervalBase,intervalMult) ) {
+		sum += increments[i];
+		if ( sum != 0.0 ) {
+			value = ts.getDataValue ( date );
+			// Consistent with TSUtil.IGNORE_MISSING, missing values are not changed
+			if ( !ts.isDataMissing(value) ) {
+				ts.setDataValue ( date, value + sum );
+			}
+		}
+	}
+}
+
+/**
+Return a key for a date at the precision of the time series, which sorts in date order.
+*/
+private int getDateKey ( DateTime date )
+{
+	if ( __intervalBase == TimeInterval.DAY ) {
+		return date.getYear()*10000 + date.getMonth()*100 + date.getDay();
+	}
+	else if ( __intervalBase == TimeInterval.MONTH ) {
+		return date.getYear()*100 + date.getMonth();
+	}
+	else {
+		return date.getYear();
+	}
+}
+
+/**
+Return the day number for a date, counting from 1970-01-01, used to determine the number of days between dates.
+*/
+private static int getDayNumber ( int year, int month, int day )
+{
+	// Days from the civil calendar, using a year that starts in March so that leap days are at the end
+	int y = (month <= 2) ? (year - 1) : year;
+	int era = ((y >= 0) ? y : (y - 399))/400;
+	int yearOfEra = y - era*400;
+	int dayOfYear = (153*(month + ((month > 2) ? -3 : 9)) + 2)/5 + day - 1;
+	int dayOfEra = yearOfEra*365 + yearOfEra/4 - yearOfEra/100 + dayOfYear;
+	return era*146097 + dayOfEra - 719468;
+}
+
+/**
+Return the number of intervals from a fixed origin to a date key, used to position change points in the
+time series period.
+*/
+private int getStep ( int key )
+{
+	if ( __intervalBase == TimeInterval.DAY ) {
+		return getDayNumber ( key/10000, (key/100)%100, key%100 );
+	}
+	else if ( __intervalBase == TimeInterval.MONTH ) {
+		return (key/100)*12 + key%100 - 1;
+	}
+	else {
+		return key;
+	}
+}
+
+/**
+Return the number of time series that have decrees.
+*/
+public int getTimeSeriesCount ()
+{
+	return __tslist.size();
+}
+
+/**
+Indicate whether an interval is supported by the engine.
+@param intervalBase interval base for the time series
+@return true if the interval is TimeInterval.DAY, MONTH, or YEAR
+*/
+public static boolean isIntervalSupported ( int intervalBase )
+{
+	return (intervalBase == TimeInterval.DAY) || (intervalBase == TimeInterval.MONTH) ||
+		(intervalBase == TimeInterval.YEAR);
+}
+
+}
@@ -333,6 +333,16 @@ Performs data checks for the capacity portion of this component.
 @return String[] array of data that has been checked.  Returns null if there were no problems found.
  */
 public String[] checkComponentData_Capacity( List<StateMod_WellRight> wer_Vector, int count )
+{
+	return checkComponentData_Capacity ( new StateMod_RightsIndex<StateMod_WellRight>(wer_Vector), count );
+}
+
+/**
+Performs data checks for the capacity portion of this component.
+@param rightsIndex index of water rights, which should be created once when checking many wells.
+@return String[] array of data that has been checked.  Returns null if there were no problems found.
+ */
+public String[] checkComponentData_Capacity( StateMod_RightsIndex<StateMod_WellRight> rightsIndex, int count )
 {
 	double decree;
 	double decree_sum;
@@ -342,7 +352,7 @@ public String[] checkComponentData_Capacity( List<StateMod_WellRight> wer_Vector
 	List<StateMod_WellRight> rights = null;
 	id_i = getID();
 	StateMod_WellRight wer_i = null;
-	rights = StateMod_Util.getRightsForStation ( id_i, wer_Vector );
+	rights = rightsIndex.getRightsForStation ( id_i );
 	size_rights = 0;
 	if ( rights != null ) {
 		size_rights = rights.size();
@@ -2357,7 +2367,7 @@ public StateMod_ComponentValidation validateComponent( StateMod_DataSet dataset
 	else {
 		// Verify that the river node is in the data set, if the network is available
 		if ( rinList != null ) {
-			if ( StateMod_Util.indexOf(rinList, riverID) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, rinList, riverID) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"Well \"" + id +
 					"\" river network ID (" + riverID + ") is not found in the list of river network nodes.",
 					"Specify a valid river network ID to associate the well with a river network node.") );
@@ -2379,7 +2389,7 @@ public StateMod_ComponentValidation validateComponent( StateMod_DataSet dataset
 		}
 		else if ( (wesList != null) && (wesList.size() > 0) ) {
 			// Check the diversion station list
-			if ( StateMod_Util.indexOf(wesList, dailyID) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, wesList, dailyID) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"Well \"" + id + "\" daily ID (" + dailyID +
 				") is not 0, 3, or 4 and is not found in the list of well stations.",
 				"Specify the daily ID as 0, 3, 4, or a matching well ID.") );
@@ -2402,7 +2412,7 @@ public StateMod_ComponentValidation validateComponent( StateMod_DataSet dataset
 		}
 		else if ( (ddsList != null) && (ddsList.size() > 0) ) {
 			// Check the diversion station list
-			if ( StateMod_Util.indexOf(ddsList, idvcow2) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, ddsList, idvcow2) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"Well \"" + id + "\" diversion ID (" +
 				idvcow2 + ") is not \"NA\" and is not found in the list of diversion stations.",
 				"Specify the diversion ID as \"NA\" or a matching diversion ID.") );
@@ -2466,7 +2476,7 @@ public StateMod_ComponentValidation validateComponent( StateMod_DataSet dataset
 		crtnid = ret.getCrtnid();
 		if ( rinList != null ) {
 			// Make sure that the return location is in the network list
-			if ( StateMod_Util.indexOf(rinList, crtnid) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, rinList, crtnid) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"Well \"" + id +
 					"\" return " + (i + 1) + " location (" + crtnid +
 					") is not found in the list of river network nodes.",
@@ -2490,7 +2500,7 @@ public StateMod_ComponentValidation validateComponent( StateMod_DataSet dataset
 		crtnid2 = depl.getCrtnid();
 		if ( rinList != null ) {
 			// Make sure that the return location is in the network list
-			if ( StateMod_Util.indexOf(rinList, crtnid2) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, rinList, crtnid2) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"Well \"" + id +
 					"\" depletion " + (i + 1) + " location (" + crtnid2 +
 					") is not found in the list of river network nodes.",
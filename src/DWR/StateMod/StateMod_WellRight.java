@@ -1259,6 +1259,7 @@ public void setIrtem(String irtem) {
 		if ( !_isClone && _dataset != null ) {
 			_dataset.setDirty(StateMod_DataSet.COMP_WELL_RIGHTS, true);
 		}
+		StateMod_RightsPriorityIndex.rightChanged ( this );
 	}
 }
 
@@ -1446,7 +1447,7 @@ public StateMod_ComponentValidation validateComponent( StateMod_DataSet dataset
 		@SuppressWarnings("unchecked")
 		List<StateMod_Well> wesList = (List<StateMod_Well>)comp2.getData();
 		if ( (wesList != null) && (wesList.size() > 0) ) {
-			if ( StateMod_Util.indexOf(wesList, cgoto) < 0 ) {
+			if ( !StateMod_ComponentValidationIndex.containsID(dataset, wesList, cgoto) ) {
 				validation.add(new StateMod_ComponentValidationProblem(this,"Well right \"" + id +
 					"\" associated well (" + cgoto + ") is not found in the list of well stations.",
 					"Specify a valid well station ID to associate with the well right.") );
@@ -0,0 +1,462 @@
+package DWR.StateMod;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import DWR.StateCU.StateCU_BTS;
+import RTi.TS.MonthTS;
+import RTi.TS.TS;
+import RTi.Util.IO.PropList;
+import RTi.Util.Message.Message;
+import RTi.Util.String.StringUtil;
+import RTi.Util.Time.DateTime;
+import RTi.Util.Time.TimeInterval;
+
+/**
+Benchmarks for StateMod and StateCU code that is performance-sensitive, to provide a baseline for performance work.
+Each benchmark is run for a number of warmup iterations (to allow the Java virtual machine to compile the code),
+and then for a number of measured iterations, and the mean, minimum, maximum, and standard deviation of the
+time per iteration are printed.  Synthetic data are created with StateMod_BenchmarkDataGenerator, using a fixed
+random seed.  Benchmarks that read StateMod and StateCU files that are difficult to create (binary output files,
+full data sets) are run only if the file is specified.
+Run with java DWR.StateMod.StateMod_Benchmark, with the following optional system properties (-Dname=value):
+<ul>
+<li>	benchmark.warmup - number of warmup iterations (default 3)</li>
+<li>	benchmark.iterations - number of measured iterations (default 10)</li>
+<li>	benchmark.stations - number of synthetic stations (default 2000)</li>
+<li>	benchmark.filter - only run benchmarks with names containing the string (default is to run all)</li>
+<li>	benchmark.output - CSV file to write the results, which can be used as a baseline for later runs</li>
+<li>	benchmark.baseline - CSV file written by a previous run, to print the ratio of the times to the baseline</li>
+<li>	benchmark.StateModBTS - StateMod binary output file (e.g., *.b43) to read</li>
+<li>	benchmark.StateCUBTS - StateCU binary output file (e.g., *.BD1) to read</li>
+<li>	benchmark.StateModResponse - StateMod response file (*.rsp) for a data set to read</li>
+<li>	benchmark.StateModNetwork - StateMod network file (*.net) to read</li>
+<li>	benchmark.StateModRIN - StateMod river network file (*.rin) to read and create the network</li>
+</ul>
+*/
+public class StateMod_Benchmark
+{
+
+/**
+A benchmark, which is set up once and then run repeatedly.
+*/
+private static abstract class Benchmark
+{
+	private String __name;
+
+	Benchmark ( String name )
+	{
+		__name = name;
+	}
+
+	String getName ()
+	{
+		return __name;
+	}
+
+	/**
+	Run one iteration of the benchmark.
+	@return an object derived from the result, to prevent the work from being optimized away
+	*/
+	abstract Object run () throws Exception;
+
+	/**
+	Set up data for the benchmark.  This is called once, before the warmup iterations.
+	*/
+	void setup () throws Exception
+	{
+	}
+}
+
+/**
+Results for one benchmark.
+*/
+private static class Result
+{
+	private String __name;
+	private double __meanMs;
+	private double __minMs;
+	private double __maxMs;
+	private double __stddevMs;
+
+	private Result ( String name, double [] ms )
+	{
+		__name = name;
+		__minMs = Double.MAX_VALUE;
+		__maxMs = 0.0;
+		double sum = 0.0;
+		for ( int i = 0; i < ms.length; i++ ) {
+			sum += ms[i];
+			__minMs = Math.min(__minMs, ms[i]);
+			__maxMs = Math.max(__maxMs, ms[i]);
+		}
+		__meanMs = sum/ms.length;
+		double sum2 = 0.0;
+		for ( int i = 0; i < ms.length; i++ ) {
+			sum2 += (ms[i] - __meanMs)*(ms[i] - __meanMs);
+		}
+		__stddevMs = ms.length > 1 ? Math.sqrt(sum2/(ms.length - 1)) : 0.0;
+	}
+}
+
+/**
+Hash of benchmark results, to prevent the work from being optimized away.
+*/
+private static volatile int __sink = 0;
+
+/**
+Benchmarks to run.
+*/
+private List<Benchmark> __benchmarks = new ArrayList<Benchmark>();
+
+/**
+Number of warmup and measured iterations.
+*/
+private int __warmupIterations;
+private int __iterations;
+
+/**
+Number of synthetic stations.
+*/
+private int __stations;
+
+/**
+Create the benchmarks using the configuration from system properties.
+*/
+public StateMod_Benchmark ()
+{
+	__warmupIterations = Integer.getInteger("benchmark.warmup", 3).intValue();
+	__iterations = Integer.getInteger("benchmark.iterations", 10).intValue();
+	__stations = Integer.getInteger("benchmark.stations", 2000).intValue();
+	addSyntheticBenchmarks();
+	addFileBenchmarks();
+}
+
+/**
+Add benchmarks that read files, if the files are specified.
+*/
+private void addFileBenchmarks ()
+{
+	final String stateModBTS = System.getProperty("benchmark.StateModBTS");
+	if ( stateModBTS != null ) {
+		__benchmarks.add ( new Benchmark("StateMod_BTS.readTimeSeriesList") {
+			Object run () throws Exception {
+				StateMod_BTS bts = new StateMod_BTS ( stateModBTS );
+				try {
+					return Integer.valueOf(sumTS(bts.readTimeSeriesList("*", null, null, null, true)));
+				}
+				finally {
+					bts.close();
+				}
+			}
+		});
+	}
+	final String stateCUBTS = System.getProperty("benchmark.StateCUBTS");
+	if ( stateCUBTS != null ) {
+		__benchmarks.add ( new Benchmark("StateCU_BTS.readTimeSeriesList") {
+			Object run () throws Exception {
+				StateCU_BTS bts = new StateCU_BTS ( stateCUBTS );
+				try {
+					return Integer.valueOf(sumTS(bts.readTimeSeriesList("*", null, null, null, true)));
+				}
+				finally {
+					bts.close();
+				}
+			}
+		});
+	}
+	final String response = System.getProperty("benchmark.StateModResponse");
+	if ( response != null ) {
+		__benchmarks.add ( new Benchmark("StateMod_DataSet.readStateModFile") {
+			Object run () throws Exception {
+				StateMod_DataSet dataset = new StateMod_DataSet();
+				dataset.readStateModFile ( response, true, true, false, null );
+				return dataset.getLoadMetrics() == null ? null : Integer.valueOf(dataset.getLoadMetrics().getTotalRecordCount());
+			}
+		});
+	}
+	final String network = System.getProperty("benchmark.StateModNetwork");
+	if ( network != null ) {
+		__benchmarks.add ( new Benchmark("StateMod_NodeNetwork.readStateModNetworkFile") {
+			Object run () throws Exception {
+				return StateMod_NodeNetwork.readStateModNetworkFile ( network, null, true );
+			}
+		});
+	}
+	final String rin = System.getProperty("benchmark.StateModRIN");
+	if ( rin != null ) {
+		__benchmarks.add ( new Benchmark("StateMod_RiverNetworkNode.readStateModFile+createFromStateModVector") {
+			Object run () throws Exception {
+				return StateMod_NodeNetwork.createFromStateModVector ( StateMod_RiverNetworkNode.readStateModFile(rin) );
+			}
+		});
+	}
+}
+
+/**
+Add benchmarks that use synthetic data.
+*/
+private void addSyntheticBenchmarks ()
+{
+	final StateMod_BenchmarkDataGenerator generator = new StateMod_BenchmarkDataGenerator();
+
+	// Administration numbers for rights, converted and sorted using objects and using the static key methods
+	final double [] adminNumbers = new double[__stations*100];
+	Random adminNumberGenerator = new Random ( 19580427 );
+	for ( int i = 0; i < adminNumbers.length; i++ ) {
+		adminNumbers[i] = (double)(1 + adminNumberGenerator.nextInt(60000)) +
+			(double)adminNumberGenerator.nextInt(60000)/100000.0;
+	}
+	__benchmarks.add ( new Benchmark("StateMod_AdministrationNumber objects convert+sort") {
+		Object run () {
+			StateMod_AdministrationNumber [] adminnums = new StateMod_AdministrationNumber[adminNumbers.length];
+			int yearSum = 0;
+			for ( int i = 0; i < adminNumbers.length; i++ ) {
+				adminnums[i] = new StateMod_AdministrationNumber ( adminNumbers[i] );
+				yearSum += adminnums[i].getAppropriationDate().getYear();
+			}
+			Arrays.sort ( adminnums, new Comparator<StateMod_AdministrationNumber>() {
+				public int compare ( StateMod_AdministrationNumber a, StateMod_AdministrationNumber b ) {
+					if ( a.lessThan(b) ) {
+						return -1;
+					}
+					else if ( a.greaterThan(b) ) {
+						return 1;
+					}
+					return 0;
+				}
+			});
+			return Integer.valueOf(yearSum);
+		}
+	});
+	__benchmarks.add ( new Benchmark("StateMod_AdministrationNumber.getAdminNumberKey convert+sort") {
+		Object run () {
+			long [] keys = new long[adminNumbers.length];
+			int [] ymd = new int[3];
+			int yearSum = 0;
+			for ( int i = 0; i < adminNumbers.length; i++ ) {
+				keys[i] = StateMod_AdministrationNumber.getAdminNumberKey ( adminNumbers[i] );
+				StateMod_AdministrationNumber.getYearMonthDay (
+					StateMod_AdministrationNumber.getAppropriationDayNumberFromKey(keys[i]), ymd );
+				yearSum += ymd[0];
+			}
+			Arrays.sort ( keys );
+			return Integer.valueOf(yearSum);
+		}
+	});
+
+	final List<StateMod_Diversion> diversions = generator.createDiversions ( __stations );
+	final List<StateMod_DiversionRight> rights = generator.createDiversionRights ( diversions, 5 );
+	final List<MonthTS> diversionTS = generator.createMonthTS ( diversions, "Diversion", "ACFT", 1950, 2020 );
+
+	__benchmarks.add ( new Benchmark("StateMod_Diversion.connectAllRights") {
+		Object run () {
+			for ( StateMod_Diversion div : diversions ) {
+				div.disconnectRights();
+			}
+			StateMod_Diversion.connectAllRights ( diversions, rights );
+			return Integer.valueOf(diversions.get(diversions.size() - 1).getRights().size());
+		}
+	});
+
+	__benchmarks.add ( new Benchmark("StateMod_Diversion.connectAllTS") {
+		Object run () {
+			StateMod_Diversion.connectAllTS ( diversions, diversionTS, null, diversionTS, null, null, null, null, null, null );
+			return diversions.get(diversions.size() - 1).getDiversionMonthTS();
+		}
+	});
+
+	__benchmarks.add ( new Benchmark("StateMod_TS.writeTimeSeriesList+readTimeSeriesList") {
+		private File __file;
+		void setup () throws Exception {
+			__file = File.createTempFile ( "StateMod_Benchmark", ".stm" );
+			__file.deleteOnExit();
+		}
+		Object run () throws Exception {
+			PropList props = new PropList ( "StateMod_TS" );
+			props.set ( "OutputFile", __file.getAbsolutePath() );
+			StateMod_TS.writeTimeSeriesList ( diversionTS, props );
+			return Integer.valueOf(sumTS(StateMod_TS.readTimeSeriesList(__file.getAbsolutePath(), null, null, null, true)));
+		}
+	});
+
+	final List<StateMod_RiverNetworkNode> nodes = generator.createRiverNetworkNodes ( __stations );
+	__benchmarks.add ( new Benchmark("StateMod_NodeNetwork.createFromStateModVector") {
+		Object run () {
+			return StateMod_NodeNetwork.createFromStateModVector ( nodes );
+		}
+	});
+
+	__benchmarks.add ( new Benchmark("StateMod_Util.createWaterRightTimeSeriesList") {
+		Object run () throws Exception {
+			DateTime start = DateTime.parse ( "1950-01" );
+			DateTime end = DateTime.parse ( "2020-12" );
+			List<TS> tslist = StateMod_Util.createWaterRightTimeSeriesList ( rights, TimeInterval.MONTH, 0, -1, false,
+				start, end, 99999.99999, null, null, true );
+			return Integer.valueOf(sumTS(tslist));
+		}
+	});
+
+	__benchmarks.add ( new Benchmark("StateMod_ComponentValidationEngine.validateComponents") {
+		private StateMod_DataSet __dataset;
+		void setup () {
+			__dataset = new StateMod_DataSet();
+			__dataset.getComponentForComponentType(StateMod_DataSet.COMP_DIVERSION_STATIONS).setData ( diversions );
+			__dataset.getComponentForComponentType(StateMod_DataSet.COMP_DIVERSION_RIGHTS).setData ( rights );
+		}
+		Object run () {
+			return new StateMod_ComponentValidationEngine(__dataset).validateComponents ( new int [] {
+				StateMod_DataSet.COMP_DIVERSION_STATIONS, StateMod_DataSet.COMP_DIVERSION_RIGHTS } );
+		}
+	});
+}
+
+/**
+Read a baseline file written by writeResults().
+@return the mean time for each benchmark, milliseconds
+*/
+private static Map<String,Double> readBaseline ( String filename )
+throws IOException
+{
+	Map<String,Double> baseline = new LinkedHashMap<String,Double>();
+	BufferedReader in = new BufferedReader ( new FileReader(filename) );
+	try {
+		String line;
+		while ( (line = in.readLine()) != null ) {
+			if ( line.startsWith("#") || line.startsWith("\"Benchmark\"") ) {
+				continue;
+			}
+			List<String> tokens = StringUtil.breakStringList ( line, ",", StringUtil.DELIM_ALLOW_STRINGS );
+			if ( (tokens != null) && (tokens.size() >= 2) ) {
+				baseline.put ( tokens.get(0), Double.valueOf(tokens.get(1)) );
+			}
+		}
+	}
+	finally {
+		in.close();
+	}
+	return baseline;
+}
+
+/**
+Run the benchmarks.
+@param filter only run benchmarks with names containing the string, or null to run all
+@return the results for the benchmarks that were run
+*/
+private List<Result> run ( String filter )
+throws Exception
+{
+	List<Result> results = new ArrayList<Result>();
+	for ( Benchmark benchmark : __benchmarks ) {
+		if ( (filter != null) && (benchmark.getName().indexOf(filter) < 0) ) {
+			continue;
+		}
+		benchmark.setup();
+		for ( int i = 0; i < __warmupIterations; i++ ) {
+			sink ( benchmark.run() );
+		}
+		double [] ms = new double[__iterations];
+		for ( int i = 0; i < __iterations; i++ ) {
+			long start = System.nanoTime();
+			Object o = benchmark.run();
+			ms[i] = (System.nanoTime() - start)/1000000.0;
+			sink ( o );
+		}
+		Result result = new Result ( benchmark.getName(), ms );
+		System.out.println ( benchmark.getName() + ":  mean " + StringUtil.formatString(result.__meanMs,"%.3f") +
+			" ms, min " + StringUtil.formatString(result.__minMs,"%.3f") + " ms, max " +
+			StringUtil.formatString(result.__maxMs,"%.3f") + " ms, stddev " +
+			StringUtil.formatString(result.__stddevMs,"%.3f") + " ms" );
+		results.add ( result );
+	}
+	return results;
+}
+
+/**
+Run the benchmarks, print the results, and optionally write the results and compare with a baseline.
+*/
+public static void main ( String [] args )
+throws Exception
+{
+	// Only print warnings, to avoid measuring logging
+	Message.setDebugLevel ( Message.TERM_OUTPUT, 0 );
+	Message.setStatusLevel ( Message.TERM_OUTPUT, 0 );
+	Message.setWarningLevel ( Message.TERM_OUTPUT, 1 );
+	StateMod_Benchmark benchmark = new StateMod_Benchmark();
+	System.out.println ( "Stations: " + benchmark.__stations + ", warmup iterations: " + benchmark.__warmupIterations +
+		", measured iterations: " + benchmark.__iterations );
+	List<Result> results = benchmark.run ( System.getProperty("benchmark.filter") );
+	String baselineFile = System.getProperty("benchmark.baseline");
+	if ( baselineFile != null ) {
+		Map<String,Double> baseline = readBaseline ( baselineFile );
+		System.out.println ( "Comparison with baseline \"" + baselineFile + "\" (ratio > 1 is slower):" );
+		for ( Result result : results ) {
+			Double baselineMs = baseline.get(result.__name);
+			if ( (baselineMs != null) && (baselineMs.doubleValue() > 0.0) ) {
+				System.out.println ( "    " + result.__name + ":  " +
+					StringUtil.formatString(result.__meanMs/baselineMs.doubleValue(),"%.3f") );
+			}
+		}
+	}
+	String outputFile = System.getProperty("benchmark.output");
+	if ( outputFile != null ) {
+		writeResults ( outputFile, benchmark.__stations, results );
+	}
+	System.out.println ( "Result hash (ignore): " + __sink );
+}
+
+/**
+Combine a result with the sink so that the work to create it is not optimized away.
+*/
+private static void sink ( Object o )
+{
+	__sink = 31*__sink + (o == null ? 0 : System.identityHashCode(o));
+}
+
+/**
+Return a value computed from all the data in a list of time series, so that reading the data is not optimized away.
+*/
+private static int sumTS ( List<TS> tslist )
+{
+	double sum = 0.0;
+	for ( TS ts : tslist ) {
+		for ( DateTime date = new DateTime(ts.getDate1()); date.lessThanOrEqualTo(ts.getDate2());
+			date.addInterval(ts.getDataIntervalBase(),ts.getDataIntervalMult()) ) {
+			sum += ts.getDataValue(date);
+		}
+	}
+	return tslist.size() + (int)sum;
+}
+
+/**
+Write the results to a CSV file.
+*/
+private static void writeResults ( String filename, int stations, List<Result> results )
+throws IOException
+{
+	PrintWriter out = new PrintWriter ( filename );
+	try {
+		out.println ( "# StateMod benchmark results, stations=" + stations );
+		out.println ( "\"Benchmark\",\"MeanMs\",\"MinMs\",\"MaxMs\",\"StddevMs\"" );
+		for ( Result result : results ) {
+			out.println ( "\"" + result.__name + "\"," + StringUtil.formatString(result.__meanMs,"%.3f") + "," +
+				StringUtil.formatString(result.__minMs,"%.3f") + "," + StringUtil.formatString(result.__maxMs,"%.3f") + "," +
+				StringUtil.formatString(result.__stddevMs,"%.3f") );
+		}
+	}
+	finally {
+		out.close();
+	}
+}
+
+}
@@ -0,0 +1,159 @@
+package DWR.StateMod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import RTi.TS.MonthTS;
+import RTi.TS.TSIdent;
+import RTi.Util.String.StringUtil;
+import RTi.Util.Time.DateTime;
+import RTi.Util.Time.TimeInterval;
+
+/**
+Create synthetic StateMod data for benchmarks.  A fixed random seed is used so that the data are the same
+for each run, allowing results to be compared between runs.
+*/
+public class StateMod_BenchmarkDataGenerator
+{
+
+/**
+Random number generator used for all data.
+*/
+private Random __generator;
+
+/**
+Create a generator using the default seed.
+*/
+public StateMod_BenchmarkDataGenerator ()
+{
+	this ( 19580427 );
+}
+
+/**
+Create a generator using the specified seed.
+@param seed random number seed
+*/
+public StateMod_BenchmarkDataGenerator ( long seed )
+{
+	__generator = new Random ( seed );
+}
+
+/**
+Create diversion rights for diversion stations.
+Administration numbers are random within the range of appropriation dates for StateMod data sets.
+@param diversions the diversion stations
+@param rightsPerStation the number of rights for each station
+@return the rights, in the order of the stations
+*/
+public List<StateMod_DiversionRight> createDiversionRights ( List<StateMod_Diversion> diversions, int rightsPerStation )
+{
+	List<StateMod_DiversionRight> rights = new ArrayList<StateMod_DiversionRight>(diversions.size()*rightsPerStation);
+	for ( StateMod_Diversion div : diversions ) {
+		for ( int i = 0; i < rightsPerStation; i++ ) {
+			StateMod_DiversionRight right = new StateMod_DiversionRight();
+			right.setID ( div.getID() + "." + StringUtil.formatString(i + 1,"%02d") );
+			right.setName ( div.getName() );
+			right.setCgoto ( div.getID() );
+			double admin = (double)(10000 + __generator.nextInt(50000)) + (double)__generator.nextInt(50000)/100000.0;
+			right.setIrtem ( StringUtil.formatString(admin,"%.5f") );
+			right.setDcrdiv ( 0.5 + __generator.nextInt(200)/10.0 );
+			right.setSwitch ( 1 );
+			rights.add ( right );
+		}
+	}
+	return rights;
+}
+
+/**
+Create diversion stations with identifiers D0000001, D0000002, etc.
+@param count the number of stations
+@return the stations
+*/
+public List<StateMod_Diversion> createDiversions ( int count )
+{
+	List<StateMod_Diversion> diversions = new ArrayList<StateMod_Diversion>(count);
+	for ( int i = 0; i < count; i++ ) {
+		StateMod_Diversion div = new StateMod_Diversion();
+		String id = "D" + StringUtil.formatString(i + 1,"%07d");
+		div.setID ( id );
+		div.setName ( "Diversion " + (i + 1) );
+		div.setCgoto ( id );
+		div.setDivcap ( 1.0 + __generator.nextInt(5000)/10.0 );
+		div.setIdvcom ( 1 );
+		div.setSwitch ( 1 );
+		diversions.add ( div );
+	}
+	return diversions;
+}
+
+/**
+Create monthly time series for stations, with random data.
+@param stations the stations, which provide the time series location
+@param dataType the time series data type (e.g., "Diversion")
+@param units the data units (e.g., "ACFT")
+@param startYear the first year of data
+@param endYear the last year of data
+@return the time series, in the order of the stations
+*/
+public List<MonthTS> createMonthTS ( List<? extends StateMod_Data> stations, String dataType, String units,
+	int startYear, int endYear )
+{
+	List<MonthTS> tslist = new ArrayList<MonthTS>(stations.size());
+	DateTime date1 = new DateTime ( DateTime.PRECISION_MONTH );
+	date1.setYear ( startYear );
+	date1.setMonth ( 1 );
+	DateTime date2 = new DateTime ( DateTime.PRECISION_MONTH );
+	date2.setYear ( endYear );
+	date2.setMonth ( 12 );
+	for ( StateMod_Data station : stations ) {
+		MonthTS ts = new MonthTS();
+		ts.setIdentifier ( new TSIdent(station.getID(), "StateMod", dataType, "Month", "") );
+		ts.setDescription ( station.getName() );
+		ts.setDataUnits ( units );
+		ts.setDataUnitsOriginal ( units );
+		ts.setDate1 ( date1 );
+		ts.setDate1Original ( date1 );
+		ts.setDate2 ( date2 );
+		ts.setDate2Original ( date2 );
+		ts.allocateDataSpace();
+		for ( DateTime date = new DateTime(date1); date.lessThanOrEqualTo(date2); date.addInterval(TimeInterval.MONTH,1) ) {
+			ts.setDataValue ( date, __generator.nextInt(100000)/10.0 );
+		}
+		tslist.add ( ts );
+	}
+	return tslist;
+}
+
+/**
+Create river network nodes for a dendritic network.  Each node flows to a node later in the list and
+the last node is the end of the network, consistent with the order of a StateMod river network (*.rin) file.
+@param count the number of nodes
+@return the nodes, upstream to downstream
+*/
+public List<StateMod_RiverNetworkNode> createRiverNetworkNodes ( int count )
+{
+	List<StateMod_RiverNetworkNode> nodes = new ArrayList<StateMod_RiverNetworkNode>(count);
+	for ( int i = 0; i < count; i++ ) {
+		StateMod_RiverNetworkNode node = new StateMod_RiverNetworkNode();
+		node.setID ( "N" + StringUtil.formatString(i + 1,"%07d") );
+		node.setName ( "Node " + (i + 1) );
+		nodes.add ( node );
+	}
+	for ( int i = 0; i < count; i++ ) {
+		if ( i == (count - 1) ) {
+			nodes.get(i).setCstadn ( "" );
+		}
+		else {
+			// Mostly flow to the next node, with tributaries joining a short distance downstream.
+			int ds = i + 1;
+			if ( __generator.nextInt(5) == 0 ) {
+				ds = Math.min(count - 1, i + 1 + __generator.nextInt(10));
+			}
+			nodes.get(i).setCstadn ( nodes.get(ds).getID() );
+		}
+	}
+	return nodes;
+}
+
+}
@@ -0,0 +1,104 @@
+package DWR.StateCU;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class StateCU_CropCoefficientEngineTest extends TestCase
+{
+
+/**
+Check Blaney-Criddle coefficients against interpolating the curve directly, and check that
+a table is recomputed only when the curve changes.
+*/
+public void testBlaneyCriddle() throws Exception {
+	Random generator = new Random ( 19580427 );
+	StateCU_BlaneyCriddle annual = createBlaneyCriddle ( "Percent", generator );
+	StateCU_BlaneyCriddle perennial = createBlaneyCriddle ( "Day", generator );
+	StateCU_CropCoefficientEngine engine = new StateCU_CropCoefficientEngine();
+	for ( double percent = -5.0; percent <= 105.0; percent += 0.25 ) {
+		assertEquals ( interpolate(annual.getNckca(), annual.getCkca(), percent), engine.getCoefficient(annual, percent), 1.0e-12 );
+	}
+	for ( double day = 0.0; day <= 367.0; day += 0.5 ) {
+		assertEquals ( interpolate(perennial.getNckcp(), perennial.getCkcp(), day), engine.getCoefficient(perennial, day), 1.0e-12 );
+	}
+	assertEquals ( 101, engine.getCoefficientTable(annual).length );
+	assertEquals ( 366, engine.getCoefficientTable(perennial).length );
+	assertEquals ( 2, engine.getTableComputeCount() );
+	// Change the curve so that the table is recomputed.
+	perennial.setCurveValue ( 10, 2.5 );
+	assertEquals ( 152, perennial.getNckcp(10) );
+	assertEquals ( 2.5, engine.getCoefficient(perennial, 152.0), 0.0 );
+	assertEquals ( 3, engine.getTableComputeCount() );
+	engine.getCoefficient ( perennial, 153.0 );
+	assertEquals ( 3, engine.getTableComputeCount() );
+}
+
+/**
+Check that evaluating many crops in parallel gives the same result as evaluating each value.
+*/
+public void testBulkEvaluation() throws Exception {
+	Random generator = new Random ( 19580427 );
+	List<StateCU_PenmanMonteith> pmList = new ArrayList<StateCU_PenmanMonteith>();
+	int [] stages = new int[200];
+	for ( int i = 0; i < stages.length; i++ ) {
+		StateCU_PenmanMonteith pm = new StateCU_PenmanMonteith ( 1 + i % 3 );
+		for ( int igs = 0; igs < pm.getNGrowthStages(); igs++ ) {
+			for ( int j = 0; j < StateCU_PenmanMonteith.getNCoefficientsPerGrowthStage(); j++ ) {
+				// Leave some coefficients missing.
+				if ( generator.nextInt(20) != 0 ) {
+					pm.setCurveValue ( igs, j, generator.nextInt(1500)/1000.0 );
+				}
+			}
+		}
+		pmList.add ( pm );
+		stages[i] = i % pm.getNGrowthStages();
+	}
+	double [] percents = new double[1001];
+	for ( int j = 0; j < percents.length; j++ ) {
+		percents[j] = j/10.0;
+	}
+	StateCU_CropCoefficientEngine engine = new StateCU_CropCoefficientEngine();
+	double [][] coefficients = new double[pmList.size()][percents.length];
+	engine.getCoefficients ( pmList, stages, percents, coefficients, true );
+	for ( int i = 0; i < pmList.size(); i++ ) {
+		StateCU_PenmanMonteith pm = pmList.get(i);
+		for ( int j = 0; j < percents.length; j++ ) {
+			assertEquals ( StateCU_CropCoefficientEngine.interpolate(pm.getKcday()[stages[i]], pm.getKcb()[stages[i]], percents[j]),
+				coefficients[i][j], 1.0e-12 );
+		}
+	}
+	assertEquals ( pmList.size(), engine.getTableComputeCount() );
+}
+
+/**
+Create a Blaney-Criddle curve with random coefficients.
+*/
+private static StateCU_BlaneyCriddle createBlaneyCriddle ( String curveType, Random generator ) {
+	StateCU_BlaneyCriddle bc = new StateCU_BlaneyCriddle ( curveType );
+	int n = bc.isAnnualCrop() ? bc.getCkca().length : bc.getCkcp().length;
+	for ( int i = 0; i < n; i++ ) {
+		bc.setCurveValue ( i, generator.nextInt(1500)/1000.0 );
+	}
+	return bc;
+}
+
+/**
+Interpolate a curve with integer positions, clamping at the ends.
+*/
+private static double interpolate ( int [] positions, double [] coefficients, double position ) {
+	if ( position <= positions[0] ) {
+		return coefficients[0];
+	}
+	for ( int i = 1; i < positions.length; i++ ) {
+		if ( position <= positions[i] ) {
+			return coefficients[i - 1] + (coefficients[i] - coefficients[i - 1])*(position - positions[i - 1])/
+				(positions[i] - positions[i - 1]);
+		}
+	}
+	return coefficients[positions.length - 1];
+}
+
+}
@@ -0,0 +1,70 @@
+package DWR.StateCU;
+
+import java.util.List;
+
+import RTi.Util.Time.DateTime;
+
+import junit.framework.TestCase;
+
+public class StateCU_CropPatternTSTest extends TestCase
+{
+
+/**
+Check that the crop index matches the crop names after each method that changes the crops.
+*/
+public void testCropIndex() throws Exception {
+	StateCU_CropPatternTS cds = new StateCU_CropPatternTS ( "L1", createDate(2000), createDate(2005), "ACRE" );
+	cds.addTS ( "CORN_GRAIN", false );
+	cds.addTS ( "ALFALFA", false );
+	cds.addTS ( "SUGAR_BEETS", false, false );
+	cds.addTS ( "DRY_BEANS", false );
+	checkCropIndex ( cds );
+	assertEquals ( -1, cds.indexOf("SORGHUM_GRAIN") );
+	assertEquals ( cds.indexOf("ALFALFA"), cds.indexOf("alfalfa") );
+
+	cds.removeCropName ( "ALFALFA" );
+	checkCropIndex ( cds );
+	assertEquals ( -1, cds.indexOf("ALFALFA") );
+
+	// Rename a crop, which also sorts the crops.
+	cds.translateCropName ( "SUGAR_BEETS", "BLUEGRASS" );
+	checkCropIndex ( cds );
+	assertEquals ( -1, cds.indexOf("SUGAR_BEETS") );
+	assertEquals ( 0, cds.indexOf("BLUEGRASS") );
+
+	// Merge a crop into an existing crop.
+	cds.setCropArea ( "DRY_BEANS", 2001, 10.0 );
+	cds.setCropArea ( "BLUEGRASS", 2001, 5.0 );
+	cds.translateCropName ( "DRY_BEANS", "BLUEGRASS" );
+	checkCropIndex ( cds );
+	assertEquals ( -1, cds.indexOf("DRY_BEANS") );
+	assertEquals ( 2, cds.getCropNames().size() );
+	assertEquals ( 15.0, cds.getCropArea("BLUEGRASS", 2001, false), 1.0e-9 );
+
+	cds.removeAllTS();
+	assertEquals ( -1, cds.indexOf("BLUEGRASS") );
+	cds.addTS ( "GRASS_PASTURE", false );
+	checkCropIndex ( cds );
+	assertEquals ( 0, cds.indexOf("GRASS_PASTURE") );
+}
+
+/**
+Check that the index of each crop is its position in the list of crop names.
+*/
+private void checkCropIndex ( StateCU_CropPatternTS cds ) {
+	List<String> cropNames = cds.getCropNames();
+	for ( int i = 0; i < cropNames.size(); i++ ) {
+		assertEquals ( cropNames.get(i), i, cds.indexOf(cropNames.get(i)) );
+	}
+}
+
+/**
+Create a year date.
+*/
+private DateTime createDate ( int year ) {
+	DateTime date = new DateTime ( DateTime.PRECISION_YEAR );
+	date.setYear ( year );
+	return date;
+}
+
+}
@@ -0,0 +1,149 @@
+package DWR.StateCU;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import RTi.Util.IO.DataSetComponent;
+
+import junit.framework.TestCase;
+
+public class StateCU_DataSetTest extends TestCase
+{
+
+private static final int __LOCATIONS = 200;
+
+/**
+Folder for the test data set.
+*/
+private File __folder = null;
+
+/**
+Create a small structures data set with climate stations, crop characteristics, and CU locations.
+*/
+protected void setUp() throws Exception {
+	__folder = File.createTempFile ( "StateCU_DataSetTest", "" );
+	__folder.delete();
+	__folder.mkdirs();
+	List<StateCU_ClimateStation> stations = new ArrayList<StateCU_ClimateStation>();
+	for ( int i = 0; i < 10; i++ ) {
+		StateCU_ClimateStation station = new StateCU_ClimateStation();
+		station.setID ( "C" + (1000 + i) );
+		station.setName ( "Climate Station " + i );
+		station.setLatitude ( 38.0 + i/10.0 );
+		station.setElevation ( 5000.0 + i*10 );
+		station.setRegion1 ( "County" );
+		station.setRegion2 ( "HUC" );
+		stations.add ( station );
+	}
+	StateCU_ClimateStation.writeStateCUFile ( null, new File(__folder,"test.cli").getPath(), stations, null );
+	List<StateCU_CropCharacteristics> crops = new ArrayList<StateCU_CropCharacteristics>();
+	String [] cropNames = { "ALFALFA", "GRASS_PASTURE", "CORN_GRAIN" };
+	for ( int i = 0; i < cropNames.length; i++ ) {
+		StateCU_CropCharacteristics crop = new StateCU_CropCharacteristics();
+		crop.setID ( "" + (i + 1) );
+		crop.setName ( cropNames[i] );
+		crops.add ( crop );
+	}
+	StateCU_CropCharacteristics.writeStateCUFile ( null, new File(__folder,"test.cch").getPath(), crops, null );
+	List<StateCU_Location> locations = new ArrayList<StateCU_Location>();
+	for ( int i = 0; i < __LOCATIONS; i++ ) {
+		StateCU_Location location = new StateCU_Location();
+		location.setID ( "L" + (100000 + i) );
+		location.setName ( "Location " + i );
+		location.setLatitude ( 38.0 + i/1000.0 );
+		location.setElevation ( 5000.0 + i );
+		location.setRegion1 ( "County" );
+		location.setRegion2 ( "HUC" );
+		location.setAwc ( 0.15 );
+		location.setNumClimateStations ( 1 );
+		location.setClimateStationID ( stations.get(i % stations.size()).getID(), 0 );
+		location.setTemperatureStationWeight ( 1.0, 0 );
+		location.setPrecipitationStationWeight ( 1.0, 0 );
+		location.setOrographicTemperatureAdjustment ( 0.0, 0 );
+		location.setOrographicPrecipitationAdjustment ( 1.0, 0 );
+		locations.add ( location );
+	}
+	StateCU_Location.writeStateCUFile ( null, new File(__folder,"test.str").getPath(), locations, null );
+	PrintWriter out = new PrintWriter ( new File(__folder,"test.ccu") );
+	out.println ( "Test data set" );
+	out.println ( "Title 2" );
+	out.println ( "Title 3" );
+	out.println ( "1950 2000" );
+	out.println ( "0" );	// flag1
+	out.println ( "0" );	// rn_xco
+	out.println ( "1" );	// iclim, structures
+	out.println ( "0" );	// isupply
+	out.println ( "0" );	// sout
+	out.close();
+	out = new PrintWriter ( new File(__folder,"test.rcu") );
+	out.println ( "# Test response file" );
+	out.println ( "test.ccu, ccu" );
+	out.println ( "test.cli, cli" );
+	out.println ( "test.cch, cch" );
+	out.println ( "test.str, str" );
+	out.close();
+}
+
+/**
+Remove the test data set.
+*/
+protected void tearDown() throws Exception {
+	if ( __folder != null ) {
+		File [] files = __folder.listFiles();
+		if ( files != null ) {
+			for ( File file : files ) {
+				file.delete();
+			}
+		}
+		__folder.delete();
+	}
+}
+
+/**
+Check that reading the data set in parallel gives the same components, groups, and data as reading sequentially.
+*/
+public void testReadStateCUFileParallel() throws Exception {
+	String rcu = new File(__folder,"test.rcu").getPath();
+	StateCU_DataSet dataset = StateCU_DataSet.readStateCUFile ( rcu, true, false );
+	StateCU_DataSet dataset2 = StateCU_DataSet.readStateCUFile ( rcu, true, true );
+	List<String> components = new ArrayList<String>();
+	List<String> components2 = new ArrayList<String>();
+	describeComponents ( dataset.getComponents(), "", components );
+	describeComponents ( dataset2.getComponents(), "", components2 );
+	assertEquals ( components, components2 );
+	// Make sure that the data were read
+	DataSetComponent comp = dataset2.getComponentForComponentType ( StateCU_DataSet.COMP_CU_LOCATIONS );
+	assertNotNull ( comp );
+	assertEquals ( __LOCATIONS, ((List<?>)comp.getData()).size() );
+	assertNotNull ( dataset2.getLoadMetrics() );
+}
+
+/**
+Describe the components, recursing into groups, including the group, file, and identifiers of the data objects.
+*/
+private void describeComponents ( List<?> components, String group, List<String> descriptions ) {
+	for ( Object o : components ) {
+		DataSetComponent comp = (DataSetComponent)o;
+		StringBuilder b = new StringBuilder();
+		b.append ( group + "/" + comp.getComponentType() + " " + comp.getComponentName() + " file=" +
+			comp.getDataFileName() + " group=" + comp.isGroup() + " visible=" + comp.isVisible() );
+		Object data = comp.getData();
+		if ( comp.isGroup() && (data instanceof List) ) {
+			descriptions.add ( b.toString() );
+			describeComponents ( (List<?>)data, group + "/" + comp.getComponentName(), descriptions );
+			continue;
+		}
+		if ( data instanceof List ) {
+			for ( Object item : (List<?>)data ) {
+				if ( item instanceof StateCU_Data ) {
+					b.append ( " " + ((StateCU_Data)item).getID() );
+				}
+			}
+		}
+		descriptions.add ( b.toString() );
+	}
+}
+
+}
@@ -0,0 +1,67 @@
+package DWR.StateCU;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class StateCU_LocationPartIDIndexTest extends TestCase
+{
+
+/**
+Check that the index finds the same location as searching the location list and ditch collections.
+*/
+public void testGetLocationForPartID() throws Exception {
+	Random generator = new Random ( 19580427 );
+	List<StateCU_Location> culocList = new ArrayList<StateCU_Location>();
+	for ( int i = 0; i < 300; i++ ) {
+		StateCU_Location culoc = new StateCU_Location();
+		culoc.setID ( "0" + (100000 + i) );
+		if ( (i % 4) == 0 ) {
+			List<String> partIds = new ArrayList<String>();
+			for ( int j = 0; j < 5; j++ ) {
+				// Some parts are in more than one collection and some are the same as a location.
+				partIds.add ( "0" + (100000 + generator.nextInt(1000)) );
+			}
+			culoc.setCollectionPartType ( StateCU_Location_CollectionPartType.DITCH );
+			culoc.setCollectionPartIDs ( partIds );
+		}
+		culocList.add ( culoc );
+	}
+	StateCU_LocationPartIDIndex index = new StateCU_LocationPartIDIndex ( culocList );
+	for ( int i = 0; i < 1000; i++ ) {
+		String partId = "0" + (100000 + i);
+		assertSame ( StateCU_Util.getLocationForPartID(culocList, partId), index.getLocationForPartID(partId) );
+	}
+	assertSame ( culocList.get(3), index.getLocation("0100003") );
+	assertNull ( index.getLocationForPartID("X") );
+}
+
+/**
+Check that well parts are found for well collections for all years and parcel collections for a specific year.
+*/
+public void testGetLocationForWellPartID() throws Exception {
+	List<StateCU_Location> culocList = new ArrayList<StateCU_Location>();
+	StateCU_Location wellCollection = new StateCU_Location();
+	wellCollection.setID ( "W1" );
+	wellCollection.setCollectionPartType ( StateCU_Location_CollectionPartType.WELL );
+	List<String> wellIds = new ArrayList<String>();
+	wellIds.add ( "0105001" );
+	wellCollection.setCollectionPartIDs ( wellIds );
+	culocList.add ( wellCollection );
+	StateCU_Location parcelCollection = new StateCU_Location();
+	parcelCollection.setID ( "P1" );
+	parcelCollection.setCollectionPartType ( StateCU_Location_CollectionPartType.PARCEL );
+	List<String> parcelIds = new ArrayList<String>();
+	parcelIds.add ( "1234" );
+	parcelCollection.setCollectionPartIDsForYear ( 1998, parcelIds );
+	culocList.add ( parcelCollection );
+	StateCU_LocationPartIDIndex index = new StateCU_LocationPartIDIndex ( culocList );
+	assertSame ( wellCollection, index.getLocationForWellPartID("0105001", 1998) );
+	assertSame ( wellCollection, index.getLocationForWellPartID("0105001", 2010) );
+	assertSame ( parcelCollection, index.getLocationForWellPartID("1234", 1998) );
+	assertNull ( index.getLocationForWellPartID("1234", 2010) );
+}
+
+}
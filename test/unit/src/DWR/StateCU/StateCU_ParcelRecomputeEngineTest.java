@@ -0,0 +1,112 @@
+package DWR.StateCU;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class StateCU_ParcelRecomputeEngineTest extends TestCase
+{
+
+private static final int __LOCATIONS = 500;
+private static final int __PARCELS_PER_LOCATION = 20;
+private static final int [] __YEARS = { 1998, 2010, 2020 };
+
+/**
+Check that recomputing parcels for all locations in parallel gives the same result as recomputing
+each parcel, that shared parcels are recomputed once, and that clean parcels are skipped.
+*/
+public void testRecomputeLocations() throws Exception {
+	List<StateCU_Location> culocList = createLocations();
+	List<StateCU_Location> culocList2 = createLocations();
+	StateCU_ParcelRecomputeEngine engine = new StateCU_ParcelRecomputeEngine();
+	engine.recomputeLocations ( culocList2, -1, true );
+	int parcelCount = 0;
+	int supplyCount = 0;
+	for ( int i = 0; i < __LOCATIONS; i++ ) {
+		List<StateCU_Parcel> parcelList = culocList.get(i).getParcelList();
+		List<StateCU_Parcel> parcelList2 = culocList2.get(i).getParcelList();
+		assertEquals ( parcelList.size(), parcelList2.size() );
+		for ( int j = 0; j < parcelList.size(); j++ ) {
+			StateCU_Parcel parcel = parcelList.get(j);
+			StateCU_Parcel parcel2 = parcelList2.get(j);
+			assertFalse ( parcel2.isDirty() );
+			if ( parcel.isDirty() ) {
+				// Not shared with an earlier location.
+				++parcelCount;
+				supplyCount += parcel.getSupplyList().size();
+			}
+			assertEquals ( parcel.getSupplyFromGWCount(), parcel2.getSupplyFromGWCount() );
+			assertEquals ( parcel.getSupplyFromSWCount(), parcel2.getSupplyFromSWCount() );
+			for ( int k = 0; k < parcel.getSupplyList().size(); k++ ) {
+				StateCU_Supply supply = parcel.getSupplyList().get(k);
+				StateCU_Supply supply2 = parcel2.getSupplyList().get(k);
+				if ( supply instanceof StateCU_SupplyFromGW ) {
+					assertEquals ( ((StateCU_SupplyFromGW)supply).getAreaIrrig(), ((StateCU_SupplyFromGW)supply2).getAreaIrrig(), 0.0 );
+				}
+				else {
+					StateCU_SupplyFromSW supplyFromSW = (StateCU_SupplyFromSW)supply;
+					StateCU_SupplyFromSW supplyFromSW2 = (StateCU_SupplyFromSW)supply2;
+					assertEquals ( supplyFromSW.getAreaIrrig(), supplyFromSW2.getAreaIrrig(), 0.0 );
+					assertEquals ( supplyFromSW.getAreaIrrigFractionHydroBaseError(),
+						supplyFromSW2.getAreaIrrigFractionHydroBaseError() );
+				}
+			}
+		}
+	}
+	assertEquals ( parcelCount, engine.getRecomputeCount() );
+	assertEquals ( parcelCount, engine.getParcelCount() );
+	assertEquals ( supplyCount, engine.getSupplyCount() );
+	// Nothing is dirty so all parcels for the year are skipped.
+	engine.reset();
+	engine.recomputeLocations ( culocList2, __YEARS[1], true );
+	assertEquals ( 0, engine.getRecomputeCount() );
+	assertTrue ( engine.getParcelCount() > 0 );
+	assertEquals ( engine.getParcelCount(), engine.getSkippedCount() );
+}
+
+/**
+Create locations with parcels and supplies, with each location sharing some parcels with the next location.
+The same random sequence is used for each call.
+*/
+private static List<StateCU_Location> createLocations () {
+	Random generator = new Random ( 19580427 );
+	List<StateCU_Location> culocList = new ArrayList<StateCU_Location>(__LOCATIONS);
+	List<StateCU_Parcel> shared = new ArrayList<StateCU_Parcel>();
+	for ( int i = 0; i < __LOCATIONS; i++ ) {
+		StateCU_Location culoc = new StateCU_Location();
+		culoc.setID ( "L" + i );
+		for ( StateCU_Parcel parcel : shared ) {
+			culoc.addParcel ( parcel );
+		}
+		shared = new ArrayList<StateCU_Parcel>();
+		for ( int j = 0; j < __PARCELS_PER_LOCATION; j++ ) {
+			StateCU_Parcel parcel = new StateCU_Parcel();
+			parcel.setID ( "" + (i*__PARCELS_PER_LOCATION + j) );
+			parcel.setYear ( __YEARS[j % __YEARS.length] );
+			parcel.setArea ( generator.nextInt(10000)/10.0 );
+			int swCount = generator.nextInt(3);
+			for ( int k = 0; k < swCount; k++ ) {
+				StateCU_SupplyFromSW supply = new StateCU_SupplyFromSW();
+				supply.setWDID ( "D" + i + "_" + k );
+				supply.setAreaIrrigFractionHydroBase ( (generator.nextInt(2) == 0) ? 1.0/swCount : 0.25 );
+				parcel.addSupply ( supply );
+			}
+			int gwCount = generator.nextInt(4);
+			for ( int k = 0; k < gwCount; k++ ) {
+				StateCU_SupplyFromGW supply = new StateCU_SupplyFromGW();
+				supply.setWDID ( "W" + i + "_" + j + "_" + k );
+				parcel.addSupply ( supply );
+			}
+			culoc.addParcel ( parcel );
+			if ( generator.nextInt(5) == 0 ) {
+				shared.add ( parcel );
+			}
+		}
+		culocList.add ( culoc );
+	}
+	return culocList;
+}
+
+}
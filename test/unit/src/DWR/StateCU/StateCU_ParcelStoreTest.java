@@ -0,0 +1,107 @@
+package DWR.StateCU;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class StateCU_ParcelStoreTest extends TestCase
+{
+
+private static final int [] __YEARS = { 1956, 1976, 1987, 2001, 2005, 2010, 2015, 2020 };
+
+/**
+Check that parcels added to a location are sorted by year in the order added, without duplicates,
+which is the order that was previously determined by searching the list.
+*/
+public void testLocationParcelOrder() throws Exception {
+	Random generator = new Random ( 19580427 );
+	StateCU_Location culoc = new StateCU_Location();
+	List<StateCU_Parcel> expected = new ArrayList<StateCU_Parcel>();
+	for ( int i = 0; i < 2000; i++ ) {
+		StateCU_Parcel parcel = createParcel ( __YEARS[generator.nextInt(__YEARS.length)], "" + generator.nextInt(500) );
+		culoc.addParcel ( parcel );
+		addParcelLinear ( expected, parcel );
+	}
+	List<StateCU_Parcel> parcelList = culoc.getParcelList();
+	assertEquals ( expected.size(), parcelList.size() );
+	for ( int i = 0; i < expected.size(); i++ ) {
+		assertSame ( expected.get(i), parcelList.get(i) );
+	}
+	// The list can only be changed by adding parcels to the location
+	try {
+		parcelList.add ( createParcel(__YEARS[0], "new") );
+		fail ( "Parcel list should not be modifiable" );
+	}
+	catch ( UnsupportedOperationException e ) {
+		// Expected
+	}
+	culoc.addParcel ( createParcel(__YEARS[0], "new") );
+	addParcelLinear ( expected, createParcel(__YEARS[0], "new") );
+	assertEquals ( expected.size(), parcelList.size() );
+	List<Integer> years = culoc.getParcelYearList();
+	for ( int i = 1; i < years.size(); i++ ) {
+		assertTrue ( years.get(i - 1).intValue() < years.get(i).intValue() );
+	}
+	for ( int year : __YEARS ) {
+		int count = 0;
+		for ( StateCU_Parcel parcel : expected ) {
+			if ( parcel.getYear() == year ) {
+				assertSame ( parcel, culoc.getParcelList(year).get(count) );
+				++count;
+			}
+		}
+		assertEquals ( count, culoc.getParcelList(year).size() );
+	}
+}
+
+/**
+Check that parcel years for a list of locations are returned once each, limited to the requested period.
+*/
+public void testParcelYears() throws Exception {
+	List<StateCU_Location> culocList = new ArrayList<StateCU_Location>();
+	for ( int i = 0; i < 10; i++ ) {
+		StateCU_Location culoc = new StateCU_Location();
+		for ( int j = i % 3; j < __YEARS.length; j += 2 ) {
+			culoc.addParcel ( createParcel(__YEARS[j], "" + i) );
+		}
+		culocList.add ( culoc );
+	}
+	List<Integer> years = StateCU_Location.getParcelYears ( culocList, 1980, 2015 );
+	assertEquals ( 5, years.size() );
+	for ( int i = 0; i < years.size(); i++ ) {
+		assertTrue ( (years.get(i).intValue() >= 1980) && (years.get(i).intValue() <= 2015) );
+		assertEquals ( i, years.indexOf(years.get(i)) );
+	}
+}
+
+/**
+Add a parcel to the list by searching, as was previously done by StateCU_Location.addParcel().
+*/
+private static void addParcelLinear ( List<StateCU_Parcel> parcelList, StateCU_Parcel parcelToAdd ) {
+	for ( StateCU_Parcel parcel : parcelList ) {
+		if ( (parcel.getYear() == parcelToAdd.getYear()) && parcel.getID().equals(parcelToAdd.getID()) ) {
+			return;
+		}
+	}
+	for ( int i = 0; i < parcelList.size(); i++ ) {
+		if ( parcelList.get(i).getYear() > parcelToAdd.getYear() ) {
+			parcelList.add ( i, parcelToAdd );
+			return;
+		}
+	}
+	parcelList.add ( parcelToAdd );
+}
+
+/**
+Create a parcel for a year.
+*/
+private static StateCU_Parcel createParcel ( int year, String id ) {
+	StateCU_Parcel parcel = new StateCU_Parcel();
+	parcel.setYear ( year );
+	parcel.setID ( id );
+	return parcel;
+}
+
+}
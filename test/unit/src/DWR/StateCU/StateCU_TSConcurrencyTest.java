@@ -0,0 +1,332 @@
+package DWR.StateCU;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import RTi.TS.YearTS;
+import RTi.Util.Time.DateTime;
+
+import junit.framework.TestCase;
+
+/**
+Stress test for reading, setting, and adjusting StateCU crop pattern and irrigation practice time series from multiple threads.
+*/
+public class StateCU_TSConcurrencyTest extends TestCase
+{
+
+private static final int __LOCATIONS = 200;
+private static final int __YEAR1 = 1950;
+private static final int __YEAR2 = 2020;
+private static final int __THREADS = 8;
+private static final String [] __CROPS = { "ALFALFA", "BLUEGRASS", "CORN_GRAIN", "DRY_BEANS", "GRASS_PASTURE",
+	"SMALL_GRAINS", "SORGHUM_GRAIN", "SUGAR_BEETS" };
+
+/**
+Check that adjusting acreage for all locations in parallel gives the same result as adjusting each
+location and year with the per-call methods.
+*/
+public void testAdjustAcresToTotalAcres() throws Exception {
+	List<StateCU_IrrigationPracticeTS> ipyList = createIrrigationPracticeTS();
+	List<StateCU_IrrigationPracticeTS> ipyList2 = createIrrigationPracticeTS();
+	setAcreage ( ipyList );
+	setAcreage ( ipyList2 );
+	boolean [] isGwOnly = new boolean[__LOCATIONS];
+	for ( int i = 0; i < __LOCATIONS; i++ ) {
+		isGwOnly[i] = (i % 5) == 0;
+	}
+	for ( int i = 0; i < __LOCATIONS; i++ ) {
+		for ( int year = __YEAR1; year <= __YEAR2; year++ ) {
+			ipyList.get(i).adjustGroundwaterAcresToTotalAcres ( createDate(year), isGwOnly[i] );
+		}
+	}
+	StateCU_IrrigationPracticeTS.adjustAcresToTotalAcres ( ipyList2, isGwOnly, __YEAR1, __YEAR2, true, true );
+	double [][] values = new double[7][__YEAR2 - __YEAR1 + 1];
+	double [][] values2 = new double[7][__YEAR2 - __YEAR1 + 1];
+	for ( int i = 0; i < __LOCATIONS; i++ ) {
+		readAcreage ( ipyList.get(i), values );
+		readAcreage ( ipyList2.get(i), values2 );
+		assertEquals ( 0, countDifferences(values, values2) );
+	}
+}
+
+/**
+Check that concurrent reads of the same objects return the values that were set.
+*/
+public void testConcurrentReads() throws Exception {
+	final List<StateCU_CropPatternTS> cdsList = createCropPatternTS();
+	final List<StateCU_IrrigationPracticeTS> ipyList = createIrrigationPracticeTS();
+	setData ( cdsList, ipyList, 0, __LOCATIONS );
+	// Expected values, read on one thread.
+	final double [][][] cdsExpected = new double[__LOCATIONS][__CROPS.length + 1][__YEAR2 - __YEAR1 + 1];
+	final double [][][] ipyExpected = new double[__LOCATIONS][3][__YEAR2 - __YEAR1 + 1];
+	for ( int i = 0; i < __LOCATIONS; i++ ) {
+		readData ( cdsList.get(i), ipyList.get(i), cdsExpected[i], ipyExpected[i] );
+	}
+	ExecutorService executor = Executors.newFixedThreadPool(__THREADS);
+	try {
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		for ( int t = 0; t < __THREADS; t++ ) {
+			final long seed = t;
+			futures.add ( executor.submit(new Callable<Integer>() {
+				public Integer call () {
+					Random generator = new Random ( seed );
+					double [][] cdsValues = new double[__CROPS.length + 1][__YEAR2 - __YEAR1 + 1];
+					double [][] ipyValues = new double[3][__YEAR2 - __YEAR1 + 1];
+					int errors = 0;
+					for ( int iter = 0; iter < 2000; iter++ ) {
+						int i = generator.nextInt(__LOCATIONS);
+						readData ( cdsList.get(i), ipyList.get(i), cdsValues, ipyValues );
+						errors += countDifferences ( cdsExpected[i], cdsValues );
+						errors += countDifferences ( ipyExpected[i], ipyValues );
+					}
+					return Integer.valueOf(errors);
+				}
+			}));
+		}
+		for ( Future<Integer> future : futures ) {
+			assertEquals ( 0, future.get().intValue() );
+		}
+	}
+	finally {
+		executor.shutdownNow();
+	}
+}
+
+/**
+Check that setting data for different objects on different threads gives the same result as one thread.
+*/
+public void testConcurrentWrites() throws Exception {
+	final List<StateCU_CropPatternTS> cdsList = createCropPatternTS();
+	final List<StateCU_IrrigationPracticeTS> ipyList = createIrrigationPracticeTS();
+	List<StateCU_CropPatternTS> cdsList2 = createCropPatternTS();
+	List<StateCU_IrrigationPracticeTS> ipyList2 = createIrrigationPracticeTS();
+	setData ( cdsList2, ipyList2, 0, __LOCATIONS );
+	ExecutorService executor = Executors.newFixedThreadPool(__THREADS);
+	try {
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		int blockSize = (__LOCATIONS + __THREADS - 1)/__THREADS;
+		for ( int start = 0; start < __LOCATIONS; start += blockSize ) {
+			final int blockStart = start;
+			final int blockEnd = Math.min(__LOCATIONS, start + blockSize);
+			futures.add ( executor.submit(new Callable<Object>() {
+				public Object call () throws Exception {
+					setData ( cdsList, ipyList, blockStart, blockEnd );
+					return null;
+				}
+			}));
+		}
+		for ( Future<?> future : futures ) {
+			future.get();
+		}
+	}
+	finally {
+		executor.shutdownNow();
+	}
+	double [][] cdsValues = new double[__CROPS.length + 1][__YEAR2 - __YEAR1 + 1];
+	double [][] ipyValues = new double[3][__YEAR2 - __YEAR1 + 1];
+	double [][] cdsValues2 = new double[__CROPS.length + 1][__YEAR2 - __YEAR1 + 1];
+	double [][] ipyValues2 = new double[3][__YEAR2 - __YEAR1 + 1];
+	for ( int i = 0; i < __LOCATIONS; i++ ) {
+		readData ( cdsList.get(i), ipyList.get(i), cdsValues, ipyValues );
+		readData ( cdsList2.get(i), ipyList2.get(i), cdsValues2, ipyValues2 );
+		assertEquals ( 0, countDifferences(cdsValues2, cdsValues) );
+		assertEquals ( 0, countDifferences(ipyValues2, ipyValues) );
+	}
+}
+
+/**
+Check that the get and set methods agree with the time series views before and after the views are created,
+including when views are created while other threads are reading the values.
+*/
+public void testValuesWithViews() throws Exception {
+	final List<StateCU_CropPatternTS> cdsList = createCropPatternTS();
+	final List<StateCU_IrrigationPracticeTS> ipyList = createIrrigationPracticeTS();
+	setData ( cdsList, ipyList, 0, __LOCATIONS );
+	final double [][][] ipyExpected = new double[__LOCATIONS][3][__YEAR2 - __YEAR1 + 1];
+	double [][] cdsValues = new double[__CROPS.length + 1][__YEAR2 - __YEAR1 + 1];
+	for ( int i = 0; i < __LOCATIONS; i++ ) {
+		readData ( cdsList.get(i), ipyList.get(i), cdsValues, ipyExpected[i] );
+	}
+	// Create the views on one thread while other threads read the values.
+	ExecutorService executor = Executors.newFixedThreadPool(__THREADS);
+	try {
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		for ( int t = 0; t < __THREADS; t++ ) {
+			final int thread = t;
+			futures.add ( executor.submit(new Callable<Integer>() {
+				public Integer call () {
+					if ( thread == 0 ) {
+						for ( StateCU_IrrigationPracticeTS ipy : ipyList ) {
+							ipy.getTimeSeries ( StateCU_IrrigationPracticeTS.TSTYPE_CropArea_SurfaceWaterOnly );
+							ipy.getTimeSeries ( StateCU_IrrigationPracticeTS.TSTYPE_CropArea_Total );
+						}
+						return Integer.valueOf(0);
+					}
+					Random generator = new Random ( thread );
+					double [][] cdsValues = new double[__CROPS.length + 1][__YEAR2 - __YEAR1 + 1];
+					double [][] ipyValues = new double[3][__YEAR2 - __YEAR1 + 1];
+					int errors = 0;
+					for ( int iter = 0; iter < 2000; iter++ ) {
+						int i = generator.nextInt(__LOCATIONS);
+						readData ( cdsList.get(i), ipyList.get(i), cdsValues, ipyValues );
+						errors += countDifferences ( ipyExpected[i], ipyValues );
+					}
+					return Integer.valueOf(errors);
+				}
+			}));
+		}
+		for ( Future<Integer> future : futures ) {
+			assertEquals ( 0, future.get().intValue() );
+		}
+	}
+	finally {
+		executor.shutdownNow();
+	}
+	// The views contain the values and the get and set methods use the views.
+	StateCU_IrrigationPracticeTS ipy = ipyList.get(7);
+	YearTS ts = ipy.getTimeSeries ( StateCU_IrrigationPracticeTS.TSTYPE_CropArea_Total );
+	assertSame ( ts, ipy.getTimeSeries(StateCU_IrrigationPracticeTS.TSTYPE_CropArea_Total) );
+	for ( int year = __YEAR1; year <= __YEAR2; year++ ) {
+		assertEquals ( ipyExpected[7][2][year - __YEAR1], ts.getDataValue(createDate(year)), 0.0 );
+		assertEquals ( ipyExpected[7][2][year - __YEAR1], ipy.getTacre(year), 0.0 );
+	}
+	ipy.setTacre ( 1960, 123.4 );
+	assertEquals ( 123.4, ts.getDataValue(createDate(1960)), 0.0 );
+	ts.setDataValue ( createDate(1961), 567.8 );
+	assertEquals ( 567.8, ipy.getTacre(1961), 0.0 );
+	// Fields without views still use the arrays.
+	ipy.setAcgwfl ( 1960, 9.5 );
+	assertEquals ( 9.5, ipy.getAcgwfl(1960), 0.0 );
+	assertEquals ( 9.5, ipy.getTimeSeries(StateCU_IrrigationPracticeTS.TSTYPE_CropArea_GroundWaterFlood).getDataValue(
+		createDate(1960)), 0.0 );
+}
+
+/**
+Count the values that are different.
+*/
+private static int countDifferences ( double [][] expected, double [][] values ) {
+	int count = 0;
+	for ( int i = 0; i < expected.length; i++ ) {
+		for ( int j = 0; j < expected[i].length; j++ ) {
+			if ( Double.compare(expected[i][j], values[i][j]) != 0 ) {
+				++count;
+			}
+		}
+	}
+	return count;
+}
+
+/**
+Create crop pattern time series with all crops and no data.
+*/
+private static List<StateCU_CropPatternTS> createCropPatternTS () {
+	List<StateCU_CropPatternTS> cdsList = new ArrayList<StateCU_CropPatternTS>(__LOCATIONS);
+	for ( int i = 0; i < __LOCATIONS; i++ ) {
+		StateCU_CropPatternTS cds = new StateCU_CropPatternTS ( "L" + i, createDate(__YEAR1), createDate(__YEAR2), "ACRE" );
+		for ( int j = 0; j < __CROPS.length; j++ ) {
+			cds.addTS ( __CROPS[j], false );
+		}
+		cdsList.add ( cds );
+	}
+	return cdsList;
+}
+
+/**
+Create a date for a year.
+*/
+private static DateTime createDate ( int year ) {
+	DateTime date = new DateTime ( DateTime.PRECISION_YEAR );
+	date.setYear ( year );
+	return date;
+}
+
+/**
+Create irrigation practice time series with no data.
+*/
+private static List<StateCU_IrrigationPracticeTS> createIrrigationPracticeTS () {
+	List<StateCU_IrrigationPracticeTS> ipyList = new ArrayList<StateCU_IrrigationPracticeTS>(__LOCATIONS);
+	for ( int i = 0; i < __LOCATIONS; i++ ) {
+		ipyList.add ( new StateCU_IrrigationPracticeTS ( "L" + i, createDate(__YEAR1), createDate(__YEAR2), "CYR", null ) );
+	}
+	return ipyList;
+}
+
+/**
+Read the irrigation practice acreage for all years.
+*/
+private static void readAcreage ( StateCU_IrrigationPracticeTS ipy, double [][] values ) {
+	for ( int year = __YEAR1; year <= __YEAR2; year++ ) {
+		int iyear = year - __YEAR1;
+		values[0][iyear] = ipy.getTacre ( year );
+		values[1][iyear] = ipy.getAcsw ( year );
+		values[2][iyear] = ipy.getAcswfl ( year );
+		values[3][iyear] = ipy.getAcswspr ( year );
+		values[4][iyear] = ipy.getAcgw ( year );
+		values[5][iyear] = ipy.getAcgwfl ( year );
+		values[6][iyear] = ipy.getAcgwspr ( year );
+	}
+}
+
+/**
+Read the crop areas, total area, and several irrigation practice values for all years.
+*/
+private static void readData ( StateCU_CropPatternTS cds, StateCU_IrrigationPracticeTS ipy,
+	double [][] cdsValues, double [][] ipyValues ) {
+	for ( int year = __YEAR1; year <= __YEAR2; year++ ) {
+		int iyear = year - __YEAR1;
+		for ( int j = 0; j < __CROPS.length; j++ ) {
+			cdsValues[j][iyear] = cds.getCropArea ( __CROPS[j], year, false );
+		}
+		cdsValues[__CROPS.length][iyear] = cds.getTotalArea ( year );
+		ipyValues[0][iyear] = ipy.getAcsw ( year );
+		ipyValues[1][iyear] = ipy.getAcgwfl ( year );
+		ipyValues[2][iyear] = ipy.getTacre ( year );
+	}
+}
+
+/**
+Set the acreage parts and totals, leaving some parts missing so that all adjustment cases are used.
+*/
+private static void setAcreage ( List<StateCU_IrrigationPracticeTS> ipyList ) {
+	for ( int i = 0; i < __LOCATIONS; i++ ) {
+		Random generator = new Random ( i );
+		StateCU_IrrigationPracticeTS ipy = ipyList.get(i);
+		for ( int year = __YEAR1; year <= __YEAR2; year++ ) {
+			ipy.setTacre ( year, generator.nextInt(10000)/10.0 );
+			ipy.setAcswfl ( year, (generator.nextInt(4) == 0) ? -999.0 : generator.nextInt(5000)/10.0 );
+			ipy.setAcswspr ( year, (generator.nextInt(4) == 0) ? -999.0 : generator.nextInt(5000)/10.0 );
+			ipy.setAcgwfl ( year, (generator.nextInt(4) == 0) ? -999.0 : generator.nextInt(5000)/10.0 );
+			ipy.setAcgwspr ( year, (generator.nextInt(4) == 0) ? -999.0 : generator.nextInt(5000)/10.0 );
+			ipy.refreshAcsw ( year );
+			ipy.refreshAcgw ( year );
+		}
+	}
+}
+
+/**
+Set data for a range of locations, using values that are the same for each call.
+*/
+private static void setData ( List<StateCU_CropPatternTS> cdsList, List<StateCU_IrrigationPracticeTS> ipyList,
+	int start, int end ) throws Exception {
+	for ( int i = start; i < end; i++ ) {
+		Random generator = new Random ( i );
+		StateCU_CropPatternTS cds = cdsList.get(i);
+		StateCU_IrrigationPracticeTS ipy = ipyList.get(i);
+		for ( int year = __YEAR1; year <= __YEAR2; year++ ) {
+			for ( int j = 0; j < __CROPS.length; j++ ) {
+				cds.setCropArea ( __CROPS[j], year, generator.nextInt(10000)/10.0 );
+			}
+			ipy.setAcsw ( year, generator.nextInt(10000)/10.0 );
+			ipy.setAcgwfl ( year, generator.nextInt(10000)/10.0 );
+			ipy.setTacre ( year, generator.nextInt(10000)/10.0 );
+		}
+		cds.refresh();
+	}
+}
+
+}
@@ -0,0 +1,83 @@
+package DWR.StateCU;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.List;
+
+import RTi.TS.TS;
+import RTi.Util.Time.DateTime;
+
+import junit.framework.TestCase;
+
+public class StateCU_TSReportFileTest extends TestCase
+{
+
+private static final int __LOCATIONS = 50;
+private static final int __YEAR1 = 1950;
+private static final int __YEAR2 = 2020;
+
+/**
+Check that reading one location and locations matching a wildcard from a report file gives the same
+time series as reading all locations.
+*/
+public void testReadRequestedLocation() throws Exception {
+	File file = File.createTempFile ( "StateCU_TSReportFileTest", ".IWR" );
+	file.deleteOnExit();
+	writeReportFile ( file );
+	List<TS> tslist = StateCU_TS.readTimeSeriesList ( file.getPath(), null, null, null, true );
+	assertEquals ( 4*__LOCATIONS, tslist.size() );
+	List<TS> tslist2 = StateCU_TS.readTimeSeriesList ( "L37.StateCU.IWR.Month", file.getPath(), null, null, null, true );
+	assertEquals ( 1, tslist2.size() );
+	assertSameData ( tslist.get(4*37 + 1), tslist2.get(0) );
+	List<TS> tslist3 = StateCU_TS.readTimeSeriesList ( "L4*.StateCU.CropArea-AllCrops.Year", file.getPath(), null, null, null, true );
+	assertEquals ( 11, tslist3.size() );
+	assertSameData ( tslist.get(4*4), tslist3.get(0) );
+	for ( int i = 1; i < tslist3.size(); i++ ) {
+		assertSameData ( tslist.get(4*(39 + i)), tslist3.get(i) );
+	}
+}
+
+/**
+Check that two time series have the same identifier and data.
+*/
+private static void assertSameData ( TS expected, TS ts ) throws Exception {
+	assertEquals ( expected.getIdentifierString(), ts.getIdentifierString() );
+	assertTrue ( expected.getDate1().equals(ts.getDate1()) );
+	assertTrue ( expected.getDate2().equals(ts.getDate2()) );
+	DateTime date = new DateTime ( expected.getDate1() );
+	for ( ; date.lessThanOrEqualTo(expected.getDate2()); date.addInterval(expected.getDataIntervalBase(),expected.getDataIntervalMult()) ) {
+		assertEquals ( expected.getDataValue(date), ts.getDataValue(date), 0.0 );
+	}
+}
+
+/**
+Write a report file with monthly values that differ for each location and year.
+*/
+private static void writeReportFile ( File file ) throws Exception {
+	PrintWriter out = new PrintWriter ( file );
+	try {
+		out.println ( "  CROP IRRIGATION WATER REQUIREMENT REPORT" );
+		out.println ( "" );
+		for ( int i = 0; i < __LOCATIONS; i++ ) {
+			out.println ( "_L" + i + " Location " + i );
+			out.println ( "              CROP IRRIGATION WATER REQUIREMENT (ACRE-FT)" );
+			out.println ( "" );
+			out.println ( "Year     Area    Jan    Feb    Mar     Apr     May     Jun     Jul     Aug     Sep     Oct    Nov   Dec    Annual  Depth" );
+			out.println ( "" );
+			out.println ( "" );
+			for ( int year = __YEAR1; year <= __YEAR2; year++ ) {
+				double base = i + (year - __YEAR1)/10.0;
+				out.println ( String.format("%5d%9.1f%6.1f%7.1f%7.1f%8.1f%8.1f%8.1f%8.1f%8.1f%8.1f%8.1f%7.1f%6.1f%10.1f%7.2f",
+					year, 100.0 + base, base + 1, base + 2, base + 3, base + 4, base + 5, base + 6, base + 7, base + 8,
+					base + 9, base + 10, base + 11, base + 12, 12*base + 78, base/100.0) );
+			}
+			out.println ( "-------------------------------------------------------------------------------------------------------------------" );
+			out.println ( "" );
+		}
+	}
+	finally {
+		out.close();
+	}
+}
+
+}
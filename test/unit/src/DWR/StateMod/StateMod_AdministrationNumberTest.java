@@ -0,0 +1,116 @@
+package DWR.StateMod;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import RTi.Util.Time.DateTime;
+
+import junit.framework.TestCase;
+
+public class StateMod_AdministrationNumberTest extends TestCase
+{
+
+/**
+Number of administration numbers used to compare object and key conversion and sorting.
+*/
+private static final int __SORT_COUNT = 20000;
+
+/**
+Check that the day number conversions agree with the administration number objects.
+*/
+public void testDayNumberConversion() throws Exception {
+	int [] ymd = new int[3];
+	for ( int dayNumber = 1; dayNumber < 99999; dayNumber += 7 ) {
+		StateMod_AdministrationNumber adminnum = new StateMod_AdministrationNumber ( dayNumber );
+		DateTime date = adminnum.getAppropriationDate();
+		assertEquals ( dayNumber, StateMod_AdministrationNumber.getDayNumber(date.getYear(), date.getMonth(), date.getDay()) );
+		StateMod_AdministrationNumber.getYearMonthDay ( dayNumber, ymd );
+		assertEquals ( date.getYear(), ymd[0] );
+		assertEquals ( date.getMonth(), ymd[1] );
+		assertEquals ( date.getDay(), ymd[2] );
+	}
+}
+
+/**
+Check that keys computed from dates agree with the administration number objects and sort in order.
+*/
+public void testAdminNumberKey() throws Exception {
+	Random generator = new Random( 19580427 );
+	int size = 1000;
+	long [] keys = new long[size];
+	StateMod_AdministrationNumber [] adminnums = new StateMod_AdministrationNumber[size];
+	for ( int i = 0; i < size; i++ ) {
+		int appro = 1 + generator.nextInt(60000);
+		int padj = 1 + generator.nextInt(60000);
+		adminnums[i] = new StateMod_AdministrationNumber ( createDate(appro), createDate(padj) );
+		keys[i] = StateMod_AdministrationNumber.computeAdminNumberKey ( appro, padj );
+		assertEquals ( adminnums[i].getAdminNumberKey(), keys[i] );
+		assertEquals ( keys[i], StateMod_AdministrationNumber.getAdminNumberKey(adminnums[i].getAdminNumber()) );
+		assertEquals ( adminnums[i].getAdminNumber(), StateMod_AdministrationNumber.getAdminNumberFromKey(keys[i]), 0.0 );
+		assertEquals ( adminnums[i].getJulianAppropriationDate(),
+			StateMod_AdministrationNumber.getAppropriationDayNumberFromKey(keys[i]) );
+	}
+	for ( int i = 1; i < size; i++ ) {
+		assertEquals ( adminnums[i].lessThan(adminnums[i - 1]), keys[i] < keys[i - 1] );
+		assertEquals ( adminnums[i].greaterThan(adminnums[i - 1]), keys[i] > keys[i - 1] );
+	}
+}
+
+/**
+Check that converting and sorting administration numbers using the static methods gives the same dates and
+order as using objects.  See StateMod_Benchmark for the timing of the two approaches.
+*/
+public void testSortKeys() throws Exception {
+	Random generator = new Random( 19580427 );
+	double [] values = new double[__SORT_COUNT];
+	for ( int i = 0; i < __SORT_COUNT; i++ ) {
+		values[i] = (double)(1 + generator.nextInt(60000)) + (double)generator.nextInt(60000)/100000.0;
+	}
+	// Objects...
+	StateMod_AdministrationNumber [] adminnums = new StateMod_AdministrationNumber[__SORT_COUNT];
+	int yearSum1 = 0;
+	for ( int i = 0; i < __SORT_COUNT; i++ ) {
+		adminnums[i] = new StateMod_AdministrationNumber ( values[i] );
+		yearSum1 += adminnums[i].getAppropriationDate().getYear();
+	}
+	Arrays.sort ( adminnums, new java.util.Comparator<StateMod_AdministrationNumber>() {
+		public int compare ( StateMod_AdministrationNumber a, StateMod_AdministrationNumber b ) {
+			if ( a.lessThan(b) ) {
+				return -1;
+			}
+			else if ( a.greaterThan(b) ) {
+				return 1;
+			}
+			return 0;
+		}
+	});
+	// Static methods...
+	long [] keys = new long[__SORT_COUNT];
+	int [] ymd = new int[3];
+	int yearSum2 = 0;
+	for ( int i = 0; i < __SORT_COUNT; i++ ) {
+		keys[i] = StateMod_AdministrationNumber.getAdminNumberKey ( values[i] );
+		StateMod_AdministrationNumber.getYearMonthDay (
+			StateMod_AdministrationNumber.getAppropriationDayNumberFromKey(keys[i]), ymd );
+		yearSum2 += ymd[0];
+	}
+	Arrays.sort ( keys );
+	assertEquals ( yearSum1, yearSum2 );
+	for ( int i = 0; i < __SORT_COUNT; i++ ) {
+		assertEquals ( adminnums[i].getAdminNumberKey(), keys[i] );
+	}
+}
+
+/**
+Create a date from a day number.
+*/
+private DateTime createDate ( int dayNumber ) {
+	int [] ymd = StateMod_AdministrationNumber.getYearMonthDay ( dayNumber, null );
+	DateTime date = new DateTime ( DateTime.PRECISION_DAY );
+	date.setYear ( ymd[0] );
+	date.setMonth ( ymd[1] );
+	date.setDay ( ymd[2] );
+	return date;
+}
+
+}
@@ -0,0 +1,141 @@
+package DWR.StateMod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+public class StateMod_ComponentValidationCacheTest extends TestCase
+{
+
+private static final int __DIVERSIONS = 300;
+private static final int __RIGHTS_PER_DIVERSION = 2;
+
+private static final int [] __COMP_TYPES = {
+	StateMod_DataSet.COMP_DIVERSION_STATIONS,
+	StateMod_DataSet.COMP_DIVERSION_RIGHTS
+};
+
+private StateMod_DataSet __dataset;
+private List<StateMod_Diversion> __diversions;
+private List<StateMod_DiversionRight> __rights;
+
+/**
+Create a data set with diversion stations and rights, none of which are dirty.
+*/
+protected void setUp() {
+	__diversions = new ArrayList<StateMod_Diversion>();
+	__rights = new ArrayList<StateMod_DiversionRight>();
+	for ( int i = 0; i < __DIVERSIONS; i++ ) {
+		StateMod_Diversion div = new StateMod_Diversion();
+		String id = "D" + (100000 + i);
+		div.setID ( id );
+		div.setName ( "Diversion " + (i + 1) );
+		div.setCgoto ( id );
+		div.setDivcap ( 10.0 + i );
+		div.setIdvcom ( 1 );
+		div.setSwitch ( 1 );
+		div.setDirty ( false );
+		__diversions.add ( div );
+		for ( int j = 0; j < __RIGHTS_PER_DIVERSION; j++ ) {
+			__rights.add ( createRight(id, j + 1) );
+		}
+	}
+	__dataset = new StateMod_DataSet();
+	__dataset.getComponentForComponentType(StateMod_DataSet.COMP_DIVERSION_STATIONS).setData ( __diversions );
+	__dataset.getComponentForComponentType(StateMod_DataSet.COMP_DIVERSION_RIGHTS).setData ( __rights );
+}
+
+/**
+Check that a second run without changes reuses all of the cached results.
+*/
+public void testCacheHit() {
+	StateMod_ComponentValidationEngine engine = new StateMod_ComponentValidationEngine ( __dataset, 2 );
+	StateMod_ComponentValidationCache cache = new StateMod_ComponentValidationCache();
+	int total = __DIVERSIONS*(1 + __RIGHTS_PER_DIVERSION);
+	Map<Integer,List<StateMod_ComponentValidationProblem>> results = engine.validateComponents ( __COMP_TYPES, cache );
+	assertEquals ( total, cache.getValidatedCount() );
+	assertEquals ( 0, cache.getReusedCount() );
+	Map<Integer,List<StateMod_ComponentValidationProblem>> results2 = engine.validateComponents ( __COMP_TYPES, cache );
+	assertEquals ( 0, cache.getValidatedCount() );
+	assertEquals ( total, cache.getReusedCount() );
+	assertResultsEqual ( results, results2 );
+}
+
+/**
+Check that an added right is validated, along with its station, and that other results are reused.
+*/
+public void testCacheMiss() {
+	StateMod_ComponentValidationEngine engine = new StateMod_ComponentValidationEngine ( __dataset, 2 );
+	StateMod_ComponentValidationCache cache = new StateMod_ComponentValidationCache();
+	engine.validateComponents ( __COMP_TYPES, cache );
+	__rights.add ( createRight(__diversions.get(5).getID(), 9) );
+	Map<Integer,List<StateMod_ComponentValidationProblem>> results = engine.validateComponents ( __COMP_TYPES, cache );
+	assertEquals ( 2, cache.getValidatedCount() );
+	assertResultsEqual ( engine.validateComponents(__COMP_TYPES), results );
+}
+
+/**
+Check that stations are validated again when their rights are edited, removed, or moved.
+*/
+public void testInvalidationAfterRightsChange() {
+	StateMod_ComponentValidationEngine engine = new StateMod_ComponentValidationEngine ( __dataset, 2 );
+	StateMod_ComponentValidationCache cache = new StateMod_ComponentValidationCache();
+	engine.validateComponents ( __COMP_TYPES, cache );
+	// Edit a right, which should validate the right and its station.
+	StateMod_DiversionRight right = __rights.get(10);
+	right.setDcrdiv ( -1.0 );
+	Map<Integer,List<StateMod_ComponentValidationProblem>> results = engine.validateComponents ( __COMP_TYPES, cache );
+	assertEquals ( 2, cache.getValidatedCount() );
+	assertResultsEqual ( engine.validateComponents(__COMP_TYPES), results );
+	// After the edit is saved, nothing needs to be validated.
+	right.setDirty ( false );
+	engine.validateComponents ( __COMP_TYPES, cache );
+	assertEquals ( 0, cache.getValidatedCount() );
+	// Remove a right, which should validate its station.
+	__rights.remove ( 20 );
+	results = engine.validateComponents ( __COMP_TYPES, cache );
+	assertEquals ( 1, cache.getValidatedCount() );
+	assertResultsEqual ( engine.validateComponents(__COMP_TYPES), results );
+	// Move a right to another station, which should validate the right and both stations.
+	right = __rights.get(30);
+	right.setCgoto ( __diversions.get(100).getID() );
+	results = engine.validateComponents ( __COMP_TYPES, cache );
+	assertEquals ( 3, cache.getValidatedCount() );
+	assertResultsEqual ( engine.validateComponents(__COMP_TYPES), results );
+}
+
+/**
+Compare validation results.
+*/
+private void assertResultsEqual ( Map<Integer,List<StateMod_ComponentValidationProblem>> expected,
+	Map<Integer,List<StateMod_ComponentValidationProblem>> results ) {
+	assertEquals ( expected.keySet(), results.keySet() );
+	for ( Integer compType : expected.keySet() ) {
+		List<StateMod_ComponentValidationProblem> expectedProblems = expected.get(compType);
+		List<StateMod_ComponentValidationProblem> problems = results.get(compType);
+		assertEquals ( expectedProblems.size(), problems.size() );
+		for ( int i = 0; i < problems.size(); i++ ) {
+			assertSame ( expectedProblems.get(i).getData(), problems.get(i).getData() );
+			assertEquals ( expectedProblems.get(i).getProblem(), problems.get(i).getProblem() );
+		}
+	}
+}
+
+/**
+Create a right for a station, which is not dirty.
+*/
+private StateMod_DiversionRight createRight ( String id, int count ) {
+	StateMod_DiversionRight right = new StateMod_DiversionRight();
+	right.setID ( id + "." + count );
+	right.setName ( id );
+	right.setCgoto ( id );
+	right.setIrtem ( "" + (20000 + count) + ".00000" );
+	right.setDcrdiv ( 1.0 + count );
+	right.setSwitch ( 1 );
+	right.setDirty ( false );
+	return right;
+}
+
+}
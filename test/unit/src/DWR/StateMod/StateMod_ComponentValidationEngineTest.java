@@ -0,0 +1,145 @@
+package DWR.StateMod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class StateMod_ComponentValidationEngineTest extends TestCase
+{
+
+private static final int __DIVERSIONS = 600;
+private static final int __RIGHTS_PER_DIVERSION = 3;
+
+private static final int [] __COMP_TYPES = {
+	StateMod_DataSet.COMP_DIVERSION_STATIONS,
+	StateMod_DataSet.COMP_DIVERSION_RIGHTS,
+	StateMod_DataSet.COMP_RESERVOIR_STATIONS
+};
+
+/**
+Check that validating all components in one engine run finds the same problems, in the same order,
+as the previous checks that validated each object of each component in turn.
+*/
+public void testValidateComponents() {
+	StateMod_DataSet dataset = createDataSet();
+	StateMod_ComponentValidationEngine engine = new StateMod_ComponentValidationEngine ( dataset, 4 );
+	Map<Integer,List<StateMod_ComponentValidationProblem>> results = engine.validateComponents ( __COMP_TYPES );
+	assertEquals ( __COMP_TYPES.length, results.size() );
+	int problemCount = 0;
+	for ( int i = 0; i < __COMP_TYPES.length; i++ ) {
+		List<StateMod_ComponentValidationProblem> expected = validateSequential ( dataset, __COMP_TYPES[i] );
+		List<StateMod_ComponentValidationProblem> problems = results.get ( Integer.valueOf(__COMP_TYPES[i]) );
+		assertNotNull ( problems );
+		assertProblemsEqual ( expected, problems );
+		problemCount += problems.size();
+	}
+	// Make sure that the data set does have problems to compare.
+	assertTrue ( problemCount > 0 );
+	assertNull ( dataset.getComponentValidationIndex() );
+}
+
+/**
+Check that checkComponentData() only does the component-specific checks, which do not include diversions.
+*/
+public void testCheckComponentData() {
+	StateMod_DataSet dataset = createDataSet();
+	for ( int i = 0; i < __COMP_TYPES.length; i++ ) {
+		assertEquals ( 0, dataset.checkComponentData(__COMP_TYPES[i], null).size() );
+	}
+}
+
+/**
+Check that validating the data set lists the validation problems for each component, in the order of the
+components and the objects in each component.
+*/
+public void testValidateComponentData() {
+	StateMod_DataSet dataset = createDataSet();
+	List<String> messages = dataset.validateComponentData ( __COMP_TYPES, null );
+	List<String> expected = new ArrayList<String>();
+	for ( int i = 0; i < __COMP_TYPES.length; i++ ) {
+		List<StateMod_ComponentValidationProblem> problems = validateSequential ( dataset, __COMP_TYPES[i] );
+		if ( problems.size() > 0 ) {
+			expected.add ( "" );
+			expected.add ( "The following " + dataset.lookupComponentName(__COMP_TYPES[i]) + " problems (" +
+				problems.size() + ") were found:" );
+			expected.add ( "" );
+			for ( StateMod_ComponentValidationProblem problem : problems ) {
+				expected.add ( problem.getProblem() + "  " + problem.getRecommendation() );
+			}
+		}
+	}
+	assertEquals ( expected, messages );
+	assertTrue ( messages.size() > 0 );
+}
+
+/**
+Compare two lists of problems.
+*/
+private void assertProblemsEqual ( List<StateMod_ComponentValidationProblem> expected,
+	List<StateMod_ComponentValidationProblem> problems ) {
+	assertEquals ( expected.size(), problems.size() );
+	for ( int i = 0; i < expected.size(); i++ ) {
+		assertSame ( expected.get(i).getData(), problems.get(i).getData() );
+		assertEquals ( expected.get(i).getProblem(), problems.get(i).getProblem() );
+		assertEquals ( expected.get(i).getRecommendation(), problems.get(i).getRecommendation() );
+	}
+}
+
+/**
+Create a data set with diversion stations and rights, some of which have problems.
+*/
+private StateMod_DataSet createDataSet() {
+	Random generator = new Random ( 20070319 );
+	List<StateMod_Diversion> diversions = new ArrayList<StateMod_Diversion>();
+	List<StateMod_DiversionRight> rights = new ArrayList<StateMod_DiversionRight>();
+	for ( int i = 0; i < __DIVERSIONS; i++ ) {
+		StateMod_Diversion div = new StateMod_Diversion();
+		String id = "D" + (100000 + i);
+		div.setID ( id );
+		if ( generator.nextInt(10) != 0 ) {
+			div.setName ( "Diversion " + (i + 1) );
+		}
+		div.setCgoto ( id );
+		div.setDivcap ( generator.nextInt(10) == 0 ? -1.0 : 1.0 + generator.nextInt(5000)/10.0 );
+		div.setIdvcom ( 1 );
+		div.setSwitch ( 1 );
+		diversions.add ( div );
+		for ( int j = 0; j < __RIGHTS_PER_DIVERSION; j++ ) {
+			StateMod_DiversionRight right = new StateMod_DiversionRight();
+			right.setID ( id + "." + (j + 1) );
+			right.setName ( div.getName() );
+			// Some rights are associated with diversions that are not in the data set.
+			right.setCgoto ( generator.nextInt(20) == 0 ? "X" + (100000 + i) : id );
+			right.setIrtem ( generator.nextInt(20) == 0 ? "bad" : "" + (10000.0 + generator.nextInt(40000)) );
+			right.setDcrdiv ( generator.nextInt(20) == 0 ? -1.0 : generator.nextInt(200)/10.0 );
+			right.setSwitch ( 1 );
+			rights.add ( right );
+		}
+	}
+	StateMod_DataSet dataset = new StateMod_DataSet();
+	dataset.getComponentForComponentType(StateMod_DataSet.COMP_DIVERSION_STATIONS).setData ( diversions );
+	dataset.getComponentForComponentType(StateMod_DataSet.COMP_DIVERSION_RIGHTS).setData ( rights );
+	return dataset;
+}
+
+/**
+Validate the objects in a component one at a time, as done by the previous data checks.
+*/
+private List<StateMod_ComponentValidationProblem> validateSequential ( StateMod_DataSet dataset, int compType ) {
+	List<StateMod_ComponentValidationProblem> problems = new ArrayList<StateMod_ComponentValidationProblem>();
+	Object data = dataset.getComponentForComponentType(compType).getData();
+	if ( !(data instanceof List) ) {
+		return problems;
+	}
+	for ( Object o : (List<?>)data ) {
+		if ( o instanceof StateMod_ComponentValidator ) {
+			problems.addAll ( ((StateMod_ComponentValidator)o).validateComponent(dataset).getAll() );
+		}
+	}
+	return problems;
+}
+
+}
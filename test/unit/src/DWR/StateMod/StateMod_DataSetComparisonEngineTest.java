@@ -0,0 +1,237 @@
+package DWR.StateMod;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import RTi.TS.MonthTS;
+import RTi.TS.TS;
+import RTi.Util.Time.DateTime;
+
+import junit.framework.TestCase;
+
+public class StateMod_DataSetComparisonEngineTest extends TestCase
+{
+
+private static final int __DIVERSIONS = 100;
+
+/**
+Check that data sets with the same data have no differences, even if objects are dirty in one data set.
+*/
+public void testIdentical() throws Exception {
+	StateMod_DataSet dataset1 = createDataSet();
+	StateMod_DataSet dataset2 = createDataSet();
+	getDiversions(dataset2).get(5).setDirty ( false );
+	getRights(dataset2).get(5).setDirty ( true );
+	List<StateMod_DataSetComparisonEngine.ComponentDifference> differences = compare ( dataset1, dataset2 );
+	assertEquals ( 3, differences.size() );
+	for ( StateMod_DataSetComparisonEngine.ComponentDifference difference : differences ) {
+		assertFalse ( difference.getComponentName(), difference.hasDifferences() );
+		assertEquals ( difference.getCount1(), difference.getCount2() );
+	}
+}
+
+/**
+Check that changed objects are listed with the values that are different.
+*/
+public void testChanged() throws Exception {
+	StateMod_DataSet dataset1 = createDataSet();
+	StateMod_DataSet dataset2 = createDataSet();
+	getDiversions(dataset2).get(3).setDivcap ( 1000.0 );
+	getRights(dataset2).get(7).setName ( "Changed" );
+	getRights(dataset2).get(8).setDcrdiv ( 99.0 );
+	getRights(dataset2).get(8).setIrtem ( "12345.00000" );
+	TS ts = getTS(dataset2).get(2);
+	DateTime date = new DateTime ( ts.getDate1() );
+	date.addMonth ( 5 );
+	ts.setDataValue ( date, -1.0 );
+	List<StateMod_DataSetComparisonEngine.ComponentDifference> differences = compare ( dataset1, dataset2 );
+
+	StateMod_DataSetComparisonEngine.ComponentDifference difference =
+		getDifference ( differences, StateMod_DataSet.COMP_DIVERSION_STATIONS );
+	assertEquals ( 0, difference.getAdded().size() );
+	assertEquals ( 0, difference.getRemoved().size() );
+	assertEquals ( 1, difference.getChanged().size() );
+	assertEquals ( "D100003", difference.getChanged().get(0).getID() );
+	assertEquals ( 1, difference.getChanged().get(0).getFieldDifferences().size() );
+	assertEquals ( "divcap: 13.0 -> 1000.0", difference.getChanged().get(0).getFieldDifferences().get(0) );
+
+	difference = getDifference ( differences, StateMod_DataSet.COMP_DIVERSION_RIGHTS );
+	assertEquals ( 2, difference.getChanged().size() );
+	assertEquals ( "D100007.1", difference.getChanged().get(0).getID() );
+	List<String> fieldDifferences = difference.getChanged().get(0).getFieldDifferences();
+	assertEquals ( 1, fieldDifferences.size() );
+	assertEquals ( "name: \"D100007\" -> \"Changed\"", fieldDifferences.get(0) );
+	fieldDifferences = difference.getChanged().get(1).getFieldDifferences();
+	assertEquals ( 2, fieldDifferences.size() );
+	assertTrue ( fieldDifferences.contains("irtem: \"20008.00000\" -> \"12345.00000\"") );
+	assertTrue ( fieldDifferences.contains("dcrdiv: 2.0 -> 99.0") );
+
+	difference = getDifference ( differences, StateMod_DataSet.COMP_DIVERSION_TS_MONTHLY );
+	assertEquals ( 1, difference.getChanged().size() );
+	fieldDifferences = difference.getChanged().get(0).getFieldDifferences();
+	assertEquals ( 1, fieldDifferences.size() );
+	assertEquals ( "values: 1 different, first at " + date + " 2.0 -> -1.0", fieldDifferences.get(0) );
+}
+
+/**
+Check that differences in arrays of values are listed for each value that is different.
+*/
+public void testChangedArray() throws Exception {
+	StateMod_DataSet dataset1 = createDataSet();
+	StateMod_DataSet dataset2 = createDataSet();
+	getDiversions(dataset1).get(6).setDiveff ( 2, 50.0 );
+	getDiversions(dataset2).get(6).setDiveff ( 2, 60.0 );
+	List<StateMod_DataSetComparisonEngine.ComponentDifference> differences = compare ( dataset1, dataset2 );
+	StateMod_DataSetComparisonEngine.ComponentDifference difference =
+		getDifference ( differences, StateMod_DataSet.COMP_DIVERSION_STATIONS );
+	assertEquals ( 1, difference.getChanged().size() );
+	assertEquals ( "D100006", difference.getChanged().get(0).getID() );
+	List<String> fieldDifferences = difference.getChanged().get(0).getFieldDifferences();
+	assertEquals ( 1, fieldDifferences.size() );
+	assertEquals ( "diveff[2]: 50.0 -> 60.0", fieldDifferences.get(0) );
+}
+
+/**
+Check that objects only in the second data set are added and objects only in the first data set are removed,
+including a time series with a different period.
+*/
+public void testAddedAndRemoved() throws Exception {
+	StateMod_DataSet dataset1 = createDataSet();
+	StateMod_DataSet dataset2 = createDataSet();
+	getDiversions(dataset2).remove ( 10 );
+	getDiversions(dataset2).add ( createDiversion(999) );
+	getRights(dataset2).remove ( 20 );
+	TS ts = getTS(dataset2).get(4);
+	DateTime date2 = new DateTime ( ts.getDate2() );
+	date2.addMonth ( 12 );
+	ts.changePeriodOfRecord ( ts.getDate1(), date2 );
+	List<StateMod_DataSetComparisonEngine.ComponentDifference> differences = compare ( dataset1, dataset2 );
+
+	StateMod_DataSetComparisonEngine.ComponentDifference difference =
+		getDifference ( differences, StateMod_DataSet.COMP_DIVERSION_STATIONS );
+	assertEquals ( __DIVERSIONS, difference.getCount1() );
+	assertEquals ( __DIVERSIONS, difference.getCount2() );
+	assertEquals ( 1, difference.getRemoved().size() );
+	assertEquals ( "D100010", difference.getRemoved().get(0) );
+	assertEquals ( 1, difference.getAdded().size() );
+	assertEquals ( "D100999", difference.getAdded().get(0) );
+	assertEquals ( 0, difference.getChanged().size() );
+
+	difference = getDifference ( differences, StateMod_DataSet.COMP_DIVERSION_RIGHTS );
+	assertEquals ( 1, difference.getRemoved().size() );
+	assertEquals ( "D100020.1", difference.getRemoved().get(0) );
+	assertEquals ( 0, difference.getAdded().size() );
+	assertEquals ( 0, difference.getChanged().size() );
+
+	difference = getDifference ( differences, StateMod_DataSet.COMP_DIVERSION_TS_MONTHLY );
+	assertEquals ( 1, difference.getChanged().size() );
+	List<String> fieldDifferences = difference.getChanged().get(0).getFieldDifferences();
+	assertEquals ( 1, fieldDifferences.size() );
+	assertTrue ( fieldDifferences.get(0).startsWith("period: ") );
+}
+
+/**
+Compare the data sets sequentially and in parallel, check that the results are the same, and return the
+sequential results.
+*/
+private List<StateMod_DataSetComparisonEngine.ComponentDifference> compare ( StateMod_DataSet dataset1,
+	StateMod_DataSet dataset2 ) {
+	List<StateMod_DataSetComparisonEngine.ComponentDifference> differences =
+		new StateMod_DataSetComparisonEngine(dataset1, dataset2, 1).compare();
+	List<StateMod_DataSetComparisonEngine.ComponentDifference> differences2 =
+		new StateMod_DataSetComparisonEngine(dataset1, dataset2, 4).compare();
+	assertEquals ( StateMod_DataSetComparisonEngine.formatReport(differences),
+		StateMod_DataSetComparisonEngine.formatReport(differences2) );
+	return differences;
+}
+
+/**
+Create a data set with diversion stations, rights, and monthly historical diversion time series.
+*/
+private StateMod_DataSet createDataSet() throws Exception {
+	List<StateMod_Diversion> diversions = new ArrayList<StateMod_Diversion>();
+	List<StateMod_DiversionRight> rights = new ArrayList<StateMod_DiversionRight>();
+	List<TS> tslist = new ArrayList<TS>();
+	for ( int i = 0; i < __DIVERSIONS; i++ ) {
+		StateMod_Diversion div = createDiversion ( i );
+		diversions.add ( div );
+		StateMod_DiversionRight right = new StateMod_DiversionRight();
+		right.setID ( div.getID() + ".1" );
+		right.setName ( div.getID() );
+		right.setCgoto ( div.getID() );
+		right.setIrtem ( "" + (20000 + i) + ".00000" );
+		right.setDcrdiv ( 2.0 );
+		right.setSwitch ( 1 );
+		rights.add ( right );
+		if ( i < 10 ) {
+			MonthTS ts = new MonthTS();
+			ts.setIdentifier ( div.getID() + ".StateMod.DivTotal.Month" );
+			ts.setDataUnits ( "ACFT" );
+			ts.setDate1 ( DateTime.parse("1950-01") );
+			ts.setDate2 ( DateTime.parse("1959-12") );
+			ts.allocateDataSpace ( 2.0 );
+			tslist.add ( ts );
+		}
+	}
+	StateMod_DataSet dataset = new StateMod_DataSet();
+	dataset.getComponentForComponentType(StateMod_DataSet.COMP_DIVERSION_STATIONS).setData ( diversions );
+	dataset.getComponentForComponentType(StateMod_DataSet.COMP_DIVERSION_RIGHTS).setData ( rights );
+	dataset.getComponentForComponentType(StateMod_DataSet.COMP_DIVERSION_TS_MONTHLY).setData ( tslist );
+	return dataset;
+}
+
+/**
+Create a diversion station.
+*/
+private StateMod_Diversion createDiversion ( int i ) {
+	StateMod_Diversion div = new StateMod_Diversion();
+	String id = "D" + (100000 + i);
+	div.setID ( id );
+	div.setName ( "Diversion " + i );
+	div.setCgoto ( id );
+	div.setDivcap ( 10.0 + i );
+	div.setSwitch ( 1 );
+	return div;
+}
+
+/**
+Return the differences for a component.
+*/
+private StateMod_DataSetComparisonEngine.ComponentDifference getDifference (
+	List<StateMod_DataSetComparisonEngine.ComponentDifference> differences, int componentType ) {
+	for ( StateMod_DataSetComparisonEngine.ComponentDifference difference : differences ) {
+		if ( difference.getComponentType() == componentType ) {
+			return difference;
+		}
+	}
+	fail ( "No differences for component type " + componentType );
+	return null;
+}
+
+/**
+Return the diversion stations in a data set.
+*/
+@SuppressWarnings("unchecked")
+private List<StateMod_Diversion> getDiversions ( StateMod_DataSet dataset ) {
+	return (List<StateMod_Diversion>)dataset.getComponentForComponentType(
+		StateMod_DataSet.COMP_DIVERSION_STATIONS).getData();
+}
+
+/**
+Return the diversion rights in a data set.
+*/
+@SuppressWarnings("unchecked")
+private List<StateMod_DiversionRight> getRights ( StateMod_DataSet dataset ) {
+	return (List<StateMod_DiversionRight>)dataset.getComponentForComponentType(
+		StateMod_DataSet.COMP_DIVERSION_RIGHTS).getData();
+}
+
+/**
+Return the monthly historical diversion time series in a data set.
+*/
+@SuppressWarnings("unchecked")
+private List<TS> getTS ( StateMod_DataSet dataset ) {
+	return (List<TS>)dataset.getComponentForComponentType(StateMod_DataSet.COMP_DIVERSION_TS_MONTHLY).getData();
+}
+
+}
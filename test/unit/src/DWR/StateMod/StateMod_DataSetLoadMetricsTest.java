@@ -0,0 +1,155 @@
+package DWR.StateMod;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import RTi.Util.IO.DataSetComponent;
+
+import junit.framework.TestCase;
+
+public class StateMod_DataSetLoadMetricsTest extends TestCase
+{
+
+/**
+Check that the metrics for a component read with readComponentStart() and readComponentEnd() separate
+the connect time from the parse time and count the file bytes and records.
+*/
+public void testReadComponent() throws Exception {
+	StateMod_DataSet dataset = new StateMod_DataSet();
+	DataSetComponent comp = dataset.getComponentForComponentType ( StateMod_DataSet.COMP_DIVERSION_STATIONS );
+	File file = createFile ( 100 );
+	StateMod_DataSetLoadMetrics metrics = new StateMod_DataSetLoadMetrics();
+	metrics.readComponentStart ( comp, file.getAbsolutePath() );
+	comp.setData ( createList(7) );
+	metrics.addConnectSeconds ( comp.getComponentType(), comp.getComponentName(), 0.5 );
+	metrics.readComponentEnd ( comp, 2.0 );
+	StateMod_DataSetLoadMetrics.ComponentMetrics componentMetrics =
+		metrics.getComponentMetrics ( StateMod_DataSet.COMP_DIVERSION_STATIONS );
+	assertTrue ( componentMetrics.wasRead() );
+	assertFalse ( componentMetrics.getError() );
+	assertEquals ( file.getAbsolutePath(), componentMetrics.getFileName() );
+	assertEquals ( 100, componentMetrics.getBytesRead() );
+	assertEquals ( 7, componentMetrics.getRecordCount() );
+	assertEquals ( 1.5, componentMetrics.getParseSeconds(), 1.0e-9 );
+	assertEquals ( 0.5, componentMetrics.getConnectSeconds(), 1.0e-9 );
+	if ( !StateMod_DataSetLoadMetrics.isAllocatedBytesAvailable() ) {
+		assertEquals ( -1, componentMetrics.getAllocatedBytes() );
+	}
+}
+
+/**
+Check that components added with addComponentRead() are included in the totals with components read on the
+current thread, in the order that the components were processed.
+*/
+public void testAddComponentRead() throws Exception {
+	StateMod_DataSet dataset = new StateMod_DataSet();
+	DataSetComponent comp1 = dataset.getComponentForComponentType ( StateMod_DataSet.COMP_DIVERSION_STATIONS );
+	DataSetComponent comp2 = dataset.getComponentForComponentType ( StateMod_DataSet.COMP_DIVERSION_RIGHTS );
+	DataSetComponent comp3 = dataset.getComponentForComponentType ( StateMod_DataSet.COMP_RESERVOIR_STATIONS );
+	File file1 = createFile ( 100 );
+	File file2 = createFile ( 250 );
+	File file3 = createFile ( 40 );
+	StateMod_DataSetLoadMetrics metrics = new StateMod_DataSetLoadMetrics();
+	metrics.readComponentStart ( comp1, file1.getAbsolutePath() );
+	comp1.setData ( createList(3) );
+	metrics.readComponentEnd ( comp1, 1.0 );
+	comp2.setData ( createList(12) );
+	metrics.addComponentRead ( comp2, file2.getAbsolutePath(), 2.5, 1000, false );
+	// The records are not counted for a component that had an error.
+	comp3.setData ( createList(5) );
+	metrics.addComponentRead ( comp3, file3.getAbsolutePath(), 0.25, -1, true );
+	metrics.addConnectSeconds ( comp2.getComponentType(), comp2.getComponentName(), 0.75 );
+	metrics.setTotalSeconds ( 5.0 );
+
+	StateMod_DataSetLoadMetrics.ComponentMetrics componentMetrics =
+		metrics.getComponentMetrics ( StateMod_DataSet.COMP_DIVERSION_RIGHTS );
+	assertTrue ( componentMetrics.wasRead() );
+	assertEquals ( 250, componentMetrics.getBytesRead() );
+	assertEquals ( 12, componentMetrics.getRecordCount() );
+	assertEquals ( 2.5, componentMetrics.getParseSeconds(), 1.0e-9 );
+	assertEquals ( 0.75, componentMetrics.getConnectSeconds(), 1.0e-9 );
+	assertEquals ( 1000, componentMetrics.getAllocatedBytes() );
+	componentMetrics = metrics.getComponentMetrics ( StateMod_DataSet.COMP_RESERVOIR_STATIONS );
+	assertTrue ( componentMetrics.getError() );
+	assertEquals ( -1, componentMetrics.getRecordCount() );
+	assertEquals ( -1, componentMetrics.getAllocatedBytes() );
+
+	List<StateMod_DataSetLoadMetrics.ComponentMetrics> metricsList = metrics.getComponentMetricsList();
+	assertEquals ( 3, metricsList.size() );
+	assertEquals ( StateMod_DataSet.COMP_DIVERSION_STATIONS, metricsList.get(0).getComponentType() );
+	assertEquals ( StateMod_DataSet.COMP_DIVERSION_RIGHTS, metricsList.get(1).getComponentType() );
+	assertEquals ( StateMod_DataSet.COMP_RESERVOIR_STATIONS, metricsList.get(2).getComponentType() );
+	assertEquals ( 390, metrics.getTotalBytesRead() );
+	assertEquals ( 15, metrics.getTotalRecordCount() );
+	assertEquals ( 3.75, metrics.getTotalParseSeconds(), 1.0e-9 );
+	assertEquals ( 0.75, metrics.getTotalConnectSeconds(), 1.0e-9 );
+	assertEquals ( 5.0, metrics.getTotalSeconds(), 1.0e-9 );
+}
+
+/**
+Check that a component that is ended without being started is not counted as read and is not output.
+*/
+public void testComponentNotRead() throws Exception {
+	StateMod_DataSet dataset = new StateMod_DataSet();
+	DataSetComponent comp = dataset.getComponentForComponentType ( StateMod_DataSet.COMP_DIVERSION_STATIONS );
+	comp.setData ( createList(4) );
+	StateMod_DataSetLoadMetrics metrics = new StateMod_DataSetLoadMetrics();
+	metrics.readComponentEnd ( comp, 1.0 );
+	StateMod_DataSetLoadMetrics.ComponentMetrics componentMetrics =
+		metrics.getComponentMetrics ( StateMod_DataSet.COMP_DIVERSION_STATIONS );
+	assertFalse ( componentMetrics.wasRead() );
+	assertEquals ( -1, componentMetrics.getRecordCount() );
+	assertEquals ( 0.0, componentMetrics.getParseSeconds(), 0.0 );
+	assertEquals ( 0, metrics.getTotalRecordCount() );
+	assertTrue ( metrics.toJSON().indexOf("\"componentType\"") < 0 );
+}
+
+/**
+Check that the allocated bytes are -1 when not available, and otherwise increase when memory is allocated.
+*/
+public void testAllocatedBytes() {
+	long allocatedBytes = StateMod_DataSetLoadMetrics.getCurrentThreadAllocatedBytes();
+	StateMod_DataSetLoadMetrics metrics = new StateMod_DataSetLoadMetrics();
+	String json = metrics.toJSON();
+	if ( StateMod_DataSetLoadMetrics.isAllocatedBytesAvailable() ) {
+		assertTrue ( allocatedBytes >= 0 );
+		byte [] bytes = new byte[100000];
+		assertTrue ( StateMod_DataSetLoadMetrics.getCurrentThreadAllocatedBytes() >= (allocatedBytes + bytes.length) );
+		assertTrue ( json.indexOf("\"allocatedBytesAvailable\": true") >= 0 );
+	}
+	else {
+		assertEquals ( -1, allocatedBytes );
+		assertTrue ( json.indexOf("\"allocatedBytesAvailable\": false") >= 0 );
+	}
+}
+
+/**
+Create a temporary file with the given number of bytes.
+*/
+private File createFile ( int size ) throws Exception {
+	File file = File.createTempFile ( "StateMod_DataSetLoadMetricsTest", ".txt" );
+	file.deleteOnExit();
+	FileOutputStream out = new FileOutputStream ( file );
+	try {
+		out.write ( new byte[size] );
+	}
+	finally {
+		out.close();
+	}
+	return file;
+}
+
+/**
+Create a list with the given number of records.
+*/
+private List<Object> createList ( int size ) {
+	List<Object> list = new ArrayList<Object>();
+	for ( int i = 0; i < size; i++ ) {
+		list.add ( Integer.valueOf(i) );
+	}
+	return list;
+}
+
+}
@@ -0,0 +1,95 @@
+package DWR.StateMod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class StateMod_Network_LabelPlacerTest extends TestCase
+{
+
+/**
+Check that a rectangle that overlaps a placed rectangle is rejected and that rectangles that only touch
+are placed.
+*/
+public void testOverlap() {
+	StateMod_Network_LabelPlacer placer = new StateMod_Network_LabelPlacer ( 10.0 );
+	assertTrue ( placer.place(0.0, 0.0, 10.0, 5.0) );
+	assertFalse ( placer.place(9.0, 4.0, 20.0, 8.0) );
+	// Contained in the placed rectangle
+	assertFalse ( placer.place(2.0, 1.0, 3.0, 2.0) );
+	// Touching the right and top edges
+	assertTrue ( placer.place(10.0, 0.0, 20.0, 5.0) );
+	assertTrue ( placer.place(0.0, 5.0, 10.0, 10.0) );
+	assertEquals ( 3, placer.getPlacedCount() );
+	assertEquals ( 2, placer.getRejectedCount() );
+}
+
+/**
+Check that overlap is found for rectangles that are larger than a cell and for negative coordinates,
+where the rectangles share cells other than the first cell of each rectangle.
+*/
+public void testMultipleCells() {
+	StateMod_Network_LabelPlacer placer = new StateMod_Network_LabelPlacer ( 1.0 );
+	assertTrue ( placer.place(-5.5, -5.5, 5.5, -4.5) );
+	assertFalse ( placer.place(4.2, -4.8, 8.0, -4.0) );
+	assertFalse ( placer.place(-0.5, -10.0, 0.5, 10.0) );
+	assertTrue ( placer.place(-0.5, -4.5, 0.5, 10.0) );
+	assertEquals ( 2, placer.getPlacedCount() );
+	assertEquals ( 2, placer.getRejectedCount() );
+}
+
+/**
+Check that an invalid cell size is replaced so that rectangles can still be placed.
+*/
+public void testInvalidCellSize() {
+	StateMod_Network_LabelPlacer placer = new StateMod_Network_LabelPlacer ( 0.0 );
+	assertTrue ( placer.place(0.0, 0.0, 2.0, 2.0) );
+	assertFalse ( placer.place(1.0, 1.0, 3.0, 3.0) );
+	placer = new StateMod_Network_LabelPlacer ( Double.NaN );
+	assertTrue ( placer.place(0.0, 0.0, 2.0, 2.0) );
+	assertFalse ( placer.place(1.0, 1.0, 3.0, 3.0) );
+}
+
+/**
+Check that the results for many random rectangles are the same as comparing each rectangle with all of
+the placed rectangles.
+*/
+public void testRandom() {
+	Random generator = new Random ( 20190601 );
+	StateMod_Network_LabelPlacer placer = new StateMod_Network_LabelPlacer ( 8.0 );
+	List<double[]> placed = new ArrayList<double[]>();
+	int rejectedCount = 0;
+	for ( int i = 0; i < 2000; i++ ) {
+		double x1 = generator.nextDouble()*1000.0 - 500.0;
+		double y1 = generator.nextDouble()*1000.0 - 500.0;
+		double x2 = x1 + 1.0 + generator.nextDouble()*30.0;
+		double y2 = y1 + 1.0 + generator.nextDouble()*10.0;
+		boolean expected = !overlapsAny ( placed, x1, y1, x2, y2 );
+		assertEquals ( "rectangle " + i, expected, placer.place(x1, y1, x2, y2) );
+		if ( expected ) {
+			placed.add ( new double [] { x1, y1, x2, y2 } );
+		}
+		else {
+			++rejectedCount;
+		}
+	}
+	assertEquals ( placed.size(), placer.getPlacedCount() );
+	assertEquals ( rejectedCount, placer.getRejectedCount() );
+	assertTrue ( rejectedCount > 0 );
+}
+
+/**
+Check whether a rectangle overlaps any of the rectangles in a list.
+*/
+private boolean overlapsAny ( List<double[]> rects, double x1, double y1, double x2, double y2 ) {
+	for ( double [] r : rects ) {
+		if ( (x2 > r[0]) && (x1 < r[2]) && (y2 > r[1]) && (y1 < r[3]) ) {
+			return true;
+		}
+	}
+	return false;
+}
+
+}
@@ -0,0 +1,141 @@
+package DWR.StateMod;
+
+import java.awt.image.BufferedImage;
+
+import junit.framework.TestCase;
+
+public class StateMod_Network_TileCacheTest extends TestCase
+{
+
+private static final int __TILE_SIZE = 100;
+
+/**
+Zoom level used by the tests, so that a tile is 100 data units on a side.
+*/
+private static final double __PIXELS_PER_DATA_UNIT = 1.0;
+
+/**
+Check that tiles are created dirty with the expected extent, and that requesting a rendered tile is a hit.
+*/
+public void testGetTile() {
+	StateMod_Network_TileCache cache = new StateMod_Network_TileCache ( __TILE_SIZE, 10 );
+	cache.setOrigin ( 50.0, -20.0 );
+	StateMod_Network_TileCache.Tile tile = cache.getTile ( __PIXELS_PER_DATA_UNIT, 2, 1 );
+	assertTrue ( tile.dirty );
+	assertNull ( tile.image );
+	assertEquals ( 2, tile.column );
+	assertEquals ( 1, tile.row );
+	assertEquals ( 250.0, tile.leftX, 1.0e-9 );
+	assertEquals ( 80.0, tile.bottomY, 1.0e-9 );
+	assertEquals ( 350.0, tile.rightX, 1.0e-9 );
+	assertEquals ( 180.0, tile.topY, 1.0e-9 );
+	assertEquals ( 2, cache.getTileColumn(300.0, __PIXELS_PER_DATA_UNIT) );
+	assertEquals ( 1, cache.getTileRow(100.0, __PIXELS_PER_DATA_UNIT) );
+	assertEquals ( -1, cache.getTileColumn(0.0, __PIXELS_PER_DATA_UNIT) );
+	// A dirty tile is not a hit
+	assertSame ( tile, cache.getTile(__PIXELS_PER_DATA_UNIT, 2, 1) );
+	assertEquals ( 0, cache.getHitCount() );
+	BufferedImage image = createImage();
+	cache.setRendered ( tile, image );
+	assertFalse ( tile.dirty );
+	assertSame ( image, tile.image );
+	assertEquals ( 1, cache.getRenderCount() );
+	assertSame ( tile, cache.getTile(__PIXELS_PER_DATA_UNIT, 2, 1) );
+	assertEquals ( 1, cache.getHitCount() );
+	// A different zoom level uses a different tile
+	StateMod_Network_TileCache.Tile tile2 = cache.getTile ( 2.0*__PIXELS_PER_DATA_UNIT, 2, 1 );
+	assertNotSame ( tile, tile2 );
+	assertEquals ( 150.0, tile2.leftX, 1.0e-9 );
+	assertEquals ( 2, cache.getCachedTileCount() );
+}
+
+/**
+Check that invalidating a rectangle marks only the overlapping tiles dirty, keeps their images, and
+handles coordinates that are given in reverse order.
+*/
+public void testInvalidate() {
+	StateMod_Network_TileCache cache = new StateMod_Network_TileCache ( __TILE_SIZE, 100 );
+	StateMod_Network_TileCache.Tile [][] tiles = new StateMod_Network_TileCache.Tile[4][4];
+	for ( int column = 0; column < 4; column++ ) {
+		for ( int row = 0; row < 4; row++ ) {
+			tiles[column][row] = cache.getTile ( __PIXELS_PER_DATA_UNIT, column, row );
+			cache.setRendered ( tiles[column][row], createImage() );
+		}
+	}
+	// Rectangle within columns 1-2 and row 1, given right to left and top to bottom
+	cache.invalidate ( 250.0, 190.0, 150.0, 110.0 );
+	for ( int column = 0; column < 4; column++ ) {
+		for ( int row = 0; row < 4; row++ ) {
+			boolean expected = ((column == 1) || (column == 2)) && (row == 1);
+			assertEquals ( "tile " + column + "," + row, expected, tiles[column][row].dirty );
+			assertNotNull ( tiles[column][row].image );
+		}
+	}
+	assertEquals ( 16, cache.getCachedTileCount() );
+	// Redrawing the tile makes it a hit again
+	cache.setRendered ( tiles[1][1], tiles[1][1].image );
+	long hitCount = cache.getHitCount();
+	cache.getTile ( __PIXELS_PER_DATA_UNIT, 1, 1 );
+	assertEquals ( hitCount + 1, cache.getHitCount() );
+}
+
+/**
+Check that invalidating all tiles or changing the origin empties the cache, and that setting the same
+origin does not.
+*/
+public void testInvalidateAll() {
+	StateMod_Network_TileCache cache = new StateMod_Network_TileCache ( __TILE_SIZE, 100 );
+	cache.setOrigin ( 10.0, 10.0 );
+	StateMod_Network_TileCache.Tile tile = cache.getTile ( __PIXELS_PER_DATA_UNIT, 0, 0 );
+	cache.setRendered ( tile, createImage() );
+	cache.setOrigin ( 10.0, 10.0 );
+	assertEquals ( 1, cache.getCachedTileCount() );
+	cache.setOrigin ( 20.0, 10.0 );
+	assertEquals ( 0, cache.getCachedTileCount() );
+	assertNotSame ( tile, cache.getTile(__PIXELS_PER_DATA_UNIT, 0, 0) );
+	cache.getTile ( __PIXELS_PER_DATA_UNIT, 1, 0 );
+	assertEquals ( 2, cache.getCachedTileCount() );
+	cache.invalidateAll();
+	assertEquals ( 0, cache.getCachedTileCount() );
+}
+
+/**
+Check that the least recently used tiles are discarded when the maximum count is reached, and that
+a tile that was recently requested is kept.
+*/
+public void testEviction() {
+	StateMod_Network_TileCache cache = new StateMod_Network_TileCache ( __TILE_SIZE, 3 );
+	StateMod_Network_TileCache.Tile tile0 = cache.getTile ( __PIXELS_PER_DATA_UNIT, 0, 0 );
+	StateMod_Network_TileCache.Tile tile1 = cache.getTile ( __PIXELS_PER_DATA_UNIT, 1, 0 );
+	StateMod_Network_TileCache.Tile tile2 = cache.getTile ( __PIXELS_PER_DATA_UNIT, 2, 0 );
+	assertEquals ( 3, cache.getCachedTileCount() );
+	// Use tile 0 so that tile 1 is the least recently used
+	assertSame ( tile0, cache.getTile(__PIXELS_PER_DATA_UNIT, 0, 0) );
+	cache.getTile ( __PIXELS_PER_DATA_UNIT, 3, 0 );
+	assertEquals ( 3, cache.getCachedTileCount() );
+	assertSame ( tile0, cache.getTile(__PIXELS_PER_DATA_UNIT, 0, 0) );
+	assertSame ( tile2, cache.getTile(__PIXELS_PER_DATA_UNIT, 2, 0) );
+	assertNotSame ( tile1, cache.getTile(__PIXELS_PER_DATA_UNIT, 1, 0) );
+	assertEquals ( 3, cache.getCachedTileCount() );
+}
+
+/**
+Check that the tile size and maximum tile count are limited to their minimum values.
+*/
+public void testMinimumSize() {
+	StateMod_Network_TileCache cache = new StateMod_Network_TileCache ( 4, 0 );
+	assertEquals ( 16, cache.getTileSize() );
+	assertEquals ( 1, cache.getMaxTiles() );
+	cache.getTile ( __PIXELS_PER_DATA_UNIT, 0, 0 );
+	cache.getTile ( __PIXELS_PER_DATA_UNIT, 1, 0 );
+	assertEquals ( 1, cache.getCachedTileCount() );
+}
+
+/**
+Create an image for a rendered tile.
+*/
+private BufferedImage createImage() {
+	return new BufferedImage ( __TILE_SIZE, __TILE_SIZE, BufferedImage.TYPE_INT_RGB );
+}
+
+}
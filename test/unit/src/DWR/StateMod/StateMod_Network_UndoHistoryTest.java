@@ -0,0 +1,160 @@
+package DWR.StateMod;
+
+import junit.framework.TestCase;
+
+public class StateMod_Network_UndoHistoryTest extends TestCase
+{
+
+/**
+Check that the oldest operations are discarded when the maximum number of operations is reached.
+*/
+public void testRingBufferEviction() {
+	StateMod_Network_UndoHistory history = new StateMod_Network_UndoHistory ( 3, Long.MAX_VALUE );
+	for ( int i = 0; i < 5; i++ ) {
+		history.startGesture();
+		history.add ( createMove(i, 0.0, 0.0, 1.0, 1.0) );
+	}
+	assertEquals ( 3, history.getCount() );
+	// The newest operations are undone first and the two oldest were discarded.
+	assertEquals ( 4, history.undo().nodeNum );
+	assertEquals ( 3, history.undo().nodeNum );
+	assertEquals ( 2, history.undo().nodeNum );
+	assertFalse ( history.canUndo() );
+	assertNull ( history.undo() );
+	// Redo in the original order.
+	assertEquals ( 2, history.redo().nodeNum );
+	assertEquals ( 3, history.redo().nodeNum );
+	assertEquals ( 4, history.redo().nodeNum );
+	assertFalse ( history.canRedo() );
+}
+
+/**
+Check that the oldest operations are discarded when the memory cap is reached, always keeping the newest
+operation, and that lowering the cap discards operations.
+*/
+public void testByteCap() {
+	StateMod_Network_UndoHistory history = new StateMod_Network_UndoHistory ( 100, Long.MAX_VALUE );
+	history.startGesture();
+	history.add ( createMove(0, 0.0, 0.0, 1.0, 1.0) );
+	long byteCount = history.getByteCount();
+	assertTrue ( byteCount > 0 );
+	history.setMaxBytes ( 3*byteCount );
+	for ( int i = 1; i < 10; i++ ) {
+		history.startGesture();
+		history.add ( createMove(i, 0.0, 0.0, 1.0, 1.0) );
+		assertTrue ( history.getByteCount() <= history.getMaxBytes() );
+	}
+	assertEquals ( 3, history.getCount() );
+	assertEquals ( 3*byteCount, history.getByteCount() );
+	assertEquals ( 9, history.undo().nodeNum );
+	// A cap smaller than one operation keeps the newest operation.
+	history.setMaxBytes ( 1 );
+	assertEquals ( 1, history.getCount() );
+	assertEquals ( byteCount, history.getByteCount() );
+	assertFalse ( history.canUndo() );
+	assertEquals ( 9, history.redo().nodeNum );
+}
+
+/**
+Check that consecutive moves of the same node are coalesced within a gesture but not between gestures.
+*/
+public void testCoalescing() {
+	StateMod_Network_UndoHistory history = new StateMod_Network_UndoHistory();
+	history.startGesture();
+	history.add ( createMove(1, 0.0, 0.0, 1.0, 2.0) );
+	history.add ( createMove(1, 1.0, 2.0, 3.0, 5.0) );
+	assertEquals ( 1, history.getCount() );
+	// A move that does not start where the previous move ended is separate.
+	history.add ( createMove(1, 10.0, 10.0, 11.0, 11.0) );
+	assertEquals ( 2, history.getCount() );
+	// The same move in a new gesture is separate.
+	history.startGesture();
+	history.add ( createMove(1, 11.0, 11.0, 12.0, 12.0) );
+	assertEquals ( 3, history.getCount() );
+	history.undo();
+	history.undo();
+	StateMod_Network_UndoData data = history.undo();
+	assertEquals ( 0.0, data.oldX, 0.0 );
+	assertEquals ( 0.0, data.oldY, 0.0 );
+	assertEquals ( 3.0, data.newX, 0.0 );
+	assertEquals ( 5.0, data.newY, 0.0 );
+	// Without a gesture, moves are not coalesced.
+	history = new StateMod_Network_UndoHistory();
+	history.add ( createMove(1, 0.0, 0.0, 1.0, 2.0) );
+	history.add ( createMove(1, 1.0, 2.0, 3.0, 5.0) );
+	assertEquals ( 2, history.getCount() );
+}
+
+/**
+Check that moves of several nodes are stored with each node's positions and are coalesced within a gesture.
+*/
+public void testMultipleNodes() {
+	StateMod_Network_UndoHistory history = new StateMod_Network_UndoHistory();
+	history.startGesture();
+	StateMod_Network_UndoData move = createMove ( 1, 0.0, 0.0, 1.0, 1.0 );
+	move.otherNodes = new int [] { 5, 6 };
+	move.oldXs = new double [] { 10.0, 20.0 };
+	move.oldYs = new double [] { 10.0, 20.0 };
+	move.newXs = new double [] { 11.0, 22.0 };
+	move.newYs = new double [] { 11.0, 22.0 };
+	history.add ( move );
+	move = createMove ( 1, 1.0, 1.0, 2.0, 2.0 );
+	move.otherNodes = new int [] { 5, 6 };
+	move.oldXs = new double [] { 11.0, 22.0 };
+	move.oldYs = new double [] { 11.0, 22.0 };
+	move.newXs = new double [] { 12.0, 23.0 };
+	move.newYs = new double [] { 12.0, 23.0 };
+	history.add ( move );
+	assertEquals ( 1, history.getCount() );
+	StateMod_Network_UndoData data = history.undo();
+	assertEquals ( 1, data.nodeNum );
+	assertEquals ( 2, data.otherNodes.length );
+	assertEquals ( 6, data.otherNodes[1] );
+	assertEquals ( 20.0, data.oldXs[1], 0.0 );
+	assertEquals ( 23.0, data.newXs[1], 0.0 );
+	assertEquals ( 12.0, data.newYs[0], 0.0 );
+	assertEquals ( 2.0, data.newX, 0.0 );
+}
+
+/**
+Check that adding an operation after undoing discards the operations that could have been redone.
+*/
+public void testRedoTruncation() {
+	StateMod_Network_UndoHistory history = new StateMod_Network_UndoHistory();
+	for ( int i = 0; i < 4; i++ ) {
+		history.startGesture();
+		history.add ( createMove(i, 0.0, 0.0, 1.0, 1.0) );
+	}
+	long byteCount = history.getByteCount();
+	history.undo();
+	history.undo();
+	assertTrue ( history.canRedo() );
+	history.startGesture();
+	history.add ( createMove(9, 0.0, 0.0, 1.0, 1.0) );
+	assertFalse ( history.canRedo() );
+	assertNull ( history.redo() );
+	assertEquals ( 3, history.getCount() );
+	assertEquals ( 3*byteCount/4, history.getByteCount() );
+	assertEquals ( 9, history.undo().nodeNum );
+	assertEquals ( 1, history.undo().nodeNum );
+	assertEquals ( 0, history.undo().nodeNum );
+	assertFalse ( history.canUndo() );
+	history.clear();
+	assertEquals ( 0, history.getCount() );
+	assertEquals ( 0, history.getByteCount() );
+}
+
+/**
+Create a move of a single node.
+*/
+private StateMod_Network_UndoData createMove ( int nodeNum, double oldX, double oldY, double newX, double newY ) {
+	StateMod_Network_UndoData data = new StateMod_Network_UndoData();
+	data.nodeNum = nodeNum;
+	data.oldX = oldX;
+	data.oldY = oldY;
+	data.newX = newX;
+	data.newY = newY;
+	return data;
+}
+
+}
@@ -0,0 +1,266 @@
+package DWR.StateMod;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import RTi.GR.GRLimits;
+import RTi.Util.IO.Prop;
+import RTi.Util.IO.PropList;
+import cdss.domain.hydrology.network.HydrologyNode;
+
+import junit.framework.TestCase;
+
+public class StateMod_NodeNetworkTest extends TestCase
+{
+
+private static final int __NODES = 300;
+
+/**
+Files written by the tests, removed in tearDown().
+*/
+private List<File> __files = new ArrayList<File>();
+
+/**
+Remove the files written by the tests.
+*/
+protected void tearDown() throws Exception {
+	for ( File file : __files ) {
+		file.delete();
+	}
+	__files.clear();
+}
+
+/**
+Check that the streaming writer produces a file that is read as the same network as the file written by
+HydrologyNodeNetwork.writeXML().
+*/
+public void testWriteXMLNetworkFile() throws Exception {
+	StateMod_NodeNetwork network = createNetwork();
+	File domFile = createTempFile();
+	File staxFile = createTempFile();
+	writeNetwork ( network, domFile, false );
+	writeNetwork ( network, staxFile, true );
+	List<String> expected = describeNetwork ( StateMod_NodeNetwork.readXMLNetworkFile(domFile.getPath()) );
+	List<String> actual = describeNetwork ( StateMod_NodeNetwork.readXMLNetworkFile(staxFile.getPath()) );
+	assertEquals ( expected, actual );
+	assertTrue ( expected.size() > __NODES );
+}
+
+/**
+Check that the nodes, layout, link, and annotation that were written are read,
+for files written with HydrologyNodeNetwork.writeXML() and the streaming writer.
+*/
+public void testReadXMLNetworkFile() throws Exception {
+	StateMod_NodeNetwork network = createNetwork();
+	List<String> expected = describeNodeLocations ( network );
+	File domFile = createTempFile();
+	File staxFile = createTempFile();
+	writeNetwork ( network, domFile, false );
+	writeNetwork ( network, staxFile, true );
+	File [] files = { domFile, staxFile };
+	for ( int i = 0; i < files.length; i++ ) {
+		StateMod_NodeNetwork network2 = StateMod_NodeNetwork.readXMLNetworkFile(files[i].getPath());
+		assertEquals ( expected, describeNodeLocations(network2) );
+		assertEquals ( 1, network2.getLayoutList().size() );
+		assertEquals ( "Page1", network2.getLayoutList().get(0).getValue("ID") );
+		assertEquals ( 1, network2.getLinkList().size() );
+		assertEquals ( "N1000001", network2.getLinkList().get(0).getValue("FromNodeID") );
+		assertEquals ( "N1000005", network2.getLinkList().get(0).getValue("ToNodeID") );
+		assertEquals ( 1, network2.getAnnotationList().size() );
+		PropList text = (PropList)network2.getAnnotationList().get(0).getAssociatedObject();
+		assertEquals ( "Test & <annotation>", text.getValue("Text") );
+	}
+}
+
+/**
+Check that a document type definition is not processed, so that external entities that it references
+are not read.  The referenced file does not exist, so reading it would fail.
+*/
+public void testReadXMLNetworkFileDTD() throws Exception {
+	StateMod_NodeNetwork network = createNetwork();
+	File file = createTempFile();
+	writeNetwork ( network, file, true );
+	List<String> expected = describeNetwork ( StateMod_NodeNetwork.readXMLNetworkFile(file.getPath()) );
+	File missingFile = new File ( file.getPath() + ".dtd" );
+	assertFalse ( missingFile.exists() );
+	String contents = new String ( Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8 );
+	int pos = contents.indexOf("?>") + 2;
+	contents = contents.substring(0, pos) + "\n<!DOCTYPE StateMod_Network [ <!ENTITY % external SYSTEM \"" +
+		missingFile.toURI() + "\"> %external; ]>" + contents.substring(pos);
+	Files.write ( file.toPath(), contents.getBytes(StandardCharsets.UTF_8) );
+	assertEquals ( expected, describeNetwork(StateMod_NodeNetwork.readXMLNetworkFile(file.getPath())) );
+}
+
+/**
+Create a network with node coordinates and label positions.
+*/
+private StateMod_NodeNetwork createNetwork() {
+	Random generator = new Random ( 20190529 );
+	List<StateMod_RiverNetworkNode> nodes = new ArrayList<StateMod_RiverNetworkNode>(__NODES);
+	for ( int i = 0; i < __NODES; i++ ) {
+		StateMod_RiverNetworkNode node = new StateMod_RiverNetworkNode();
+		node.setID ( "N" + (1000000 + i) );
+		node.setName ( "Node " + (i + 1) );
+		nodes.add ( node );
+	}
+	for ( int i = 0; i < __NODES; i++ ) {
+		if ( i == (__NODES - 1) ) {
+			nodes.get(i).setCstadn ( "" );
+		}
+		else {
+			// Mostly flow to the next node, with tributaries joining a short distance downstream.
+			int ds = i + 1;
+			if ( generator.nextInt(5) == 0 ) {
+				ds = Math.min(__NODES - 1, i + 1 + generator.nextInt(10));
+			}
+			nodes.get(i).setCstadn ( nodes.get(ds).getID() );
+		}
+	}
+	StateMod_NodeNetwork network = StateMod_NodeNetwork.createFromStateModVector ( nodes );
+	HydrologyNode node = network.getMostUpstreamNode();
+	HydrologyNode holdNode = null;
+	while ( (node != null) && (node != holdNode) ) {
+		node.setX ( generator.nextInt(10000)/10.0 );
+		node.setY ( generator.nextInt(10000)/10.0 );
+		node.setLabelDirection ( 1 + generator.nextInt(9) );
+		if ( node.getType() == HydrologyNode.NODE_TYPE_END ) {
+			break;
+		}
+		holdNode = node;
+		node = network.getDownstreamNode ( node, StateMod_NodeNetwork.POSITION_COMPUTATIONAL );
+	}
+	return network;
+}
+
+/**
+Create a temporary file that is removed in tearDown().
+*/
+private File createTempFile() throws Exception {
+	File file = File.createTempFile ( "StateMod_NodeNetworkTest", ".net" );
+	__files.add ( file );
+	return file;
+}
+
+/**
+Describe the network nodes in computational order, and the layouts, links, and annotations.
+*/
+private List<String> describeNetwork ( StateMod_NodeNetwork network ) {
+	List<String> descriptions = new ArrayList<String>();
+	HydrologyNode node = network.getMostUpstreamNode();
+	HydrologyNode holdNode = null;
+	while ( (node != null) && (node != holdNode) ) {
+		StringBuilder b = new StringBuilder();
+		b.append ( node.getCommonID() + " type=" + node.getVerboseType() + " x=" + node.getX() + " y=" + node.getY() +
+			" order=" + node.getComputationalOrder() + " label=" + node.getLabelDirection() +
+			" description=" + node.getDescription() );
+		if ( node.getDownstreamNode() != null ) {
+			b.append ( " ds=" + node.getDownstreamNode().getCommonID() );
+		}
+		List<HydrologyNode> upstreamNodes = node.getUpstreamNodes();
+		if ( upstreamNodes != null ) {
+			for ( HydrologyNode usNode : upstreamNodes ) {
+				b.append ( " us=" + usNode.getCommonID() );
+			}
+		}
+		descriptions.add ( b.toString() );
+		if ( node.getType() == HydrologyNode.NODE_TYPE_END ) {
+			break;
+		}
+		holdNode = node;
+		node = network.getDownstreamNode ( node, StateMod_NodeNetwork.POSITION_COMPUTATIONAL );
+	}
+	for ( PropList p : network.getLayoutList() ) {
+		descriptions.add ( "layout " + describePropList(p) );
+	}
+	for ( PropList p : network.getLinkList() ) {
+		descriptions.add ( "link " + describePropList(p) );
+	}
+	for ( HydrologyNode annotation : network.getAnnotationList() ) {
+		descriptions.add ( "annotation " + describePropList((PropList)annotation.getAssociatedObject()) );
+	}
+	return descriptions;
+}
+
+/**
+Describe the identifier, coordinates, label direction, and downstream node of each node in computational order.
+*/
+private List<String> describeNodeLocations ( StateMod_NodeNetwork network ) {
+	List<String> descriptions = new ArrayList<String>();
+	HydrologyNode node = network.getMostUpstreamNode();
+	HydrologyNode holdNode = null;
+	while ( (node != null) && (node != holdNode) ) {
+		String ds = (node.getDownstreamNode() == null) ? null : node.getDownstreamNode().getCommonID();
+		descriptions.add ( node.getCommonID() + " x=" + node.getX() + " y=" + node.getY() +
+			" label=" + node.getLabelDirection() + " ds=" + ds );
+		if ( node.getType() == HydrologyNode.NODE_TYPE_END ) {
+			break;
+		}
+		holdNode = node;
+		node = network.getDownstreamNode ( node, StateMod_NodeNetwork.POSITION_COMPUTATIONAL );
+	}
+	return descriptions;
+}
+
+/**
+Describe the properties in a PropList, sorted by name.
+*/
+private String describePropList ( PropList p ) {
+	List<String> props = new ArrayList<String>();
+	for ( int i = 0; i < p.size(); i++ ) {
+		Prop prop = p.elementAt(i);
+		props.add ( prop.getKey() + "=" + prop.getValue() );
+	}
+	Collections.sort ( props );
+	return props.toString();
+}
+
+/**
+Write a network with a page layout, link, and annotation.
+@param stax if true, write with writeXMLNetworkFile(), otherwise write with HydrologyNodeNetwork.writeXML()
+*/
+private void writeNetwork ( StateMod_NodeNetwork network, File file, boolean stax ) throws Exception {
+	GRLimits limits = new GRLimits ( 0.0, 0.0, 1000.0, 1000.0 );
+	List<PropList> layouts = new ArrayList<PropList>();
+	PropList layout = new PropList ( "Layout" );
+	layout.set ( "ID", "Page1" );
+	layout.set ( "IsDefault", "True" );
+	layout.set ( "PaperSize", "Letter" );
+	layout.set ( "PageOrientation", "Landscape" );
+	layout.set ( "NodeLabelFontSize", "10" );
+	layout.set ( "NodeSize", "20" );
+	layouts.add ( layout );
+	List<PropList> links = new ArrayList<PropList>();
+	PropList link = new PropList ( "Link" );
+	link.set ( "ShapeType", "Link" );
+	link.set ( "LineStyle", "Dashed" );
+	link.set ( "FromNodeID", "N1000001" );
+	link.set ( "ToNodeID", "N1000005" );
+	links.add ( link );
+	List<HydrologyNode> annotations = new ArrayList<HydrologyNode>();
+	PropList text = new PropList ( "Annotation" );
+	text.set ( "ShapeType", "Text" );
+	text.set ( "Text", "Test & <annotation>" );
+	text.set ( "Point", "100.0,200.0" );
+	text.set ( "FontName", "Arial" );
+	text.set ( "OriginalFontSize", "10" );
+	text.set ( "FontStyle", "Plain" );
+	text.set ( "TextPosition", "Center" );
+	HydrologyNode annotation = new HydrologyNode();
+	annotation.setAssociatedObject ( text );
+	annotations.add ( annotation );
+	double [] edgeBuffer = { 10.0, 20.0, 30.0, 40.0 };
+	GRLimits legendLimits = new GRLimits ( 50.0, 60.0, 150.0, 160.0 );
+	if ( stax ) {
+		network.writeXMLNetworkFile ( file.getPath(), limits, layouts, annotations, links, legendLimits, edgeBuffer );
+	}
+	else {
+		network.writeXML ( file.getPath(), limits, layouts, annotations, links, legendLimits, edgeBuffer );
+	}
+}
+
+}
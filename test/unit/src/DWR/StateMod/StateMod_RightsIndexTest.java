@@ -0,0 +1,175 @@
+package DWR.StateMod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class StateMod_RightsIndexTest extends TestCase
+{
+
+private static final int __STATIONS = 50;
+private static final int __RIGHTS = 500;
+
+private static final int [] __PARCEL_YEARS = { -1, 1998, 2005, 2010 };
+
+private List<StateMod_Right> __rights;
+private List<String> __ids;
+
+/**
+Create well and diversion rights with repeated right identifiers, identifiers that differ only in case,
+and well rights for several parcels and parcel years.
+*/
+protected void setUp() {
+	Random generator = new Random ( 20190528 );
+	__rights = new ArrayList<StateMod_Right>();
+	__ids = new ArrayList<String>();
+	for ( int i = 0; i < __RIGHTS; i++ ) {
+		int station = generator.nextInt(__STATIONS);
+		String id = "S" + (1000 + station);
+		if ( generator.nextBoolean() ) {
+			id = id.toLowerCase();
+		}
+		// Repeated right identifiers for the same station
+		String rightID = id + "." + (1 + generator.nextInt(3));
+		if ( generator.nextInt(4) == 0 ) {
+			StateMod_DiversionRight right = new StateMod_DiversionRight();
+			right.setID ( rightID );
+			right.setCgoto ( id );
+			__rights.add ( right );
+		}
+		else {
+			StateMod_WellRight right = new StateMod_WellRight();
+			right.setID ( rightID );
+			right.setCgoto ( id );
+			right.setParcelID ( "P" + generator.nextInt(__STATIONS) );
+			right.setParcelYear ( __PARCEL_YEARS[1 + generator.nextInt(__PARCEL_YEARS.length - 1)] );
+			__rights.add ( right );
+		}
+	}
+	for ( int i = 0; i < __STATIONS; i++ ) {
+		__ids.add ( "S" + (1000 + i) );
+		__ids.add ( ("S" + (1000 + i)).toLowerCase() );
+	}
+	__ids.add ( "NOTFOUND" );
+}
+
+/**
+Check that rights for each station are the same as the linear search in StateMod_Util.getRightsForStation().
+*/
+public void testGetRightsForStation() {
+	StateMod_RightsIndex<StateMod_Right> index = new StateMod_RightsIndex<StateMod_Right> ( __rights );
+	for ( String id : __ids ) {
+		assertSameRights ( StateMod_Util.getRightsForStation(id, __rights), index.getRightsForStation(id) );
+	}
+}
+
+/**
+Check that rights and right identifiers for each location are the same as a linear search, and the same as
+StateMod_Util.getWaterRightsForLocation() and StateMod_Util.getWaterRightIdentifiersForLocation(),
+for each parcel year and for all locations.
+*/
+public void testGetWaterRightsForLocation() {
+	StateMod_RightsIndex<StateMod_Right> index = new StateMod_RightsIndex<StateMod_Right> ( __rights );
+	List<String> ids = new ArrayList<String>(__ids);
+	ids.add ( null );
+	for ( int i = 0; i < __PARCEL_YEARS.length; i++ ) {
+		for ( String id : ids ) {
+			List<StateMod_Right> expected = findRightsForLocation ( id, __PARCEL_YEARS[i] );
+			assertSameRights ( expected, index.getWaterRightsForLocation(id, __PARCEL_YEARS[i]) );
+			assertSameRights ( expected, StateMod_Util.getWaterRightsForLocation(__rights, id, __PARCEL_YEARS[i]) );
+			List<String> expectedIDs = findRightIdentifiers ( expected );
+			assertEquals ( expectedIDs, index.getWaterRightIdentifiersForLocation(id, __PARCEL_YEARS[i]) );
+			assertEquals ( expectedIDs,
+				StateMod_Util.getWaterRightIdentifiersForLocation(__rights, id, __PARCEL_YEARS[i]) );
+		}
+	}
+}
+
+/**
+Check that rights for each parcel are the same as a linear search, and the same as
+StateMod_Util.getWaterRightsForParcel(), for each parcel year.
+*/
+public void testGetWaterRightsForParcel() {
+	StateMod_RightsIndex<StateMod_Right> index = new StateMod_RightsIndex<StateMod_Right> ( __rights );
+	for ( int i = 0; i < __PARCEL_YEARS.length; i++ ) {
+		for ( int parcel = 0; parcel <= __STATIONS; parcel++ ) {
+			String parcelID = "P" + parcel;
+			List<StateMod_Right> expected = findRightsForParcel ( parcelID, __PARCEL_YEARS[i] );
+			assertSameRights ( expected, index.getWaterRightsForParcel(parcelID, __PARCEL_YEARS[i]) );
+			assertSameRights ( expected, index.getWaterRightsForParcel(parcelID.toLowerCase(), __PARCEL_YEARS[i]) );
+			assertSameRights ( expected,
+				StateMod_Util.getWaterRightsForParcel(__rights, parcelID.toLowerCase(), __PARCEL_YEARS[i]) );
+		}
+	}
+}
+
+/**
+Return the unique right identifiers (ignoring case) in a list of rights, in the order found.
+*/
+private List<String> findRightIdentifiers ( List<StateMod_Right> rights ) {
+	List<String> ids = new ArrayList<String>();
+	for ( StateMod_Right right : rights ) {
+		boolean found = false;
+		for ( String id : ids ) {
+			if ( id.equalsIgnoreCase(right.getIdentifier()) ) {
+				found = true;
+				break;
+			}
+		}
+		if ( !found ) {
+			ids.add ( right.getIdentifier() );
+		}
+	}
+	return ids;
+}
+
+/**
+Return the rights for a location, or all rights if the location is null, by searching the full list.
+*/
+private List<StateMod_Right> findRightsForLocation ( String locID, int parcelYear ) {
+	List<StateMod_Right> rights = new ArrayList<StateMod_Right>();
+	for ( StateMod_Right right : __rights ) {
+		if ( (parcelYear != -1) && (right instanceof StateMod_WellRight) &&
+			(((StateMod_WellRight)right).getParcelYear() != parcelYear) ) {
+			continue;
+		}
+		if ( (locID == null) || locID.equalsIgnoreCase(right.getLocationIdentifier()) ) {
+			rights.add ( right );
+		}
+	}
+	return rights;
+}
+
+/**
+Return the well rights for a parcel by searching the full list.
+*/
+private List<StateMod_Right> findRightsForParcel ( String parcelID, int parcelYear ) {
+	List<StateMod_Right> rights = new ArrayList<StateMod_Right>();
+	for ( StateMod_Right right : __rights ) {
+		if ( !(right instanceof StateMod_WellRight) ) {
+			continue;
+		}
+		StateMod_WellRight wellRight = (StateMod_WellRight)right;
+		if ( (parcelYear != -1) && (wellRight.getParcelYear() != parcelYear) ) {
+			continue;
+		}
+		if ( parcelID.equalsIgnoreCase(wellRight.getParcelID()) ) {
+			rights.add ( right );
+		}
+	}
+	return rights;
+}
+
+/**
+Check that two lists contain the same rights (same instances) in the same order.
+*/
+private void assertSameRights ( List<? extends StateMod_Right> expected, List<? extends StateMod_Right> rights ) {
+	assertEquals ( expected.size(), rights.size() );
+	for ( int i = 0; i < expected.size(); i++ ) {
+		assertSame ( expected.get(i), rights.get(i) );
+	}
+}
+
+}
@@ -0,0 +1,163 @@
+package DWR.StateMod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class StateMod_RightsPriorityIndexTest extends TestCase
+{
+
+private static final int __RIGHTS = 300;
+
+/**
+Check that the index lists rights of all types in administration number order, with equal administration
+numbers in the order added and invalid administration numbers last.
+*/
+public void testOrdering() {
+	StateMod_DataSet dataset = new StateMod_DataSet();
+	List<StateMod_DiversionRight> ddrList = new ArrayList<StateMod_DiversionRight>();
+	List<StateMod_ReservoirRight> rerList = new ArrayList<StateMod_ReservoirRight>();
+	createRights ( dataset, ddrList, rerList );
+	StateMod_RightsPriorityIndex index = dataset.getRightsPriorityIndex();
+	assertSame ( index, dataset.getRightsPriorityIndex() );
+	assertRightsSorted ( dataset, index );
+	List<StateMod_Right> rights = index.getRights();
+	assertTrue ( getAdminNumber(rights.get(0)) <= getAdminNumber(rights.get(rights.size() - 1)) );
+	assertEquals ( "bad", rights.get(rights.size() - 1).getAdministrationNumber() );
+	// Check a range query against the sorted list.
+	List<StateMod_Right> senior = index.getRightsSeniorTo ( 30000.0, false );
+	for ( int i = 0; i < rights.size(); i++ ) {
+		assertEquals ( getAdminNumber(rights.get(i)) < 30000.0, i < senior.size() );
+	}
+}
+
+/**
+Check that rights are moved in the index when their administration number is set, without refreshing.
+*/
+public void testAdminNumberChange() {
+	StateMod_DataSet dataset = new StateMod_DataSet();
+	List<StateMod_DiversionRight> ddrList = new ArrayList<StateMod_DiversionRight>();
+	List<StateMod_ReservoirRight> rerList = new ArrayList<StateMod_ReservoirRight>();
+	createRights ( dataset, ddrList, rerList );
+	StateMod_RightsPriorityIndex index = dataset.getRightsPriorityIndex();
+	// Values that are not used by other rights so that the order is the same as sorting the lists.
+	ddrList.get(10).setIrtem ( "1.00000" );
+	rerList.get(20).setRtem ( "99999.99999" );
+	ddrList.get(50).setIrtem ( "20000.50000" );
+	List<StateMod_Right> rights = index.getRights();
+	assertSame ( ddrList.get(10), rights.get(0) );
+	// The most junior right has an invalid administration number.
+	assertSame ( rerList.get(20), rights.get(rights.size() - 2) );
+	assertRightsSorted ( dataset, index );
+	// Several edits before the index is read move the right once, after the rights with the same
+	// administration number.
+	ddrList.get(10).setIrtem ( "5000.00000" );
+	ddrList.get(10).setIrtem ( "99999.99999" );
+	assertSame ( ddrList.get(10), index.getRightsInRange(99999.99999, 99999.99999).get(1) );
+	// A right that is not in the index is not added by editing it.
+	StateMod_DiversionRight other = new StateMod_DiversionRight();
+	other.setIrtem ( "1.00000" );
+	assertFalse ( index.getRights().contains(other) );
+}
+
+/**
+Check that added and removed rights are not in the index until the index is refreshed, either explicitly or
+when requested after the rights component has been marked dirty.
+*/
+public void testRefreshAfterChange() {
+	StateMod_DataSet dataset = new StateMod_DataSet();
+	List<StateMod_DiversionRight> ddrList = new ArrayList<StateMod_DiversionRight>();
+	List<StateMod_ReservoirRight> rerList = new ArrayList<StateMod_ReservoirRight>();
+	createRights ( dataset, ddrList, rerList );
+	StateMod_RightsPriorityIndex index = dataset.getRightsPriorityIndex();
+	int size = index.getSize();
+	// Add and remove rights.
+	StateMod_DiversionRight added = new StateMod_DiversionRight();
+	added.setID ( "ADDED" );
+	added.setIrtem ( "25000.50000" );
+	ddrList.add ( added );
+	StateMod_DiversionRight removed = ddrList.remove ( 30 );
+	rerList.remove ( 40 );
+	// The lists are not checked until the component is marked dirty.
+	assertSame ( index, dataset.getRightsPriorityIndex() );
+	assertEquals ( size, index.getSize() );
+	assertTrue ( index.getRights().contains(removed) );
+	dataset.setDirty ( StateMod_DataSet.COMP_DIVERSION_RIGHTS, true );
+	assertSame ( index, dataset.getRightsPriorityIndex() );
+	assertEquals ( size - 1, index.getSize() );
+	assertFalse ( index.getRights().contains(removed) );
+	assertTrue ( index.getRights().contains(added) );
+	assertRightsSorted ( dataset, index );
+	// Explicit refresh.
+	StateMod_DiversionRight removed2 = ddrList.remove ( 0 );
+	assertSame ( index, dataset.refreshRightsPriorityIndex() );
+	assertEquals ( size - 2, index.getSize() );
+	assertFalse ( index.getRights().contains(removed2) );
+	assertRightsSorted ( dataset, index );
+}
+
+/**
+Check that the index contains the same right objects as the data set sorted by administration number,
+with rights that have the same administration number in list order (diversion rights before reservoir rights).
+*/
+private void assertRightsSorted ( StateMod_DataSet dataset, StateMod_RightsPriorityIndex index ) {
+	List<StateMod_Right> expected = new ArrayList<StateMod_Right>();
+	@SuppressWarnings("unchecked")
+	List<StateMod_Right> ddrList = (List<StateMod_Right>)dataset.getComponentForComponentType(
+		StateMod_DataSet.COMP_DIVERSION_RIGHTS).getData();
+	@SuppressWarnings("unchecked")
+	List<StateMod_Right> rerList = (List<StateMod_Right>)dataset.getComponentForComponentType(
+		StateMod_DataSet.COMP_RESERVOIR_RIGHTS).getData();
+	expected.addAll ( ddrList );
+	expected.addAll ( rerList );
+	// Stable sort so that rights with equal administration numbers stay in list order.
+	Collections.sort ( expected, new Comparator<StateMod_Right>() {
+		public int compare ( StateMod_Right r1, StateMod_Right r2 ) {
+			return Double.compare ( getAdminNumber(r1), getAdminNumber(r2) );
+		}
+	});
+	List<StateMod_Right> rights = index.getRights();
+	assertEquals ( expected.size(), rights.size() );
+	for ( int i = 0; i < rights.size(); i++ ) {
+		assertSame ( "position " + i, expected.get(i), rights.get(i) );
+	}
+}
+
+/**
+Create diversion and reservoir rights, with some equal and invalid administration numbers, and set in
+the data set.
+*/
+private void createRights ( StateMod_DataSet dataset, List<StateMod_DiversionRight> ddrList,
+	List<StateMod_ReservoirRight> rerList ) {
+	Random generator = new Random ( 19580427 );
+	for ( int i = 0; i < __RIGHTS; i++ ) {
+		StateMod_DiversionRight ddr = new StateMod_DiversionRight();
+		ddr.setID ( "D" + i );
+		ddr.setIrtem ( "" + (10000 + generator.nextInt(500)*100) + ".00000" );
+		ddrList.add ( ddr );
+		StateMod_ReservoirRight rer = new StateMod_ReservoirRight();
+		rer.setID ( "R" + i );
+		rer.setRtem ( (i == 0) ? "bad" : "" + (10000 + generator.nextInt(500)*100) + ".00000" );
+		rerList.add ( rer );
+	}
+	dataset.getComponentForComponentType(StateMod_DataSet.COMP_DIVERSION_RIGHTS).setData ( ddrList );
+	dataset.getComponentForComponentType(StateMod_DataSet.COMP_RESERVOIR_RIGHTS).setData ( rerList );
+}
+
+/**
+Return the administration number for a right, with invalid values treated as most junior.
+*/
+private static double getAdminNumber ( StateMod_Right right ) {
+	try {
+		return Double.parseDouble ( right.getAdministrationNumber() );
+	}
+	catch ( NumberFormatException e ) {
+		return Double.MAX_VALUE;
+	}
+}
+
+}
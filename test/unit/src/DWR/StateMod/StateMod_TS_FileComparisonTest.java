@@ -0,0 +1,295 @@
+package DWR.StateMod;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import RTi.TS.DayTS;
+import RTi.TS.MonthTS;
+import RTi.TS.TS;
+import RTi.Util.IO.PropList;
+import RTi.Util.Time.DateTime;
+import RTi.Util.Time.TimeInterval;
+import RTi.Util.Time.YearType;
+
+import junit.framework.TestCase;
+
+public class StateMod_TS_FileComparisonTest extends TestCase
+{
+
+private static final int __STATIONS = 20;
+
+/**
+Tolerance used for the comparison.
+*/
+private static final double __ABSOLUTE_TOLERANCE = 0.5;
+
+/**
+Files written by the tests, removed in tearDown().
+*/
+private List<File> __files = new ArrayList<File>();
+
+/**
+Remove the files written by the tests.
+*/
+protected void tearDown() throws Exception {
+	for ( File file : __files ) {
+		file.delete();
+	}
+	__files.clear();
+}
+
+/**
+Check that comparing monthly files gives the same results for each station as a sequential comparison of
+the time series read from the files, for files with different periods and stations.
+*/
+public void testCompareMonth() throws Exception {
+	checkCompare ( TimeInterval.MONTH, "1950-01", "1959-12", "1948-01", "1962-12" );
+}
+
+/**
+Check that comparing daily files gives the same results for each station as a sequential comparison of
+the time series read from the files, for files with different periods and stations.
+*/
+public void testCompareDay() throws Exception {
+	checkCompare ( TimeInterval.DAY, "1990-01-01", "1991-12-31", "1990-01-01", "1993-06-30" );
+}
+
+/**
+Check that the dates of differences in water year files are calendar year and month, using the period of
+the file that the values were read from.
+*/
+public void testFormatDateYearType() throws Exception {
+	List<TS> tslist1 = new ArrayList<TS>();
+	List<TS> tslist2 = new ArrayList<TS>();
+	Random generator = new Random ( 1 );
+	tslist1.add ( createTS(TimeInterval.MONTH, "ONLY1", DateTime.parse("1949-10"), DateTime.parse("1959-09"), generator) );
+	tslist2.add ( createTS(TimeInterval.MONTH, "ONLY2", DateTime.parse("1951-10"), DateTime.parse("1961-09"), generator) );
+	File file1 = writeFile ( tslist1, YearType.WATER );
+	File file2 = writeFile ( tslist2, YearType.WATER );
+	StateMod_TS_FileComparison comparison = new StateMod_TS_FileComparison ( file1.getPath(), file2.getPath() );
+	comparison.compare();
+	Map<String,StateMod_TS_FileComparison.StationDifference> stations = getStationMap ( comparison );
+	assertEquals ( "1949-10", stations.get("ONLY1").getMaxDifferenceDate() );
+	assertEquals ( "1951-10", stations.get("ONLY2").getMaxDifferenceDate() );
+}
+
+/**
+Check that monthly files with different year types are not compared, because the values for a station on
+a line are for different months.
+*/
+public void testCompareYearTypeDifferent() throws Exception {
+	List<TS> tslist1 = new ArrayList<TS>();
+	List<TS> tslist2 = new ArrayList<TS>();
+	Random generator = new Random ( 2 );
+	TS ts = createTS ( TimeInterval.MONTH, "S1000", DateTime.parse("1950-01"), DateTime.parse("1959-12"), generator );
+	tslist1.add ( ts );
+	tslist2.add ( ts );
+	File file1 = writeFile ( tslist1, YearType.CALENDAR );
+	File file2 = writeFile ( tslist2, YearType.WATER );
+	StateMod_TS_FileComparison comparison = new StateMod_TS_FileComparison ( file1.getPath(), file2.getPath() );
+	try {
+		comparison.compare();
+		fail ( "Files with different year types were compared." );
+	}
+	catch ( Exception e ) {
+		assertTrue ( e.getMessage(), e.getMessage().startsWith("Monthly files must have the same year type") );
+	}
+	assertEquals ( 0, comparison.getStationDifferences().size() );
+	// The same time series in files with the same year type has no differences
+	file2 = writeFile ( tslist2, YearType.CALENDAR );
+	comparison = new StateMod_TS_FileComparison ( file1.getPath(), file2.getPath() );
+	comparison.compare();
+	StateMod_TS_FileComparison.StationDifference station = getStationMap(comparison).get("S1000");
+	assertEquals ( 120, station.getValueCount() );
+	assertEquals ( 0, station.getDifferentCount() );
+	assertEquals ( station.getTotal1(), station.getTotal2(), 1.0e-6 );
+}
+
+/**
+Write two files and compare with a sequential comparison of the time series read from the files.
+The first file has stations S1000 to S1019 and ONLY1, and the second file has stations S1000 to S1019 and
+ONLY2, with some values changed and set to missing.
+*/
+private void checkCompare ( int intervalBase, String start1, String end1, String start2, String end2 )
+throws Exception {
+	Random generator = new Random ( 19580427 + intervalBase );
+	DateTime date1 = DateTime.parse ( start1 );
+	DateTime date2 = DateTime.parse ( end1 );
+	DateTime date1b = DateTime.parse ( start2 );
+	DateTime date2b = DateTime.parse ( end2 );
+	List<TS> tslist1 = new ArrayList<TS>();
+	List<TS> tslist2 = new ArrayList<TS>();
+	for ( int i = 0; i < __STATIONS; i++ ) {
+		String id = "S" + (1000 + i);
+		TS ts1 = createTS ( intervalBase, id, date1, date2, generator );
+		TS ts2 = createTS ( intervalBase, id, date1b, date2b, generator );
+		for ( DateTime date = new DateTime(date1b); date.lessThanOrEqualTo(date2b); date.addInterval(intervalBase,1) ) {
+			double value = ts1.getDataValue ( date );
+			if ( ts1.isDataMissing(value) || (generator.nextInt(10) == 0) ) {
+				// Value only in the second file or changed
+				value = generator.nextInt(100000)/100.0;
+			}
+			else if ( generator.nextInt(50) == 0 ) {
+				value = ts2.getMissing();
+			}
+			else if ( generator.nextInt(10) == 0 ) {
+				// Small change within the tolerance
+				value += 0.25;
+			}
+			ts2.setDataValue ( date, value );
+		}
+		tslist1.add ( ts1 );
+		tslist2.add ( ts2 );
+	}
+	tslist1.add ( createTS(intervalBase, "ONLY1", date1, date2, generator) );
+	tslist2.add ( createTS(intervalBase, "ONLY2", date1b, date2b, generator) );
+	File file1 = writeFile ( tslist1, YearType.CALENDAR );
+	File file2 = writeFile ( tslist2, YearType.CALENDAR );
+
+	StateMod_TS_FileComparison comparison = new StateMod_TS_FileComparison ( file1.getPath(), file2.getPath() );
+	comparison.setAbsoluteTolerance ( __ABSOLUTE_TOLERANCE );
+	comparison.compare();
+	Map<String,StateMod_TS_FileComparison.StationDifference> stations = getStationMap ( comparison );
+
+	List<TS> readList1 = StateMod_TS.readTimeSeriesList ( file1.getPath(), null, null, null, true );
+	List<TS> readList2 = StateMod_TS.readTimeSeriesList ( file2.getPath(), null, null, null, true );
+	Map<String,TS> tsMap1 = getTSMap ( readList1 );
+	Map<String,TS> tsMap2 = getTSMap ( readList2 );
+	Map<String,TS> ids = new LinkedHashMap<String,TS>(tsMap1);
+	ids.putAll ( tsMap2 );
+	assertEquals ( __STATIONS + 2, ids.size() );
+	assertEquals ( ids.keySet(), stations.keySet() );
+	DateTime start = readList1.get(0).getDate1().lessThan(readList2.get(0).getDate1()) ?
+		readList1.get(0).getDate1() : readList2.get(0).getDate1();
+	DateTime end = readList1.get(0).getDate2().greaterThan(readList2.get(0).getDate2()) ?
+		readList1.get(0).getDate2() : readList2.get(0).getDate2();
+	int differentStationCount = 0;
+	for ( String id : ids.keySet() ) {
+		TS ts1 = tsMap1.get(id);
+		TS ts2 = tsMap2.get(id);
+		StateMod_TS_FileComparison.StationDifference station = stations.get(id);
+		assertEquals ( id, ts1 != null, station.isInFile1() );
+		assertEquals ( id, ts2 != null, station.isInFile2() );
+		// Sequential comparison
+		int valueCount = 0;
+		int differentCount = 0;
+		double maxDifference = 0.0;
+		String maxDifferenceDate = null;
+		double total1 = 0.0;
+		double total2 = 0.0;
+		for ( DateTime date = new DateTime(start); date.lessThanOrEqualTo(end); date.addInterval(intervalBase,1) ) {
+			double value1 = (ts1 == null) ? Double.NaN : ts1.getDataValue(date);
+			double value2 = (ts2 == null) ? Double.NaN : ts2.getDataValue(date);
+			boolean missing1 = (ts1 == null) || ts1.isDataMissing(value1);
+			boolean missing2 = (ts2 == null) || ts2.isDataMissing(value2);
+			if ( !missing1 ) {
+				total1 += value1;
+			}
+			if ( !missing2 ) {
+				total2 += value2;
+			}
+			++valueCount;
+			if ( missing1 && missing2 ) {
+				continue;
+			}
+			if ( missing1 || missing2 ) {
+				++differentCount;
+				if ( maxDifferenceDate == null ) {
+					maxDifferenceDate = date.toString();
+				}
+				continue;
+			}
+			double difference = Math.abs ( value1 - value2 );
+			if ( difference > __ABSOLUTE_TOLERANCE ) {
+				++differentCount;
+				if ( (difference > maxDifference) || (maxDifferenceDate == null) ) {
+					maxDifference = Math.max ( difference, maxDifference );
+					maxDifferenceDate = date.toString();
+				}
+			}
+		}
+		assertEquals ( id, valueCount, station.getValueCount() );
+		assertEquals ( id, differentCount, station.getDifferentCount() );
+		assertEquals ( id, maxDifference, station.getMaxDifference(), 1.0e-6 );
+		assertEquals ( id, maxDifferenceDate, station.getMaxDifferenceDate() );
+		assertEquals ( id, total1, station.getTotal1(), 1.0e-6 );
+		assertEquals ( id, total2, station.getTotal2(), 1.0e-6 );
+		if ( differentCount > 0 ) {
+			++differentStationCount;
+		}
+	}
+	assertTrue ( differentStationCount > 2 );
+}
+
+/**
+Create a time series with random values.
+*/
+private TS createTS ( int intervalBase, String id, DateTime date1, DateTime date2, Random generator )
+throws Exception {
+	TS ts = null;
+	if ( intervalBase == TimeInterval.DAY ) {
+		ts = new DayTS();
+		ts.setIdentifier ( id + ".StateMod.Diversion.Day" );
+		ts.setDataUnits ( "CFS" );
+	}
+	else {
+		ts = new MonthTS();
+		ts.setIdentifier ( id + ".StateMod.Diversion.Month" );
+		ts.setDataUnits ( "ACFT" );
+	}
+	ts.setDate1 ( date1 );
+	ts.setDate2 ( date2 );
+	if ( ts instanceof DayTS ) {
+		((DayTS)ts).allocateDataSpace ( 0.0 );
+	}
+	else {
+		((MonthTS)ts).allocateDataSpace ( 0.0 );
+	}
+	for ( DateTime date = new DateTime(date1); date.lessThanOrEqualTo(date2); date.addInterval(intervalBase,1) ) {
+		ts.setDataValue ( date, generator.nextInt(100000)/100.0 );
+	}
+	return ts;
+}
+
+/**
+Return the results of a comparison by station identifier.
+*/
+private Map<String,StateMod_TS_FileComparison.StationDifference> getStationMap (
+	StateMod_TS_FileComparison comparison ) {
+	Map<String,StateMod_TS_FileComparison.StationDifference> stations =
+		new LinkedHashMap<String,StateMod_TS_FileComparison.StationDifference>();
+	for ( StateMod_TS_FileComparison.StationDifference station : comparison.getStationDifferences() ) {
+		stations.put ( station.getID(), station );
+	}
+	return stations;
+}
+
+/**
+Return time series by location identifier.
+*/
+private Map<String,TS> getTSMap ( List<TS> tslist ) {
+	Map<String,TS> tsMap = new LinkedHashMap<String,TS>();
+	for ( TS ts : tslist ) {
+		tsMap.put ( ts.getLocation(), ts );
+	}
+	return tsMap;
+}
+
+/**
+Write time series to a temporary StateMod file that is removed in tearDown().
+*/
+private File writeFile ( List<TS> tslist, YearType yearType ) throws Exception {
+	File file = File.createTempFile ( "StateMod_TS_FileComparisonTest", ".stm" );
+	__files.add ( file );
+	PropList props = new PropList ( "StateMod_TS" );
+	props.set ( "OutputFile", file.getAbsolutePath() );
+	props.set ( "CalendarType", "" + yearType );
+	StateMod_TS.writeTimeSeriesList ( tslist, props );
+	return file;
+}
+
+}
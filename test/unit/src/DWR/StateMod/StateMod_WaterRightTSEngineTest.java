@@ -0,0 +1,189 @@
+package DWR.StateMod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import RTi.TS.DayTS;
+import RTi.TS.MonthTS;
+import RTi.TS.TS;
+import RTi.TS.TSUtil;
+import RTi.TS.YearTS;
+import RTi.Util.Time.DateTime;
+import RTi.Util.Time.TimeInterval;
+
+import junit.framework.TestCase;
+
+public class StateMod_WaterRightTSEngineTest extends TestCase
+{
+
+private static final int __TS_COUNT = 20;
+private static final int __DECREES_PER_TS = 40;
+
+/**
+Check that filling daily time series gives the same result as adding each decree with TSUtil.addConstant().
+*/
+public void testFillDay() throws Exception {
+	checkFill ( TimeInterval.DAY, "1990-01-01", "1999-12-31" );
+}
+
+/**
+Check that filling monthly time series gives the same result as adding each decree with TSUtil.addConstant().
+*/
+public void testFillMonth() throws Exception {
+	checkFill ( TimeInterval.MONTH, "1950-01", "2020-12" );
+}
+
+/**
+Check that filling yearly time series gives the same result as adding each decree with TSUtil.addConstant().
+*/
+public void testFillYear() throws Exception {
+	checkFill ( TimeInterval.YEAR, "1900", "2020" );
+}
+
+/**
+Check that location totals created by StateMod_Util.createWaterRightTimeSeriesList() are the same as adding
+the decree for each right with TSUtil.addConstant(), as was previously done for each right, and that filling
+in parallel gives the same result.
+*/
+public void testCreateWaterRightTimeSeriesList() throws Exception {
+	Random generator = new Random ( 20070516 );
+	List<StateMod_DiversionRight> rights = new ArrayList<StateMod_DiversionRight>();
+	for ( int i = 0; i < 50; i++ ) {
+		String id = "D" + (i % 10);
+		StateMod_DiversionRight right = new StateMod_DiversionRight();
+		right.setID ( id + "." + (i/10 + 1) );
+		right.setName ( id );
+		right.setCgoto ( id );
+		right.setIrtem ( "" + (20000 + generator.nextInt(30000)) + "." + (10000 + generator.nextInt(90000)) );
+		right.setDcrdiv ( 0.5 + generator.nextInt(200)/10.0 );
+		right.setSwitch ( 1 );
+		rights.add ( right );
+	}
+	DateTime start = DateTime.parse ( "1950-01" );
+	DateTime end = DateTime.parse ( "2020-12" );
+	List<TS> tslist = StateMod_Util.createWaterRightTimeSeriesList ( rights, TimeInterval.MONTH, 0, -1, false,
+		start, end, 99999.99999, null, null, true, false );
+	List<TS> tslist2 = StateMod_Util.createWaterRightTimeSeriesList ( rights, TimeInterval.MONTH, 0, -1, false,
+		start, end, 99999.99999, null, null, true, true );
+	assertEquals ( 10, tslist.size() );
+	assertEquals ( tslist.size(), tslist2.size() );
+	for ( int its = 0; its < tslist.size(); its++ ) {
+		TS ts = tslist.get(its);
+		MonthTS expected = new MonthTS();
+		expected.setDate1 ( ts.getDate1() );
+		expected.setDate2 ( ts.getDate2() );
+		expected.allocateDataSpace ( 0.0 );
+		for ( StateMod_DiversionRight right : rights ) {
+			if ( right.getCgoto().equalsIgnoreCase(ts.getLocation()) ) {
+				StateMod_AdministrationNumber adminnum =
+					new StateMod_AdministrationNumber ( Double.parseDouble(right.getIrtem()) );
+				TSUtil.addConstant ( expected, new DateTime(adminnum.getAppropriationDate()), expected.getDate2(), -1,
+					right.getDcrdiv(), TSUtil.IGNORE_MISSING );
+			}
+		}
+		assertTSEqual ( expected, ts, TimeInterval.MONTH );
+		assertTSEqual ( expected, tslist2.get(its), TimeInterval.MONTH );
+	}
+}
+
+/**
+Compare two time series over the period of the first.
+*/
+private void assertTSEqual ( TS expected, TS ts, int intervalBase ) {
+	assertEquals ( expected.getDate1(), ts.getDate1() );
+	assertEquals ( expected.getDate2(), ts.getDate2() );
+	for ( DateTime date = new DateTime(expected.getDate1()); date.lessThanOrEqualTo(expected.getDate2());
+		date.addInterval(intervalBase,1) ) {
+		assertEquals ( date.toString(), expected.getDataValue(date), ts.getDataValue(date), 1.0e-8 );
+	}
+}
+
+/**
+Fill time series with random decrees, including decrees before and after the period and time series with
+missing values, and compare with TSUtil.addConstant() using TSUtil.IGNORE_MISSING.
+*/
+private void checkFill ( int intervalBase, String start, String end ) throws Exception {
+	Random generator = new Random ( 19580427 + intervalBase );
+	DateTime date1 = DateTime.parse ( start );
+	DateTime date2 = DateTime.parse ( end );
+	StateMod_WaterRightTSEngine engine = new StateMod_WaterRightTSEngine ( intervalBase );
+	StateMod_WaterRightTSEngine engine2 = new StateMod_WaterRightTSEngine ( intervalBase );
+	List<TS> expectedList = new ArrayList<TS>();
+	List<TS> tslist = new ArrayList<TS>();
+	List<TS> tslist2 = new ArrayList<TS>();
+	for ( int its = 0; its < __TS_COUNT; its++ ) {
+		TS expected = createTS ( intervalBase, date1, date2 );
+		TS ts = createTS ( intervalBase, date1, date2 );
+		TS ts2 = createTS ( intervalBase, date1, date2 );
+		if ( its % 5 == 0 ) {
+			// Set a missing value, which should not be changed.
+			DateTime missingDate = new DateTime ( date1 );
+			missingDate.addInterval ( intervalBase, 3 + its );
+			expected.setDataValue ( missingDate, expected.getMissing() );
+			ts.setDataValue ( missingDate, ts.getMissing() );
+			ts2.setDataValue ( missingDate, ts2.getMissing() );
+		}
+		for ( int i = 0; i < __DECREES_PER_TS; i++ ) {
+			// Start from before the period to after the period
+			DateTime decreeDate = new DateTime ( date1 );
+			decreeDate.addInterval ( intervalBase, -5 );
+			decreeDate.addInterval ( intervalBase, generator.nextInt(getIntervalCount(intervalBase, date1, date2) + 10) );
+			double decree = generator.nextInt(2000)/100.0;
+			TSUtil.addConstant ( expected, decreeDate, expected.getDate2(), -1, decree, TSUtil.IGNORE_MISSING );
+			engine.addDecree ( ts, decreeDate, decree );
+			engine2.addDecree ( ts2, decreeDate, decree );
+		}
+		expectedList.add ( expected );
+		tslist.add ( ts );
+		tslist2.add ( ts2 );
+	}
+	assertEquals ( __TS_COUNT, engine.getTimeSeriesCount() );
+	engine.fill ( false );
+	engine2.fill ( true );
+	for ( int its = 0; its < __TS_COUNT; its++ ) {
+		assertTSEqual ( expectedList.get(its), tslist.get(its), intervalBase );
+		assertTSEqual ( expectedList.get(its), tslist2.get(its), intervalBase );
+	}
+}
+
+/**
+Create a time series filled with zero.
+*/
+private TS createTS ( int intervalBase, DateTime date1, DateTime date2 ) {
+	TS ts = null;
+	if ( intervalBase == TimeInterval.DAY ) {
+		ts = new DayTS();
+	}
+	else if ( intervalBase == TimeInterval.MONTH ) {
+		ts = new MonthTS();
+	}
+	else {
+		ts = new YearTS();
+	}
+	ts.setDate1 ( date1 );
+	ts.setDate2 ( date2 );
+	if ( ts instanceof DayTS ) {
+		((DayTS)ts).allocateDataSpace ( 0.0 );
+	}
+	else if ( ts instanceof MonthTS ) {
+		((MonthTS)ts).allocateDataSpace ( 0.0 );
+	}
+	else {
+		((YearTS)ts).allocateDataSpace ( 0.0 );
+	}
+	return ts;
+}
+
+/**
+Return the number of intervals in a period.
+*/
+private int getIntervalCount ( int intervalBase, DateTime date1, DateTime date2 ) {
+	int count = 0;
+	for ( DateTime date = new DateTime(date1); date.lessThanOrEqualTo(date2); date.addInterval(intervalBase,1) ) {
+		++count;
+	}
+	return count;
+}
+
+}